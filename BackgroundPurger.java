@@ -0,0 +1,156 @@
+import java.io.Closeable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * The BackgroundPurger class removes purchased items from an Inventory in the
+ * background, a bounded chunk at a time, so that the registers and other users
+ * of the inventory are never held up by a large purge.
+ *
+ * Every period, the purger takes the lock shared with the other users of the
+ * inventory, removes at most one chunk of purchased items with
+ * Inventory.removePurchased, and lets go of the lock. While purchased items
+ * remain, the next chunk follows after a short pause instead of a full period,
+ * so a day's sales are cleared quickly without any one chunk holding the lock
+ * for long. With no lock, as for ConcurrentItemList, the chunks run without
+ * one. The number of items removed, the number of chunks and the longest time
+ * the lock was held are kept.
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public class BackgroundPurger implements Closeable {
+
+    private final Inventory inventory; // The inventory purged
+    private final Lock lock; // Held while a chunk is removed, or null
+    private final int chunkSize;
+    private final long periodMillis;
+    private final long pauseMillis;
+    private final ScheduledThreadPoolExecutor scheduler;
+
+    private final AtomicLong removed = new AtomicLong(); // Items removed
+    private final AtomicLong chunks = new AtomicLong(); // Chunks that removed at least one item
+    private final AtomicLong longestHoldNanos = new AtomicLong(); // Longest single chunk
+
+    /**
+     * Constructs a purger for the given inventory and starts it.
+     *
+     * @param inventory    the inventory to purge
+     * @param lock         the lock the other users of the inventory hold while
+     *                     using it, or null if the inventory is thread-safe
+     * @param chunkSize    the most items removed while the lock is held once
+     * @param periodMillis how often to look for purchased items, in
+     *                     milliseconds
+     * @param pauseMillis  how long to let go of the lock between chunks while
+     *                     purchased items remain, in milliseconds
+     */
+    public BackgroundPurger(Inventory inventory, Lock lock, int chunkSize, long periodMillis, long pauseMillis) {
+        if (chunkSize < 1)
+            throw new IllegalArgumentException("The chunk size should be at least 1");
+        this.inventory = inventory;
+        this.lock = lock;
+        this.chunkSize = chunkSize;
+        this.periodMillis = periodMillis;
+        this.pauseMillis = pauseMillis;
+        this.scheduler = new ScheduledThreadPoolExecutor(1, task -> {
+            Thread thread = new Thread(task, "background-purger");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        this.scheduler.schedule(this::purgeChunk, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Constructs a purger that removes up to 1024 items at a time with a one
+     * millisecond pause between chunks.
+     *
+     * @param inventory    the inventory to purge
+     * @param lock         the lock the other users of the inventory hold while
+     *                     using it, or null if the inventory is thread-safe
+     * @param periodMillis how often to look for purchased items, in
+     *                     milliseconds
+     */
+    public BackgroundPurger(Inventory inventory, Lock lock, long periodMillis) {
+        this(inventory, lock, 1024, periodMillis, 1);
+    }
+
+    /**
+     * Removes one chunk under the lock, then schedules the next one.
+     */
+    private void purgeChunk() {
+        int count = 0;
+        try {
+            if (lock != null)
+                lock.lock();
+            long start = System.nanoTime();
+            try {
+                count = inventory.removePurchased(chunkSize, item -> {
+                });
+            } finally {
+                long held = System.nanoTime() - start;
+                if (lock != null)
+                    lock.unlock();
+                longestHoldNanos.accumulateAndGet(held, Math::max);
+            }
+        } catch (RuntimeException e) {
+            count = 0; // Try again next period
+        }
+
+        if (count > 0) {
+            removed.addAndGet(count);
+            chunks.incrementAndGet();
+        }
+        try {
+            scheduler.schedule(this::purgeChunk, count == chunkSize ? pauseMillis : periodMillis,
+                    TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Closed while the chunk was removed
+        }
+    }
+
+    /**
+     * Stops the purger, waiting for a chunk being removed to finish.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Gets the number of items removed so far.
+     *
+     * @return the number of items removed
+     */
+    public long getRemoved() {
+        return removed.get();
+    }
+
+    /**
+     * Gets the number of chunks that removed at least one item.
+     *
+     * @return the number of chunks
+     */
+    public long getChunks() {
+        return chunks.get();
+    }
+
+    /**
+     * Gets the longest time a single chunk took, which is the longest the lock
+     * was held by the purger.
+     *
+     * @return the longest chunk, in nanoseconds
+     */
+    public long getLongestHoldNanos() {
+        return longestHoldNanos.get();
+    }
+}
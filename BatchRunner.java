@@ -0,0 +1,164 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The BatchRunner class runs a file of commands against an Inventory without
+ * the interactive menu, for scripted runs and for replaying a day's
+ * operations. The commands are those of CommandDispatcher, one per line, and
+ * may use the menu letters; blank lines and lines starting with "#" are
+ * skipped. The responses go to one writer, which the caller should give a
+ * large buffer, and are never flushed line by line.
+ *
+ * Runs of consecutive INSERT commands are checked one by one, answered in
+ * order, and then added in one bulk load, which is much faster than inserting
+ * the items one at a time.
+ *
+ * The time spent on each verb is recorded, and printTimings reports it.
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public class BatchRunner {
+
+    private static final int MAX_PENDING_INSERTS = 1 << 20;
+    private static final String BULK_INSERT = "INSERT (bulk load)";
+
+    private Inventory inventory; // The inventory the commands run on
+    private CommandDispatcher dispatcher; // Runs every command but INSERT
+    private InventoryMetrics metrics; // Counts the commands that failed, or null
+    private ArrayList<ItemInfo> pendingInserts; // Checked inserts not yet loaded
+    private LinkedHashMap<String, long[]> timings; // Verb -> {count, total ns, max ns}
+    private long commands; // Commands run
+    private long elapsedNanos; // Time spent running them
+
+    /**
+     * Constructs a BatchRunner for the given inventory.
+     *
+     * @param inventory the inventory to run the commands on
+     */
+    public BatchRunner(Inventory inventory) {
+        this.inventory = inventory;
+        this.dispatcher = new CommandDispatcher(inventory, true); // Only this thread runs commands
+        this.dispatcher.allowAnyFile(); // The operator wrote the batch file
+        this.pendingInserts = new ArrayList<>();
+        this.timings = new LinkedHashMap<>();
+    }
+
+    /**
+     * Runs every command read from the given reader, up to the end or a QUIT,
+     * writing the responses to the given writer. The writer is flushed at the
+     * end.
+     *
+     * @param in  the commands
+     * @param out where the responses are written
+     * @throws IOException if the commands cannot be read or the responses
+     *                     written
+     */
+    public void run(BufferedReader in, Writer out) throws IOException {
+        long start = System.nanoTime();
+        String line;
+        boolean more = true;
+        while (more && (line = in.readLine()) != null) {
+            String verb = CommandDispatcher.verbOf(line);
+            if (verb.isEmpty() || verb.startsWith("#"))
+                continue;
+
+            long began = System.nanoTime();
+            if (verb.equals("INSERT")) {
+                try {
+                    pendingInserts.add(CommandDispatcher.parseInsert(CommandDispatcher.argumentsOf(line)));
+                    out.write("OK\n");
+                } catch (Exception e) {
+                    if (metrics != null)
+                        metrics.countError(e);
+                    out.write(CommandDispatcher.errorResponse(e));
+                }
+                record(verb, System.nanoTime() - began);
+                if (pendingInserts.size() >= MAX_PENDING_INSERTS)
+                    loadPendingInserts();
+            } else {
+                loadPendingInserts();
+                began = System.nanoTime();
+                more = dispatcher.execute(line, out);
+                record(verb, System.nanoTime() - began);
+            }
+            commands++;
+        }
+        loadPendingInserts();
+        out.flush();
+        elapsedNanos += System.nanoTime() - start;
+    }
+
+    /**
+     * Counts every command that fails from now on in the given metrics, by the
+     * kind of exception that failed it.
+     *
+     * @param metrics the metrics to count failed commands in, or null to stop
+     *                counting them
+     */
+    public void countErrorsIn(InventoryMetrics metrics) {
+        this.metrics = metrics;
+        dispatcher.countErrorsIn(metrics);
+    }
+
+    /**
+     * Makes SNAPSHOT to the given file checkpoint a JournaledInventory; see
+     * CommandDispatcher.checkpointTo.
+     *
+     * @param snapshot the snapshot a restart reads, or null if there is none
+     */
+    public void checkpointTo(Path snapshot) {
+        dispatcher.checkpointTo(snapshot);
+    }
+
+    private void loadPendingInserts() {
+        if (pendingInserts.isEmpty())
+            return;
+        long began = System.nanoTime();
+        inventory.bulkLoad(pendingInserts);
+        record(BULK_INSERT, System.nanoTime() - began);
+        pendingInserts = new ArrayList<>();
+    }
+
+    private void record(String verb, long nanos) {
+        long[] timing = timings.computeIfAbsent(verb, key -> new long[3]);
+        timing[0]++;
+        timing[1] += nanos;
+        timing[2] = Math.max(timing[2], nanos);
+    }
+
+    /**
+     * Gets the number of commands run so far.
+     *
+     * @return the number of commands
+     */
+    public long getCommands() {
+        return commands;
+    }
+
+    /**
+     * Prints how many times each verb ran, and the total, mean and longest time
+     * it took, followed by the overall rate.
+     *
+     * @param report where the timings are printed
+     */
+    public void printTimings(PrintStream report) {
+        report.println(String.format("%-20s%12s%14s%12s%12s", "Command", "Count", "Total ms", "Mean us",
+                "Max us"));
+        for (Map.Entry<String, long[]> entry : timings.entrySet()) {
+            long[] timing = entry.getValue();
+            report.println(String.format("%-20s%12d%14.1f%12.2f%12.1f", entry.getKey(), timing[0],
+                    timing[1] / 1e6, timing[1] / 1e3 / timing[0], timing[2] / 1e3));
+        }
+        double seconds = elapsedNanos / 1e9;
+        report.println(String.format("%d command(s) in %.2f s: %.0f commands/s", commands, seconds,
+                commands / Math.max(seconds, 1e-9)));
+    }
+}
@@ -0,0 +1,82 @@
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The CartSessions class keeps a running tally for every cart: how many items
+ * are in it and their total price in cents. An Inventory tells it whenever an
+ * item enters or leaves a cart, so the size and total of a cart are known at
+ * any moment without looking at its items, and a checkout adds up exact whole
+ * cents rather than doubles.
+ *
+ * Locations that are not carts are ignored, so an Inventory can pass every
+ * location change through. The tallies are atomic, so threads may update
+ * different items at once; a reader running at the same time as a change may
+ * see the new count with the old total, or the other way round.
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public class CartSessions {
+
+    private final AtomicIntegerArray counts; // Cart number -> items in the cart
+    private final AtomicLongArray totals; // Cart number -> their total price in cents
+
+    /**
+     * Constructs a CartSessions object with every cart empty.
+     */
+    public CartSessions() {
+        counts = new AtomicIntegerArray(LocationCodec.CART_COUNT);
+        totals = new AtomicLongArray(LocationCodec.CART_COUNT);
+    }
+
+    /**
+     * Counts an item going into the given location, if it is a cart.
+     * Analysis of Complexity:
+     * O(1).
+     *
+     * @param code  the location code the item is now at
+     * @param cents the price of the item in cents
+     */
+    public void enter(int code, long cents) {
+        if (LocationCodec.isCart(code)) {
+            counts.incrementAndGet(code - LocationCodec.CART_BASE);
+            totals.addAndGet(code - LocationCodec.CART_BASE, cents);
+        }
+    }
+
+    /**
+     * Counts an item leaving the given location, if it is a cart.
+     * Analysis of Complexity:
+     * O(1).
+     *
+     * @param code  the location code the item was at
+     * @param cents the price of the item in cents
+     */
+    public void leave(int code, long cents) {
+        if (LocationCodec.isCart(code)) {
+            counts.decrementAndGet(code - LocationCodec.CART_BASE);
+            totals.addAndGet(code - LocationCodec.CART_BASE, -cents);
+        }
+    }
+
+    /**
+     * Gets the number of items in a cart.
+     *
+     * @param code the location code of the cart
+     * @return the number of items in it, or 0 if the code is not a cart
+     */
+    public int countIn(int code) {
+        return LocationCodec.isCart(code) ? counts.get(code - LocationCodec.CART_BASE) : 0;
+    }
+
+    /**
+     * Gets the total price of the items in a cart.
+     *
+     * @param code the location code of the cart
+     * @return the total in cents, or 0 if the code is not a cart
+     */
+    public long totalCentsIn(int code) {
+        return LocationCodec.isCart(code) ? totals.get(code - LocationCodec.CART_BASE) : 0;
+    }
+}
@@ -0,0 +1,663 @@
+import java.io.CharArrayWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * The CommandDispatcher class runs the text commands of the inventory line
+ * protocol against an Inventory and writes the responses. InventoryServer uses
+ * it for every connection, so the same commands and error handling apply to
+ * every client.
+ *
+ * A command is one line: a verb followed by its arguments, separated by
+ * spaces. The item name comes last in INSERT, so it may contain spaces.
+ *
+ * INSERT rfid location price name, MOVE rfid source dest, SEEN rfid location,
+ * LIST location, RFID rfid, RANGE first last, PREFIX digits, FIND words,
+ * FUZZY edits words, ALL,
+ * CHECKOUT cart, TOTAL cart, CLEAN, PURGE [max], LOAD manifest, SNAPSHOT file,
+ * REPORT format [all|location] [offset [limit]], MISPLACED,
+ * VALUE first last [shelvesPerAisle], COUNT, PING and QUIT. The DepartmentStore
+ * menu letters can be used in place of the verbs they match (B, C, E, I, L, M,
+ * N, O, P, R, S, T, U, V and Q), with the same arguments as the verb.
+ *
+ * Each response is zero or more item lines, "ITEM" followed by the name, RFID,
+ * original location, current location and price, separated by tabs, then one
+ * status line: "OK", possibly followed by a result, or "ERR" followed by the
+ * reason. A tab, line break or backslash in a name is written as "\t", "\n",
+ * "\r" or "\\", so an item line always has its six fields. REPORT writes a
+ * ReportWriter report in place of the item lines, and answers "OK rows" and
+ * the number of rows written. MISPLACED answers one
+ * "AT" line per location holding misplaced items, with the location and the
+ * count, then "OK" and the total. CHECKOUT answers "OK" and the total of the
+ * cart, and TOTAL answers "OK", the number of items in the cart and their
+ * total, without checking it out. RANGE and PREFIX write the items whose tags
+ * lie in the range, or start with the digits, and answer "OK" and their
+ * number; a range bound shorter than a tag is taken as a prefix. FIND writes
+ * the items whose names hold every word, the last one as a prefix, and FUZZY
+ * the same allowing each word up to the given number of edits; both write at
+ * most 100 items and answer "OK" and their number. VALUE answers "OK", the number of items on
+ * the shelves from first to last and their total; given the shelves per
+ * aisle, it first writes one "AISLE" line per aisle in the range holding
+ * items, with its first and last shelf, count and total. PURGE with a number removes at most that
+ * many purchased items and answers "OK" and the number removed. A bad
+ * request only gets an ERR line; the connection carries on.
+ *
+ * LOAD and SNAPSHOT read and write files on the machine running the
+ * dispatcher, so they are refused unless allowed: allowAnyFile lets them use
+ * any path, for a batch file the operator wrote, and allowFilesIn lets them
+ * use only relative paths without ".." inside one directory, for a server
+ * that clients reach over the network. SNAPSHOT checkpoints a journaled
+ * inventory, emptying its journal, only when the file is the one set with
+ * checkpointTo, the snapshot a restart reads; any other file just gets a
+ * copy of the items, and the journal is left as it is.
+ *
+ * Commands are run one at a time, under a lock, unless the dispatcher is told
+ * that the inventory is thread-safe. Under the dispatcher's lock the response
+ * is collected in memory and written once the lock is released, so a slow
+ * client does not hold up the others, but only up to 64K characters: past
+ * that, a listing like ALL, LIST or REPORT is written as it is read, with the
+ * lock held, rather than held in memory whole. The items of CHECKOUT, CLEAN
+ * and PURGE, which the inventory may pass on while it holds its own locks,
+ * are always collected first, however many there are. Listings on a
+ * thread-safe inventory are written as they are read.
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public class CommandDispatcher {
+
+    private static final Map<String, String> MENU_LETTERS = Map.ofEntries(
+            Map.entry("B", "LOAD"), Map.entry("C", "CLEAN"), Map.entry("E", "SEEN"), Map.entry("I", "INSERT"),
+            Map.entry("L", "LIST"), Map.entry("M", "MOVE"), Map.entry("N", "FIND"),
+            Map.entry("O", "CHECKOUT"), Map.entry("P", "ALL"),
+            Map.entry("R", "RFID"), Map.entry("S", "SNAPSHOT"), Map.entry("T", "TOTAL"), Map.entry("U", "PURGE"),
+            Map.entry("V", "VALUE"), Map.entry("Q", "QUIT"));
+
+    private static final int SEARCH_LIMIT = 100; // The most items FIND and FUZZY write
+    private static final int MAX_HELD_CHARS = 64 * 1024; // Held back under the lock before writing through
+    private static final Set<String> CHANGES = Set.of("CHECKOUT", "CLEAN", "PURGE"); // Verbs that list what they change
+
+    private final Inventory inventory; // The inventory the commands run on
+    private final ReentrantLock lock; // Serializes commands, or null if the inventory is thread-safe
+    private InventoryMetrics metrics; // Counts the commands that failed, or null
+    private boolean anyFile; // LOAD and SNAPSHOT may use any path
+    private Path fileDirectory; // Or only paths inside this directory, or none if null
+    private Path checkpointFile; // The snapshot a restart reads, or null
+
+    /**
+     * Constructs a dispatcher for the given inventory.
+     *
+     * @param inventory  the inventory to run the commands on
+     * @param threadSafe true if the inventory can be used by many threads at
+     *                   once, like ConcurrentItemList; false to run one command
+     *                   at a time
+     */
+    public CommandDispatcher(Inventory inventory, boolean threadSafe) {
+        this.inventory = inventory;
+        this.lock = threadSafe ? null : new ReentrantLock();
+    }
+
+    /**
+     * Gets the lock commands run under, so that other work on the inventory,
+     * like a BackgroundPurger, can take turns with them.
+     *
+     * @return the lock, or null if the inventory is thread-safe
+     */
+    public Lock getLock() {
+        return lock;
+    }
+
+    /**
+     * Lets LOAD and SNAPSHOT read and write files at any path the process can
+     * reach. Only for commands from a trusted source, like a batch file.
+     */
+    public void allowAnyFile() {
+        this.anyFile = true;
+    }
+
+    /**
+     * Lets LOAD and SNAPSHOT read and write the files inside the given
+     * directory only. Their paths must be relative and may not contain "..".
+     *
+     * @param directory the directory the files are in
+     */
+    public void allowFilesIn(Path directory) {
+        this.fileDirectory = directory.toAbsolutePath().normalize();
+    }
+
+    /**
+     * Makes SNAPSHOT to the given file checkpoint a JournaledInventory,
+     * emptying its journal, since the file is the snapshot a restart reads.
+     * A SNAPSHOT to any other file leaves the journal as it is.
+     *
+     * @param snapshot the snapshot a restart reads, or null if there is none
+     */
+    public void checkpointTo(Path snapshot) {
+        this.checkpointFile = snapshot == null ? null : snapshot.toAbsolutePath().normalize();
+    }
+
+    /**
+     * Counts every command that fails from now on in the given metrics, by the
+     * kind of exception that failed it.
+     *
+     * @param metrics the metrics to count failed commands in, or null to stop
+     *                counting them
+     */
+    public void countErrorsIn(InventoryMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Runs one command line and writes its response. The writer is not
+     * flushed.
+     *
+     * @param line the command line
+     * @param out  where the response is written
+     * @return false if the command was QUIT, true otherwise
+     * @throws IOException if the response cannot be written
+     */
+    public boolean execute(String line, Writer out) throws IOException {
+        String verb = verbOf(line);
+        if (verb.isEmpty())
+            return true;
+
+        String rest = argumentsOf(line);
+        if (verb.equals("QUIT")) {
+            out.write("OK bye\n");
+            return false;
+        }
+
+        boolean changes = CHANGES.contains(verb);
+        HeldResponse held = lock != null || changes
+                ? new HeldResponse(out, changes ? Integer.MAX_VALUE : MAX_HELD_CHARS) : null;
+        Writer response = held != null ? held : out;
+        String status;
+        if (lock != null)
+            lock.lock();
+        try {
+            String result = run(verb, rest, item -> writeItem(response, item), response);
+            status = result == null ? "OK\n" : "OK " + result + "\n";
+        } catch (ResponseFailure e) {
+            throw e.getCause();
+        } catch (Exception e) {
+            if (metrics != null)
+                metrics.countError(e);
+            status = errorResponse(e);
+        } finally {
+            if (lock != null)
+                lock.unlock();
+        }
+        if (held != null)
+            held.release(); // Only now, with no lock held
+        out.write(status);
+        return true;
+    }
+
+    /**
+     * Builds the ERR line answering a command that failed. Validation errors
+     * give just their message; anything else also names the exception.
+     *
+     * @param e why the command failed
+     * @return the ERR line, with its line break
+     */
+    public static String errorResponse(Exception e) {
+        if (e instanceof IllegalLocationException || e instanceof IllegalRFidTagNumberException
+                || e instanceof IllegalArgumentException)
+            return "ERR " + e.getMessage() + "\n";
+        return "ERR " + e.getClass().getSimpleName() + ": " + e.getMessage() + "\n";
+    }
+
+    /**
+     * Gets the verb of a command line, in upper case, with a menu letter
+     * replaced by the verb it stands for.
+     *
+     * @param line the command line
+     * @return the verb, or an empty string if the line is blank
+     */
+    public static String verbOf(String line) {
+        String command = line.trim();
+        int space = command.indexOf(' ');
+        String verb = (space < 0 ? command : command.substring(0, space)).toUpperCase(Locale.ROOT);
+        return MENU_LETTERS.getOrDefault(verb, verb);
+    }
+
+    /**
+     * Gets the arguments of a command line: everything after the verb.
+     *
+     * @param line the command line
+     * @return the arguments, trimmed, or an empty string if there are none
+     */
+    public static String argumentsOf(String line) {
+        String command = line.trim();
+        int space = command.indexOf(' ');
+        return space < 0 ? "" : command.substring(space + 1).trim();
+    }
+
+    /**
+     * Parses the arguments of an INSERT command into the item to insert.
+     *
+     * @param arguments the RFID, location, price and name
+     * @return the item, placed at its original location
+     * @throws Exception if the RFID tag number or location format is incorrect,
+     *                   or the arguments are missing
+     */
+    public static ItemInfo parseInsert(String arguments) throws Exception {
+        String[] fields = arguments.split("\\s+", 4);
+        if (fields.length < 4)
+            throw new IllegalArgumentException("Usage: INSERT rfid location price name");
+        return new ItemInfo(fields[3], parsePrice(fields[2]), fields[0], fields[1]);
+    }
+
+    /**
+     * Runs a command, passing the items it lists to the given action; REPORT
+     * writes its report straight to the response.
+     *
+     * @return the result to put after "OK", or null for none
+     */
+    private String run(String verb, String rest, Consumer<ItemInfo> items, Writer out) throws Exception {
+        String[] args = rest.isEmpty() ? new String[0] : rest.split("\\s+");
+        switch (verb) {
+            case "INSERT": {
+                ItemInfo info = parseInsert(rest);
+                inventory.insertInfo(info.getItemName(), info.getRfidTagNumber(), info.getItemPrice(),
+                        info.getOriginalLocation());
+                return null;
+            }
+            case "MOVE": {
+                expect(args, 3, "MOVE rfid source dest");
+                if (!inventory.containsRFID(args[0]))
+                    throw new IllegalArgumentException("There is no item with the given RFID!");
+                if (LocationCodec.encode(args[1]) == LocationCodec.OUT
+                        || LocationCodec.encode(args[2]) == LocationCodec.OUT)
+                    throw new IllegalArgumentException("The item is no longer in the store!");
+                if (!ItemInfo.checkLocationFormat(args[2]))
+                    throw new IllegalLocationException("The destination location has incorrect format!");
+                if (!inventory.moveItem(args[0], args[1], args[2]))
+                    throw new IllegalArgumentException("There is no item with RFID " + args[0] + " at " + args[1]);
+                return null;
+            }
+            case "SEEN":
+                expect(args, 2, "SEEN rfid location");
+                return inventory.updateLocation(args[0], args[1]) ? "moved" : "unchanged";
+            case "LIST":
+                expect(args, 1, "LIST location");
+                if (!ItemInfo.checkLocationFormat(args[0]))
+                    throw new IllegalLocationException("The location has incorrect format!");
+                inventory.forEachAt(args[0], items);
+                return null;
+            case "RFID":
+                expect(args, 1, "RFID rfid");
+                if (!inventory.forEachWithRFID(args[0], items))
+                    throw new IllegalArgumentException("Item with RFID " + args[0] + " not found.");
+                return null;
+            case "RANGE":
+                expect(args, 2, "RANGE first last");
+                checkTagBound(args[0]);
+                checkTagBound(args[1]);
+                return Integer.toString(inventory.forEachInTagRange(args[0], args[1], items));
+            case "PREFIX":
+                expect(args, 1, "PREFIX digits");
+                checkTagBound(args[0]);
+                return Integer.toString(inventory.forEachWithTagPrefix(args[0], items));
+            case "FIND":
+                if (args.length == 0)
+                    throw new IllegalArgumentException("Usage: FIND words");
+                return Integer.toString(inventory.searchByName(rest, 0, SEARCH_LIMIT, items));
+            case "FUZZY": {
+                if (args.length < 2)
+                    throw new IllegalArgumentException("Usage: FUZZY edits words");
+                int edits = Integer.parseInt(args[0]);
+                if (edits < 0 || edits > NameIndex.MAX_EDITS)
+                    throw new IllegalArgumentException("The edits should be from 0 to " + NameIndex.MAX_EDITS);
+                return Integer.toString(inventory.searchByName(argumentsOf(rest), edits, SEARCH_LIMIT, items));
+            }
+            case "ALL":
+                expect(args, 0, "ALL");
+                inventory.forEachItem(items);
+                return null;
+            case "CHECKOUT": {
+                expect(args, 1, "CHECKOUT cart");
+                if (!LocationCodec.isCart(LocationCodec.encode(args[0])))
+                    throw new IllegalLocationException("The location should be a cart number in correct format!");
+                long total = inventory.checkOut(args[0], items);
+                return ReportWriter.appendCents(new StringBuilder(), total).toString();
+            }
+            case "TOTAL": {
+                expect(args, 1, "TOTAL cart");
+                if (!LocationCodec.isCart(LocationCodec.encode(args[0])))
+                    throw new IllegalLocationException("The location should be a cart number in correct format!");
+                StringBuilder result = new StringBuilder();
+                result.append(inventory.cartItemCount(args[0])).append(' ');
+                return ReportWriter.appendCents(result, inventory.cartTotalCents(args[0])).toString();
+            }
+            case "CLEAN":
+                expect(args, 0, "CLEAN");
+                inventory.cleanStore(items);
+                return null;
+            case "PURGE":
+                if (args.length == 1)
+                    return Integer.toString(inventory.removePurchased(Integer.parseInt(args[0]), items));
+                expect(args, 0, "PURGE [max]");
+                inventory.removeAllPurchased(items);
+                return null;
+            case "LOAD": {
+                if (rest.isEmpty())
+                    throw new IllegalArgumentException("Usage: LOAD manifest");
+                LoadReport report = InventoryLoader.load(file(rest), inventory);
+                return "loaded " + report.getLoaded() + " rejected " + report.getRejected();
+            }
+            case "SNAPSHOT": {
+                if (rest.isEmpty())
+                    throw new IllegalArgumentException("Usage: SNAPSHOT file");
+                Path file = file(rest);
+                if (inventory instanceof JournaledInventory && file.toAbsolutePath().normalize().equals(checkpointFile))
+                    ((JournaledInventory) inventory).checkpoint(file);
+                else
+                    InventorySnapshot.write(inventory, file);
+                return "saved " + inventory.listLength();
+            }
+            case "REPORT":
+                return report(args, out);
+            case "MISPLACED": {
+                expect(args, 0, "MISPLACED");
+                Map<String, Integer> counts = inventory.misplacedByLocation();
+                int total = 0;
+                for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+                    writeLine(out, "AT\t" + entry.getKey() + "\t" + entry.getValue() + "\n");
+                    total += entry.getValue();
+                }
+                return Integer.toString(total);
+            }
+            case "VALUE":
+                return value(args, out);
+            case "COUNT":
+                expect(args, 0, "COUNT");
+                return Integer.toString(inventory.listLength());
+            case "PING":
+                return "pong";
+            default:
+                throw new IllegalArgumentException("Unknown command " + verb);
+        }
+    }
+
+    /**
+     * Runs VALUE first last [shelvesPerAisle]. Each aisle is a block of
+     * shelvesPerAisle shelf numbers starting at a multiple of it, cut to the
+     * range.
+     */
+    private String value(String[] args, Writer out) throws Exception {
+        if (args.length != 2 && args.length != 3)
+            throw new IllegalArgumentException("Usage: VALUE first last [shelvesPerAisle]");
+        int first = LocationCodec.encode(args[0]);
+        int last = LocationCodec.encode(args[1]);
+        if (!LocationCodec.isShelf(first) || !LocationCodec.isShelf(last))
+            throw new IllegalLocationException("The range should be given as two shelves in correct format!");
+
+        if (args.length == 3) {
+            int width = Integer.parseInt(args[2]);
+            if (width < 1)
+                throw new IllegalArgumentException("The shelves per aisle should be at least 1");
+            for (int start = first; start <= last; start = (start / width + 1) * width) {
+                String from = LocationCodec.decode(start);
+                String to = LocationCodec.decode(Math.min(last, (start / width + 1) * width - 1));
+                long count = inventory.shelfItemCount(from, to);
+                if (count > 0) {
+                    writeLine(out, ReportWriter.appendCents(new StringBuilder("AISLE\t").append(from).append('\t')
+                            .append(to).append('\t').append(count).append('\t'),
+                            inventory.shelfValueCents(from, to)).append('\n').toString());
+                }
+            }
+        }
+
+        StringBuilder result = new StringBuilder();
+        result.append(inventory.shelfItemCount(args[0], args[1])).append(' ');
+        return ReportWriter.appendCents(result, inventory.shelfValueCents(args[0], args[1])).toString();
+    }
+
+    /**
+     * Runs REPORT format [all|location] [offset [limit]], streaming the items
+     * to the response as a report.
+     *
+     * @return the number of rows written
+     */
+    private String report(String[] args, Writer out) throws Exception {
+        if (args.length < 1 || args.length > 4)
+            throw new IllegalArgumentException("Usage: REPORT table|csv|json [all|location] [offset [limit]]");
+        ReportFormat format = ReportFormat.fromName(args[0]);
+        int next = 1;
+        String scope = "all";
+        if (args.length > next && !args[next].chars().allMatch(Character::isDigit))
+            scope = args[next++];
+        if (!scope.equalsIgnoreCase("all") && !ItemInfo.checkLocationFormat(scope))
+            throw new IllegalLocationException("The location has incorrect format!");
+        long offset = args.length > next ? parseCount(args[next++]) : 0;
+        long limit = args.length > next ? parseCount(args[next++]) : Long.MAX_VALUE;
+        if (next < args.length)
+            throw new IllegalArgumentException("Usage: REPORT table|csv|json [all|location] [offset [limit]]");
+
+        ReportWriter report = new ReportWriter(new ResponseWriter(out), format, offset, limit, false);
+        if (scope.equalsIgnoreCase("all"))
+            inventory.forEachItem(report);
+        else
+            inventory.forEachAt(scope, report);
+        report.finish();
+        return "rows " + report.getWritten();
+    }
+
+    /**
+     * Resolves the file named in a LOAD or SNAPSHOT command, if files are
+     * allowed and the name stays inside the allowed directory.
+     */
+    private Path file(String name) {
+        if (anyFile)
+            return Paths.get(name);
+        if (fileDirectory == null)
+            throw new IllegalArgumentException("Files cannot be read or written through this connection");
+        Path path;
+        try {
+            path = Paths.get(name);
+        } catch (InvalidPathException e) {
+            throw new IllegalArgumentException("Not a file name: " + name);
+        }
+        for (Path part : path) {
+            if (part.toString().equals(".."))
+                throw new IllegalArgumentException("The file name may not contain \"..\"");
+        }
+        Path resolved = fileDirectory.resolve(path).normalize();
+        if (path.isAbsolute() || !resolved.startsWith(fileDirectory))
+            throw new IllegalArgumentException("The file must be inside the data directory");
+        return resolved;
+    }
+
+    private static long parseCount(String text) {
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a row count: " + text);
+        }
+    }
+
+    private static void checkTagBound(String bound) throws IllegalRFidTagNumberException {
+        if (RfidTag.lowestWithPrefix(bound) == RfidTag.INVALID)
+            throw new IllegalRFidTagNumberException("A tag range bound should be up to 9 hexadecimal digits!");
+    }
+
+    private static void expect(String[] args, int count, String usage) {
+        if (args.length != count)
+            throw new IllegalArgumentException("Usage: " + usage);
+    }
+
+    /**
+     * Parses a price. Like the menu and the manifest loader, any number is
+     * taken; ItemInfo rejects a price that cannot be kept in cents.
+     */
+    private static double parsePrice(String text) {
+        try {
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("The price must be a number");
+        }
+    }
+
+    /**
+     * Writes one item line of a response.
+     */
+    private static void writeItem(Writer out, ItemInfo item) {
+        try {
+            out.write("ITEM\t");
+            writeName(out, item.getItemName());
+            out.write('\t');
+            out.write(item.getRfidTagNumber());
+            out.write('\t');
+            out.write(item.getOriginalLocation());
+            out.write('\t');
+            out.write(item.getCurrentLocation());
+            out.write('\t');
+            out.append(ReportWriter.appendPrice(new StringBuilder(16), item));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new ResponseFailure(e);
+        }
+    }
+
+    /**
+     * Writes a name with its tabs, line breaks and backslashes escaped.
+     */
+    private static void writeName(Writer out, String name) throws IOException {
+        int start = 0;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c != '\t' && c != '\n' && c != '\r' && c != '\\')
+                continue;
+            out.write(name, start, i - start);
+            out.write(c == '\t' ? "\\t" : c == '\n' ? "\\n" : c == '\r' ? "\\r" : "\\\\");
+            start = i + 1;
+        }
+        out.write(name, start, name.length() - start);
+    }
+
+    /**
+     * Writes a line of a response other than an item line.
+     */
+    private static void writeLine(Writer out, String line) {
+        try {
+            out.write(line);
+        } catch (IOException e) {
+            throw new ResponseFailure(e);
+        }
+    }
+
+    /**
+     * The ResponseFailure class carries a failure to write a response out of
+     * the item visitor, so it is not mistaken for a failure of the command.
+     */
+    private static class ResponseFailure extends UncheckedIOException {
+
+        private static final long serialVersionUID = 1L;
+
+        ResponseFailure(IOException cause) {
+            super(cause);
+        }
+    }
+
+    /**
+     * The HeldResponse class collects a response in memory until it is
+     * released, up to a limit; past the limit, it writes what it holds and
+     * passes the rest straight through.
+     */
+    private static class HeldResponse extends Writer {
+
+        private final Writer out;
+        private final int limit;
+        private final CharArrayWriter held = new CharArrayWriter();
+        private boolean passing; // Past the limit: writing straight through
+
+        HeldResponse(Writer out, int limit) {
+            this.out = out;
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(char[] chars, int offset, int length) throws IOException {
+            if (passing) {
+                out.write(chars, offset, length);
+                return;
+            }
+            held.write(chars, offset, length);
+            if (held.size() > limit) {
+                release();
+                passing = true;
+            }
+        }
+
+        /**
+         * Writes what is held to the response.
+         */
+        void release() throws IOException {
+            held.writeTo(out);
+            held.reset();
+        }
+
+        @Override
+        public void flush() {
+            // The response is flushed by whoever sends it
+        }
+
+        @Override
+        public void close() {
+            // The response stays open for the next command
+        }
+    }
+
+    /**
+     * The ResponseWriter class passes a report through to the response, turning
+     * a failure to write it into a ResponseFailure.
+     */
+    private static class ResponseWriter extends Writer {
+
+        private final Writer out;
+
+        ResponseWriter(Writer out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(char[] chars, int offset, int length) {
+            try {
+                out.write(chars, offset, length);
+            } catch (IOException e) {
+                throw new ResponseFailure(e);
+            }
+        }
+
+        @Override
+        public void write(String text) {
+            try {
+                out.write(text);
+            } catch (IOException e) {
+                throw new ResponseFailure(e);
+            }
+        }
+
+        @Override
+        public void flush() {
+            // The response is flushed by whoever sends it
+        }
+
+        @Override
+        public void close() {
+            // The response stays open for the next command
+        }
+    }
+}
@@ -0,0 +1,697 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * The ConcurrentItemList class keeps the same items as ItemList, in the same
+ * RFID tag order, but can be shared by many threads at once: registers,
+ * handheld scanners and reporting jobs can all work on one instance.
+ *
+ * The items are kept in a concurrent skip list map from packed RFID tag to the
+ * run of items carrying that tag, in insertion order. A run is an array that is
+ * never changed once published, and the ItemInfo objects in it are never
+ * changed either: an operation that moves, checks out or removes an item builds
+ * a new run with new ItemInfo copies and swaps it into the map. Lookups,
+ * listings and reports therefore take no locks at all, and every item they see
+ * is a consistent picture of it at some moment.
+ *
+ * Writers lock only the stripe that the RFID tag they change hashes to, so
+ * moves and inserts on different items rarely wait for each other. Operations
+ * over many items, such as a checkout or a clean, lock one tag's stripe at a
+ * time, so they are not atomic as a whole: a listing running at the same time
+ * may see some of their changes and not others. Their visitors are not called
+ * with a stripe locked: the items of each tag are collected while it is
+ * locked and passed on, as they were before the change, once it is unlocked,
+ * so a slow visitor holds up no writer.
+ *
+ * A location index from each location code to the tags with at least one item
+ * there keeps location queries and checkouts from scanning every item, and a
+ * set of the tags with a misplaced item does the same for cleaning the store.
+ * CartSessions keeps the number of items in each cart and their total, and
+ * ShelfValueIndex those of any range of shelves. A NameIndex finds items by
+ * the words of their names.
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public class ConcurrentItemList implements Inventory {
+
+    private static final ItemInfo[] EMPTY_RUN = new ItemInfo[0];
+
+    private final ConcurrentSkipListMap<Long, ItemInfo[]> runs; // RFID tag -> items with that tag
+    private final AtomicReferenceArray<ConcurrentSkipListSet<Long>> tagsAt; // Location code -> tags there
+    private final ConcurrentSkipListSet<Long> misplacedTags; // Tags with an item away from its original location
+    private final ReentrantLock[] stripes; // Writer locks, chosen by RFID tag
+    private final AtomicInteger size; // The number of items
+    private final CartSessions carts; // Cart -> number of items and their total in cents
+    private final ShelfValueIndex shelves; // Shelf ranges -> number of items and their total in cents
+    private final NameIndex nameIndex; // Name words -> RFID tags of the items named with them
+
+    /**
+     * Constructs an empty ConcurrentItemList with enough writer stripes for the
+     * processors of this machine.
+     */
+    public ConcurrentItemList() {
+        this(Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    /**
+     * Constructs an empty ConcurrentItemList with at least the given number of
+     * writer stripes.
+     *
+     * @param stripeCount the minimum number of writer stripes
+     */
+    public ConcurrentItemList(int stripeCount) {
+        int count = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        runs = new ConcurrentSkipListMap<>();
+        tagsAt = new AtomicReferenceArray<>(LocationCodec.CODE_COUNT);
+        misplacedTags = new ConcurrentSkipListSet<>();
+        stripes = new ReentrantLock[count];
+        for (int i = 0; i < count; i++)
+            stripes[i] = new ReentrantLock();
+        size = new AtomicInteger();
+        carts = new CartSessions();
+        shelves = new ShelfValueIndex();
+        nameIndex = new NameIndex();
+    }
+
+    /**
+     * Gets the writer lock for the given RFID tag.
+     */
+    private ReentrantLock stripe(long tag) {
+        return stripes[RfidTag.hash(tag) & (stripes.length - 1)];
+    }
+
+    /**
+     * Copies an item, giving the copy a new current location.
+     */
+    private static ItemInfo withLocation(ItemInfo info, int current) {
+        ItemInfo copy = new ItemInfo(info);
+        copy.setCurrentLocationCode(current);
+        return copy;
+    }
+
+    /**
+     * Gets the set of tags with an item at the given location, creating it if
+     * asked to.
+     */
+    private ConcurrentSkipListSet<Long> tagsAt(int code, boolean create) {
+        ConcurrentSkipListSet<Long> tags = tagsAt.get(code);
+        if (tags == null && create) {
+            tagsAt.compareAndSet(code, null, new ConcurrentSkipListSet<>());
+            tags = tagsAt.get(code);
+        }
+        return tags;
+    }
+
+    /**
+     * Publishes a new run for a tag, or removes the tag if the run is empty, and
+     * brings the location index and cart and shelf tallies up to date for the
+     * locations that changed. Called with the tag's stripe held.
+     *
+     * @param tag     the packed RFID tag
+     * @param run     the new run
+     * @param touched the location codes whose items changed
+     */
+    private void publish(long tag, ItemInfo[] run, int... touched) {
+        ItemInfo[] previous = run.length == 0 ? runs.remove(tag) : runs.put(tag, run);
+
+        if (hasMisplaced(run))
+            misplacedTags.add(tag);
+        else
+            misplacedTags.remove(tag);
+
+        for (int t = 0; t < touched.length; t++) {
+            int code = touched[t];
+            if (code != LocationCodec.OUT && !touchedBefore(touched, t))
+                recount(code, previous == null ? EMPTY_RUN : previous, run);
+
+            boolean present = false;
+            for (ItemInfo info : run) {
+                if (info.getCurrentLocationCode() == code) {
+                    present = true;
+                    break;
+                }
+            }
+            if (present) {
+                tagsAt(code, true).add(tag);
+            } else {
+                ConcurrentSkipListSet<Long> tags = tagsAt(code, false);
+                if (tags != null)
+                    tags.remove(tag);
+            }
+        }
+    }
+
+    private static boolean touchedBefore(int[] touched, int t) {
+        for (int i = 0; i < t; i++) {
+            if (touched[i] == touched[t])
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Moves the cart or shelf tally of a location from the items of a tag's old
+     * run that were there to those of its new run.
+     */
+    private void recount(int code, ItemInfo[] before, ItemInfo[] after) {
+        for (ItemInfo info : before) {
+            if (info.getCurrentLocationCode() == code) {
+                carts.leave(code, info.getPriceCents());
+                shelves.leave(code, info.getPriceCents());
+            }
+        }
+        for (ItemInfo info : after) {
+            if (info.getCurrentLocationCode() == code) {
+                carts.enter(code, info.getPriceCents());
+                shelves.enter(code, info.getPriceCents());
+            }
+        }
+    }
+
+    /**
+     * Adds one item at the end of its tag's run. Called with the tag's stripe
+     * held.
+     */
+    private void append(ItemInfo info) {
+        long tag = info.getRfidTag();
+        ItemInfo[] run = runs.getOrDefault(tag, EMPTY_RUN);
+        ItemInfo[] grown = Arrays.copyOf(run, run.length + 1);
+        grown[run.length] = withLocation(info, info.getCurrentLocationCode());
+        publish(tag, grown, info.getCurrentLocationCode());
+        nameIndex.add(info.getItemName(), tag);
+        size.incrementAndGet();
+    }
+
+    /**
+     * Inserts an item, after any items that already carry its RFID tag.
+     * Analysis of Complexity:
+     * O(log n) for the skip list, plus the number of items sharing the tag.
+     *
+     * @param name         the name of the item
+     * @param rfidTag      the RFID tag number of the item
+     * @param price        the price of the item
+     * @param initPosition the initial position of the item
+     * @throws Exception if the RFID tag number or location format is incorrect
+     */
+    @Override
+    public void insertInfo(String name, String rfidTag, double price, String initPosition) throws Exception {
+        ItemInfo info = new ItemInfo(name, price, rfidTag, initPosition);
+        ReentrantLock lock = stripe(info.getRfidTag());
+        lock.lock();
+        try {
+            append(info);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Inserts a batch of items. They are sorted by tag first so that the skip
+     * list is walked in order; each item still takes its own stripe, so the
+     * batch as a whole is not atomic.
+     * Analysis of Complexity:
+     * O(m log m + m log n) for m new items.
+     *
+     * @param items the items to insert
+     */
+    @Override
+    public void bulkLoad(List<ItemInfo> items) {
+        ArrayList<ItemInfo> batch = new ArrayList<>(items);
+        batch.sort(Comparator.comparingLong(ItemInfo::getRfidTag)); // Stable, so duplicates keep their order
+        for (ItemInfo info : batch) {
+            ReentrantLock lock = stripe(info.getRfidTag());
+            lock.lock();
+            try {
+                append(info);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Moves the first item with the given RFID tag that is at the source
+     * location to the destination location.
+     * Analysis of Complexity:
+     * O(log n) for the skip list, plus the number of items sharing the tag.
+     *
+     * @param rfidTag the RFID tag number of the item to move
+     * @param source  the source location of the item
+     * @param dest    the destination location of the item
+     * @return true if the item is successfully moved, false otherwise
+     * @throws Exception if the destination location format is incorrect or the
+     *                   source is "out"
+     */
+    @Override
+    public boolean moveItem(String rfidTag, String source, String dest) throws Exception {
+        int destCode = LocationCodec.encode(dest);
+        if (destCode == LocationCodec.INVALID)
+            throw new IllegalLocationException("The destination location has an invalid format!");
+
+        int sourceCode = LocationCodec.encode(source);
+        if (sourceCode == LocationCodec.OUT)
+            throw new IllegalLocationException("The source location is 'out'. We no longer have the item!");
+
+        long tag = RfidTag.parse(rfidTag);
+        if (tag == RfidTag.INVALID)
+            return false;
+
+        ReentrantLock lock = stripe(tag);
+        lock.lock();
+        try {
+            ItemInfo[] run = runs.get(tag);
+            if (run == null)
+                return false;
+            for (int i = 0; i < run.length; i++) {
+                if (run[i].getCurrentLocationCode() == sourceCode) {
+                    ItemInfo[] moved = run.clone();
+                    moved[i] = withLocation(run[i], destCode);
+                    publish(tag, moved, sourceCode, destCode);
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Checks out all the items in a cart, setting their current location to
+     * "out", passing each of them to the visitor, as it was in the cart, once
+     * its tag's stripe is unlocked.
+     * Analysis of Complexity:
+     * O(k log n) where k is the number of tags in the cart.
+     *
+     * @param cartNumber the cart number to check out items from
+     * @param visitor    the action to run for each item, as it was before it went out
+     * @return the total price of the items checked out from the cart, in cents
+     */
+    @Override
+    public long checkOut(String cartNumber, Consumer<ItemInfo> visitor) {
+        int cart = LocationCodec.encode(cartNumber);
+        long cartCents = 0;
+        ConcurrentSkipListSet<Long> tags = cart == LocationCodec.INVALID ? null : tagsAt(cart, false);
+        if (tags == null)
+            return cartCents;
+
+        ArrayList<ItemInfo> visited = new ArrayList<>();
+        for (long tag : tags) {
+            ReentrantLock lock = stripe(tag);
+            lock.lock();
+            try {
+                ItemInfo[] run = runs.getOrDefault(tag, EMPTY_RUN);
+                ItemInfo[] changed = null;
+                for (int i = 0; i < run.length; i++) {
+                    if (run[i].getCurrentLocationCode() == cart) {
+                        if (changed == null)
+                            changed = run.clone();
+                        cartCents += run[i].getPriceCents(); // Items may come and go while it runs
+                        visited.add(run[i]);
+                        changed[i] = withLocation(run[i], LocationCodec.OUT);
+                    }
+                }
+                if (changed != null)
+                    publish(tag, changed, cart, LocationCodec.OUT);
+            } finally {
+                lock.unlock();
+            }
+            visit(visited, visitor);
+        }
+        return cartCents;
+    }
+
+    /**
+     * Returns the number of items in a cart, from the running cart tallies.
+     * Analysis of Complexity:
+     * O(1).
+     *
+     * @param cartNumber the cart number
+     * @return the number of items in the cart, or 0 if it is not a cart
+     */
+    @Override
+    public int cartItemCount(String cartNumber) {
+        return carts.countIn(LocationCodec.encode(cartNumber));
+    }
+
+    /**
+     * Returns the total price of the items in a cart, from the running cart
+     * tallies.
+     * Analysis of Complexity:
+     * O(1).
+     *
+     * @param cartNumber the cart number
+     * @return the total in cents, or 0 if it is not a cart
+     */
+    @Override
+    public long cartTotalCents(String cartNumber) {
+        return carts.totalCentsIn(LocationCodec.encode(cartNumber));
+    }
+
+    /**
+     * Returns the number of items on a range of shelves, from the shelf value
+     * index.
+     * Analysis of Complexity:
+     * O(log S) where S is the number of shelf numbers.
+     *
+     * @param fromShelf the first shelf of the range
+     * @param toShelf   the last shelf of the range
+     * @return the number of items, or 0 if the range is empty or its ends are
+     *         not shelves
+     */
+    @Override
+    public long shelfItemCount(String fromShelf, String toShelf) {
+        return shelves.countIn(LocationCodec.encode(fromShelf), LocationCodec.encode(toShelf));
+    }
+
+    /**
+     * Returns the total price of the items on a range of shelves, from the
+     * shelf value index.
+     * Analysis of Complexity:
+     * O(log S) where S is the number of shelf numbers.
+     *
+     * @param fromShelf the first shelf of the range
+     * @param toShelf   the last shelf of the range
+     * @return the total in cents, or 0 if the range is empty or its ends are
+     *         not shelves
+     */
+    @Override
+    public long shelfValueCents(String fromShelf, String toShelf) {
+        return shelves.centsIn(LocationCodec.encode(fromShelf), LocationCodec.encode(toShelf));
+    }
+
+    /**
+     * Moves every item that is not at its original location, and is not "out",
+     * back to its original location.
+     * Analysis of Complexity:
+     * O(m log n) where m is the number of tags with a misplaced item.
+     *
+     * @param visitor the action to run for each item, as it was before it was moved back
+     */
+    @Override
+    public void cleanStore(Consumer<ItemInfo> visitor) {
+        ArrayList<ItemInfo> visited = new ArrayList<>();
+        for (long tag : misplacedTags) {
+            ReentrantLock lock = stripe(tag);
+            lock.lock();
+            try {
+                ItemInfo[] run = runs.getOrDefault(tag, EMPTY_RUN);
+                ItemInfo[] changed = run.clone();
+                int[] touched = new int[run.length * 2];
+                int touchedCount = 0;
+                for (int i = 0; i < run.length; i++) {
+                    ItemInfo info = run[i];
+                    if (MisplacedIndex.isMisplaced(info)) {
+                        visited.add(info);
+                        changed[i] = withLocation(info, info.getOriginalLocationCode());
+                        touched[touchedCount++] = info.getCurrentLocationCode();
+                        touched[touchedCount++] = info.getOriginalLocationCode();
+                    }
+                }
+                if (touchedCount > 0)
+                    publish(tag, changed, Arrays.copyOf(touched, touchedCount));
+            } finally {
+                lock.unlock();
+            }
+            visit(visited, visitor);
+        }
+    }
+
+    /**
+     * Passes the items collected while a stripe was locked to the visitor, now
+     * that it is unlocked, and clears them.
+     */
+    private static void visit(List<ItemInfo> visited, Consumer<ItemInfo> visitor) {
+        for (ItemInfo info : visited)
+            visitor.accept(info);
+        visited.clear();
+    }
+
+    private static boolean hasMisplaced(ItemInfo[] run) {
+        for (ItemInfo info : run) {
+            if (MisplacedIndex.isMisplaced(info))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of misplaced items, without locking.
+     * Analysis of Complexity:
+     * O(m log n) where m is the number of tags with a misplaced item.
+     *
+     * @return the number of misplaced items
+     */
+    @Override
+    public int misplacedCount() {
+        int[] count = new int[1];
+        forEachMisplaced(info -> count[0]++);
+        return count[0];
+    }
+
+    /**
+     * Returns how many misplaced items sit at each location, without locking.
+     * Analysis of Complexity:
+     * O(m log n) where m is the number of tags with a misplaced item.
+     *
+     * @return a new map from location to the number of misplaced items there
+     */
+    @Override
+    public Map<String, Integer> misplacedByLocation() {
+        TreeMap<Integer, Integer> byCode = new TreeMap<>();
+        forEachMisplaced(info -> byCode.merge(info.getCurrentLocationCode(), 1, Integer::sum));
+        LinkedHashMap<String, Integer> counts = new LinkedHashMap<>();
+        for (Map.Entry<Integer, Integer> entry : byCode.entrySet())
+            counts.put(LocationCodec.decode(entry.getKey()), entry.getValue());
+        return counts;
+    }
+
+    private void forEachMisplaced(Consumer<ItemInfo> action) {
+        for (long tag : misplacedTags) {
+            for (ItemInfo info : runs.getOrDefault(tag, EMPTY_RUN)) {
+                if (MisplacedIndex.isMisplaced(info))
+                    action.accept(info);
+            }
+        }
+    }
+
+    /**
+     * Removes up to the given number of items whose current location is "out",
+     * the first ones in RFID tag order. Each tag is locked on its own while its
+     * items are removed.
+     * Analysis of Complexity:
+     * O(k log n) where k is the number of tags with an item removed.
+     *
+     * @param maxItems the most items to remove
+     * @param visitor  the action to run for each item, once it is removed
+     * @return the number of items removed
+     */
+    @Override
+    public int removePurchased(int maxItems, Consumer<ItemInfo> visitor) {
+        ConcurrentSkipListSet<Long> tags = tagsAt(LocationCodec.OUT, false);
+        int removed = 0;
+        if (tags == null)
+            return removed;
+
+        ArrayList<ItemInfo> visited = new ArrayList<>();
+        for (long tag : tags) {
+            if (removed >= maxItems)
+                break;
+            ReentrantLock lock = stripe(tag);
+            lock.lock();
+            try {
+                ItemInfo[] run = runs.getOrDefault(tag, EMPTY_RUN);
+                ItemInfo[] kept = new ItemInfo[run.length];
+                int keptCount = 0;
+                for (ItemInfo info : run) {
+                    if (info.getCurrentLocationCode() == LocationCodec.OUT && removed < maxItems) {
+                        visited.add(info);
+                        nameIndex.remove(info.getItemName(), tag);
+                        size.decrementAndGet();
+                        removed++;
+                    } else {
+                        kept[keptCount++] = info;
+                    }
+                }
+                if (keptCount < run.length)
+                    publish(tag, Arrays.copyOf(kept, keptCount), LocationCodec.OUT);
+            } finally {
+                lock.unlock();
+            }
+            visit(visited, visitor);
+        }
+        return removed;
+    }
+
+    /**
+     * Passes up to the given number of items whose current location is "out"
+     * to the action, the first ones in RFID tag order, without locking.
+     * Analysis of Complexity:
+     * O(k log n) where k is the number of tags with an item passed.
+     *
+     * @param maxItems the most items to pass
+     * @param action   the action to run for each item
+     * @return the number of items passed to the action
+     */
+    @Override
+    public int forEachPurchased(int maxItems, Consumer<ItemInfo> action) {
+        ConcurrentSkipListSet<Long> tags = tagsAt(LocationCodec.OUT, false);
+        int passed = 0;
+        if (tags == null)
+            return passed;
+
+        for (long tag : tags) {
+            for (ItemInfo info : runs.getOrDefault(tag, EMPTY_RUN)) {
+                if (passed >= maxItems)
+                    return passed;
+                if (info.getCurrentLocationCode() == LocationCodec.OUT) {
+                    action.accept(info);
+                    passed++;
+                }
+            }
+        }
+        return passed;
+    }
+
+    /**
+     * Passes every item to the given action, in RFID tag order, without
+     * locking. Items changed while the walk is under way are seen either before
+     * or after the change.
+     * Analysis of Complexity:
+     * O(n).
+     *
+     * @param action the action to run for each item
+     */
+    @Override
+    public void forEachItem(Consumer<ItemInfo> action) {
+        for (ItemInfo[] run : runs.values()) {
+            for (ItemInfo info : run)
+                action.accept(info);
+        }
+    }
+
+    /**
+     * Passes every item at the given location to the action, in RFID tag order,
+     * without locking.
+     * Analysis of Complexity:
+     * O(k log n) where k is the number of tags at the location.
+     *
+     * @param location the location to search for items
+     * @param action   the action to run for each item
+     */
+    @Override
+    public void forEachAt(String location, Consumer<ItemInfo> action) {
+        int code = LocationCodec.encode(location);
+        ConcurrentSkipListSet<Long> tags = code == LocationCodec.INVALID ? null : tagsAt(code, false);
+        if (tags == null)
+            return;
+
+        for (long tag : tags) {
+            for (ItemInfo info : runs.getOrDefault(tag, EMPTY_RUN)) {
+                if (info.getCurrentLocationCode() == code)
+                    action.accept(info);
+            }
+        }
+    }
+
+    /**
+     * Passes the items with the given RFID tag number to the action, without
+     * locking.
+     * Analysis of Complexity:
+     * O(log n), plus the number of items sharing the tag.
+     *
+     * @param rfidTag the RFID tag number of the items to visit
+     * @param action  the action to run for each item
+     * @return true if at least one item has the tag, false otherwise
+     */
+    @Override
+    public boolean forEachWithRFID(String rfidTag, Consumer<ItemInfo> action) {
+        long tag = RfidTag.parse(rfidTag);
+        ItemInfo[] run = tag == RfidTag.INVALID ? null : runs.get(tag);
+        if (run == null)
+            return false;
+        for (ItemInfo info : run)
+            action.accept(info);
+        return true;
+    }
+
+    /**
+     * Checks if there is at least one item with the given RFID tag number.
+     *
+     * @param rfidTag the RFID tag number to look for
+     * @return true if an item has the tag, false otherwise
+     */
+    @Override
+    public boolean containsRFID(String rfidTag) {
+        long tag = RfidTag.parse(rfidTag);
+        return tag != RfidTag.INVALID && runs.containsKey(tag);
+    }
+
+    /**
+     * Passes the items whose names match a query to the action, in RFID tag
+     * order, up to a limit, using the name index.
+     * Analysis of Complexity:
+     * See NameIndex.search: the items read are only those under the candidate
+     * tags, not every item.
+     *
+     * @param query    the words to look for
+     * @param maxEdits the number of edits a word may be away from a name word
+     * @param limit    the most items to pass to the action
+     * @param action   the action to run for each matching item
+     * @return the number of items passed to the action
+     */
+    @Override
+    public int searchByName(String query, int maxEdits, int limit, Consumer<ItemInfo> action) {
+        return nameIndex.search(query, maxEdits, limit, this, action);
+    }
+
+    /**
+     * Passes every item whose RFID tag number lies in a range to the action, in
+     * RFID tag order, without locking.
+     * Analysis of Complexity:
+     * O(log n + k) where k is the number of items in the range.
+     *
+     * @param fromTag the lowest tag, or a prefix of it
+     * @param toTag   the highest tag, or a prefix of it
+     * @param action  the action to run for each item
+     * @return the number of items visited
+     */
+    @Override
+    public int forEachInTagRange(String fromTag, String toTag, Consumer<ItemInfo> action) {
+        long from = RfidTag.lowestWithPrefix(fromTag);
+        long to = RfidTag.highestWithPrefix(toTag);
+        int visited = 0;
+        if (from == RfidTag.INVALID || to == RfidTag.INVALID || from > to)
+            return visited;
+
+        for (ItemInfo[] run : runs.subMap(from, true, to, true).values()) {
+            for (ItemInfo info : run)
+                action.accept(info);
+            visited += run.length;
+        }
+        return visited;
+    }
+
+    /**
+     * Returns the number of items.
+     *
+     * @return the number of items
+     */
+    @Override
+    public int listLength() {
+        return size.get();
+    }
+}
@@ -1,15 +1,54 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.InputMismatchException;
+import java.util.NoSuchElementException;
 import java.util.Scanner;
+import javax.management.JMException;
 
 /**
  * The DepartmentStore class is the main class for running the Department Store
  * Menu program.
  * It's a menu-driven program that performs various operations on the item list,
  * such as
- * inserting items, moving items, printing items by location or RFID tag,
+ * bulk loading a manifest, ingesting RFID reader events, inserting items, moving items, printing items by location or RFID tag,
  * checking out items from
  * a cart, and updating the inventory system. The class utilizes the ItemList
  * class to manage the
- * list of items in the store. The main method prompts the user for input and
+ * list of items in the store, or OffHeapItemList when it is started with
+ * "--offheap", split over N shards by a ShardedInventory with "--shards=N".
+ * When it is started with "--snapshot=FILE" and that file exists,
+ * the items saved in it are restored before the menu is shown. When it is
+ * started with "--serve=PORT", the menu is replaced by an InventoryServer on
+ * that port, which many clients can use at once until Enter is pressed, while
+ * "--purge-every=MS" has a BackgroundPurger remove purchased items between
+ * their commands; clients may LOAD and SNAPSHOT files only inside the
+ * "--data-dir=DIR" directory, and not at all without it, and
+ * with "--batch=FILE" the commands in FILE are run by a BatchRunner, writing
+ * the responses to standard output or to "--output=FILE". When it is
+ * started with "--journal=FILE", every change is also recorded in that
+ * OperationJournal, which is replayed on top of the snapshot at startup, so no
+ * acknowledged change is lost; "--journal-nosync" records changes without
+ * waiting for the disk. With "--metrics", the time, items and errors of every
+ * inventory operation are recorded by an InstrumentedInventory and published
+ * over JMX, and "--metrics-dump=MS" also prints them every MS milliseconds.
+ * With "--replicate=PORT", every change is also streamed by a
+ * ReplicationPrimary on that port to the replicas that connect, and with
+ * "--replica-of=PORT" the program is such an InventoryReplica instead: a
+ * read-only copy of the primary on PORT, which refuses reads once it is more
+ * than "--max-staleness=MS" milliseconds behind. With "--versioned", a
+ * VersionedInventory keeps the versions of the items that running reads still
+ * need, so every read sees the store as it was when it began while changes go
+ * on.
+ * The main method prompts the user for input and
  * calls corresponding
  * methods from the ItemList class to perform the operations. The menu keeps
  * running until the user
@@ -17,7 +56,8 @@ import java.util.Scanner;
  * 
  * Note: The class handles various exceptions and ensures that user inputs are
  * valid before performing
- * the operations on the item list.
+ * the operations on the item list. An incorrect input cancels only the option
+ * it was given for, and the menu is shown again.
  * 
  * @author Shiv Kanani
  *         SBU ID: 115171965
@@ -30,7 +70,24 @@ public class DepartmentStore {
      * Prompts the user to select a menu option and performs the corresponding
      * operation.
      * 
-     * @param args command-line arguments (not used in this program)
+     * @param args command-line arguments; "--offheap" keeps the items outside
+     *             the Java heap (see StorageEngine), "--shards=N" splits them
+     *             over N shards (see ShardedInventory), and "--snapshot=FILE"
+     *             restores the items saved in FILE, and "--journal=FILE"
+     *             journals every change (see JournaledInventory), and
+     *             "--serve=PORT" serves the inventory over TCP instead of
+     *             showing the menu, purging in the background every MS
+     *             milliseconds with "--purge-every=MS", with files inside
+     *             "--data-dir=DIR" only, and "--batch=FILE" runs the commands in
+     *             FILE instead, and "--metrics" publishes the time and
+     *             errors of every operation over JMX (see InventoryMetrics),
+     *             printing them every MS milliseconds with "--metrics-dump=MS",
+     *             and "--replicate=PORT" streams every change to replicas
+     *             (see ReplicationPrimary), while "--replica-of=PORT" follows
+     *             such a primary instead of keeping its own items (see
+     *             InventoryReplica), up to "--max-staleness=MS" behind, and
+     *             "--versioned" gives every read a consistent view of the
+     *             items while changes go on (see VersionedInventory)
      * @throws IllegalLocationException      if the Location format is incorrect
      * @throws IllegalRFidTagNumberException if the RFidTagNumber format is
      *                                       incorrect
@@ -39,173 +96,525 @@ public class DepartmentStore {
 
         Scanner input = new Scanner(System.in);
         boolean flag = true;
-        ItemList itemList = new ItemList();
+        StorageEngine engine = StorageEngine.fromArgs(args);
+        String replicaOfOption = optionValue(args, "--replica-of=");
+        InventoryReplica replica = null;
+        VersionedInventory versions = null;
+        Inventory itemList;
+        if (replicaOfOption != null) {
+            replica = new InventoryReplica(engine, StorageEngine.shardsFromArgs(args), Integer.parseInt(replicaOfOption));
+            String stalenessOption = optionValue(args, "--max-staleness=");
+            if (stalenessOption != null)
+                replica.setMaxStalenessMillis(Long.parseLong(stalenessOption));
+            itemList = replica;
+        } else {
+            itemList = engine.create(StorageEngine.shardsFromArgs(args));
+            if (hasFlag(args, "--versioned"))
+                itemList = versions = new VersionedInventory(itemList);
+        }
+
+        InventoryMetrics metrics = null;
+        String metricsDumpOption = optionValue(args, "--metrics-dump=");
+        if (hasFlag(args, "--metrics") || metricsDumpOption != null) {
+            metrics = new InventoryMetrics();
+            itemList = new InstrumentedInventory(itemList, metrics);
+            try {
+                metrics.register();
+            } catch (JMException e) {
+                System.err.println("The metrics could not be published over JMX: " + e.getMessage());
+            }
+            if (metricsDumpOption != null)
+                metrics.startDump(System.err, Long.parseLong(metricsDumpOption));
+        }
+
+        String batchOption = optionValue(args, "--batch=");
+        if (batchOption == null) {
+            System.out.println("Welcome to our Department Store Menu!");
+            System.out.println("");
+        }
+
+        String snapshotOption = optionValue(args, "--snapshot=");
+        String journalOption = optionValue(args, "--journal=");
+        if (replica != null) {
+            // A replica's items come from the primary
+            System.out.println("Following the primary on port " + replicaOfOption + ".");
+            System.out.println("");
+            snapshotOption = null;
+            journalOption = null;
+        }
+        if (snapshotOption == null && journalOption != null)
+            snapshotOption = journalOption + ".snapshot";
+
+        long lastSequence = 0;
+        if (snapshotOption != null && Files.exists(Paths.get(snapshotOption))) {
+            try {
+                InventorySnapshot snapshot = InventorySnapshot.open(Paths.get(snapshotOption));
+                snapshot.restoreInto(itemList);
+                lastSequence = snapshot.lastSequence();
+                System.out.println("Restored " + snapshot.size() + " item(s) from " + snapshotOption + ".");
+            } catch (IOException e) {
+                System.out.println("The snapshot could not be restored: " + e.getMessage());
+            }
+            System.out.println("");
+        }
+
+        // Replayed changes are already in the replicas' snapshots, so the
+        // journal is replayed before the changes are streamed
+        long replayed = lastSequence;
+        if (journalOption != null) {
+            try {
+                replayed = OperationJournal.replay(Paths.get(journalOption), itemList, lastSequence);
+                if (replayed > lastSequence) {
+                    System.out.println("Replayed " + (replayed - lastSequence) + " journaled operation(s) from "
+                            + journalOption + ".");
+                    System.out.println("");
+                }
+            } catch (IOException e) {
+                System.out.println("The journal could not be replayed: " + e.getMessage());
+                return;
+            }
+        }
+
+        ReplicationPrimary primary = null;
+        String replicateOption = optionValue(args, "--replicate=");
+        if (replicateOption != null && replica == null) {
+            try {
+                // A VersionedInventory lets a replica's copy be written from a View
+                primary = new ReplicationPrimary(versions != null ? versions : itemList,
+                        Integer.parseInt(replicateOption), 0);
+                itemList = new JournaledInventory(itemList, primary, primary.getLock());
+                System.out.println("Streaming changes to replicas on port " + primary.getPort() + ".");
+            } catch (IOException e) {
+                System.out.println("Replication could not be started: " + e.getMessage());
+                return;
+            }
+            System.out.println("");
+        }
+
+        JournaledInventory journaled = null;
+        if (journalOption != null) {
+            Path journalFile = Paths.get(journalOption);
+            boolean durable = !hasFlag(args, "--journal-nosync");
+            try {
+                journaled = new JournaledInventory(itemList, OperationJournal.open(journalFile, durable, replayed));
+                itemList = journaled;
+            } catch (IOException e) {
+                System.out.println("The journal could not be opened: " + e.getMessage());
+                return;
+            }
+        }
 
-        System.out.println("Welcome to our Department Store Menu!");
-        System.out.println("");
+        if (batchOption != null) {
+            String outputOption = optionValue(args, "--output=");
+            BatchRunner batch = new BatchRunner(itemList);
+            batch.countErrorsIn(metrics);
+            if (journaled != null && snapshotOption != null)
+                batch.checkpointTo(Paths.get(snapshotOption));
+            try (BufferedReader commands = Files.newBufferedReader(Paths.get(batchOption));
+                    Writer results = new BufferedWriter(new OutputStreamWriter(outputOption == null
+                            ? new FileOutputStream(FileDescriptor.out)
+                            : new FileOutputStream(outputOption), StandardCharsets.UTF_8), 1 << 20)) {
+                batch.run(commands, results);
+            } finally {
+                if (journaled != null)
+                    journaled.close();
+                if (primary != null)
+                    primary.close();
+                if (replica != null)
+                    replica.close();
+                if (metrics != null)
+                    metrics.close();
+            }
+            batch.printTimings(System.err);
+            return;
+        }
+
+        String serveOption = optionValue(args, "--serve=");
+        if (serveOption != null) {
+            // Only ConcurrentItemList and VersionedInventory can take commands from many
+            // connections at once, and a replica, which only reads and locks its own items
+            boolean versioned = replica == null && hasFlag(args, "--versioned");
+            CommandDispatcher dispatcher = new CommandDispatcher(itemList, replica != null
+                    || (engine == StorageEngine.CONCURRENT || versioned) && journaled == null);
+            dispatcher.countErrorsIn(metrics);
+            if (journaled != null && snapshotOption != null)
+                dispatcher.checkpointTo(Paths.get(snapshotOption));
+            String dataDirOption = optionValue(args, "--data-dir=");
+            if (dataDirOption != null)
+                dispatcher.allowFilesIn(Paths.get(dataDirOption));
+            String purgeOption = optionValue(args, "--purge-every=");
+            BackgroundPurger purger = purgeOption == null ? null
+                    : new BackgroundPurger(itemList, dispatcher.getLock(), Long.parseLong(purgeOption));
+            try (InventoryServer server = new InventoryServer(dispatcher, Integer.parseInt(serveOption))) {
+                System.out.println("Serving the inventory on port " + server.getPort() + ". Press Enter to stop.");
+                if (input.hasNextLine())
+                    input.nextLine();
+                System.out.println("Served " + server.getRequests() + " request(s) on " + server.getAccepted()
+                        + " connection(s).");
+            } finally {
+                if (purger != null) {
+                    purger.close();
+                    System.out.println("Purged " + purger.getRemoved() + " item(s) in " + purger.getChunks()
+                            + " chunk(s).");
+                }
+                if (journaled != null)
+                    journaled.close();
+                if (primary != null)
+                    primary.close();
+                if (replica != null)
+                    replica.close();
+                if (metrics != null)
+                    metrics.close();
+            }
+            return;
+        }
 
         try {
             while (flag) { // Will keep the menu keep running until the user chooses to quit using Case
                            // "Q".
+                System.out.println("B - Bulk load items from a manifest file");
                 System.out.println("C - Clean store");
+                System.out.println("E - Ingest RFID reader events from a file");
                 System.out.println("I - Insert an item into the list");
                 System.out.println("L - List by location");
                 System.out.println("M - Move an item in the store");
+                System.out.println("N - Search items by name");
                 System.out.println("O - Checkout");
                 System.out.println("P - Print all items in store");
                 System.out.println("R - Print by RFID tag number");
+                System.out.println("S - Save a snapshot of all items");
+                System.out.println("T - Show a cart's total");
                 System.out.println("U - Update inventory system");
+                System.out.println("V - Stock value of a range of shelves");
                 System.out.println("Q - Exit the program");
                 System.out.println("");
                 System.out.println("Please select an option: ");
 
                 String option = input.nextLine();
 
-                switch (option.toUpperCase()) {
-
-                    case "C":
-                        System.out.println("The following item(s) have been moved back to their original locations: ");
-                        System.out.println("");
-                        itemList.cleanStore();
-                        System.out.println("Select a menu option: ");
-                        System.out.println("");
-                        break;
-
-                    case "I":
-                        System.out.println("Enter the name: ");
-                        String itemName = input.nextLine();
-                        System.out.println("Enter the RFID: ");
-                        String rfidTag = input.nextLine();
-                        System.out.println("Enter the original location: ");
-                        String originalLocation = input.nextLine();
-                        System.out.println("Enter the price:");
-                        double price = input.nextDouble();
-                        input.nextLine();
-
-                        if (!ItemInfo.checkLocationFormat(originalLocation))
-                            throw new IllegalLocationException(
-                                    "The destination location has incorrect format! Please try again!");
-                        if (!ItemInfo.checkRfidFormat(rfidTag))
-                            throw new IllegalRFidTagNumberException(
-                                    "The RFID tag number has incorrect format! Please try again!");
-
-                        else {
-                            itemList.insertInfo(itemName, rfidTag, price, originalLocation);
-                        }
-                        System.out.println("The item has been successfully added to the list.");
-                        System.out.println("");
-                        System.out.println("Select a menu option: ");
-                        System.out.println("");
-                        continue;
-
-                    case "L":
-                        System.out.println("Enter the location: ");
-                        String findCurrentLocation = input.nextLine();
-                        if (!ItemInfo.checkLocationFormat(findCurrentLocation))
-                            throw new IllegalLocationException(
-                                    "The location has incorrect format! Please try again!");
-                        else
-                            itemList.printByLocation(findCurrentLocation);
-                        System.out.println("Select a menu option: ");
-                        System.out.println("");
-                        continue;
-
-                    case "M":
-                        System.out.println("Enter the RFID: ");
-                        String rfidTagNumber = input.nextLine();
-                        System.out.println("Enter the original location: ");
-                        String firstLocation = input.nextLine();
-                        System.out.println("Enter the new location: ");
-                        String newLocation = input.nextLine();
-
-                        ItemInfoNode current = itemList.getHead();
-                        boolean rfidTagFound = false;
-
-                        while (current != null) {
-                            ItemInfo item = current.getInfo();
-                            if (item.getRfidTagNumber().equalsIgnoreCase(rfidTagNumber)) {
-                                rfidTagFound = true;
-                                break;
+                try {
+                    switch (option.toUpperCase()) {
+
+                        case "B":
+                            System.out.println("Enter the manifest file (CSV or TSV): ");
+                            Path manifest = Paths.get(input.nextLine().trim());
+                            try {
+                                LoadReport report = InventoryLoader.load(manifest, itemList);
+                                System.out.println(report);
+                                if (report.getRejected() > 0)
+                                    System.out.println("The rejected rows were written to " + report.writeErrors());
+                            } catch (IOException e) {
+                                System.out.println("The manifest could not be read: " + e.getMessage());
+                            }
+                            System.out.println("");
+                            System.out.println("Select a menu option: ");
+                            System.out.println("");
+                            continue;
+
+                        case "C":
+                            System.out.println("The following item(s) have been moved back to their original locations: ");
+                            System.out.println("");
+                            itemList.cleanStore();
+                            System.out.println("Select a menu option: ");
+                            System.out.println("");
+                            break;
+
+                        case "E":
+                            System.out.println("Enter the reader event file (one RFID and location per line): ");
+                            Path events = Paths.get(input.nextLine().trim());
+                            ReaderEventPipeline pipeline = new ReaderEventPipeline(itemList);
+                            try (BufferedReader reader = Files.newBufferedReader(events)) {
+                                String line;
+                                while ((line = reader.readLine()) != null) {
+                                    String[] fields = line.trim().split("[,\\t ]+");
+                                    if (fields.length == 2)
+                                        pipeline.submit(fields[0], fields[1]);
+                                    else if (!line.isBlank())
+                                        pipeline.submit("", ""); // Counted as rejected
+                                }
+                            } catch (IOException e) {
+                                System.out.println("The reader event file could not be read: " + e.getMessage());
+                            } finally {
+                                pipeline.close();
+                            }
+                            System.out.println(pipeline.report());
+                            System.out.println("");
+                            System.out.println("Select a menu option: ");
+                            System.out.println("");
+                            continue;
+
+                        case "I":
+                            System.out.println("Enter the name: ");
+                            String itemName = input.nextLine();
+                            System.out.println("Enter the RFID: ");
+                            String rfidTag = input.nextLine();
+                            System.out.println("Enter the original location: ");
+                            String originalLocation = input.nextLine();
+                            System.out.println("Enter the price:");
+                            double price = input.nextDouble();
+                            input.nextLine();
+
+                            if (!ItemInfo.checkLocationFormat(originalLocation))
+                                throw new IllegalLocationException(
+                                        "The destination location has incorrect format! Please try again!");
+                            if (!ItemInfo.checkRfidFormat(rfidTag))
+                                throw new IllegalRFidTagNumberException(
+                                        "The RFID tag number has incorrect format! Please try again!");
+
+                            else {
+                                itemList.insertInfo(itemName, rfidTag, price, originalLocation);
+                            }
+                            System.out.println("The item has been successfully added to the list.");
+                            System.out.println("");
+                            System.out.println("Select a menu option: ");
+                            System.out.println("");
+                            continue;
+
+                        case "L":
+                            System.out.println("Enter the location: ");
+                            String findCurrentLocation = input.nextLine();
+                            if (!ItemInfo.checkLocationFormat(findCurrentLocation))
+                                throw new IllegalLocationException(
+                                        "The location has incorrect format! Please try again!");
+                            else
+                                itemList.printByLocation(findCurrentLocation);
+                            System.out.println("Select a menu option: ");
+                            System.out.println("");
+                            continue;
+
+                        case "M":
+                            System.out.println("Enter the RFID: ");
+                            String rfidTagNumber = input.nextLine();
+                            System.out.println("Enter the original location: ");
+                            String firstLocation = input.nextLine();
+                            System.out.println("Enter the new location: ");
+                            String newLocation = input.nextLine();
+
+                            if (!itemList.containsRFID(rfidTagNumber)) {
+                                System.out.println("There is no item with the given RFID!");
+                                System.out.println("Select a menu option: ");
+                                System.out.println("");
+                                continue;
+                            }
+
+                            if (LocationCodec.encode(firstLocation) == LocationCodec.OUT
+                                    || LocationCodec.encode(newLocation) == LocationCodec.OUT) {
+                                System.out.println("The item is no longer in the store!");
+                                System.out.println("Select a menu option: ");
+                                System.out.println("");
+                                continue;
+                            } else {
+                                itemList.moveItem(rfidTagNumber, firstLocation, newLocation);
+                                System.out.println("");
+                                System.out.println("The item has been moved!");
+                            }
+
+                            System.out.println("Select a menu option: ");
+                            System.out.println("");
+                            continue;
+
+                        case "N":
+                            System.out.println("Enter the name or the start of it: ");
+                            String nameQuery = input.nextLine();
+                            if (NameIndex.tokens(nameQuery).isEmpty())
+                                throw new IllegalArgumentException("The name should hold a letter or digit! Please try again!");
+                            if (itemList.printByName(nameQuery, 0, 100) == 0) {
+                                System.out.println("No item is named so. Close matches: ");
+                                System.out.println("");
+                                itemList.printByName(nameQuery, 1, 100);
                             }
-                            current = current.getNext();
-                        }
+                            System.out.println("Select a menu option: ");
+                            System.out.println("");
+                            continue;
+
+                        case "O":
+                            System.out.println("Enter the cart number: ");
+                            String cartNumber = input.nextLine();
+                            if (!LocationCodec.isCart(LocationCodec.encode(cartNumber)))
+                                throw new IllegalLocationException(
+                                        "The location should be a cart number in correct format! Please try again!");
+                            long cartCents = itemList.checkOut(cartNumber);
+                            System.out.println("The total cost for all merchandise in " + cartNumber + " was $"
+                                    + ReportWriter.appendCents(new StringBuilder(), cartCents));
+                            System.out.println("Select a menu option: ");
+                            System.out.println("");
+                            continue;
+
+                        case "P":
+                            itemList.printAll();
+                            System.out.println("");
+                            System.out.println("Select a menu option: ");
+                            System.out.println("");
+                            continue;
+
+                        case "R":
+                            System.out.println("Enter the RFID: ");
+                            String rfidTagPrint = input.nextLine();
 
-                        if (!rfidTagFound) {
-                            System.out.println("There is no item with the given RFID!");
+                            itemList.printByRFID(rfidTagPrint);
+                            System.out.println("");
                             System.out.println("Select a menu option: ");
                             System.out.println("");
                             continue;
-                        }
 
-                        if (firstLocation.equals("out") || newLocation.equals("out")) {
-                            System.out.println("The item is no longer in the store!");
+                        case "S":
+                            if (journaled != null) {
+                                // The snapshot replaces the journal, so it goes where startup looks for it
+                                try {
+                                    journaled.checkpoint(Paths.get(snapshotOption));
+                                    System.out.println("Saved " + itemList.listLength() + " item(s) to " + snapshotOption
+                                            + " and cleared the journal.");
+                                } catch (IOException e) {
+                                    System.out.println("The snapshot could not be saved: " + e.getMessage());
+                                }
+                                System.out.println("");
+                                System.out.println("Select a menu option: ");
+                                System.out.println("");
+                                continue;
+                            }
+                            System.out.println("Enter the snapshot file: ");
+                            String snapshotFile = input.nextLine().trim();
+                            try {
+                                InventorySnapshot.write(itemList, Paths.get(snapshotFile));
+                                System.out.println("Saved " + itemList.listLength() + " item(s) to " + snapshotFile + ".");
+                            } catch (IOException e) {
+                                System.out.println("The snapshot could not be saved: " + e.getMessage());
+                            }
+                            System.out.println("");
                             System.out.println("Select a menu option: ");
                             System.out.println("");
                             continue;
-                        } else {
-                            itemList.moveItem(rfidTagNumber, firstLocation, newLocation);
-                            System.out.println("");
-                            System.out.println("The item has been moved!");
-                        }
-
-                        System.out.println("Select a menu option: ");
-                        System.out.println("");
-                        continue;
-
-                    case "O":
-                        System.out.println("Enter the cart number: ");
-                        String cartNumber = input.nextLine();
-                        if (!cartNumber.matches("(?i)c\\d{3}"))
-                            throw new IllegalLocationException(
-                                    "The location should be a cart number in correct format! Please try again!");
-                        double cartTotal = itemList.checkOut(cartNumber);
-                        System.out
-                                .println("The total cost for all merchandise in " + cartNumber + " was $" + cartTotal);
-                        System.out.println("Select a menu option: ");
-                        System.out.println("");
-                        continue;
-
-                    case "P":
-                        itemList.printAll();
-                        System.out.println("");
-                        System.out.println("Select a menu option: ");
-                        System.out.println("");
-                        continue;
-
-                    case "R":
-                        System.out.println("Enter the RFID: ");
-                        String rfidTagPrint = input.nextLine();
-
-                        itemList.printByRFID(rfidTagPrint);
-                        System.out.println("");
-                        System.out.println("Select a menu option: ");
-                        System.out.println("");
-                        continue;
-
-                    case "U":
-                        System.out.println("The following item(s) have removed from the system: ");
-                        System.out.println("");
-                        itemList.removeAllPurchased();
-                        System.out.println("Select a menu option: ");
-                        System.out.println("");
-                        continue;
-
-                    case "Q": // Quit
-                        System.out.println("Thank you for using our Department Store! ");
-                        flag = false;
-                        input.close();
-                        break;
-                    default:
-                        if (!option.equalsIgnoreCase("Q")) {
-                            System.out.println("Invalid option");
-                        }
-                        break;
+
+                        case "T":
+                            System.out.println("Enter the cart number: ");
+                            String totalCart = input.nextLine();
+                            if (!LocationCodec.isCart(LocationCodec.encode(totalCart)))
+                                throw new IllegalLocationException(
+                                        "The location should be a cart number in correct format! Please try again!");
+                            System.out.println(totalCart + " holds " + itemList.cartItemCount(totalCart)
+                                    + " item(s) coming to $"
+                                    + ReportWriter.appendCents(new StringBuilder(), itemList.cartTotalCents(totalCart)));
+                            System.out.println("");
+                            System.out.println("Select a menu option: ");
+                            System.out.println("");
+                            continue;
+
+                        case "U":
+                            System.out.println("The following item(s) have removed from the system: ");
+                            System.out.println("");
+                            itemList.removeAllPurchased();
+                            System.out.println("Select a menu option: ");
+                            System.out.println("");
+                            continue;
+
+                        case "V":
+                            System.out.println("Enter the first shelf: ");
+                            String firstShelf = input.nextLine().trim();
+                            System.out.println("Enter the last shelf: ");
+                            String lastShelf = input.nextLine().trim();
+                            int first = LocationCodec.encode(firstShelf);
+                            int last = LocationCodec.encode(lastShelf);
+                            if (!LocationCodec.isShelf(first) || !LocationCodec.isShelf(last))
+                                throw new IllegalLocationException(
+                                        "The range should be given as two shelves in correct format! Please try again!");
+                            System.out.println("Enter the shelves per aisle, or nothing for the range only: ");
+                            String aisleWidth = input.nextLine().trim();
+                            if (!aisleWidth.isEmpty()) {
+                                int width = Integer.parseInt(aisleWidth);
+                                if (width < 1)
+                                    throw new IllegalArgumentException("The shelves per aisle should be at least 1");
+                                for (int start = first; start <= last; start = (start / width + 1) * width) {
+                                    String from = LocationCodec.decode(start);
+                                    String to = LocationCodec.decode(Math.min(last, (start / width + 1) * width - 1));
+                                    long aisleCount = itemList.shelfItemCount(from, to);
+                                    if (aisleCount > 0)
+                                        System.out.println(from + " to " + to + ": " + aisleCount + " item(s) worth $"
+                                                + ReportWriter.appendCents(new StringBuilder(),
+                                                        itemList.shelfValueCents(from, to)));
+                                }
+                            }
+                            System.out.println("Shelves " + firstShelf + " to " + lastShelf + " hold "
+                                    + itemList.shelfItemCount(firstShelf, lastShelf) + " item(s) worth $"
+                                    + ReportWriter.appendCents(new StringBuilder(),
+                                            itemList.shelfValueCents(firstShelf, lastShelf)));
+                            System.out.println("");
+                            System.out.println("Select a menu option: ");
+                            System.out.println("");
+                            continue;
+
+                        case "Q": // Quit
+                            System.out.println("Thank you for using our Department Store! ");
+                            flag = false;
+                            input.close();
+                            break;
+                        default:
+                            if (!option.equalsIgnoreCase("Q")) {
+                                System.out.println("Invalid option");
+                            }
+                            break;
+                    }
+                } catch (IllegalRFidTagNumberException | IllegalLocationException e) {
+                    // A bad tag or location only cancels this option; the menu carries on
+                    if (metrics != null)
+                        metrics.countError(e);
+                    System.out.println("Your RFID tag or location format is incorrect! Please try again!");
+                    System.out.println("");
+                } catch (InputMismatchException e) {
+                    if (metrics != null)
+                        metrics.countError(e);
+                    input.nextLine();
+                    System.out.println("An unexpected error occurred. Please check your inputs are correct!");
+                    System.out.println("");
+                } catch (NoSuchElementException e) {
+                    throw e; // The input has ended
+                } catch (Exception e) {
+                    if (metrics != null)
+                        metrics.countError(e);
+                    System.out.println("An unexpected error occurred. Please check your inputs are correct!");
+                    System.out.println("");
                 }
             }
-        } catch (IllegalRFidTagNumberException | IllegalLocationException e) {
-            System.out.println("Your RFID tag or location format is incorrect! Please try again!");
         } catch (Exception e) {
             System.out.println("An unexpected error occurred. Please check your inputs are correct!");
+        } finally {
+            if (journaled != null)
+                journaled.close();
+            if (primary != null)
+                primary.close();
+            if (replica != null)
+                replica.close();
+            if (metrics != null)
+                metrics.close();
+        }
+    }
+
+    /**
+     * Checks if a command-line flag was given.
+     *
+     * @param args the command-line arguments
+     * @param flag the flag to look for
+     * @return true if the flag was given, false otherwise
+     */
+    private static boolean hasFlag(String[] args, String flag) {
+        for (String arg : args) {
+            if (arg.equalsIgnoreCase(flag))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the value of a "--name=value" command-line option.
+     *
+     * @param args   the command-line arguments
+     * @param prefix the option name, including the "="
+     * @return the value of the option, or null if it was not given
+     */
+    private static String optionValue(String[] args, String prefix) {
+        for (String arg : args) {
+            if (arg.startsWith(prefix))
+                return arg.substring(prefix.length());
         }
+        return null;
     }
 }
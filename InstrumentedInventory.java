@@ -0,0 +1,337 @@
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * The InstrumentedInventory class wraps another Inventory and records, for
+ * every operation made through it, how long the call took, how many items it
+ * affected, how many list nodes it visited and whether it threw, in an
+ * InventoryMetrics.
+ *
+ * The recording costs two System.nanoTime calls and a few atomic increments
+ * per call. Visiting operations count their items through a wrapped visitor.
+ * Nodes are counted by the wrapped inventory (see Inventory.nodesVisited), so
+ * they are only recorded for ItemList, whose calls never overlap; for the
+ * other engines they are left out. While the metrics are disabled, each call
+ * is passed straight on after checking one flag, and to leave out the
+ * instrumentation completely, do not wrap the inventory at all. Queries that
+ * only read a count kept up to date, such as listLength, are passed on
+ * without being recorded.
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public class InstrumentedInventory implements Inventory {
+
+    private final Inventory inventory; // The inventory the operations are passed to
+    private final InventoryMetrics metrics; // Where they are recorded
+
+    /**
+     * Constructs an InstrumentedInventory that passes operations to the given
+     * inventory and records them in the given metrics.
+     *
+     * @param inventory the inventory to wrap
+     * @param metrics   the metrics to record in
+     */
+    public InstrumentedInventory(Inventory inventory, InventoryMetrics metrics) {
+        this.inventory = inventory;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Gets the metrics the operations are recorded in.
+     *
+     * @return the metrics
+     */
+    public InventoryMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Records a call that returned, given the time it started and the node
+     * count of the wrapped inventory before it.
+     */
+    private void record(InventoryMetrics.Operation operation, long start, long items, long nodesBefore) {
+        long nanos = System.nanoTime() - start;
+        long nodes = nodesBefore < 0 ? -1 : inventory.nodesVisited() - nodesBefore;
+        metrics.get(operation).record(nanos, items, nodes);
+    }
+
+    private void failed(InventoryMetrics.Operation operation) {
+        metrics.get(operation).recordError();
+    }
+
+    @Override
+    public void insertInfo(String name, String rfidTag, double price, String initPosition) throws Exception {
+        if (!metrics.isEnabled()) {
+            inventory.insertInfo(name, rfidTag, price, initPosition);
+            return;
+        }
+        long nodes = inventory.nodesVisited();
+        long start = System.nanoTime();
+        try {
+            inventory.insertInfo(name, rfidTag, price, initPosition);
+        } catch (Exception e) {
+            failed(InventoryMetrics.Operation.INSERT_INFO);
+            throw e;
+        }
+        record(InventoryMetrics.Operation.INSERT_INFO, start, 1, nodes);
+    }
+
+    @Override
+    public void bulkLoad(List<ItemInfo> items) {
+        if (!metrics.isEnabled()) {
+            inventory.bulkLoad(items);
+            return;
+        }
+        long nodes = inventory.nodesVisited();
+        long start = System.nanoTime();
+        try {
+            inventory.bulkLoad(items);
+        } catch (RuntimeException e) {
+            failed(InventoryMetrics.Operation.BULK_LOAD);
+            throw e;
+        }
+        record(InventoryMetrics.Operation.BULK_LOAD, start, items.size(), nodes);
+    }
+
+    @Override
+    public boolean moveItem(String rfidTag, String source, String dest) throws Exception {
+        if (!metrics.isEnabled())
+            return inventory.moveItem(rfidTag, source, dest);
+        long nodes = inventory.nodesVisited();
+        long start = System.nanoTime();
+        boolean moved;
+        try {
+            moved = inventory.moveItem(rfidTag, source, dest);
+        } catch (Exception e) {
+            failed(InventoryMetrics.Operation.MOVE_ITEM);
+            throw e;
+        }
+        record(InventoryMetrics.Operation.MOVE_ITEM, start, moved ? 1 : 0, nodes);
+        return moved;
+    }
+
+    @Override
+    public long checkOut(String cartNumber, Consumer<ItemInfo> visitor) {
+        if (!metrics.isEnabled())
+            return inventory.checkOut(cartNumber, visitor);
+        int[] items = new int[1];
+        long nodes = inventory.nodesVisited();
+        long start = System.nanoTime();
+        long total;
+        try {
+            total = inventory.checkOut(cartNumber, item -> {
+                items[0]++;
+                visitor.accept(item);
+            });
+        } catch (RuntimeException e) {
+            failed(InventoryMetrics.Operation.CHECK_OUT);
+            throw e;
+        }
+        record(InventoryMetrics.Operation.CHECK_OUT, start, items[0], nodes);
+        return total;
+    }
+
+    @Override
+    public void cleanStore(Consumer<ItemInfo> visitor) {
+        if (!metrics.isEnabled()) {
+            inventory.cleanStore(visitor);
+            return;
+        }
+        int[] items = new int[1];
+        long nodes = inventory.nodesVisited();
+        long start = System.nanoTime();
+        try {
+            inventory.cleanStore(item -> {
+                items[0]++;
+                visitor.accept(item);
+            });
+        } catch (RuntimeException e) {
+            failed(InventoryMetrics.Operation.CLEAN_STORE);
+            throw e;
+        }
+        record(InventoryMetrics.Operation.CLEAN_STORE, start, items[0], nodes);
+    }
+
+    @Override
+    public void removeAllPurchased(Consumer<ItemInfo> visitor) {
+        if (!metrics.isEnabled()) {
+            inventory.removeAllPurchased(visitor);
+            return;
+        }
+        int[] items = new int[1];
+        long nodes = inventory.nodesVisited();
+        long start = System.nanoTime();
+        try {
+            inventory.removeAllPurchased(item -> {
+                items[0]++;
+                visitor.accept(item);
+            });
+        } catch (RuntimeException e) {
+            failed(InventoryMetrics.Operation.REMOVE_ALL_PURCHASED);
+            throw e;
+        }
+        record(InventoryMetrics.Operation.REMOVE_ALL_PURCHASED, start, items[0], nodes);
+    }
+
+    @Override
+    public int removePurchased(int maxItems, Consumer<ItemInfo> visitor) {
+        if (!metrics.isEnabled())
+            return inventory.removePurchased(maxItems, visitor);
+        long nodes = inventory.nodesVisited();
+        long start = System.nanoTime();
+        int removed;
+        try {
+            removed = inventory.removePurchased(maxItems, visitor);
+        } catch (RuntimeException e) {
+            failed(InventoryMetrics.Operation.REMOVE_PURCHASED);
+            throw e;
+        }
+        record(InventoryMetrics.Operation.REMOVE_PURCHASED, start, removed, nodes);
+        return removed;
+    }
+
+    @Override
+    public void forEachItem(Consumer<ItemInfo> action) {
+        if (!metrics.isEnabled()) {
+            inventory.forEachItem(action);
+            return;
+        }
+        int[] items = new int[1];
+        long nodes = inventory.nodesVisited();
+        long start = System.nanoTime();
+        try {
+            inventory.forEachItem(item -> {
+                items[0]++;
+                action.accept(item);
+            });
+        } catch (RuntimeException e) {
+            failed(InventoryMetrics.Operation.FOR_EACH_ITEM);
+            throw e;
+        }
+        record(InventoryMetrics.Operation.FOR_EACH_ITEM, start, items[0], nodes);
+    }
+
+    @Override
+    public void forEachAt(String location, Consumer<ItemInfo> action) {
+        if (!metrics.isEnabled()) {
+            inventory.forEachAt(location, action);
+            return;
+        }
+        int[] items = new int[1];
+        long nodes = inventory.nodesVisited();
+        long start = System.nanoTime();
+        try {
+            inventory.forEachAt(location, item -> {
+                items[0]++;
+                action.accept(item);
+            });
+        } catch (RuntimeException e) {
+            failed(InventoryMetrics.Operation.FOR_EACH_AT);
+            throw e;
+        }
+        record(InventoryMetrics.Operation.FOR_EACH_AT, start, items[0], nodes);
+    }
+
+    @Override
+    public boolean forEachWithRFID(String rfidTag, Consumer<ItemInfo> action) {
+        if (!metrics.isEnabled())
+            return inventory.forEachWithRFID(rfidTag, action);
+        int[] items = new int[1];
+        long nodes = inventory.nodesVisited();
+        long start = System.nanoTime();
+        boolean found;
+        try {
+            found = inventory.forEachWithRFID(rfidTag, item -> {
+                items[0]++;
+                action.accept(item);
+            });
+        } catch (RuntimeException e) {
+            failed(InventoryMetrics.Operation.FOR_EACH_WITH_RFID);
+            throw e;
+        }
+        record(InventoryMetrics.Operation.FOR_EACH_WITH_RFID, start, items[0], nodes);
+        return found;
+    }
+
+    @Override
+    public int forEachInTagRange(String fromTag, String toTag, Consumer<ItemInfo> action) {
+        if (!metrics.isEnabled())
+            return inventory.forEachInTagRange(fromTag, toTag, action);
+        long nodes = inventory.nodesVisited();
+        long start = System.nanoTime();
+        int visited;
+        try {
+            visited = inventory.forEachInTagRange(fromTag, toTag, action);
+        } catch (RuntimeException e) {
+            failed(InventoryMetrics.Operation.FOR_EACH_IN_TAG_RANGE);
+            throw e;
+        }
+        record(InventoryMetrics.Operation.FOR_EACH_IN_TAG_RANGE, start, visited, nodes);
+        return visited;
+    }
+
+    @Override
+    public int searchByName(String query, int maxEdits, int limit, Consumer<ItemInfo> action) {
+        if (!metrics.isEnabled())
+            return inventory.searchByName(query, maxEdits, limit, action);
+        long nodes = inventory.nodesVisited();
+        long start = System.nanoTime();
+        int found;
+        try {
+            found = inventory.searchByName(query, maxEdits, limit, action);
+        } catch (RuntimeException e) {
+            failed(InventoryMetrics.Operation.SEARCH_BY_NAME);
+            throw e;
+        }
+        record(InventoryMetrics.Operation.SEARCH_BY_NAME, start, found, nodes);
+        return found;
+    }
+
+    @Override
+    public boolean containsRFID(String rfidTag) {
+        return inventory.containsRFID(rfidTag);
+    }
+
+    @Override
+    public int listLength() {
+        return inventory.listLength();
+    }
+
+    @Override
+    public long nodesVisited() {
+        return inventory.nodesVisited();
+    }
+
+    @Override
+    public int misplacedCount() {
+        return inventory.misplacedCount();
+    }
+
+    @Override
+    public int cartItemCount(String cartNumber) {
+        return inventory.cartItemCount(cartNumber);
+    }
+
+    @Override
+    public long cartTotalCents(String cartNumber) {
+        return inventory.cartTotalCents(cartNumber);
+    }
+
+    @Override
+    public long shelfItemCount(String fromShelf, String toShelf) {
+        return inventory.shelfItemCount(fromShelf, toShelf);
+    }
+
+    @Override
+    public long shelfValueCents(String fromShelf, String toShelf) {
+        return inventory.shelfValueCents(fromShelf, toShelf);
+    }
+
+    @Override
+    public Map<String, Integer> misplacedByLocation() {
+        return inventory.misplacedByLocation();
+    }
+}
@@ -0,0 +1,460 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * The Inventory interface lists the operations the DepartmentStore menu runs on
+ * the store's items. ItemList, the doubly linked list of item nodes, is the
+ * usual implementation; OffHeapItemList keeps the same items outside the Java
+ * heap. StorageEngine picks one of them when the program starts.
+ *
+ * RFID tag numbers and locations are passed in as text and follow the formats
+ * checked by ItemInfo.checkRfidFormat and ItemInfo.checkLocationFormat.
+ *
+ * The operations that touch several items take a visitor, which is shown each
+ * item as it was found, before the operation changes it. The printing versions
+ * of those operations, used by the menu, pass a ReportWriter that streams the
+ * items to standard output as a table; other callers can write other reports
+ * the same way, or, like journal replay, pass a visitor that does nothing.
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public interface Inventory {
+
+    /**
+     * Inserts an item, keeping the items sorted by RFID tag number.
+     *
+     * @param name         the name of the item
+     * @param rfidTag      the RFID tag number of the item
+     * @param price        the price of the item
+     * @param initPosition the initial position of the item
+     * @throws Exception if the RFID tag number or location format is incorrect
+     */
+    void insertInfo(String name, String rfidTag, double price, String initPosition) throws Exception;
+
+    /**
+     * Inserts a batch of items at once, keeping the items sorted by RFID tag
+     * number. This is much faster than calling insertInfo for each of them.
+     *
+     * @param items the items to insert, which have passed the ItemInfo format
+     *              checks
+     */
+    void bulkLoad(List<ItemInfo> items);
+
+    /**
+     * Moves an item with the given RFID tag number from a source location to a
+     * destination location.
+     *
+     * @param rfidTag the RFID tag number of the item to move
+     * @param source  the source location of the item
+     * @param dest    the destination location of the item
+     * @return true if the item is successfully moved, false otherwise
+     * @throws Exception if the destination location format is incorrect or the
+     *                   source is "out"
+     */
+    boolean moveItem(String rfidTag, String source, String dest) throws Exception;
+
+    /**
+     * Records that an item with the given RFID tag number was seen at the given
+     * location, as reported by an RFID reader, which does not know where the
+     * item was before. If an item with the tag is already there, nothing
+     * changes; otherwise the first item with the tag that is still in the store
+     * is moved there with moveItem.
+     *
+     * @param rfidTag  the RFID tag number that was read
+     * @param location the location where it was read, which may not be "out"
+     * @return true if an item was moved, false if none needed to or could be
+     * @throws Exception if the location format is incorrect or is "out"
+     */
+    default boolean updateLocation(String rfidTag, String location) throws Exception {
+        int code = LocationCodec.encode(location);
+        if (code == LocationCodec.INVALID || code == LocationCodec.OUT)
+            throw new IllegalLocationException("The location read has an invalid format!");
+
+        int[] source = { LocationCodec.INVALID };
+        forEachWithRFID(rfidTag, item -> {
+            int current = item.getCurrentLocationCode();
+            if (current == code)
+                source[0] = code;
+            else if (source[0] == LocationCodec.INVALID && current != LocationCodec.OUT)
+                source[0] = current;
+        });
+        if (source[0] == LocationCodec.INVALID || source[0] == code)
+            return false;
+        return moveItem(rfidTag, LocationCodec.decode(source[0]), location);
+    }
+
+    /**
+     * Checks out all the items in a cart, setting their current location to
+     * "out".
+     *
+     * @param cartNumber the cart number to check out items from
+     * @param visitor    the action to run for each item, before it goes out
+     * @return the total price of the items checked out from the cart, in cents
+     */
+    long checkOut(String cartNumber, Consumer<ItemInfo> visitor);
+
+    /**
+     * Returns the number of items in a cart. This default counts them over the
+     * items at the cart.
+     *
+     * @param cartNumber the cart number
+     * @return the number of items in the cart, or 0 if it is not a cart
+     */
+    default int cartItemCount(String cartNumber) {
+        int[] count = new int[1];
+        if (LocationCodec.isCart(LocationCodec.encode(cartNumber)))
+            forEachAt(cartNumber, item -> count[0]++);
+        return count[0];
+    }
+
+    /**
+     * Returns the total price of the items in a cart, what checking it out would
+     * come to. This default adds them up over the items at the cart.
+     *
+     * @param cartNumber the cart number
+     * @return the total in cents, or 0 if it is not a cart
+     */
+    default long cartTotalCents(String cartNumber) {
+        long[] total = new long[1];
+        if (LocationCodec.isCart(LocationCodec.encode(cartNumber)))
+            forEachAt(cartNumber, item -> total[0] += item.getPriceCents());
+        return total[0];
+    }
+
+    /**
+     * Returns the number of items on the shelves from one shelf to another,
+     * inclusive. This default counts them over every item.
+     *
+     * @param fromShelf the first shelf of the range
+     * @param toShelf   the last shelf of the range
+     * @return the number of items, or 0 if the range is empty or its ends are
+     *         not shelves
+     */
+    default long shelfItemCount(String fromShelf, String toShelf) {
+        int from = LocationCodec.encode(fromShelf);
+        int to = LocationCodec.encode(toShelf);
+        long[] count = new long[1];
+        if (LocationCodec.isShelf(from) && LocationCodec.isShelf(to)) {
+            forEachItem(item -> {
+                int current = item.getCurrentLocationCode();
+                if (current >= from && current <= to)
+                    count[0]++;
+            });
+        }
+        return count[0];
+    }
+
+    /**
+     * Returns the total price of the items on the shelves from one shelf to
+     * another, inclusive: the stock value of the range. This default adds them
+     * up over every item.
+     *
+     * @param fromShelf the first shelf of the range
+     * @param toShelf   the last shelf of the range
+     * @return the total in cents, or 0 if the range is empty or its ends are
+     *         not shelves
+     */
+    default long shelfValueCents(String fromShelf, String toShelf) {
+        int from = LocationCodec.encode(fromShelf);
+        int to = LocationCodec.encode(toShelf);
+        long[] total = new long[1];
+        if (LocationCodec.isShelf(from) && LocationCodec.isShelf(to)) {
+            forEachItem(item -> {
+                int current = item.getCurrentLocationCode();
+                if (current >= from && current <= to)
+                    total[0] += item.getPriceCents();
+            });
+        }
+        return total[0];
+    }
+
+    /**
+     * Moves every item that is not at its original location, and is not "out",
+     * back to its original location.
+     *
+     * @param visitor the action to run for each item, before it is moved back
+     */
+    void cleanStore(Consumer<ItemInfo> visitor);
+
+    /**
+     * Removes all items whose current location is "out".
+     *
+     * @param visitor the action to run for each item, before it is removed
+     */
+    default void removeAllPurchased(Consumer<ItemInfo> visitor) {
+        removePurchased(Integer.MAX_VALUE, visitor);
+    }
+
+    /**
+     * Removes up to the given number of items whose current location is "out":
+     * the first ones in RFID tag number order. Since the items chosen depend
+     * only on the items held, not on the order they went out in, a journal can
+     * replay the call exactly. Purging in bounded chunks keeps each call short.
+     *
+     * @param maxItems the most items to remove
+     * @param visitor  the action to run for each item, before it is removed
+     * @return the number of items removed
+     */
+    int removePurchased(int maxItems, Consumer<ItemInfo> visitor);
+
+    /**
+     * Passes up to the given number of items whose current location is "out"
+     * to the action, the first ones in RFID tag number order: the items
+     * removePurchased would remove, left where they are. This default lists
+     * every purchased item.
+     *
+     * @param maxItems the most items to pass
+     * @param action   the action to run for each item
+     * @return the number of items passed to the action
+     */
+    default int forEachPurchased(int maxItems, Consumer<ItemInfo> action) {
+        int[] passed = new int[1];
+        forEachAt(LocationCodec.decode(LocationCodec.OUT), item -> {
+            if (passed[0] < maxItems) {
+                passed[0]++;
+                action.accept(item);
+            }
+        });
+        return passed[0];
+    }
+
+    /**
+     * Returns the number of misplaced items: those that are not "out" and not at
+     * their original location. This default counts them over every item.
+     *
+     * @return the number of misplaced items
+     */
+    default int misplacedCount() {
+        int[] count = new int[1];
+        forEachItem(item -> {
+            if (MisplacedIndex.isMisplaced(item))
+                count[0]++;
+        });
+        return count[0];
+    }
+
+    /**
+     * Returns how many misplaced items sit at each location that has any, in
+     * location code order: shelves first, then carts. This default counts them
+     * over every item.
+     *
+     * @return a new map from location to the number of misplaced items there
+     */
+    default Map<String, Integer> misplacedByLocation() {
+        TreeMap<Integer, Integer> byCode = new TreeMap<>();
+        forEachItem(item -> {
+            if (MisplacedIndex.isMisplaced(item))
+                byCode.merge(item.getCurrentLocationCode(), 1, Integer::sum);
+        });
+        LinkedHashMap<String, Integer> counts = new LinkedHashMap<>();
+        for (Map.Entry<Integer, Integer> entry : byCode.entrySet())
+            counts.put(LocationCodec.decode(entry.getKey()), entry.getValue());
+        return counts;
+    }
+
+    /**
+     * Passes every item to the given action, in RFID tag number order. The
+     * items must not be changed by the action.
+     *
+     * @param action the action to run for each item
+     */
+    void forEachItem(Consumer<ItemInfo> action);
+
+    /**
+     * Passes every item at the given location to the action, in RFID tag
+     * number order.
+     *
+     * @param location the location to search for items
+     * @param action   the action to run for each item
+     */
+    void forEachAt(String location, Consumer<ItemInfo> action);
+
+    /**
+     * Passes every item with the given RFID tag number to the action.
+     *
+     * @param rfidTag the RFID tag number of the items to visit
+     * @param action  the action to run for each item
+     * @return true if at least one item has the tag, false otherwise
+     */
+    boolean forEachWithRFID(String rfidTag, Consumer<ItemInfo> action);
+
+    /**
+     * Passes every item whose RFID tag number lies in a range to the action, in
+     * RFID tag number order. Each bound is up to 9 hexadecimal digits, and is
+     * taken as a prefix: the range runs from the lowest tag starting with
+     * fromTag to the highest tag starting with toTag, so "A0" to "A3" covers
+     * A00000000 to A3FFFFFFF, and full tags give an inclusive range.
+     *
+     * @param fromTag the lowest tag, or a prefix of it
+     * @param toTag   the highest tag, or a prefix of it
+     * @param action  the action to run for each item
+     * @return the number of items visited, which is 0 if a bound is not up to
+     *         9 hexadecimal digits
+     */
+    int forEachInTagRange(String fromTag, String toTag, Consumer<ItemInfo> action);
+
+    /**
+     * Passes every item whose RFID tag number starts with the given hexadecimal
+     * digits to the action, in RFID tag number order.
+     *
+     * @param prefix up to 9 hexadecimal digits
+     * @param action the action to run for each item
+     * @return the number of items visited
+     */
+    default int forEachWithTagPrefix(String prefix, Consumer<ItemInfo> action) {
+        return forEachInTagRange(prefix, prefix, action);
+    }
+
+    /**
+     * Passes the items whose names match a query to the action, in RFID tag
+     * number order, up to a limit. Every word of the query must match a word of
+     * the name, the last one as a prefix, within maxEdits insertions, deletions
+     * or substitutions (see NameIndex). This default checks every item.
+     *
+     * @param query    the words to look for
+     * @param maxEdits the number of edits a word may be away from a name word
+     * @param limit    the most items to pass to the action
+     * @param action   the action to run for each matching item
+     * @return the number of items passed to the action
+     */
+    default int searchByName(String query, int maxEdits, int limit, Consumer<ItemInfo> action) {
+        List<String> words = NameIndex.tokens(query);
+        int[] visited = new int[1];
+        if (!words.isEmpty()) {
+            forEachItem(item -> {
+                if (visited[0] < limit && NameIndex.matches(words, item.getItemName(), maxEdits)) {
+                    action.accept(item);
+                    visited[0]++;
+                }
+            });
+        }
+        return visited[0];
+    }
+
+    /**
+     * Checks if there is at least one item with the given RFID tag number.
+     *
+     * @param rfidTag the RFID tag number to look for
+     * @return true if an item has the tag, false otherwise
+     */
+    boolean containsRFID(String rfidTag);
+
+    /**
+     * Returns the number of items.
+     *
+     * @return the number of items
+     */
+    int listLength();
+
+    /**
+     * Returns the number of list nodes the operations have stepped through so
+     * far, for InstrumentedInventory. This default does not count them.
+     *
+     * @return the number of nodes visited, or -1 if they are not counted
+     */
+    default long nodesVisited() {
+        return -1;
+    }
+
+    /**
+     * Checks out all the items in a cart and prints their information.
+     *
+     * @param cartNumber the cart number to check out items from
+     * @return the total price of the items checked out from the cart, in cents
+     */
+    default long checkOut(String cartNumber) {
+        try (ReportWriter table = ReportWriter.toStandardOutput()) {
+            return checkOut(cartNumber, table);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Moves misplaced items back to their original locations and prints their
+     * information.
+     */
+    default void cleanStore() {
+        try (ReportWriter table = ReportWriter.toStandardOutput()) {
+            cleanStore(table);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Removes all purchased items and prints their information.
+     */
+    default void removeAllPurchased() {
+        try (ReportWriter table = ReportWriter.toStandardOutput()) {
+            removeAllPurchased(table);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Prints information for all the items, in RFID tag number order.
+     */
+    default void printAll() {
+        try (ReportWriter table = ReportWriter.toStandardOutput()) {
+            forEachItem(table);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Prints information for all the items at the given location.
+     *
+     * @param location the location to search for items
+     */
+    default void printByLocation(String location) {
+        try (ReportWriter table = ReportWriter.toStandardOutput()) {
+            forEachAt(location, table);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Prints information for the items with the given RFID tag number.
+     *
+     * @param rfidTagPrint the RFID tag number of the items to print
+     */
+    default void printByRFID(String rfidTagPrint) {
+        boolean found;
+        try (ReportWriter table = ReportWriter.toStandardOutput()) {
+            found = forEachWithRFID(rfidTagPrint, table);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (!found) {
+            System.out.println("Item with RFID " + rfidTagPrint + " not found.");
+        }
+    }
+
+    /**
+     * Prints information for the items whose names match a query, up to a
+     * limit.
+     *
+     * @param query    the words to look for
+     * @param maxEdits the number of edits a word may be away from a name word
+     * @param limit    the most items to print
+     * @return the number of items printed
+     */
+    default int printByName(String query, int maxEdits, int limit) {
+        try (ReportWriter table = ReportWriter.toStandardOutput()) {
+            return searchByName(query, maxEdits, limit, table);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+/**
+ * The InventoryLoader class reads a pallet manifest and adds its items to an
+ * Inventory in one bulk load, instead of one insertInfo call per item.
+ *
+ * A manifest has one item per line, with the same fields the menu asks for
+ * when inserting an item: name, RFID tag number, original location and price.
+ * Files ending in ".tsv", or whose first line contains a tab, are split on
+ * tabs; all others are split on commas, and fields may then be wrapped in
+ * double quotes (with "" for a quote inside a field). An optional header line
+ * starting with "name" is skipped, and so are blank lines.
+ *
+ * Every row is checked with the ItemInfo rules. Rows that fail are recorded in
+ * the LoadReport and the rest of the manifest is still loaded.
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public class InventoryLoader {
+
+    private static final int FIELDS = 4; // name, RFID, location, price
+
+    private InventoryLoader() {
+    }
+
+    /**
+     * Reads the manifest at the given path and bulk loads its valid rows.
+     * Analysis of Complexity:
+     * O(m log m) for the m rows of the manifest, plus one pass over the items
+     * already in the inventory.
+     *
+     * @param manifest  the manifest file
+     * @param inventory the inventory to add the items to
+     * @return the report of loaded and rejected rows
+     * @throws IOException if the manifest cannot be read
+     */
+    public static LoadReport load(Path manifest, Inventory inventory) throws IOException {
+        LoadReport report = new LoadReport(manifest);
+        ArrayList<ItemInfo> batch = new ArrayList<>();
+
+        try (BufferedReader reader = Files.newBufferedReader(manifest, StandardCharsets.UTF_8)) {
+            String line = reader.readLine();
+            char delimiter = manifest.toString().toLowerCase().endsWith(".tsv")
+                    || (line != null && line.indexOf('\t') >= 0) ? '\t' : ',';
+
+            String[] fields = new String[FIELDS];
+            for (int lineNumber = 1; line != null; line = reader.readLine(), lineNumber++) {
+                if (line.isBlank())
+                    continue;
+
+                int count = split(line, delimiter, fields);
+                if (lineNumber == 1 && count > 0 && fields[0].trim().equalsIgnoreCase("name"))
+                    continue; // Header
+
+                if (count != FIELDS) {
+                    report.reject(lineNumber, line, "Expected " + FIELDS + " fields but found " + count);
+                    continue;
+                }
+
+                try {
+                    double price = Double.parseDouble(fields[3].trim());
+                    batch.add(new ItemInfo(fields[0].trim(), price, fields[1].trim(), fields[2].trim()));
+                } catch (NumberFormatException e) {
+                    report.reject(lineNumber, line, "The price is not a number");
+                } catch (IllegalRFidTagNumberException e) {
+                    report.reject(lineNumber, line, "The RFID tag number has incorrect format");
+                } catch (IllegalLocationException e) {
+                    report.reject(lineNumber, line, "The original location has incorrect format");
+                } catch (Exception e) {
+                    report.reject(lineNumber, line, e.getMessage());
+                }
+            }
+        }
+
+        inventory.bulkLoad(batch);
+        report.setLoaded(batch.size());
+        return report;
+    }
+
+    /**
+     * Splits a line into fields. Fields beyond the size of the array are
+     * counted but not kept.
+     *
+     * @param line      the line to split
+     * @param delimiter the field delimiter
+     * @param fields    the array to fill with the fields
+     * @return the number of fields in the line
+     */
+    private static int split(String line, char delimiter, String[] fields) {
+        int count = 0;
+        int i = 0;
+        int length = line.length();
+        StringBuilder quoted = null;
+
+        while (i <= length) {
+            String field;
+            if (delimiter != '\t' && i < length && line.charAt(i) == '"') {
+                if (quoted == null)
+                    quoted = new StringBuilder();
+                quoted.setLength(0);
+                i++;
+                while (i < length) {
+                    char ch = line.charAt(i++);
+                    if (ch != '"') {
+                        quoted.append(ch);
+                    } else if (i < length && line.charAt(i) == '"') {
+                        quoted.append('"');
+                        i++;
+                    } else {
+                        break;
+                    }
+                }
+                field = quoted.toString();
+                while (i < length && line.charAt(i) != delimiter)
+                    i++;
+            } else {
+                int end = line.indexOf(delimiter, i);
+                if (end < 0)
+                    end = length;
+                field = line.substring(i, end);
+                i = end;
+            }
+
+            if (count < fields.length)
+                fields[count] = field;
+            count++;
+            i++; // Skip the delimiter
+        }
+        return count;
+    }
+}
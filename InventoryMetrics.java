@@ -0,0 +1,193 @@
+import java.io.Closeable;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * The InventoryMetrics class holds the statistics an InstrumentedInventory
+ * records: one OperationStats per Inventory operation, and counts of the
+ * validation errors the menu and the command dispatcher report. Everything is
+ * lock-free, so the statistics cost a few atomic increments per call, and can
+ * be read while they are being recorded.
+ *
+ * The statistics can be published as platform MXBeans, one
+ * "InventoryManager:type=Operation,name=method" per operation plus
+ * "InventoryManager:type=Metrics", to be read with jconsole or any JMX
+ * client, and written as a text table at a fixed period.
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public class InventoryMetrics implements InventoryMetricsMXBean, Closeable {
+
+    private static final String DOMAIN = "InventoryManager";
+
+    /**
+     * The Inventory operations that are recorded, by method.
+     */
+    public enum Operation {
+        INSERT_INFO("insertInfo"), BULK_LOAD("bulkLoad"), MOVE_ITEM("moveItem"), CHECK_OUT("checkOut"),
+        CLEAN_STORE("cleanStore"), REMOVE_ALL_PURCHASED("removeAllPurchased"), REMOVE_PURCHASED("removePurchased"),
+        FOR_EACH_ITEM("forEachItem"), FOR_EACH_AT("forEachAt"), FOR_EACH_WITH_RFID("forEachWithRFID"),
+        FOR_EACH_IN_TAG_RANGE("forEachInTagRange"), SEARCH_BY_NAME("searchByName");
+
+        private final String method;
+
+        Operation(String method) {
+            this.method = method;
+        }
+
+        /**
+         * Gets the name of the Inventory method.
+         *
+         * @return the method name
+         */
+        public String getMethod() {
+            return method;
+        }
+    }
+
+    private final EnumMap<Operation, OperationStats> stats;
+    private final ConcurrentHashMap<String, LongAdder> errors; // Exception class -> times reported
+    private volatile boolean enabled = true;
+    private boolean registered; // Whether the MXBeans are registered
+    private ScheduledThreadPoolExecutor dumper; // Writes the periodic dump, or null
+
+    /**
+     * Constructs empty metrics, recording.
+     */
+    public InventoryMetrics() {
+        stats = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values())
+            stats.put(operation, new OperationStats(operation.getMethod()));
+        errors = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Gets the statistics of an operation.
+     *
+     * @param operation the operation
+     * @return its statistics
+     */
+    public OperationStats get(Operation operation) {
+        return stats.get(operation);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Counts a validation error reported to a user, by the class of its
+     * exception.
+     *
+     * @param e the exception
+     */
+    public void countError(Throwable e) {
+        if (enabled)
+            errors.computeIfAbsent(e.getClass().getSimpleName(), name -> new LongAdder()).increment();
+    }
+
+    @Override
+    public Map<String, Long> getErrorCounts() {
+        TreeMap<String, Long> counts = new TreeMap<>();
+        for (Map.Entry<String, LongAdder> entry : errors.entrySet())
+            counts.put(entry.getKey(), entry.getValue().sum());
+        return counts;
+    }
+
+    @Override
+    public String dump() {
+        StringBuilder table = new StringBuilder();
+        table.append(String.format("%-18s %10s %7s %10s %12s %10s %10s %10s %10s%n", "Operation", "Calls", "Errors",
+                "Items", "Nodes/call", "p50 us", "p99 us", "p99.9 us", "max us"));
+        for (OperationStats operation : stats.values()) {
+            if (operation.getCalls() == 0 && operation.getErrors() == 0)
+                continue;
+            long nodes = operation.getNodesVisited();
+            table.append(String.format("%-18s %,10d %,7d %,10d %12s %10.1f %10.1f %10.1f %10.1f%n",
+                    operation.getName(), operation.getCalls(), operation.getErrors(), operation.getItemsAffected(),
+                    nodes < 0 || operation.getCalls() == 0 ? "-"
+                            : String.format("%.1f", (double) nodes / operation.getCalls()),
+                    operation.getP50Micros(), operation.getP99Micros(), operation.getP999Micros(),
+                    operation.getMaxMicros()));
+        }
+        for (Map.Entry<String, Long> entry : getErrorCounts().entrySet())
+            table.append(String.format("%-18s %,10d%n", entry.getKey(), entry.getValue()));
+        return table.toString();
+    }
+
+    /**
+     * Registers the MXBeans with the platform MBean server.
+     *
+     * @throws JMException if they cannot be registered, for example because
+     *                     another InventoryMetrics already is
+     */
+    public synchronized void register() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        server.registerMBean(this, new ObjectName(DOMAIN + ":type=Metrics"));
+        registered = true;
+        for (OperationStats operation : stats.values())
+            server.registerMBean(operation, nameOf(operation));
+    }
+
+    /**
+     * Writes the table of dump to the given stream every period, from a
+     * background thread, until closed.
+     *
+     * @param out          where to write
+     * @param periodMillis the period in milliseconds
+     */
+    public synchronized void startDump(PrintStream out, long periodMillis) {
+        if (dumper != null)
+            dumper.shutdownNow();
+        dumper = new ScheduledThreadPoolExecutor(1, task -> {
+            Thread thread = new Thread(task, "metrics-dump");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dumper.scheduleAtFixedRate(() -> out.print(dump()), periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the periodic dump and unregisters the MXBeans.
+     */
+    @Override
+    public synchronized void close() {
+        if (dumper != null) {
+            dumper.shutdownNow();
+            dumper = null;
+        }
+        if (registered) {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            try {
+                server.unregisterMBean(new ObjectName(DOMAIN + ":type=Metrics"));
+                for (OperationStats operation : stats.values())
+                    server.unregisterMBean(nameOf(operation));
+            } catch (JMException e) {
+                // Already unregistered
+            }
+            registered = false;
+        }
+    }
+
+    private static ObjectName nameOf(OperationStats operation) throws JMException {
+        return new ObjectName(DOMAIN + ":type=Operation,name=" + operation.getName());
+    }
+}
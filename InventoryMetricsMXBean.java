@@ -0,0 +1,42 @@
+import java.util.Map;
+
+/**
+ * The InventoryMetricsMXBean interface is the JMX view of InventoryMetrics as
+ * a whole; each operation has its own OperationStatsMXBean.
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public interface InventoryMetricsMXBean {
+
+    /**
+     * Checks if the operations are being recorded.
+     *
+     * @return true if they are recorded
+     */
+    boolean isEnabled();
+
+    /**
+     * Starts or stops recording the operations. While stopped, an
+     * InstrumentedInventory only checks this flag before passing each call on.
+     *
+     * @param enabled true to record, false to stop
+     */
+    void setEnabled(boolean enabled);
+
+    /**
+     * Gets how many times each kind of validation error was reported, such as
+     * a bad RFID tag number or location typed at the menu.
+     *
+     * @return the exception class name -> count
+     */
+    Map<String, Long> getErrorCounts();
+
+    /**
+     * Writes every statistic as a text table, as the periodic dump does.
+     *
+     * @return the table
+     */
+    String dump();
+}
@@ -0,0 +1,426 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * The InventoryReplica class is a read-only copy of the inventory of a
+ * ReplicationPrimary, kept up to date over TCP on the loopback interface, so
+ * that reports can be run without holding up the primary, and so that a hot
+ * standby is ready to take over.
+ *
+ * A background thread connects to the primary, takes a copy of the whole
+ * inventory if it has none the primary can continue, and then applies each
+ * batch of records the primary sends, acknowledging what it has applied once
+ * nothing more has arrived. If the connection fails, it connects again every
+ * half a second and carries on from the last record it applied.
+ *
+ * Any number of threads may read at once; a batch is applied while no read is
+ * running. The changes are refused with UnsupportedOperationException: they
+ * go to the primary.
+ *
+ * The replica is as stale as the time since the primary last told it that it
+ * had every record (getStalenessMillis); with setMaxStalenessMillis, reads of
+ * a staler replica fail with IllegalStateException, so a client can go to the
+ * primary instead. The primary and the replica must run on the same machine,
+ * since the staleness is measured on both clocks.
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public class InventoryReplica implements Inventory, Closeable {
+
+    private static final long RETRY_MILLIS = 500;
+    private static final int STREAM_BUFFER_BYTES = 1 << 16;
+
+    private final StorageEngine engine; // Makes the inventory a copy is restored into
+    private final int shardCount;
+    private final int primaryPort;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock(); // Reads share, batches exclude
+    private final Thread applier;
+    private Inventory inventory; // Guarded by lock
+
+    private volatile long logId; // The primary log the sequence numbers are from, or 0
+    private volatile long appliedSequence; // The last record applied
+    private volatile long primarySequence; // The last record the primary had, as last heard
+    private volatile long caughtUpAtMillis = -1; // When the primary last had no record not applied here
+    private volatile long maxStalenessMillis; // Reads fail beyond this, or 0
+    private volatile Socket socket;
+    private volatile boolean closed;
+    private final AtomicLong snapshots = new AtomicLong(); // Copies restored
+    private final AtomicLong batches = new AtomicLong(); // Batches holding records applied
+
+    /**
+     * Constructs an empty replica of the primary on the given port and starts
+     * following it.
+     *
+     * @param engine      the storage engine to keep the items in
+     * @param shardCount  the number of shards to split them over
+     * @param primaryPort the port of the ReplicationPrimary on the loopback
+     *                    interface
+     */
+    public InventoryReplica(StorageEngine engine, int shardCount, int primaryPort) {
+        this.engine = engine;
+        this.shardCount = shardCount;
+        this.primaryPort = primaryPort;
+        this.inventory = engine.create(shardCount);
+        this.applier = new Thread(this::followLoop, "replica-applier");
+        this.applier.setDaemon(true);
+        this.applier.start();
+    }
+
+    /**
+     * Makes reads fail while the replica is staler than the given time.
+     *
+     * @param maxStalenessMillis the most staleness allowed, in milliseconds,
+     *                           or 0 for any
+     */
+    public void setMaxStalenessMillis(long maxStalenessMillis) {
+        this.maxStalenessMillis = maxStalenessMillis;
+    }
+
+    /**
+     * Returns how long ago the primary last had no change that this replica
+     * has not applied. Every change made on the primary before then can be
+     * read here.
+     *
+     * @return the staleness in milliseconds, or Long.MAX_VALUE if the replica
+     *         has never caught up
+     */
+    public long getStalenessMillis() {
+        long caughtUpAt = caughtUpAtMillis;
+        return caughtUpAt < 0 ? Long.MAX_VALUE : Math.max(0, System.currentTimeMillis() - caughtUpAt);
+    }
+
+    /**
+     * Gets the sequence number of the last record applied.
+     *
+     * @return the sequence number
+     */
+    public long getAppliedSequence() {
+        return appliedSequence;
+    }
+
+    /**
+     * Gets how many records the replica is behind the primary, as last heard.
+     *
+     * @return the number of records
+     */
+    public long getRecordsBehind() {
+        return Math.max(0, primarySequence - appliedSequence);
+    }
+
+    /**
+     * Gets the number of copies of the primary's inventory restored so far.
+     *
+     * @return the number of copies
+     */
+    public long getSnapshots() {
+        return snapshots.get();
+    }
+
+    /**
+     * Gets the number of batches of records applied so far.
+     *
+     * @return the number of batches
+     */
+    public long getBatches() {
+        return batches.get();
+    }
+
+    // Following the primary
+
+    private void followLoop() {
+        boolean reported = false; // The current run of failures was reported
+        while (!closed) {
+            try (Socket connection = new Socket(InetAddress.getLoopbackAddress(), primaryPort)) {
+                socket = connection;
+                if (closed)
+                    return;
+                reported = false;
+                connection.setTcpNoDelay(true);
+                DataInputStream in = new DataInputStream(
+                        new BufferedInputStream(connection.getInputStream(), STREAM_BUFFER_BYTES));
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(connection.getOutputStream()));
+                out.writeInt(ReplicationPrimary.MAGIC);
+                out.writeLong(logId);
+                out.writeLong(appliedSequence);
+                out.flush();
+
+                byte[] records = new byte[1 << 16];
+                while (!closed) {
+                    byte frame = in.readByte();
+                    if (frame == ReplicationPrimary.SNAPSHOT)
+                        restore(in);
+                    else if (frame == ReplicationPrimary.BATCH)
+                        records = apply(in, records);
+                    else
+                        throw new IOException("Unknown replication frame " + frame);
+                    if (in.available() == 0) {
+                        out.writeLong(appliedSequence);
+                        out.flush();
+                    }
+                }
+            } catch (IOException e) {
+                if (closed)
+                    return;
+                if (!reported)
+                    System.err.println("Replication from port " + primaryPort + " failed, retrying: "
+                            + (e instanceof EOFException ? "the primary hung up" : e.getMessage()));
+                reported = true;
+                try {
+                    Thread.sleep(RETRY_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads a copy of the primary's inventory into a new inventory and puts it
+     * in place of the old one.
+     */
+    private void restore(DataInputStream in) throws IOException {
+        long log = in.readLong();
+        long sequence = in.readLong();
+        long length = in.readLong();
+        Path file = Files.createTempFile("replica", ".snapshot");
+        try {
+            try (OutputStream copy = Files.newOutputStream(file)) {
+                byte[] buffer = new byte[STREAM_BUFFER_BYTES];
+                for (long left = length; left > 0;) {
+                    int read = in.read(buffer, 0, (int) Math.min(buffer.length, left));
+                    if (read < 0)
+                        throw new EOFException("The copy of the inventory ended early");
+                    copy.write(buffer, 0, read);
+                    left -= read;
+                }
+            }
+            Inventory restored = engine.create(shardCount);
+            InventorySnapshot.open(file).restoreInto(restored);
+
+            lock.writeLock().lock();
+            try {
+                inventory = restored;
+                logId = log;
+                appliedSequence = sequence;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            snapshots.incrementAndGet();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Applies a batch of records, and notes when the replica had all of the
+     * primary's records.
+     *
+     * @return the buffer to read the next batch into
+     */
+    private byte[] apply(DataInputStream in, byte[] records) throws IOException {
+        long latest = in.readLong();
+        long takenAt = in.readLong();
+        int length = in.readInt();
+        if (length > records.length)
+            records = new byte[Math.max(length, records.length * 2)];
+        in.readFully(records, 0, length);
+
+        if (length > 0) {
+            lock.writeLock().lock();
+            try {
+                appliedSequence = OperationJournal.applyRecords(ByteBuffer.wrap(records, 0, length), inventory,
+                        appliedSequence);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            batches.incrementAndGet();
+        }
+        primarySequence = latest;
+        if (appliedSequence >= latest)
+            caughtUpAtMillis = takenAt;
+        return records;
+    }
+
+    /**
+     * Runs a read on the current copy, holding the read lock, if the replica
+     * is fresh enough.
+     */
+    private <T> T read(Function<Inventory, T> query) {
+        long limit = maxStalenessMillis;
+        if (limit > 0) {
+            long staleness = getStalenessMillis();
+            if (staleness > limit)
+                throw new IllegalStateException(staleness == Long.MAX_VALUE ? "The replica has not caught up yet"
+                        : "The replica is " + staleness + " ms behind the primary");
+        }
+        lock.readLock().lock();
+        try {
+            return query.apply(inventory);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("A replica is read-only; make changes on the primary");
+    }
+
+    // Changes
+
+    @Override
+    public void insertInfo(String name, String rfidTag, double price, String initPosition) {
+        throw readOnly();
+    }
+
+    @Override
+    public void bulkLoad(List<ItemInfo> items) {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean moveItem(String rfidTag, String source, String dest) {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean updateLocation(String rfidTag, String location) {
+        throw readOnly();
+    }
+
+    @Override
+    public long checkOut(String cartNumber, Consumer<ItemInfo> visitor) {
+        throw readOnly();
+    }
+
+    @Override
+    public void cleanStore(Consumer<ItemInfo> visitor) {
+        throw readOnly();
+    }
+
+    @Override
+    public int removePurchased(int maxItems, Consumer<ItemInfo> visitor) {
+        throw readOnly();
+    }
+
+    // Reads
+
+    @Override
+    public void forEachItem(Consumer<ItemInfo> action) {
+        read(items -> {
+            items.forEachItem(action);
+            return null;
+        });
+    }
+
+    @Override
+    public void forEachAt(String location, Consumer<ItemInfo> action) {
+        read(items -> {
+            items.forEachAt(location, action);
+            return null;
+        });
+    }
+
+    @Override
+    public boolean forEachWithRFID(String rfidTag, Consumer<ItemInfo> action) {
+        return read(items -> items.forEachWithRFID(rfidTag, action));
+    }
+
+    @Override
+    public int forEachInTagRange(String fromTag, String toTag, Consumer<ItemInfo> action) {
+        return read(items -> items.forEachInTagRange(fromTag, toTag, action));
+    }
+
+    @Override
+    public int forEachWithTagPrefix(String prefix, Consumer<ItemInfo> action) {
+        return read(items -> items.forEachWithTagPrefix(prefix, action));
+    }
+
+    @Override
+    public int searchByName(String query, int maxEdits, int limit, Consumer<ItemInfo> action) {
+        return read(items -> items.searchByName(query, maxEdits, limit, action));
+    }
+
+    @Override
+    public boolean containsRFID(String rfidTag) {
+        return read(items -> items.containsRFID(rfidTag));
+    }
+
+    @Override
+    public int listLength() {
+        return read(Inventory::listLength);
+    }
+
+    @Override
+    public int misplacedCount() {
+        return read(Inventory::misplacedCount);
+    }
+
+    @Override
+    public Map<String, Integer> misplacedByLocation() {
+        return read(Inventory::misplacedByLocation);
+    }
+
+    @Override
+    public int cartItemCount(String cartNumber) {
+        return read(items -> items.cartItemCount(cartNumber));
+    }
+
+    @Override
+    public long cartTotalCents(String cartNumber) {
+        return read(items -> items.cartTotalCents(cartNumber));
+    }
+
+    @Override
+    public long shelfItemCount(String fromShelf, String toShelf) {
+        return read(items -> items.shelfItemCount(fromShelf, toShelf));
+    }
+
+    @Override
+    public long shelfValueCents(String fromShelf, String toShelf) {
+        return read(items -> items.shelfValueCents(fromShelf, toShelf));
+    }
+
+    /**
+     * Stops following the primary. The items already applied can still be
+     * read.
+     *
+     * @throws IOException never; the connection is closed quietly
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        Socket connection = socket;
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (IOException e) {
+                // Already closed
+            }
+        }
+        applier.interrupt();
+        try {
+            applier.join(RETRY_MILLIS * 2);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,271 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The InventoryServer class serves the inventory line protocol of
+ * CommandDispatcher over TCP, so many registers and scanners can use one
+ * inventory at the same time.
+ *
+ * Each connection is handled by its own thread: a virtual thread where the
+ * Java runtime has them, and otherwise a daemon platform thread with a small
+ * stack, so thousands of connections fit on one machine. A client may send
+ * many commands without waiting for the responses (pipelining); they are run
+ * and answered in order, and the responses are flushed together once the
+ * commands that have arrived so far are all answered.
+ *
+ * The server only listens on the loopback interface.
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public class InventoryServer implements Closeable {
+
+    private static final int PLATFORM_STACK_BYTES = 256 * 1024;
+    private static final int MAX_LINE_CHARS = 64 * 1024;
+
+    private final CommandDispatcher dispatcher;
+    private final ServerSocket serverSocket;
+    private final ExecutorService connections;
+    private final Set<Socket> open = ConcurrentHashMap.newKeySet(); // Closed by close
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong requests = new AtomicLong();
+    private final Thread acceptor;
+    private volatile boolean closed;
+
+    /**
+     * Starts a server for the given dispatcher on the given port of the
+     * loopback interface.
+     *
+     * @param dispatcher the dispatcher that runs the commands
+     * @param port       the port to listen on, or 0 for any free port
+     * @throws IOException if the port cannot be opened
+     */
+    public InventoryServer(CommandDispatcher dispatcher, int port) throws IOException {
+        this.dispatcher = dispatcher;
+        this.serverSocket = new ServerSocket();
+        this.serverSocket.setReuseAddress(true);
+        this.serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 4096);
+        this.connections = newConnectionExecutor();
+        this.acceptor = new Thread(this::acceptLoop, "inventory-acceptor");
+        this.acceptor.setDaemon(true);
+        this.acceptor.start();
+    }
+
+    /**
+     * Creates an executor that runs each task on a new virtual thread if the
+     * runtime supports them, or on a pooled daemon platform thread otherwise.
+     *
+     * @return the executor
+     */
+    static ExecutorService newConnectionExecutor() {
+        try {
+            Method virtual = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) virtual.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(null, task, "inventory-connection", PLATFORM_STACK_BYTES);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Gets the port the server listens on.
+     *
+     * @return the port
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Gets the number of connections accepted so far.
+     *
+     * @return the number of connections
+     */
+    public long getAccepted() {
+        return accepted.get();
+    }
+
+    /**
+     * Gets the number of connections open now.
+     *
+     * @return the number of open connections
+     */
+    public int getOpen() {
+        return open.size();
+    }
+
+    /**
+     * Gets the number of commands run so far.
+     *
+     * @return the number of commands
+     */
+    public long getRequests() {
+        return requests.get();
+    }
+
+    private void acceptLoop() {
+        while (!closed) {
+            try {
+                Socket socket = serverSocket.accept();
+                accepted.incrementAndGet();
+                open.add(socket);
+                try {
+                    connections.execute(() -> serve(socket));
+                } catch (RejectedExecutionException e) {
+                    closeQuietly(socket);
+                }
+            } catch (IOException e) {
+                if (!closed)
+                    System.err.println("Could not accept a connection: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Answers the commands of one connection until the client quits or hangs
+     * up.
+     */
+    private void serve(Socket socket) {
+        try (socket;
+                BufferedReader in = new BufferedReader(
+                        new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                BufferedWriter out = new BufferedWriter(
+                        new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            socket.setTcpNoDelay(true);
+            LineReader lines = new LineReader(in);
+            String line;
+            while ((line = lines.readLine()) != null) {
+                requests.incrementAndGet();
+                boolean more;
+                if (lines.wasTooLong()) {
+                    out.write("ERR The command is too long\n");
+                    more = true;
+                } else {
+                    more = dispatcher.execute(line, out);
+                }
+                if (!more || !in.ready())
+                    out.flush(); // Nothing more has arrived: answer what is done
+                if (!more)
+                    break;
+            }
+        } catch (SocketException e) {
+            // The client hung up, or the server is closing
+        } catch (IOException e) {
+            if (!closed)
+                System.err.println("Connection failed: " + e.getMessage());
+        } finally {
+            open.remove(socket);
+        }
+    }
+
+    /**
+     * The LineReader class reads the lines of a connection like
+     * BufferedReader.readLine, but keeps at most MAX_LINE_CHARS characters of
+     * each, so a client cannot make the server hold a line of any length. The
+     * rest of a longer line is read and dropped.
+     */
+    private static class LineReader {
+
+        private final BufferedReader in;
+        private final StringBuilder line = new StringBuilder();
+        private boolean skipLineFeed; // The last line ended with '\r'
+        private boolean tooLong; // The last line was cut off
+
+        LineReader(BufferedReader in) {
+            this.in = in;
+        }
+
+        /**
+         * Reads the next line, without its line break.
+         *
+         * @return the line, cut off if it was too long, or null at the end
+         * @throws IOException if the connection cannot be read
+         */
+        String readLine() throws IOException {
+            line.setLength(0);
+            tooLong = false;
+            int c = in.read();
+            if (c == '\n' && skipLineFeed)
+                c = in.read();
+            skipLineFeed = false;
+            if (c < 0)
+                return null;
+            while (c >= 0 && c != '\n' && c != '\r') {
+                if (line.length() < MAX_LINE_CHARS)
+                    line.append((char) c);
+                else
+                    tooLong = true;
+                c = in.read();
+            }
+            if (c == '\r') {
+                if (in.ready()) { // Take the '\n' now, so ready() does not count it
+                    in.mark(1);
+                    if (in.read() != '\n')
+                        in.reset();
+                } else {
+                    skipLineFeed = true;
+                }
+            }
+            return line.toString();
+        }
+
+        /**
+         * Tells whether the last line read was longer than MAX_LINE_CHARS.
+         *
+         * @return true if it was cut off
+         */
+        boolean wasTooLong() {
+            return tooLong;
+        }
+    }
+
+    /**
+     * Stops accepting connections, closes the open ones, and waits briefly for
+     * their threads to finish.
+     *
+     * @throws IOException if the listening socket cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        serverSocket.close();
+        for (Socket socket : open)
+            closeQuietly(socket);
+        connections.shutdown();
+        try {
+            connections.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Already closed
+        }
+    }
+}
@@ -0,0 +1,372 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * The InventorySnapshot class saves every item of an Inventory to a compact
+ * binary file, and maps such a file back into memory so it can be read without
+ * copying it.
+ *
+ * File layout, big-endian:
+ * a 40 byte header (magic, version, item count, offset and length of the
+ * name area, and the last OperationJournal sequence number the snapshot
+ * includes),
+ * then one 32 byte record per item in RFID tag order
+ * (tag long, price double, name offset int, name length int,
+ * original location code int, current location code int),
+ * then the UTF-8 bytes of all item names.
+ *
+ * A snapshot is written to a temporary file next to the target, forced to
+ * disk, and then renamed over the target, so a crash leaves either the old
+ * snapshot or the new one, never a partial file.
+ *
+ * An opened snapshot answers lookups by RFID tag straight from the mapped
+ * records, with a binary search, and only decodes an item's name when it is
+ * asked for, so a tool can read a few items of a large snapshot without
+ * loading it. restoreInto is not lazy: every storage engine keeps and indexes
+ * its own items, so a warm start decodes every record and bulk loads the
+ * items in O(n). What the mapping saves is parsing and re-inserting them one
+ * at a time; the records are already in RFID tag order.
+ *
+ * Version 1 snapshots, which had a 32 byte header without the journal
+ * sequence number, can still be opened.
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public class InventorySnapshot {
+
+    private static final int MAGIC = 0x494E5653; // "INVS"
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 40;
+    private static final int VERSION_1_HEADER_BYTES = 32;
+    private static final int RECORD_BYTES = 32;
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    private static final int TAG = 0;
+    private static final int PRICE = 8;
+    private static final int NAME_OFFSET = 16;
+    private static final int NAME_LENGTH = 20;
+    private static final int ORIGINAL = 24;
+    private static final int CURRENT = 28;
+
+    private MappedByteBuffer records; // The mapped record area
+    private MappedByteBuffer names; // The mapped name area
+    private int count; // The number of items in the snapshot
+    private long lastSequence; // The last journal sequence number included
+
+    private InventorySnapshot(MappedByteBuffer records, MappedByteBuffer names, int count, long lastSequence) {
+        this.records = records;
+        this.names = names;
+        this.count = count;
+        this.lastSequence = lastSequence;
+    }
+
+    /**
+     * Writes a snapshot of every item in the inventory to the given file,
+     * replacing it atomically.
+     * Analysis of Complexity:
+     * O(n).
+     *
+     * @param inventory the inventory to save
+     * @param file      the snapshot file
+     * @throws IOException if the snapshot cannot be written
+     */
+    public static void write(Inventory inventory, Path file) throws IOException {
+        write(inventory, file, 0);
+    }
+
+    /**
+     * Writes a snapshot of every item in the inventory to the given file,
+     * replacing it atomically, and records the last journal sequence number
+     * whose operation is already applied to the inventory.
+     * Analysis of Complexity:
+     * O(n).
+     *
+     * @param inventory    the inventory to save
+     * @param file         the snapshot file
+     * @param lastSequence the last OperationJournal sequence number included
+     * @throws IOException if the snapshot cannot be written
+     */
+    public static void write(Inventory inventory, Path file, long lastSequence) throws IOException {
+        write(inventory.listLength(), inventory::forEachItem, file, lastSequence);
+    }
+
+    /**
+     * Writes a snapshot of the given items, in RFID tag order, to the given
+     * file, replacing it atomically, and records the last journal sequence
+     * number whose operation is already applied to them.
+     * Analysis of Complexity:
+     * O(n).
+     *
+     * @param items        the items to save, in RFID tag order
+     * @param file         the snapshot file
+     * @param lastSequence the last OperationJournal sequence number included
+     * @throws IOException if the snapshot cannot be written
+     */
+    public static void write(List<ItemInfo> items, Path file, long lastSequence) throws IOException {
+        write(items.size(), items::forEach, file, lastSequence);
+    }
+
+    /**
+     * Writes a snapshot of the given number of items, which the given walk
+     * passes on in RFID tag order.
+     */
+    private static void write(long count, Consumer<Consumer<ItemInfo>> walk, Path file, long lastSequence)
+            throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        long namesStart = HEADER_BYTES + count * RECORD_BYTES;
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            SnapshotWriter writer = new SnapshotWriter(channel, namesStart);
+            walk.accept(writer::add);
+            writer.finish();
+            if (writer.written != count)
+                throw new IOException("The inventory changed while the snapshot was being written");
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putInt(VERSION).putLong(count).putLong(namesStart).putLong(writer.nameBytes)
+                    .putLong(lastSequence);
+            header.flip();
+            writeFully(channel, header, 0);
+            channel.force(true);
+        }
+
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        forceDirectory(file.toAbsolutePath().getParent());
+    }
+
+    /**
+     * Maps the snapshot at the given file into memory.
+     *
+     * @param file the snapshot file
+     * @return the opened snapshot
+     * @throws IOException if the file cannot be read or is not a snapshot
+     */
+    public static InventorySnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+            }
+            header.flip();
+            if (header.remaining() < VERSION_1_HEADER_BYTES || header.getInt() != MAGIC)
+                throw new IOException(file + " is not an inventory snapshot");
+            int version = header.getInt();
+            if (version != VERSION && version != 1)
+                throw new IOException(file + " has an unsupported snapshot version");
+            int headerBytes = version == 1 ? VERSION_1_HEADER_BYTES : HEADER_BYTES;
+
+            long count = header.getLong();
+            long namesStart = header.getLong();
+            long nameBytes = header.getLong();
+            long lastSequence = version == 1 ? 0 : header.getLong();
+            if (count < 0 || count * RECORD_BYTES > Integer.MAX_VALUE || nameBytes > Integer.MAX_VALUE
+                    || namesStart != headerBytes + count * RECORD_BYTES
+                    || channel.size() != namesStart + nameBytes)
+                throw new IOException(file + " is damaged or too large to map");
+
+            // The mappings stay valid after the channel is closed
+            MappedByteBuffer records = channel.map(FileChannel.MapMode.READ_ONLY, headerBytes,
+                    count * RECORD_BYTES);
+            MappedByteBuffer names = channel.map(FileChannel.MapMode.READ_ONLY, namesStart, nameBytes);
+            return new InventorySnapshot(records, names, (int) count, lastSequence);
+        }
+    }
+
+    /**
+     * Returns the number of items in the snapshot.
+     *
+     * @return the number of items
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Returns the last OperationJournal sequence number whose operation is
+     * included in the snapshot, or 0 if it was written without a journal.
+     *
+     * @return the last journal sequence number included
+     */
+    public long lastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Gets the packed RFID tag of the item at the given position.
+     *
+     * @param index the position of the item, in RFID tag order
+     * @return the packed RFID tag
+     */
+    public long tagAt(int index) {
+        return records.getLong(index * RECORD_BYTES + TAG);
+    }
+
+    /**
+     * Gets the current location code of the item at the given position.
+     *
+     * @param index the position of the item, in RFID tag order
+     * @return the current location code
+     */
+    public int currentLocationAt(int index) {
+        return records.getInt(index * RECORD_BYTES + CURRENT);
+    }
+
+    /**
+     * Finds the first item with the given RFID tag.
+     * Analysis of Complexity:
+     * O(log n).
+     *
+     * @param tag the packed RFID tag
+     * @return the position of the first item with the tag, or -1 if there is none
+     */
+    public int find(long tag) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (tagAt(middle) < tag)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        return low < count && tagAt(low) == tag ? low : -1;
+    }
+
+    /**
+     * Reads the item at the given position into a new ItemInfo, decoding its
+     * name.
+     *
+     * @param index the position of the item, in RFID tag order
+     * @return the item
+     */
+    public ItemInfo itemAt(int index) {
+        int offset = index * RECORD_BYTES;
+        byte[] name = new byte[records.getInt(offset + NAME_LENGTH)];
+        names.get(records.getInt(offset + NAME_OFFSET), name);
+
+        ItemInfo info = new ItemInfo();
+        info.setItemName(new String(name, StandardCharsets.UTF_8));
+        info.setItemPrice(records.getDouble(offset + PRICE));
+        info.setRfidTag(records.getLong(offset + TAG));
+        info.setOriginalLocationCode(records.getInt(offset + ORIGINAL));
+        info.setCurrentLocationCode(records.getInt(offset + CURRENT));
+        return info;
+    }
+
+    /**
+     * Adds every item in the snapshot to the given inventory in one bulk load.
+     * Every record is decoded into an ItemInfo up front. The records are
+     * already in RFID tag order, so the load does not need to reorder them.
+     * Analysis of Complexity:
+     * O(n).
+     *
+     * @param inventory the inventory to fill
+     */
+    public void restoreInto(Inventory inventory) {
+        ArrayList<ItemInfo> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+            items.add(itemAt(i));
+        inventory.bulkLoad(items);
+    }
+
+    /**
+     * Writes a whole buffer at the given position of the channel.
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining())
+            position += channel.write(buffer, position);
+    }
+
+    /**
+     * Forces a rename in the given directory to disk, where the platform allows
+     * a directory to be opened.
+     */
+    private static void forceDirectory(Path directory) {
+        if (directory == null)
+            return;
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Not supported on every platform; the rename itself is still atomic
+        }
+    }
+
+    /**
+     * The SnapshotWriter class buffers the record area and the name area of a
+     * snapshot, writing each to its own part of the file as its buffer fills.
+     */
+    private static class SnapshotWriter {
+
+        private FileChannel channel;
+        private ByteBuffer recordBuffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+        private ByteBuffer nameBuffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+        private long recordPosition = HEADER_BYTES;
+        private long namePosition;
+        private long written; // Records added so far
+        private long nameBytes; // Name bytes added so far
+        private IOException failure; // The first write failure, rethrown by finish
+
+        SnapshotWriter(FileChannel channel, long namesStart) {
+            this.channel = channel;
+            this.namePosition = namesStart;
+        }
+
+        void add(ItemInfo info) {
+            if (failure != null)
+                return;
+            try {
+                byte[] name = info.getItemName().getBytes(StandardCharsets.UTF_8);
+                if (recordBuffer.remaining() < RECORD_BYTES)
+                    recordPosition = flush(recordBuffer, recordPosition);
+
+                recordBuffer.putLong(info.getRfidTag());
+                recordBuffer.putDouble(info.getItemPrice());
+                recordBuffer.putInt((int) nameBytes);
+                recordBuffer.putInt(name.length);
+                recordBuffer.putInt(info.getOriginalLocationCode());
+                recordBuffer.putInt(info.getCurrentLocationCode());
+
+                for (int i = 0; i < name.length;) {
+                    if (!nameBuffer.hasRemaining())
+                        namePosition = flush(nameBuffer, namePosition);
+                    int chunk = Math.min(nameBuffer.remaining(), name.length - i);
+                    nameBuffer.put(name, i, chunk);
+                    i += chunk;
+                }
+                nameBytes += name.length;
+                if (nameBytes > Integer.MAX_VALUE)
+                    throw new IOException("The item names are too large for one snapshot");
+                written++;
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+
+        void finish() throws IOException {
+            if (failure != null)
+                throw failure;
+            recordPosition = flush(recordBuffer, recordPosition);
+            namePosition = flush(nameBuffer, namePosition);
+        }
+
+        private long flush(ByteBuffer buffer, long position) throws IOException {
+            buffer.flip();
+            long end = position + buffer.remaining();
+            writeFully(channel, buffer, position);
+            buffer.clear();
+            return end;
+        }
+    }
+}
@@ -1,7 +1,18 @@
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 
 /**
  * The ItemInfo class is used to represent an item with its itemName, itemPrice, rfidTagNumber, originalLocation, and currentLocation.
  * The methods in this class are used to set and retrieve the properties of an item.
+ * The RFID tag number is kept in the packed numeric form of RfidTag, and the
+ * locations as LocationCodec codes; their text forms are only produced when they
+ * are asked for.
+ *
+ * The setters are for building an item before it is handed to an inventory.
+ * ItemList and ConcurrentItemList keep the ItemInfo objects they are given
+ * and index them by tag, location, price and name, so changing a held item
+ * through a setter leaves those indexes out of date; the inventory's own
+ * operations, like moveItem, must be used instead.
  * 
  * @author Shiv Kanani
  * SBU ID: 115171965
@@ -9,11 +20,15 @@
  **/
 public class ItemInfo {
 
+    private static final long UNKNOWN_CENTS = Long.MIN_VALUE;
+    private static final double EXACT_PRICE = 0x1p46; // Below this, prices a cent apart are different doubles
+
     private String itemName; // The name of the item
     private double itemPrice; // The price of the item
-    private String rfidTagNumber; // The RFID tag number of the item
-    private String originalLocation; // The original location of the item
-    private String currentLocation; // The current location of the item
+    private long priceCents = UNKNOWN_CENTS; // The price in cents, worked out when first asked for
+    private long rfidTag; // The RFID tag number of the item, packed by RfidTag
+    private int originalLocation; // The original location of the item, as a LocationCodec code
+    private int currentLocation; // The current location of the item, as a LocationCodec code
 
     /**
      * Constructs an empty ItemInfo object.
@@ -21,6 +36,21 @@ public class ItemInfo {
     public ItemInfo() {
     }
 
+    /**
+     * Constructs a copy of an item as it is now, which is not changed along
+     * with it. The copy is held by no inventory, so its setters may be used.
+     *
+     * @param other the item to copy
+     */
+    public ItemInfo(ItemInfo other) {
+        this.itemName = other.itemName;
+        this.itemPrice = other.itemPrice;
+        this.priceCents = other.priceCents;
+        this.rfidTag = other.rfidTag;
+        this.originalLocation = other.originalLocation;
+        this.currentLocation = other.currentLocation;
+    }
+
     /**
      * Constructs an ItemInfo object with the specified itemName, itemPrice, rfidTagNumber, and originalLocation.
      *
@@ -30,6 +60,7 @@ public class ItemInfo {
      * @param originalLocation the original location of the item
      * @throws IllegalRFidTagNumberException if the RFID tag number is incorrect
      * @throws IllegalLocationException     if the location format is incorrect
+     * @throws IllegalArgumentException      if the price cannot be kept in cents
      */
     public ItemInfo(String itemName, double itemPrice, String rfidTagNumber, String originalLocation)
             throws Exception {
@@ -37,20 +68,22 @@ public class ItemInfo {
         this.itemPrice = itemPrice;
 
         // Check if the RFID tag number format is correct
-        boolean rfidFormat = checkRfidFormat(rfidTagNumber);
-        if (!rfidFormat)
+        long packedTag = RfidTag.parse(rfidTagNumber);
+        if (packedTag == RfidTag.INVALID)
             throw new IllegalRFidTagNumberException("Incorrect rfidTagNumber! Please try again");
         else
-            this.rfidTagNumber = rfidTagNumber;
+            this.rfidTag = packedTag;
 
         // Check if the original location format is correct
-        boolean locationFormat = checkLocationFormat(originalLocation);
-        if (!locationFormat)
+        int locationCode = LocationCodec.encode(originalLocation);
+        if (locationCode == LocationCodec.INVALID)
             throw new IllegalLocationException("Incorrect Location! Please try again!");
         else {
-            this.originalLocation = originalLocation;
-            this.currentLocation = originalLocation;
+            this.originalLocation = locationCode;
+            this.currentLocation = locationCode;
         }
+
+        this.priceCents = toCents(itemPrice); // Carts add up their totals in cents
     }
 
     // Getters and setters for the properties of the item
@@ -67,6 +100,8 @@ public class ItemInfo {
     /**
      * Sets the name of the item.
      *
+     * Must not be used on an item an inventory holds; see the class comment.
+     *
      * @param itemName The name of the item
      */
     public void setItemName(String itemName) {
@@ -84,29 +119,88 @@ public class ItemInfo {
 
     /**
      * Sets the price of the item.
+     * Must not be used on an item an inventory holds; see the class comment.
      *
      * @param itemPrice The price of the item
      */
     public void setItemPrice(double itemPrice) {
         this.itemPrice = itemPrice;
+        this.priceCents = UNKNOWN_CENTS;
+    }
+
+    /**
+     * Gets the price of the item in whole cents, rounded the way "%.2f" rounds
+     * it when it is printed. The result is kept, so reports that print the
+     * price many times only work it out once.
+     *
+     * @return the price in cents
+     * @throws IllegalArgumentException if the price is not a finite number of
+     *                                  cents that fits in a long
+     */
+    public long getPriceCents() {
+        if (priceCents == UNKNOWN_CENTS)
+            priceCents = toCents(itemPrice);
+        return priceCents;
+    }
+
+    /**
+     * Rounds a price to whole cents, half up, from the shortest decimal form of
+     * the price, which is how String.format rounds it for "%.2f".
+     *
+     * @param price the price
+     * @return the price in cents
+     * @throws IllegalArgumentException if the price is not a finite number of
+     *                                  cents that fits in a long
+     */
+    public static long toCents(double price) {
+        if (!Double.isFinite(price) || Math.abs(price) >= 1e15)
+            throw new IllegalArgumentException("The price cannot be kept in cents: " + price);
+        long cents = Math.round(price * 100);
+        if (Math.abs(price) < EXACT_PRICE && cents / 100.0 == price)
+            return cents; // Already a whole number of cents, as almost every price is
+        return new BigDecimal(Double.toString(price)).setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
     }
 
     /**
-     * Gets the RFID tag number of the item.
+     * Gets the RFID tag number of the item, as 9 upper case hexadecimal digits.
      *
      * @return The RFID tag number of the item
      */
     public String getRfidTagNumber() {
-        return rfidTagNumber;
+        return RfidTag.format(rfidTag);
     }
 
     /**
      * Sets the RFID tag number of the item.
+     * Must not be used on an item an inventory holds; see the class comment.
      *
      * @param rfidTagNumber The RFID tag number of the item
+     * @throws IllegalArgumentException if the RFID tag number format is incorrect
      */
     public void setRfidTagNumber(String rfidTagNumber) {
-        this.rfidTagNumber = rfidTagNumber;
+        long packedTag = RfidTag.parse(rfidTagNumber);
+        if (packedTag == RfidTag.INVALID)
+            throw new IllegalArgumentException("Incorrect rfidTagNumber: " + rfidTagNumber);
+        this.rfidTag = packedTag;
+    }
+
+    /**
+     * Gets the packed RFID tag of the item.
+     *
+     * @return The RFID tag of the item, packed by RfidTag
+     */
+    public long getRfidTag() {
+        return rfidTag;
+    }
+
+    /**
+     * Sets the packed RFID tag of the item.
+     * Must not be used on an item an inventory holds; see the class comment.
+     *
+     * @param rfidTag The RFID tag of the item, packed by RfidTag
+     */
+    public void setRfidTag(long rfidTag) {
+        this.rfidTag = rfidTag;
     }
 
     /**
@@ -115,15 +209,36 @@ public class ItemInfo {
      * @return The original location of the item
      */
     public String getOriginalLocation() {
-        return originalLocation;
+        return LocationCodec.decode(originalLocation);
     }
 
     /**
      * Sets the original location of the item.
+     * Must not be used on an item an inventory holds; see the class comment.
      *
      * @param originalLocation The original location of the item
+     * @throws IllegalArgumentException if the location format is incorrect
      */
     public void setOriginalLocation(String originalLocation) {
+        this.originalLocation = encodeOrThrow(originalLocation);
+    }
+
+    /**
+     * Gets the original location code of the item.
+     *
+     * @return The original location of the item, as a LocationCodec code
+     */
+    public int getOriginalLocationCode() {
+        return originalLocation;
+    }
+
+    /**
+     * Sets the original location code of the item.
+     * Must not be used on an item an inventory holds; see the class comment.
+     *
+     * @param originalLocation The original location of the item, as a LocationCodec code
+     */
+    public void setOriginalLocationCode(int originalLocation) {
         this.originalLocation = originalLocation;
     }
 
@@ -133,63 +248,74 @@ public class ItemInfo {
      * @return The current location of the item
      */
     public String getCurrentLocation() {
-        return currentLocation;
+        return LocationCodec.decode(currentLocation);
     }
 
     /**
      * Sets the current location of the item.
+     * Must not be used on an item an inventory holds; see the class comment.
      *
      * @param currentLocation The current location of the item
+     * @throws IllegalArgumentException if the location format is incorrect
      */
     public void setCurrentLocation(String currentLocation) {
+        this.currentLocation = encodeOrThrow(currentLocation);
+    }
+
+    /**
+     * Gets the current location code of the item.
+     *
+     * @return The current location of the item, as a LocationCodec code
+     */
+    public int getCurrentLocationCode() {
+        return currentLocation;
+    }
+
+    /**
+     * Sets the current location code of the item.
+     * Must not be used on an item an inventory holds; see the class comment.
+     *
+     * @param currentLocation The current location of the item, as a LocationCodec code
+     */
+    public void setCurrentLocationCode(int currentLocation) {
         this.currentLocation = currentLocation;
     }
 
     /**
-     * Checks if the given RFID tag number format is valid.
+     * Converts a location to its code for the setters, which cannot throw the
+     * checked IllegalLocationException.
+     *
+     * @param location the location as text
+     * @return the location code
+     * @throws IllegalArgumentException if the location format is incorrect
+     */
+    private static int encodeOrThrow(String location) {
+        int code = LocationCodec.encode(location);
+        if (code == LocationCodec.INVALID)
+            throw new IllegalArgumentException("Incorrect location: " + location);
+        return code;
+    }
+
+    /**
+     * Checks if the given RFID tag number format is valid: 9 hexadecimal digits,
+     * not all of them decimal.
      *
      * @param rfidString the RFID tag number to be checked
      * @return true if the format is valid, false otherwise
      */
     public static boolean checkRfidFormat(String rfidString) {
-        if (rfidString.length() != 9) {
-            return false;
-        }
-
-        try {
-            Integer.parseInt(rfidString);
-            return false;
-        } catch (NumberFormatException e) {
-        }
-
-        for (char ch : rfidString.toCharArray()) {
-            if (!((ch >= '0' && ch <= '9') || (ch >= 'A' && ch <= 'F') || (ch >= 'a' && ch <= 'f'))) {
-                return false;
-            }
-        }
-        return true;
+        return RfidTag.parse(rfidString) != RfidTag.INVALID;
     }
 
     /**
-     * Checks if the given location format is valid.
+     * Checks if the given location format is valid: a shelf "sNNNNN", a cart
+     * "cNNN", or "out", in any case.
      *
      * @param location the location to be checked
      * @return true if the format is valid, false otherwise
      */
     public static boolean checkLocationFormat(String location) {
-        if (location.matches("(?i)s\\d{5}")) {
-            return true;
-        }
-
-        if (location.matches("(?i)c\\d{3}")) {
-            return true;
-        }
-
-        if (location.equalsIgnoreCase("out")) {
-            return true;
-        }
-
-        return false;
+        return LocationCodec.isValid(location);
     }
 
 }
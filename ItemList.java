@@ -1,15 +1,38 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
 
 /**
  * The ItemList class represents a doubly linked list of ItemInfoNode objects,
  * which store ItemInfo objects.
- * It contains references to the head, tail, and cursor nodes in the list.
+ * It contains references to the head and tail nodes in the list. Methods that
+ * walk the list keep their position in a local variable, never in a field, so
+ * one call cannot disturb another.
+ * A hash index from RFID tag number to the first node carrying that tag is kept
+ * alongside the list so that tag lookups do not have to walk from the head,
+ * and it also keeps the tags in order, so that an insertion or a scan of a
+ * range of tags starts at the right node in O(log n),
+ * together with a location index from each current location to the nodes
+ * sitting there, so that shelf and cart queries only touch those nodes, and a
+ * misplaced index of the items away from their original location, so that
+ * cleaning the store only touches those items. CartSessions keeps a running
+ * count and total in cents for every cart, so a cart's total is known without
+ * visiting it, and ShelfValueIndex does the same for any range of shelves. A
+ * NameIndex finds items by the words of their names.
+ * RFID tags and locations are parsed into their packed RfidTag and
+ * LocationCodec forms once, when they are passed in, and are compared as
+ * numbers from then on.
  * This class is used to construct and manage a list of items with their
  * information.
  * 
  * The class provides methods to insert, move, check out, and remove items in
  * the list.
- * It also includes methods to print item information by location, RFID tag, and
- * all items in the list.
+ * It also includes methods to visit item information by location, RFID tag, and
+ * all items in the list; the Inventory interface prints them as tables.
  * 
  * The class handles cases where the list is empty and checks for incorrect
  * inputs in the methods.
@@ -18,67 +41,193 @@
  *         SBU ID: 115171965
  *         Homework #2 for CSE 214, Summer 2023
  **/
-public class ItemList {
+public class ItemList implements Inventory {
 
     private ItemInfoNode head; // Reference to the head node in the list
     private ItemInfoNode tail; // Reference to the tail node in the list
-    private ItemInfoNode cursor; // Reference to the cursor node in the list
+    private int size; // The number of nodes in the list
+    private RfidIndex rfidIndex; // RFID tag -> first node with that tag
+    private LocationIndex locationIndex; // Current location -> nodes there
+    private MisplacedIndex misplacedIndex; // Nodes away from their original location
+    private TreeMap<Long, Integer> outTags; // RFID tag -> number of its items that are "out"
+    private CartSessions carts; // Cart -> number of items and their total in cents
+    private ShelfValueIndex shelves; // Shelf ranges -> number of items and their total in cents
+    private NameIndex nameIndex; // Name words -> RFID tags of the items named with them
+    private long nodesVisited; // Nodes stepped through by every walk so far
 
     /**
-     * Constructs an empty ItemList object with default values for head, tail, and
-     * cursor (all set to null).
+     * Constructs an empty ItemList object with default values for head and tail
+     * (both set to null).
      */
     public ItemList() {
         head = null;
         tail = null;
-        cursor = null;
+        size = 0;
+        rfidIndex = new RfidIndex();
+        locationIndex = new LocationIndex();
+        misplacedIndex = new MisplacedIndex();
+        outTags = new TreeMap<>();
+        carts = new CartSessions();
+        shelves = new ShelfValueIndex();
+        nameIndex = new NameIndex();
     }
 
     /**
-     * Removes all purchased items from the list and prints their information.
-     * The items with the current location "out" are considered purchased.
+     * Adds a node that has joined the list, or whose item has just changed
+     * location, to the location, misplaced, purchased, cart and shelf indexes.
+     *
+     * @param node the node holding the item
+     */
+    private void index(ItemInfoNode node) {
+        ItemInfo info = node.getInfo();
+        locationIndex.add(node);
+        misplacedIndex.add(node);
+        if (info.getCurrentLocationCode() == LocationCodec.OUT)
+            countOut(info.getRfidTag(), 1);
+        carts.enter(info.getCurrentLocationCode(), info.getPriceCents());
+        shelves.enter(info.getCurrentLocationCode(), info.getPriceCents());
+    }
+
+    /**
+     * Takes a node that is leaving the list, or whose item is about to change
+     * location, out of the location, misplaced, purchased, cart and shelf
+     * indexes.
+     *
+     * @param node the node holding the item
+     */
+    private void unindex(ItemInfoNode node) {
+        ItemInfo info = node.getInfo();
+        locationIndex.remove(node);
+        misplacedIndex.remove(node);
+        if (info.getCurrentLocationCode() == LocationCodec.OUT)
+            countOut(info.getRfidTag(), -1);
+        carts.leave(info.getCurrentLocationCode(), info.getPriceCents());
+        shelves.leave(info.getCurrentLocationCode(), info.getPriceCents());
+    }
+
+    /**
+     * Changes the current location of the item in the given node. Every location
+     * change goes through here so that the indexes stay up to date.
+     *
+     * @param node the node holding the item
+     * @param dest the new current location code of the item
+     */
+    private void relocate(ItemInfoNode node, int dest) {
+        unindex(node);
+        node.getInfo().setCurrentLocationCode(dest);
+        index(node);
+    }
+
+    /**
+     * Returns the nodes sitting at the given location, in the same RFID order as
+     * the list.
+     * Analysis of Complexity:
+     * O(k log k) where k is the number of items at the location.
+     *
+     * @param location the location code to look up
+     * @return the nodes at the location, sorted by RFID tag number
+     */
+    private ArrayList<ItemInfoNode> nodesAt(int location) {
+        return sortedByRfid(locationIndex.nodesAt(location));
+    }
+
+    /**
+     * Copies the given nodes into a list sorted the same way as the item list:
+     * by RFID tag number, and by list position among items sharing a tag.
+     *
+     * @param nodes the nodes to sort
+     * @return a new list holding the nodes in list order
+     */
+    private ArrayList<ItemInfoNode> sortedByRfid(Collection<ItemInfoNode> nodes) {
+        ArrayList<ItemInfoNode> sorted = new ArrayList<>(nodes);
+        sorted.sort((a, b) -> {
+            int byTag = Long.compare(a.getInfo().getRfidTag(), b.getInfo().getRfidTag());
+            if (byTag != 0 || a == b)
+                return byTag;
+            // Same tag: a comes first if b is found after it in the list
+            for (ItemInfoNode node = a.getNext(); node != null
+                    && node.getInfo().getRfidTag() == a.getInfo().getRfidTag(); node = node.getNext()) {
+                if (node == b)
+                    return -1;
+            }
+            return 1;
+        });
+        return sorted;
+    }
+
+    /**
+     * Returns the last node in the run of nodes that share the tag of the given
+     * node.
+     *
+     * @param first the first node with the tag
+     * @return the last node with the same tag
+     */
+    private ItemInfoNode lastWithSameTag(ItemInfoNode first) {
+        ItemInfoNode last = first;
+        while (last.getNext() != null && last.getNext().getInfo().getRfidTag() == first.getInfo().getRfidTag()) {
+            last = last.getNext();
+            nodesVisited++;
+        }
+        return last;
+    }
+
+    /**
+     * Moves every item that is not at its original location, and is not "out",
+     * back to its original location. Each of those items is passed to the
+     * visitor just before it is moved.
      * Analysis of Complexity:
      * Best Case: O(1) if all items are already in their original locations, so no
      * movement is required.
-     * Worst Case: O(n) if we need to traverse the entire list to find and move the
-     * items that need to be cleaned.
+     * Worst Case: O(m log m) where m is the number of misplaced items, as they
+     * are found through the misplaced index and sorted by RFID tag.
      * 
+     * @param visitor the action to run for each item moved back
      */
-    public void cleanStore() {
-        ItemInfoNode findItem = head;
-        System.out.println(String.format("%49s%18s", "Original", "Current"));
-        System.out.println(String.format("%-22s%-19s%-19s%-21s%-10s",
-                "Item Name", "RFID", "Location", "Location", "Price"));
-        System.out.println(String.format("%-20s%-20s%-20s%-20s%-10s",
-                "---------", "---------", "---------", "---------", "------"));
-
-        while (findItem != null) {
-            if (!findItem.getInfo().getCurrentLocation().equals("out") &&
-                    !findItem.getInfo().getOriginalLocation().equals(findItem.getInfo().getCurrentLocation())) {
-                System.out.println(String.format("%-20s%-22s%-19s%-20s%-5.2f",
-                        findItem.getInfo().getItemName(),
-                        findItem.getInfo().getRfidTagNumber(),
-                        findItem.getInfo().getOriginalLocation(),
-                        findItem.getInfo().getCurrentLocation(),
-                        findItem.getInfo().getItemPrice()));
-
-                // Change the current location to the original location
-                findItem.getInfo().setCurrentLocation(findItem.getInfo().getOriginalLocation());
-            }
-            findItem = findItem.getNext();
+    @Override
+    public void cleanStore(Consumer<ItemInfo> visitor) {
+        for (ItemInfoNode findItem : sortedByRfid(misplacedIndex.nodes())) {
+            nodesVisited++;
+            visitor.accept(findItem.getInfo());
+
+            // Change the current location to the original location
+            relocate(findItem, findItem.getInfo().getOriginalLocationCode());
         }
     }
 
+    /**
+     * Returns the number of misplaced items.
+     * Analysis of Complexity:
+     * O(1), as the misplaced index keeps the count.
+     *
+     * @return the number of misplaced items
+     */
+    @Override
+    public int misplacedCount() {
+        return misplacedIndex.size();
+    }
+
+    /**
+     * Returns how many misplaced items sit at each location.
+     * Analysis of Complexity:
+     * O(k log k) where k is the number of locations with misplaced items.
+     *
+     * @return a new map from location to the number of misplaced items there
+     */
+    @Override
+    public Map<String, Integer> misplacedByLocation() {
+        return misplacedIndex.countsByLocation();
+    }
+
     /**
      * Inserts an item into the list in a sorted manner based on the RFID tag
-     * number.
+     * number. Items that share an RFID tag are kept together, with the newest one
+     * placed after the existing ones.
      * Analysis of Complexity:
      * Best Case: O(1) if the list is empty, as the new node is directly inserted as
      * the head.
-     * Worst Case: O(n) if the item's RFID tag number is greater than all existing
-     * items' RFID tags,
-     * and we need to traverse the entire list to find the correct position for
-     * insertion.
+     * Worst Case: O(log n + r), as the position is found through the RFID index:
+     * after the last item with the same tag, or else after the last item of the
+     * tag just below it, where r is the number of items with that tag.
      * 
      * @param name         the name of the item
      * @param rfidTag      the RFID tag number of the item
@@ -87,21 +236,25 @@ public class ItemList {
      * @throws Exception if the RFID tag number or location format is incorrect
      *                   during the item insertion
      */
+    @Override
     public void insertInfo(String name, String rfidTag, double price, String initPosition) throws Exception {
         ItemInfo newInfo = new ItemInfo(name, price, rfidTag, initPosition);
         ItemInfoNode newNode = new ItemInfoNode(newInfo);
+        long tag = newInfo.getRfidTag();
+        ItemInfoNode sameTag = rfidIndex.get(tag);
 
         if (head == null) { // If the list is empty
             head = newNode;
             tail = newNode;
-            cursor = newNode;
         } else {
-            ItemInfoNode nodePtr = head;
             ItemInfoNode prevNode = null;
 
-            while (nodePtr != null && rfidTag.compareToIgnoreCase(nodePtr.getInfo().getRfidTagNumber()) >= 0) {
-                prevNode = nodePtr; // For duplicate rfidTags
-                nodePtr = nodePtr.getNext();
+            if (sameTag != null) { // Duplicate rfidTag, goes right after the last one
+                prevNode = lastWithSameTag(sameTag);
+            } else { // A new tag goes after the items of the tag just below it
+                ItemInfoNode lowerTag = rfidIndex.lower(tag);
+                if (lowerTag != null)
+                    prevNode = lastWithSameTag(lowerTag);
             }
 
             if (prevNode != null) { // Insert after the same RFID tag
@@ -118,50 +271,89 @@ public class ItemList {
                 head.setPrev(newNode);
                 head = newNode;
             }
+        }
 
-            cursor = newNode; // Move the cursor to the newly inserted node.
+        if (sameTag == null)
+            rfidIndex.put(tag, newNode);
+        index(newNode);
+        nameIndex.add(name, tag);
+        size++;
+    }
+
+    /**
+     * Inserts a batch of items in a single pass over the list. The batch is
+     * sorted by RFID tag number once, and then merged into the list from the
+     * head, so each existing node is passed at most once. Items that share an
+     * RFID tag end up in the same order insertInfo would give them: after the
+     * ones already in the list, and in batch order among themselves.
+     * Analysis of Complexity:
+     * O(n + m log m) where n is the number of items in the list and m is the
+     * number of items in the batch.
+     *
+     * @param items the items to insert, which have passed the ItemInfo format
+     *              checks
+     */
+    @Override
+    public void bulkLoad(List<ItemInfo> items) {
+        ArrayList<ItemInfo> batch = new ArrayList<>(items);
+        batch.sort(Comparator.comparingLong(ItemInfo::getRfidTag)); // Stable, so duplicates keep batch order
+
+        ItemInfoNode prevNode = null;
+        ItemInfoNode nodePtr = head;
+        for (ItemInfo info : batch) {
+            long tag = info.getRfidTag();
+            while (nodePtr != null && nodePtr.getInfo().getRfidTag() <= tag) {
+                prevNode = nodePtr;
+                nodePtr = nodePtr.getNext();
+                nodesVisited++;
+            }
+
+            ItemInfoNode newNode = new ItemInfoNode(info);
+            newNode.setPrev(prevNode);
+            newNode.setNext(nodePtr);
+            if (prevNode != null)
+                prevNode.setNext(newNode);
+            else
+                head = newNode;
+            if (nodePtr != null)
+                nodePtr.setPrev(newNode);
+            else
+                tail = newNode;
+            prevNode = newNode;
+
+            if (rfidIndex.get(tag) == null)
+                rfidIndex.put(tag, newNode);
+            index(newNode); // A restored item may be misplaced, in a cart or already sold
+            nameIndex.add(info.getItemName(), tag);
         }
+        size += batch.size();
     }
 
     /**
-     * Prints all the items' information that are located in the given location.
+     * Passes all the items that are located in the given location to the
+     * action, in RFID tag order.
      * Analysis of Complexity:
      * Best Case: O(1) if there are no items at the specified location, so nothing
-     * needs to be printed.
-     * Worst Case: O(n) if we need to traverse the entire list to find items with
-     * the specified location.
+     * needs to be visited.
+     * Worst Case: O(k log k) where k is the number of items at the location, as
+     * they are found through the location index and sorted by RFID tag.
      * 
      * @param location the location to search for items
+     * @param action   the action to run for each item
      */
-    public void printByLocation(String location) {
-        System.out.println(String.format("%49s%18s", "Original", "Current"));
-        System.out.println(String.format("%-22s%-19s%-19s%-21s%-10s",
-                "Item Name", "RFID", "Location", "Location", "Price"));
-        System.out.println(String.format("%-20s%-20s%-20s%-20s%-10s",
-                "---------", "---------", "---------", "---------", "------"));
-
-        ItemInfoNode node = head;
-
-        while (node != null) {
-            if (node.getInfo().getCurrentLocation().equalsIgnoreCase(location)) {
-                System.out.println(String.format("%-20s%-22s%-19s%-20s%-5.2f",
-                        node.getInfo().getItemName(),
-                        node.getInfo().getRfidTagNumber(),
-                        node.getInfo().getOriginalLocation(),
-                        node.getInfo().getCurrentLocation(),
-                        node.getInfo().getItemPrice()));
-            }
-            node = node.getNext();
+    @Override
+    public void forEachAt(String location, Consumer<ItemInfo> action) {
+        for (ItemInfoNode node : nodesAt(LocationCodec.encode(location))) {
+            nodesVisited++;
+            action.accept(node.getInfo());
         }
     }
 
     /**
      * Moves an item from a source location to a destination location in the list.
      * Analysis of Complexity:
-     * Best Case: O(1) if the item is already at the destination location or if it
-     * is not found in the list.
-     * Worst Case: O(n) if the item is found, and we need to traverse the entire
-     * list to find the item to be moved.
+     * Best Case: O(1) expected, as the item is found through the RFID index.
+     * Worst Case: O(k) where k is the number of items sharing the RFID tag.
      *
      * @param rfidTag the RFID tag number of the item to move
      * @param source  the source location of the item
@@ -169,31 +361,32 @@ public class ItemList {
      * @return true if the item is successfully moved, false otherwise
      * @throws Exception if the destination location format is incorrect or it is "out" of the inventory.
      */
+    @Override
     public boolean moveItem(String rfidTag, String source, String dest) throws Exception {
-        if (!ItemInfo.checkLocationFormat(dest))
+        int destCode = LocationCodec.encode(dest);
+        if (destCode == LocationCodec.INVALID)
             throw new IllegalLocationException("The destination location has an invalid format!");
 
-        if (source.equals("out"))
+        int sourceCode = LocationCodec.encode(source);
+        if (sourceCode == LocationCodec.OUT)
             throw new IllegalLocationException("The source location is 'out'. We no longer have the item!");
 
-        ItemInfoNode findItem = head;
-        boolean itemFound = false;
-        while (findItem != null) {
-            if (findItem.getInfo().getRfidTagNumber().equals(rfidTag)) {
-                cursor = findItem;
-                if (!cursor.getInfo().getCurrentLocation().equals(source)) {
-                    findItem = findItem.getNext();
-                } else {
-                    itemFound = true;
+        long tag = RfidTag.parse(rfidTag);
+        ItemInfoNode found = null;
+        if (tag != RfidTag.INVALID) {
+            for (ItemInfoNode findItem = rfidIndex.get(tag); findItem != null
+                    && findItem.getInfo().getRfidTag() == tag; findItem = findItem.getNext()) {
+                nodesVisited++;
+                if (findItem.getInfo().getCurrentLocationCode() == sourceCode) {
+                    found = findItem;
                     break;
                 }
             }
-            findItem = findItem.getNext();
         }
 
-        if (itemFound && cursor.getInfo().getCurrentLocation().equals(source)) {
-            cursor.getInfo().setCurrentLocation(dest);
-            return itemFound;
+        if (found != null) {
+            relocate(found, destCode);
+            return true;
         } else {
             return false;
         }
@@ -201,83 +394,170 @@ public class ItemList {
 
     /**
      * Checks out all the items in a cart with the given cart number.
-     * It sets the current location of the items to "out" and prints their
-     * information.
+     * It sets the current location of the items to "out", passing each of them
+     * to the visitor just before.
      * Analysis of Complexity:
      * Best Case: O(1) if there are no items in the cart, so nothing needs to be
      * checked out.
-     * Worst Case: O(n) if all items in the list are in the specified cart, and we
-     * need to traverse the entire list
-     * to find and check out the items in the cart.
+     * Worst Case: O(k log k) where k is the number of items in the cart, as they
+     * are found through the location index and sorted by RFID tag.
      *
      * @param cartNumber the cart number to check out items from
-     * @return the total price of the items checked out from the cart
-     */
-    public double checkOut(String cartNumber) {
-        ItemInfoNode findItem = head;
-        double cartPrice = 0;
-
-        System.out.println(String.format("%49s%18s", "Original", "Current"));
-        System.out.println(String.format("%-22s%-19s%-19s%-21s%-10s",
-                "Item Name", "RFID", "Location", "Location", "Price"));
-        System.out.println(String.format("%-20s%-20s%-20s%-20s%-10s",
-                "---------", "---------", "---------", "---------", "------"));
-
-        for (int i = 0; i < listLength(); i++) {
-            if (findItem.getInfo().getCurrentLocation().equals(cartNumber)) {
-                cartPrice = findItem.getInfo().getItemPrice();
-                System.out.println(String.format("%-20s%-22s%-19s%-20s%-5.2f",
-                        findItem.getInfo().getItemName(),
-                        findItem.getInfo().getRfidTagNumber(),
-                        findItem.getInfo().getOriginalLocation(),
-                        findItem.getInfo().getCurrentLocation(),
-                        findItem.getInfo().getItemPrice()));
-                findItem.getInfo().setCurrentLocation("out");
-            }
-            findItem = findItem.getNext();
+     * @param visitor    the action to run for each item checked out
+     * @return the total price of the items checked out from the cart, in cents
+     */
+    @Override
+    public long checkOut(String cartNumber, Consumer<ItemInfo> visitor) {
+        int cart = LocationCodec.encode(cartNumber);
+        long cartCents = carts.totalCentsIn(cart);
+
+        for (ItemInfoNode findItem : nodesAt(cart)) {
+            nodesVisited++;
+            visitor.accept(findItem.getInfo());
+            relocate(findItem, LocationCodec.OUT);
         }
 
-        return cartPrice;
+        return cartCents;
+    }
+
+    /**
+     * Returns the number of items in a cart, from the running cart tallies.
+     * Analysis of Complexity:
+     * O(1).
+     *
+     * @param cartNumber the cart number
+     * @return the number of items in the cart, or 0 if it is not a cart
+     */
+    @Override
+    public int cartItemCount(String cartNumber) {
+        return carts.countIn(LocationCodec.encode(cartNumber));
+    }
+
+    /**
+     * Returns the total price of the items in a cart, from the running cart
+     * tallies.
+     * Analysis of Complexity:
+     * O(1).
+     *
+     * @param cartNumber the cart number
+     * @return the total in cents, or 0 if it is not a cart
+     */
+    @Override
+    public long cartTotalCents(String cartNumber) {
+        return carts.totalCentsIn(LocationCodec.encode(cartNumber));
+    }
+
+    /**
+     * Returns the number of items on a range of shelves, from the shelf value
+     * index.
+     * Analysis of Complexity:
+     * O(log S) where S is the number of shelf numbers.
+     *
+     * @param fromShelf the first shelf of the range
+     * @param toShelf   the last shelf of the range
+     * @return the number of items, or 0 if the range is empty or its ends are
+     *         not shelves
+     */
+    @Override
+    public long shelfItemCount(String fromShelf, String toShelf) {
+        return shelves.countIn(LocationCodec.encode(fromShelf), LocationCodec.encode(toShelf));
     }
 
     /**
-     * Removes all purchased items from the list and prints their information.
+     * Returns the total price of the items on a range of shelves, from the
+     * shelf value index.
+     * Analysis of Complexity:
+     * O(log S) where S is the number of shelf numbers.
+     *
+     * @param fromShelf the first shelf of the range
+     * @param toShelf   the last shelf of the range
+     * @return the total in cents, or 0 if the range is empty or its ends are
+     *         not shelves
+     */
+    @Override
+    public long shelfValueCents(String fromShelf, String toShelf) {
+        return shelves.centsIn(LocationCodec.encode(fromShelf), LocationCodec.encode(toShelf));
+    }
+
+    /**
+     * Removes up to the given number of purchased items from the list, the
+     * first ones in list order, passing each of them to the visitor just before
+     * it is removed.
      * The items with the current location "out" are considered purchased.
      * Analysis of Complexity:
      * Best Case: O(1) if there are no purchased items, so no removal is required.
-     * Worst Case: O(n) if all items in the list are purchased, and we need to
-     * traverse the entire list
-     * to find and remove all purchased items.
+     * Worst Case: O(k log n) where k is the number of purchased items removed, as
+     * they are found through the tags of the purchased items, kept in order.
      * 
+     * @param maxItems the most items to remove
+     * @param visitor  the action to run for each item removed
+     * @return the number of items removed
      */
-    public void removeAllPurchased() {
-        ItemInfoNode removeNode = head;
-
-        System.out.println(String.format("%49s%18s", "Original", "Current"));
-        System.out.println(String.format("%-22s%-19s%-19s%-21s%-10s",
-                "Item Name", "RFID", "Location", "Location", "Price"));
-        System.out.println(String.format("%-20s%-20s%-20s%-20s%-10s",
-                "---------", "---------", "---------", "---------", "------"));
-        while (removeNode != null) {
-            if (removeNode.getInfo().getCurrentLocation().equals("out")) {
-                cursor = removeNode;
-                System.out.println(String.format("%-20s%-22s%-19s%-20s%-5.2f",
-                        removeNode.getInfo().getItemName(),
-                        removeNode.getInfo().getRfidTagNumber(),
-                        removeNode.getInfo().getOriginalLocation(),
-                        removeNode.getInfo().getCurrentLocation(),
-                        removeNode.getInfo().getItemPrice()));
-
-                removeAllPurchasedHelper(cursor); // Removes the specific node
+    @Override
+    public int removePurchased(int maxItems, Consumer<ItemInfo> visitor) {
+        int removed = 0;
+
+        while (removed < maxItems && !outTags.isEmpty()) {
+            long tag = outTags.firstKey();
+            ItemInfoNode removeNode = rfidIndex.get(tag);
+            while (removed < maxItems && removeNode != null && removeNode.getInfo().getRfidTag() == tag) {
+                ItemInfoNode nextNode = removeNode.getNext(); // Read before the node is unlinked
+                nodesVisited++;
+                if (removeNode.getInfo().getCurrentLocationCode() == LocationCodec.OUT) {
+                    visitor.accept(removeNode.getInfo());
+
+                    removeAllPurchasedHelper(removeNode); // Removes the specific node
+                    removed++;
+                }
+                removeNode = nextNode;
             }
-            removeNode = removeNode.getNext();
+        }
+        return removed;
+    }
 
+    /**
+     * Passes up to the given number of purchased items to the action, the
+     * first ones in list order, found the same way removePurchased finds them.
+     * Analysis of Complexity:
+     * O(k log n) where k is the number of purchased items passed.
+     *
+     * @param maxItems the most items to pass
+     * @param action   the action to run for each item
+     * @return the number of items passed to the action
+     */
+    @Override
+    public int forEachPurchased(int maxItems, Consumer<ItemInfo> action) {
+        int passed = 0;
+        for (long tag : outTags.keySet()) {
+            if (passed >= maxItems)
+                break;
+            for (ItemInfoNode node = rfidIndex.get(tag); passed < maxItems && node != null
+                    && node.getInfo().getRfidTag() == tag; node = node.getNext()) {
+                nodesVisited++;
+                if (node.getInfo().getCurrentLocationCode() == LocationCodec.OUT) {
+                    action.accept(node.getInfo());
+                    passed++;
+                }
+            }
         }
+        return passed;
+    }
+
+    /**
+     * Counts an item going "out", or no longer being "out", under its tag in
+     * the ordered tags of the purchased items.
+     *
+     * @param tag   the packed RFID tag of the item
+     * @param delta 1 if the item went out, -1 if it is no longer out
+     */
+    private void countOut(long tag, int delta) {
+        outTags.merge(tag, delta, (count, change) -> count + change == 0 ? null : count + change);
     }
 
     /**
      * Helper method to remove a specific node from the list.
-     * It updates the previous and next nodes accordingly.
+     * It updates the previous and next nodes, and the RFID and location indexes,
+     * accordingly.
      *
      * @param cursorToRemoveNode the node to be removed from the list
      */
@@ -297,84 +577,154 @@ public class ItemList {
         if (cursorToRemoveNode == tail)
             tail = prevNode;
 
-        cursor = nextNode;
+        long tag = cursorToRemoveNode.getInfo().getRfidTag();
+        if (rfidIndex.get(tag) == cursorToRemoveNode) { // Removing the first node with the tag
+            if (nextNode != null && nextNode.getInfo().getRfidTag() == tag)
+                rfidIndex.put(tag, nextNode);
+            else
+                rfidIndex.remove(tag);
+        }
+        unindex(cursorToRemoveNode);
+        nameIndex.remove(cursorToRemoveNode.getInfo().getItemName(), tag);
+        cursorToRemoveNode.setPrev(null); // The node is no longer in the list
+        cursorToRemoveNode.setNext(null);
+        size--;
     }
 
     /**
      * Returns the number of items in the list.
+     * Analysis of Complexity:
+     * O(1), as the count is kept up to date by every insertion and removal.
      *
      * @return the number of items in the list
      */
+    @Override
     public int listLength() {
-        ItemInfoNode nodePtr = head;
-        int counter = 0;
-        while (nodePtr != null) {
-            counter++;
-            nodePtr = nodePtr.getNext();
-        }
-        return counter;
+        return size;
     }
 
     /**
-     * Prints information for all the items in the list.
+     * Returns the number of nodes the walks of the list have stepped through
+     * so far: the items found at a location or under a tag, the run of nodes
+     * sharing a tag, and the nodes passed over while merging a bulk load.
+     *
+     * @return the number of nodes visited
+     */
+    @Override
+    public long nodesVisited() {
+        return nodesVisited;
+    }
+
+    /**
+     * Passes every item in the list to the given action, from head to tail.
      * Analysis of Complexity:
-     * Best Case: O(1) if the list is empty, so nothing needs to be printed.
-     * Worst Case: O(n) if we need to traverse the entire list to print information
-     * for all items.
-     */
-    public void printAll() {
-        System.out.println(String.format("%49s%18s", "Original", "Current"));
-        System.out.println(String.format("%-22s%-19s%-19s%-21s%-10s",
-                "Item Name", "RFID", "Location", "Location", "Price"));
-        System.out.println(String.format("%-20s%-20s%-20s%-20s%-10s",
-                "---------", "---------", "---------", "---------", "------"));
-
-        ItemInfoNode node = head;
-
-        while (node != null) { // iterates over every item in the list to print each item.
-            if (node != null) { // if node is not null, it prints the item data.
-                System.out.println(String.format("%-20s%-22s%-19s%-20s%-5.2f",
-                        node.getInfo().getItemName(),
-                        node.getInfo().getRfidTagNumber(),
-                        node.getInfo().getOriginalLocation(),
-                        node.getInfo().getCurrentLocation(),
-                        node.getInfo().getItemPrice()));
-            }
-            node = node.getNext();
+     * O(n).
+     *
+     * @param action the action to run for each item
+     */
+    @Override
+    public void forEachItem(Consumer<ItemInfo> action) {
+        for (ItemInfoNode node = head; node != null; node = node.getNext()) {
+            nodesVisited++;
+            action.accept(node.getInfo());
         }
     }
 
     /**
-     * Prints information for the item with the given RFID tag number.
+     * Passes the items with the given RFID tag number to the action.
+     * Analysis of Complexity:
+     * O(1) expected, plus the number of items sharing the RFID tag.
      *
-     * @param rfidTagPrint the RFID tag number of the item to print
+     * @param rfidTag the RFID tag number of the items to visit
+     * @param action  the action to run for each item
+     * @return true if at least one item has the tag, false otherwise
      */
-    public void printByRFID(String rfidTagPrint) {
-        System.out.println(String.format("%49s%18s", "Original", "Current"));
-        System.out.println(String.format("%-22s%-19s%-19s%-21s%-10s",
-                "Item Name", "RFID", "Location", "Location", "Price"));
-        System.out.println(String.format("%-20s%-20s%-20s%-20s%-10s",
-                "---------", "---------", "---------", "---------", "------"));
-
-        ItemInfoNode printRfidNode = head;
+    @Override
+    public boolean forEachWithRFID(String rfidTag, Consumer<ItemInfo> action) {
+        long tag = RfidTag.parse(rfidTag);
         boolean found = false;
 
-        while (printRfidNode != null) {
-            if (printRfidNode.getInfo().getRfidTagNumber().equalsIgnoreCase(rfidTagPrint)) {
-                System.out.println(String.format("%-20s%-22s%-19s%-20s%-5.2f",
-                        printRfidNode.getInfo().getItemName(),
-                        printRfidNode.getInfo().getRfidTagNumber(),
-                        printRfidNode.getInfo().getOriginalLocation(),
-                        printRfidNode.getInfo().getCurrentLocation(),
-                        printRfidNode.getInfo().getItemPrice()));
+        if (tag != RfidTag.INVALID) {
+            for (ItemInfoNode node = rfidIndex.get(tag); node != null
+                    && node.getInfo().getRfidTag() == tag; node = node.getNext()) {
+                nodesVisited++;
+                action.accept(node.getInfo());
                 found = true;
             }
-            printRfidNode = printRfidNode.getNext();
         }
+        return found;
+    }
 
-        if (!found) {
-            System.out.println("Item with RFID " + rfidTagPrint + " not found.");
+    /**
+     * Passes every item whose RFID tag number lies in a range to the action, in
+     * list order.
+     * Analysis of Complexity:
+     * O(log n + k) where k is the number of items in the range, as the first of
+     * them is found through the RFID index and the rest follow it in the list.
+     *
+     * @param fromTag the lowest tag, or a prefix of it
+     * @param toTag   the highest tag, or a prefix of it
+     * @param action  the action to run for each item
+     * @return the number of items visited
+     */
+    @Override
+    public int forEachInTagRange(String fromTag, String toTag, Consumer<ItemInfo> action) {
+        long from = RfidTag.lowestWithPrefix(fromTag);
+        long to = RfidTag.highestWithPrefix(toTag);
+        int visited = 0;
+        if (from == RfidTag.INVALID || to == RfidTag.INVALID)
+            return visited;
+
+        for (ItemInfoNode node = rfidIndex.ceiling(from); node != null
+                && node.getInfo().getRfidTag() <= to; node = node.getNext()) {
+            nodesVisited++;
+            action.accept(node.getInfo());
+            visited++;
         }
+        return visited;
+    }
+
+    /**
+     * Passes the items whose names match a query to the action, in RFID tag
+     * order, up to a limit, using the name index.
+     * Analysis of Complexity:
+     * See NameIndex.search: the items read are only those under the candidate
+     * tags, not every item.
+     *
+     * @param query    the words to look for
+     * @param maxEdits the number of edits a word may be away from a name word
+     * @param limit    the most items to pass to the action
+     * @param action   the action to run for each matching item
+     * @return the number of items passed to the action
+     */
+    @Override
+    public int searchByName(String query, int maxEdits, int limit, Consumer<ItemInfo> action) {
+        return nameIndex.search(query, maxEdits, limit, this, action);
+    }
+
+    /**
+     * Finds the first node in the list carrying the given RFID tag number. Tags
+     * are matched without regard to case.
+     * Analysis of Complexity:
+     * O(1) expected, as the node is found through the RFID index.
+     *
+     * @param rfidTag the RFID tag number to look for
+     * @return the first node with the tag, or null if there is none
+     */
+    public ItemInfoNode findByRFID(String rfidTag) {
+        long tag = RfidTag.parse(rfidTag);
+        return tag == RfidTag.INVALID ? null : rfidIndex.get(tag);
+    }
+
+    /**
+     * Checks if there is at least one item with the given RFID tag number.
+     *
+     * @param rfidTag the RFID tag number to look for
+     * @return true if an item has the tag, false otherwise
+     */
+    @Override
+    public boolean containsRFID(String rfidTag) {
+        return findByRFID(rfidTag) != null;
     }
 
     /**
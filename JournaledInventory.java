@@ -0,0 +1,300 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * The JournaledInventory class wraps another Inventory and records every
+ * change made through it in an OperationLog: an OperationJournal, so that the
+ * changes made since the last snapshot survive a restart, or a
+ * ReplicationPrimary, which streams them to replicas.
+ *
+ * Each operation is applied to the wrapped inventory first and only journaled
+ * once it has succeeded, and only if it changed something, so a rejected move
+ * or an empty checkout leaves no record. Replaying the journal runs the same
+ * operations again in the same order, which brings a restored inventory to the
+ * same state. Queries go straight to the wrapped inventory.
+ *
+ * Operations on a JournaledInventory must not run at the same time as each
+ * other, just like on the inventories it wraps. Each change is applied and
+ * recorded while holding a lock, so that a ReplicationPrimary, which takes the
+ * same lock to copy the inventory for a new replica, never sees a change that
+ * is applied but not yet recorded. The lock is released before waiting for
+ * the record to be durable, so that the changes of many threads waiting at
+ * once share one write to disk; the change is only acknowledged, by
+ * returning, once it is. Another thread may see the change before then.
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public class JournaledInventory implements Inventory, Closeable {
+
+    private Inventory inventory; // The inventory the operations are applied to
+    private OperationLog journal; // Where the operations are recorded
+    private Lock lock; // Held while an operation is applied and recorded, not while it is made durable
+
+    /**
+     * Constructs a JournaledInventory that applies operations to the given
+     * inventory and records them in the given log.
+     *
+     * @param inventory the inventory to wrap, already restored and replayed
+     * @param journal   the log to append to
+     */
+    public JournaledInventory(Inventory inventory, OperationLog journal) {
+        this(inventory, journal, new ReentrantLock());
+    }
+
+    /**
+     * Constructs a JournaledInventory that applies operations to the given
+     * inventory and records them in the given log, holding the given lock
+     * while it does.
+     *
+     * @param inventory the inventory to wrap, already restored and replayed
+     * @param journal   the log to append to
+     * @param lock      the lock to hold while applying and recording each
+     *                  operation, like ReplicationPrimary.getLock
+     */
+    public JournaledInventory(Inventory inventory, OperationLog journal, Lock lock) {
+        this.inventory = inventory;
+        this.journal = journal;
+        this.lock = lock;
+    }
+
+    /**
+     * Gets the log the operations are recorded in.
+     *
+     * @return the log
+     */
+    public OperationLog getJournal() {
+        return journal;
+    }
+
+    @Override
+    public void insertInfo(String name, String rfidTag, double price, String initPosition) throws Exception {
+        long sequence;
+        lock.lock();
+        try {
+            ItemInfo info = new ItemInfo(name, price, rfidTag, initPosition);
+            inventory.insertInfo(name, rfidTag, price, initPosition);
+            sequence = journal.logInsert(info);
+        } finally {
+            lock.unlock();
+        }
+        journal.awaitWritten(sequence);
+    }
+
+    @Override
+    public void bulkLoad(List<ItemInfo> items) {
+        long sequence = 0;
+        lock.lock();
+        try {
+            inventory.bulkLoad(items);
+            if (!items.isEmpty())
+                sequence = journal.logInserts(items);
+        } finally {
+            lock.unlock();
+        }
+        journal.awaitWritten(sequence);
+    }
+
+    @Override
+    public boolean moveItem(String rfidTag, String source, String dest) throws Exception {
+        boolean moved;
+        long sequence = 0;
+        lock.lock();
+        try {
+            moved = inventory.moveItem(rfidTag, source, dest);
+            if (moved)
+                sequence = journal.logMove(RfidTag.parse(rfidTag), LocationCodec.encode(source),
+                        LocationCodec.encode(dest));
+        } finally {
+            lock.unlock();
+        }
+        journal.awaitWritten(sequence);
+        return moved;
+    }
+
+    @Override
+    public long checkOut(String cartNumber, Consumer<ItemInfo> visitor) {
+        long total;
+        long sequence = 0;
+        lock.lock();
+        try {
+            int[] visited = new int[1];
+            total = inventory.checkOut(cartNumber, item -> {
+                visited[0]++;
+                visitor.accept(item);
+            });
+            if (visited[0] > 0)
+                sequence = journal.logCheckOut(LocationCodec.encode(cartNumber));
+        } finally {
+            lock.unlock();
+        }
+        journal.awaitWritten(sequence);
+        return total;
+    }
+
+    @Override
+    public void cleanStore(Consumer<ItemInfo> visitor) {
+        long sequence = 0;
+        lock.lock();
+        try {
+            int[] visited = new int[1];
+            inventory.cleanStore(item -> {
+                visited[0]++;
+                visitor.accept(item);
+            });
+            if (visited[0] > 0)
+                sequence = journal.logClean();
+        } finally {
+            lock.unlock();
+        }
+        journal.awaitWritten(sequence);
+    }
+
+    @Override
+    public void removeAllPurchased(Consumer<ItemInfo> visitor) {
+        long sequence = 0;
+        lock.lock();
+        try {
+            int[] visited = new int[1];
+            inventory.removeAllPurchased(item -> {
+                visited[0]++;
+                visitor.accept(item);
+            });
+            if (visited[0] > 0)
+                sequence = journal.logPurge();
+        } finally {
+            lock.unlock();
+        }
+        journal.awaitWritten(sequence);
+    }
+
+    @Override
+    public int removePurchased(int maxItems, Consumer<ItemInfo> visitor) {
+        int removed;
+        long sequence = 0;
+        lock.lock();
+        try {
+            removed = inventory.removePurchased(maxItems, visitor);
+            if (removed > 0)
+                sequence = journal.logPurgeSome(maxItems);
+        } finally {
+            lock.unlock();
+        }
+        journal.awaitWritten(sequence);
+        return removed;
+    }
+
+    @Override
+    public void forEachItem(Consumer<ItemInfo> action) {
+        inventory.forEachItem(action);
+    }
+
+    @Override
+    public void forEachAt(String location, Consumer<ItemInfo> action) {
+        inventory.forEachAt(location, action);
+    }
+
+    @Override
+    public boolean forEachWithRFID(String rfidTag, Consumer<ItemInfo> action) {
+        return inventory.forEachWithRFID(rfidTag, action);
+    }
+
+    @Override
+    public int forEachInTagRange(String fromTag, String toTag, Consumer<ItemInfo> action) {
+        return inventory.forEachInTagRange(fromTag, toTag, action);
+    }
+
+    @Override
+    public int forEachWithTagPrefix(String prefix, Consumer<ItemInfo> action) {
+        return inventory.forEachWithTagPrefix(prefix, action);
+    }
+
+    @Override
+    public int searchByName(String query, int maxEdits, int limit, Consumer<ItemInfo> action) {
+        return inventory.searchByName(query, maxEdits, limit, action);
+    }
+
+    @Override
+    public boolean containsRFID(String rfidTag) {
+        return inventory.containsRFID(rfidTag);
+    }
+
+    @Override
+    public int listLength() {
+        return inventory.listLength();
+    }
+
+    @Override
+    public int misplacedCount() {
+        return inventory.misplacedCount();
+    }
+
+    @Override
+    public int cartItemCount(String cartNumber) {
+        return inventory.cartItemCount(cartNumber);
+    }
+
+    @Override
+    public long cartTotalCents(String cartNumber) {
+        return inventory.cartTotalCents(cartNumber);
+    }
+
+    @Override
+    public long shelfItemCount(String fromShelf, String toShelf) {
+        return inventory.shelfItemCount(fromShelf, toShelf);
+    }
+
+    @Override
+    public long shelfValueCents(String fromShelf, String toShelf) {
+        return inventory.shelfValueCents(fromShelf, toShelf);
+    }
+
+    @Override
+    public Map<String, Integer> misplacedByLocation() {
+        return inventory.misplacedByLocation();
+    }
+
+    /**
+     * Writes a snapshot of the inventory that includes every journaled
+     * operation, then empties the journal, since a restart only needs the
+     * snapshot from then on. The lock is held throughout, so no change can
+     * land between the snapshot and the truncation and be lost. Only an
+     * OperationJournal can be checkpointed.
+     * Analysis of Complexity:
+     * O(n).
+     *
+     * @param snapshot the snapshot file
+     * @throws IOException if the snapshot cannot be written or the journal
+     *                     cannot be truncated
+     */
+    public void checkpoint(Path snapshot) throws IOException {
+        if (!(journal instanceof OperationJournal))
+            throw new IllegalStateException("Only a journal file can be checkpointed");
+        OperationJournal file = (OperationJournal) journal;
+        lock.lock();
+        try {
+            file.sync();
+            InventorySnapshot.write(inventory, snapshot, file.lastSequence());
+            file.truncate();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Closes the log, writing out or sending any records still pending.
+     *
+     * @throws IOException if the last records could not be written
+     */
+    @Override
+    public void close() throws IOException {
+        journal.close();
+    }
+}
@@ -0,0 +1,157 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The LatencyHistogram class counts recorded latencies in buckets whose width
+ * grows with the value, 64 to each power of two, so any percentile is known
+ * to within about 1.6% using a few thousand counters, however many values are
+ * recorded and however far apart they are.
+ *
+ * Values below 64 nanoseconds get a bucket each. Above that, a value v with
+ * highest bit e falls in one of 64 equal buckets between 2^e and 2^(e+1).
+ *
+ * Any number of threads may record at once without locking: each value is an
+ * atomic increment of its bucket. A reader running at the same time sees
+ * every value recorded before it started, and some of those recorded since.
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public class LatencyHistogram {
+
+    private static final int SUB_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS; // Buckets per power of two
+
+    private final AtomicLongArray counts; // Bucket -> values recorded in it
+    private final LongAdder count = new LongAdder(); // Values recorded
+    private final LongAdder total = new LongAdder(); // Their sum, in nanoseconds
+    private final AtomicLong max = new AtomicLong(); // The largest, in nanoseconds
+
+    /**
+     * Constructs an empty histogram.
+     */
+    public LatencyHistogram() {
+        counts = new AtomicLongArray(bucketOf(Long.MAX_VALUE) + 1);
+    }
+
+    /**
+     * Records one latency. Negative values are taken as 0.
+     * Analysis of Complexity:
+     * O(1).
+     *
+     * @param nanos the latency in nanoseconds
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucketOf(value));
+        count.increment();
+        total.add(value);
+        raiseMax(value);
+    }
+
+    /**
+     * Adds every value recorded in another histogram to this one.
+     *
+     * @param other the histogram to add
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < counts.length(); i++) {
+            long added = other.counts.get(i);
+            if (added != 0)
+                counts.addAndGet(i, added);
+        }
+        count.add(other.count.sum());
+        total.add(other.total.sum());
+        raiseMax(other.max.get());
+    }
+
+    /**
+     * Sets the largest value to the given one if that is larger, without
+     * writing when it is not, which is nearly always.
+     */
+    private void raiseMax(long value) {
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value))
+            current = max.get();
+    }
+
+    /**
+     * Gets the number of values recorded.
+     *
+     * @return the number of values
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Gets the largest value recorded.
+     *
+     * @return the largest value in nanoseconds, or 0 if there are none
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Gets the mean of the values recorded.
+     *
+     * @return the mean in nanoseconds, or 0 if there are none
+     */
+    public double getMean() {
+        long values = count.sum();
+        return values == 0 ? 0 : (double) total.sum() / values;
+    }
+
+    /**
+     * Gets the value below or at which the given fraction of the recorded
+     * values lie, such as 0.99 for the 99th percentile.
+     * Analysis of Complexity:
+     * O(B), where B is the number of buckets, a few thousand.
+     *
+     * @param fraction the fraction, from 0 to 1
+     * @return the top of the bucket holding that value, in nanoseconds, never
+     *         above the largest value, or 0 if there are none
+     */
+    public long percentile(double fraction) {
+        long[] snapshot = new long[counts.length()];
+        long values = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = counts.get(i);
+            values += snapshot[i];
+        }
+        if (values == 0)
+            return 0;
+        long rank = Math.max(1, (long) Math.ceil(fraction * values));
+        long largest = max.get();
+        long seen = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            seen += snapshot[i];
+            if (seen >= rank)
+                return Math.min(largest, lowestIn(i + 1) - 1);
+        }
+        return largest;
+    }
+
+    private static int bucketOf(long value) {
+        if (value < SUB_BUCKETS)
+            return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return ((exponent - SUB_BITS + 1) << SUB_BITS) + sub;
+    }
+
+    /**
+     * Returns the smallest value falling in the given bucket.
+     */
+    private static long lowestIn(int bucket) {
+        if (bucket < SUB_BUCKETS)
+            return bucket;
+        int exponent = (bucket >>> SUB_BITS) + SUB_BITS - 1;
+        if (exponent > 62)
+            return Long.MAX_VALUE;
+        return (long) (SUB_BUCKETS + (bucket & (SUB_BUCKETS - 1))) << (exponent - SUB_BITS);
+    }
+}
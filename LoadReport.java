@@ -0,0 +1,108 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The LoadReport class records the outcome of an InventoryLoader run: how many
+ * rows of a manifest were loaded, and which rows were rejected and why.
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public class LoadReport {
+
+    private Path manifest; // The manifest that was loaded
+    private int loaded; // The number of items loaded
+    private ArrayList<String> errors; // One line per rejected row
+
+    /**
+     * Constructs an empty LoadReport for the given manifest.
+     *
+     * @param manifest the manifest being loaded
+     */
+    public LoadReport(Path manifest) {
+        this.manifest = manifest;
+        this.loaded = 0;
+        this.errors = new ArrayList<>();
+    }
+
+    /**
+     * Records a rejected row.
+     *
+     * @param lineNumber the line number of the row in the manifest
+     * @param line       the text of the row
+     * @param reason     why the row was rejected
+     */
+    public void reject(int lineNumber, String line, String reason) {
+        errors.add("Line " + lineNumber + ": " + reason + "\t" + line);
+    }
+
+    /**
+     * Sets the number of items loaded.
+     *
+     * @param loaded the number of items loaded
+     */
+    public void setLoaded(int loaded) {
+        this.loaded = loaded;
+    }
+
+    /**
+     * Gets the number of items loaded.
+     *
+     * @return the number of items loaded
+     */
+    public int getLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Gets the number of rows rejected.
+     *
+     * @return the number of rows rejected
+     */
+    public int getRejected() {
+        return errors.size();
+    }
+
+    /**
+     * Gets the descriptions of the rejected rows, one per row.
+     *
+     * @return the rejected rows
+     */
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    /**
+     * Writes the rejected rows to an error report file next to the manifest,
+     * named after it with ".errors" added.
+     *
+     * @return the path of the error report
+     * @throws IOException if the report cannot be written
+     */
+    public Path writeErrors() throws IOException {
+        Path errorFile = manifest.resolveSibling(manifest.getFileName() + ".errors");
+        try (BufferedWriter writer = Files.newBufferedWriter(errorFile, StandardCharsets.UTF_8)) {
+            for (String error : errors) {
+                writer.write(error);
+                writer.newLine();
+            }
+        }
+        return errorFile;
+    }
+
+    /**
+     * Returns a one line summary of the load.
+     *
+     * @return the summary
+     */
+    @Override
+    public String toString() {
+        return "Loaded " + loaded + " item(s) from " + manifest + ", " + errors.size() + " row(s) rejected.";
+    }
+}
@@ -0,0 +1,186 @@
+/**
+ * The LocationCodec class converts store locations between their text form and
+ * a compact int code. There are three kinds of location:
+ * shelves "sNNNNN" (5 digits), carts "cNNN" (3 digits), and "out" for items
+ * that have left the store. The letters may be in either case.
+ *
+ * Codes are dense, so they can be used directly as array indexes:
+ * shelf n has code n, cart n has code CART_BASE + n, and "out" has code OUT.
+ * Two locations are the same exactly when their codes are equal.
+ *
+ * Parsing is done by hand, one character at a time, and allocates nothing.
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public final class LocationCodec {
+
+    /**
+     * The code returned by encode for text that is not a valid location.
+     */
+    public static final int INVALID = -1;
+
+    /**
+     * The number of shelf numbers, "s00000" to "s99999".
+     */
+    public static final int SHELF_COUNT = 100000;
+
+    /**
+     * The number of cart numbers, "c000" to "c999".
+     */
+    public static final int CART_COUNT = 1000;
+
+    /**
+     * The code of cart "c000"; cart n has code CART_BASE + n.
+     */
+    public static final int CART_BASE = SHELF_COUNT;
+
+    /**
+     * The code of the "out" location.
+     */
+    public static final int OUT = CART_BASE + CART_COUNT;
+
+    /**
+     * The number of distinct location codes. Every valid code is less than this.
+     */
+    public static final int CODE_COUNT = OUT + 1;
+
+    private LocationCodec() {
+    }
+
+    /**
+     * Converts the given location text to its code.
+     *
+     * @param location the location as text
+     * @return the location code, or INVALID if the text is not a valid location
+     */
+    public static int encode(String location) {
+        if (location == null)
+            return INVALID;
+
+        int length = location.length();
+        if (length == 3 && isOut(location))
+            return OUT;
+        if (length == 0)
+            return INVALID;
+
+        char kind = location.charAt(0);
+        if ((kind == 's' || kind == 'S') && length == 6) {
+            int number = parseDigits(location);
+            return number < 0 ? INVALID : number;
+        }
+        if ((kind == 'c' || kind == 'C') && length == 4) {
+            int number = parseDigits(location);
+            return number < 0 ? INVALID : CART_BASE + number;
+        }
+        return INVALID;
+    }
+
+    /**
+     * Checks if the given text is a valid location.
+     *
+     * @param location the location as text
+     * @return true if the text is a valid location, false otherwise
+     */
+    public static boolean isValid(String location) {
+        return encode(location) != INVALID;
+    }
+
+    /**
+     * Returns the text form of a location code. Shelves and carts are written
+     * with a lower case letter and leading zeros.
+     *
+     * @param code the location code
+     * @return the location as text
+     * @throws IllegalArgumentException if the code is not a valid location code
+     */
+    public static String decode(int code) {
+        if (code == OUT)
+            return "out";
+        if (isShelf(code))
+            return withDigits('s', code, 5);
+        if (isCart(code))
+            return withDigits('c', code - CART_BASE, 3);
+        throw new IllegalArgumentException("Not a location code: " + code);
+    }
+
+    /**
+     * Checks if the given code is a shelf.
+     *
+     * @param code the location code
+     * @return true if the code is a shelf, false otherwise
+     */
+    public static boolean isShelf(int code) {
+        return code >= 0 && code < SHELF_COUNT;
+    }
+
+    /**
+     * Checks if the given code is a cart.
+     *
+     * @param code the location code
+     * @return true if the code is a cart, false otherwise
+     */
+    public static boolean isCart(int code) {
+        return code >= CART_BASE && code < OUT;
+    }
+
+    /**
+     * Returns the code of the shelf with the given number.
+     *
+     * @param number the shelf number, from 0 to 99999
+     * @return the location code of the shelf
+     */
+    public static int shelf(int number) {
+        return number;
+    }
+
+    /**
+     * Returns the code of the cart with the given number.
+     *
+     * @param number the cart number, from 0 to 999
+     * @return the location code of the cart
+     */
+    public static int cart(int number) {
+        return CART_BASE + number;
+    }
+
+    /**
+     * Checks if the given 3 character text is "out", in any case.
+     */
+    private static boolean isOut(String location) {
+        char o = location.charAt(0);
+        char u = location.charAt(1);
+        char t = location.charAt(2);
+        return (o == 'o' || o == 'O') && (u == 'u' || u == 'U') && (t == 't' || t == 'T');
+    }
+
+    /**
+     * Parses the characters after the first one as a decimal number.
+     *
+     * @return the number, or -1 if a character is not a decimal digit
+     */
+    private static int parseDigits(String location) {
+        int number = 0;
+        for (int i = 1; i < location.length(); i++) {
+            char ch = location.charAt(i);
+            if (ch < '0' || ch > '9')
+                return -1;
+            number = number * 10 + (ch - '0');
+        }
+        return number;
+    }
+
+    /**
+     * Writes a letter followed by a number padded with zeros to the given width.
+     */
+    private static String withDigits(char letter, int number, int width) {
+        char[] text = new char[width + 1];
+        text[0] = letter;
+        for (int i = width; i >= 1; i--) {
+            text[i] = (char) ('0' + number % 10);
+            number /= 10;
+        }
+        return new String(text);
+    }
+}
@@ -0,0 +1,85 @@
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * The LocationIndex class maps each location code to the ItemInfoNode objects
+ * whose item currently sits at that location. Location codes from
+ * LocationCodec are dense, so the index is a plain array with one slot per
+ * code, and a set is only created for locations that hold something.
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public class LocationIndex {
+
+    private LinkedHashSet<ItemInfoNode>[] byCode; // Location code -> nodes there, or null
+
+    /**
+     * Constructs an empty LocationIndex.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public LocationIndex() {
+        byCode = new LinkedHashSet[LocationCodec.CODE_COUNT];
+    }
+
+    /**
+     * Adds a node under the current location of its item.
+     * Analysis of Complexity:
+     * O(1) expected.
+     *
+     * @param node the node to add
+     */
+    public void add(ItemInfoNode node) {
+        int code = node.getInfo().getCurrentLocationCode();
+        LinkedHashSet<ItemInfoNode> atLocation = byCode[code];
+        if (atLocation == null) {
+            atLocation = new LinkedHashSet<>();
+            byCode[code] = atLocation;
+        }
+        atLocation.add(node);
+    }
+
+    /**
+     * Removes a node from under the current location of its item.
+     * Analysis of Complexity:
+     * O(1) expected.
+     *
+     * @param node the node to remove
+     */
+    public void remove(ItemInfoNode node) {
+        int code = node.getInfo().getCurrentLocationCode();
+        LinkedHashSet<ItemInfoNode> atLocation = byCode[code];
+        if (atLocation != null) {
+            atLocation.remove(node);
+            if (atLocation.isEmpty())
+                byCode[code] = null;
+        }
+    }
+
+    /**
+     * Returns the nodes at the given location, in the order they arrived there.
+     * The returned set is a read-only view.
+     *
+     * @param code the location code
+     * @return the nodes at the location, which may be empty
+     */
+    public Set<ItemInfoNode> nodesAt(int code) {
+        if (code < 0 || code >= byCode.length || byCode[code] == null)
+            return Collections.emptySet();
+        return Collections.unmodifiableSet(byCode[code]);
+    }
+
+    /**
+     * Returns the number of items at the given location.
+     *
+     * @param code the location code
+     * @return the number of items at the location
+     */
+    public int countAt(int code) {
+        if (code < 0 || code >= byCode.length || byCode[code] == null)
+            return 0;
+        return byCode[code].size();
+    }
+}
@@ -0,0 +1,108 @@
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * The MisplacedIndex class keeps the set of ItemInfoNode objects whose item is
+ * misplaced: not "out", and not at its original location. Alongside it, it
+ * keeps how many misplaced items sit at each location, so the questions "how
+ * many items are misplaced, and where" are answered without touching the
+ * items.
+ *
+ * A node must be removed before the location of its item changes and added
+ * back afterwards; add ignores nodes whose item is in place.
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public class MisplacedIndex {
+
+    private LinkedHashSet<ItemInfoNode> nodes; // The misplaced nodes
+    private HashMap<Integer, Integer> countAt; // Current location code -> misplaced items there
+
+    /**
+     * Constructs an empty MisplacedIndex.
+     */
+    public MisplacedIndex() {
+        nodes = new LinkedHashSet<>();
+        countAt = new HashMap<>();
+    }
+
+    /**
+     * Checks if an item is misplaced: not "out", and not at its original
+     * location.
+     *
+     * @param info the item
+     * @return true if the item is misplaced, false otherwise
+     */
+    public static boolean isMisplaced(ItemInfo info) {
+        int current = info.getCurrentLocationCode();
+        return current != LocationCodec.OUT && current != info.getOriginalLocationCode();
+    }
+
+    /**
+     * Adds a node if its item is misplaced.
+     * Analysis of Complexity:
+     * O(1) expected.
+     *
+     * @param node the node to add
+     */
+    public void add(ItemInfoNode node) {
+        if (isMisplaced(node.getInfo()) && nodes.add(node))
+            countAt.merge(node.getInfo().getCurrentLocationCode(), 1, Integer::sum);
+    }
+
+    /**
+     * Removes a node, if it is in the index.
+     * Analysis of Complexity:
+     * O(1) expected.
+     *
+     * @param node the node to remove
+     */
+    public void remove(ItemInfoNode node) {
+        if (nodes.remove(node))
+            countAt.computeIfPresent(node.getInfo().getCurrentLocationCode(),
+                    (code, count) -> count == 1 ? null : count - 1);
+    }
+
+    /**
+     * Returns the misplaced nodes, in no particular order. The set must not be
+     * kept while the index changes.
+     *
+     * @return an unmodifiable view of the misplaced nodes
+     */
+    public Set<ItemInfoNode> nodes() {
+        return Collections.unmodifiableSet(nodes);
+    }
+
+    /**
+     * Returns the number of misplaced items.
+     * Analysis of Complexity:
+     * O(1).
+     *
+     * @return the number of misplaced items
+     */
+    public int size() {
+        return nodes.size();
+    }
+
+    /**
+     * Returns how many misplaced items sit at each location that has any, in
+     * location code order: shelves first, then carts.
+     * Analysis of Complexity:
+     * O(k log k) where k is the number of locations with misplaced items.
+     *
+     * @return a new map from location to the number of misplaced items there
+     */
+    public Map<String, Integer> countsByLocation() {
+        LinkedHashMap<String, Integer> counts = new LinkedHashMap<>();
+        for (Map.Entry<Integer, Integer> entry : new TreeMap<>(countAt).entrySet())
+            counts.put(LocationCodec.decode(entry.getKey()), entry.getValue());
+        return counts;
+    }
+}
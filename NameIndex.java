@@ -0,0 +1,548 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * The NameIndex class finds items by the words in their names. Names are split
+ * into tokens, lower case runs of letters and digits, and each token maps to
+ * the RFID tags of the items whose names contain it. The tokens are kept both
+ * in a hash map, for whole words, and in a trie, so that every token starting
+ * with a typed prefix, or lying within a few edits of a misspelt word, is found
+ * by walking only the matching branches.
+ *
+ * A query is one or more words, all of which must match a token of the name.
+ * The last word is taken as a prefix, since it may still be being typed, and
+ * with maxEdits above 0 a word also matches tokens that many insertions,
+ * deletions or substitutions away from it. Each token keeps its tags in
+ * ascending order, so the tags matching every word are found by walking the
+ * lists of the words together in tag order, and the walk stops as soon as
+ * enough items have been found, however common the words are. The items with
+ * those tags are then read from the inventory and checked against the query
+ * one by one, so items that share a tag but not a name are told apart.
+ *
+ * Tags are used rather than the items themselves because every Inventory keeps
+ * an item's tag fixed, while the objects or records holding it may be replaced.
+ * The methods are synchronized, so one index can serve many threads; a search
+ * lets go of the index while it reads the inventory.
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public class NameIndex {
+
+    public static final int MAX_EDITS = 2; // Beyond this, short words match nearly every token
+
+    private static final long NONE = Long.MAX_VALUE; // No tag: above every packed tag
+
+    /**
+     * The Postings class counts, for one token, the names containing it under
+     * each RFID tag. The tags are kept in ascending order in blocks of at most
+     * BLOCK entries, so a tag is added or removed in O(log P + BLOCK) steps and
+     * the tags can be read in order from any point.
+     */
+    private static class Postings {
+
+        private static final int BLOCK = 512;
+
+        private final ArrayList<long[]> tagBlocks = new ArrayList<>(); // Each block above the one before
+        private final ArrayList<int[]> countBlocks = new ArrayList<>();
+        private final ArrayList<Integer> lengths = new ArrayList<>();
+        private int size; // Distinct tags
+
+        Postings() {
+            tagBlocks.add(new long[8]);
+            countBlocks.add(new int[8]);
+            lengths.add(0);
+        }
+
+        /**
+         * Returns the last block whose first tag is at most the given one, or
+         * the first block.
+         */
+        private int blockOf(long tag) {
+            int low = 1;
+            int high = tagBlocks.size() - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (tagBlocks.get(mid)[0] <= tag)
+                    low = mid + 1;
+                else
+                    high = mid - 1;
+            }
+            return low - 1;
+        }
+
+        void add(long tag) {
+            int block = blockOf(tag);
+            long[] tags = tagBlocks.get(block);
+            int[] counts = countBlocks.get(block);
+            int length = lengths.get(block);
+            int at = Arrays.binarySearch(tags, 0, length, tag);
+            if (at >= 0) {
+                counts[at]++;
+                return;
+            }
+            at = -at - 1;
+            if (length == tags.length) {
+                if (length < BLOCK) {
+                    tags = Arrays.copyOf(tags, length * 2);
+                    counts = Arrays.copyOf(counts, length * 2);
+                    tagBlocks.set(block, tags);
+                    countBlocks.set(block, counts);
+                } else { // Split the block, moving its upper half into a new one
+                    int half = length / 2;
+                    long[] upperTags = new long[BLOCK];
+                    int[] upperCounts = new int[BLOCK];
+                    System.arraycopy(tags, half, upperTags, 0, length - half);
+                    System.arraycopy(counts, half, upperCounts, 0, length - half);
+                    tagBlocks.add(block + 1, upperTags);
+                    countBlocks.add(block + 1, upperCounts);
+                    lengths.add(block + 1, length - half);
+                    lengths.set(block, half);
+                    add(tag);
+                    return;
+                }
+            }
+            System.arraycopy(tags, at, tags, at + 1, length - at);
+            System.arraycopy(counts, at, counts, at + 1, length - at);
+            tags[at] = tag;
+            counts[at] = 1;
+            lengths.set(block, length + 1);
+            size++;
+        }
+
+        void remove(long tag) {
+            int block = blockOf(tag);
+            long[] tags = tagBlocks.get(block);
+            int[] counts = countBlocks.get(block);
+            int length = lengths.get(block);
+            int at = Arrays.binarySearch(tags, 0, length, tag);
+            if (at < 0 || --counts[at] > 0)
+                return;
+            System.arraycopy(tags, at + 1, tags, at, length - at - 1);
+            System.arraycopy(counts, at + 1, counts, at, length - at - 1);
+            size--;
+            if (length > 1 || tagBlocks.size() == 1) {
+                lengths.set(block, length - 1);
+            } else {
+                tagBlocks.remove(block);
+                countBlocks.remove(block);
+                lengths.remove(block);
+            }
+        }
+
+        /**
+         * Returns the lowest tag at or above the given one, or NONE.
+         */
+        long ceiling(long tag) {
+            for (int block = blockOf(tag); block < tagBlocks.size(); block++) {
+                int length = lengths.get(block);
+                int at = Arrays.binarySearch(tagBlocks.get(block), 0, length, tag);
+                if (at < 0)
+                    at = -at - 1;
+                if (at < length)
+                    return tagBlocks.get(block)[at];
+            }
+            return NONE;
+        }
+    }
+
+    /**
+     * The Union class reads, in ascending order, the tags found in any of the
+     * postings matching one query word. It keeps the next tag of each postings
+     * in a heap, so moving on costs O(log m) for m postings.
+     */
+    private static class Union {
+
+        private final List<Postings> members;
+        private final PriorityQueue<long[]> heads; // {next tag, index of its postings}, lowest first
+        private final long entries; // Tags over all the members, counting repeats
+
+        Union(List<Postings> members, long from) {
+            this.members = members;
+            heads = new PriorityQueue<>(Math.max(1, members.size()), (a, b) -> Long.compare(a[0], b[0]));
+            long total = 0;
+            for (int i = 0; i < members.size(); i++) {
+                long head = members.get(i).ceiling(from);
+                if (head != NONE)
+                    heads.add(new long[] { head, i });
+                total += members.get(i).size;
+            }
+            entries = total;
+        }
+
+        /**
+         * Returns the lowest tag at or above the target in any member, or NONE.
+         * Targets must not decrease from one call to the next.
+         */
+        long seek(long target) {
+            while (!heads.isEmpty() && heads.peek()[0] < target) {
+                long[] head = heads.poll();
+                head[0] = members.get((int) head[1]).ceiling(target);
+                if (head[0] != NONE)
+                    heads.add(head);
+            }
+            return heads.isEmpty() ? NONE : heads.peek()[0];
+        }
+    }
+
+    /**
+     * The TrieNode class is one node of the token trie; its children are kept
+     * sorted by character.
+     */
+    private static class TrieNode {
+
+        private char[] labels = new char[0];
+        private TrieNode[] children = new TrieNode[0];
+        private Postings postings; // The postings of the token ending here, or null
+
+        TrieNode child(char label) {
+            int i = Arrays.binarySearch(labels, label);
+            return i < 0 ? null : children[i];
+        }
+
+        TrieNode childOrNew(char label) {
+            int i = Arrays.binarySearch(labels, label);
+            if (i >= 0)
+                return children[i];
+            i = -i - 1;
+            TrieNode node = new TrieNode();
+            labels = insert(labels, i, label);
+            TrieNode[] grown = new TrieNode[children.length + 1];
+            System.arraycopy(children, 0, grown, 0, i);
+            grown[i] = node;
+            System.arraycopy(children, i, grown, i + 1, children.length - i);
+            children = grown;
+            return node;
+        }
+
+        void removeChild(char label) {
+            int i = Arrays.binarySearch(labels, label);
+            if (i < 0)
+                return;
+            char[] fewerLabels = new char[labels.length - 1];
+            System.arraycopy(labels, 0, fewerLabels, 0, i);
+            System.arraycopy(labels, i + 1, fewerLabels, i, labels.length - i - 1);
+            TrieNode[] fewer = new TrieNode[children.length - 1];
+            System.arraycopy(children, 0, fewer, 0, i);
+            System.arraycopy(children, i + 1, fewer, i, children.length - i - 1);
+            labels = fewerLabels;
+            children = fewer;
+        }
+
+        private static char[] insert(char[] array, int at, char value) {
+            char[] grown = new char[array.length + 1];
+            System.arraycopy(array, 0, grown, 0, at);
+            grown[at] = value;
+            System.arraycopy(array, at, grown, at + 1, array.length - at);
+            return grown;
+        }
+    }
+
+    private final HashMap<String, Postings> byToken; // Token -> postings
+    private final TrieNode root; // The same tokens, by character
+
+    /**
+     * Constructs an empty NameIndex.
+     */
+    public NameIndex() {
+        byToken = new HashMap<>();
+        root = new TrieNode();
+    }
+
+    /**
+     * Splits a name or a query into tokens: runs of letters and digits, in
+     * lower case.
+     *
+     * @param text the name or query
+     * @return the tokens, in the order they appear, which may repeat
+     */
+    public static List<String> tokens(String text) {
+        ArrayList<String> tokens = new ArrayList<>();
+        if (text == null)
+            return tokens;
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean inToken = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (inToken && start < 0) {
+                start = i;
+            } else if (!inToken && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Adds an item's name under its RFID tag.
+     * Analysis of Complexity:
+     * O(L) expected, where L is the length of the name.
+     *
+     * @param name the name of the item
+     * @param tag  the packed RFID tag of the item
+     */
+    public synchronized void add(String name, long tag) {
+        for (String token : distinct(tokens(name))) {
+            Postings postings = byToken.get(token);
+            if (postings == null) {
+                postings = new Postings();
+                byToken.put(token, postings);
+                TrieNode node = root;
+                for (int i = 0; i < token.length(); i++)
+                    node = node.childOrNew(token.charAt(i));
+                node.postings = postings;
+            }
+            postings.add(tag);
+        }
+    }
+
+    /**
+     * Removes an item's name from under its RFID tag. The name must have been
+     * added for the same tag.
+     * Analysis of Complexity:
+     * O(L) expected, where L is the length of the name.
+     *
+     * @param name the name of the item
+     * @param tag  the packed RFID tag of the item
+     */
+    public synchronized void remove(String name, long tag) {
+        for (String token : distinct(tokens(name))) {
+            Postings postings = byToken.get(token);
+            if (postings == null)
+                continue;
+            postings.remove(tag);
+            if (postings.size == 0) {
+                byToken.remove(token);
+                prune(root, token, 0);
+            }
+        }
+    }
+
+    /**
+     * Clears the token ending below the given node and removes the nodes left
+     * with nothing under them.
+     *
+     * @return true if the node itself is now empty
+     */
+    private static boolean prune(TrieNode node, String token, int depth) {
+        if (depth == token.length()) {
+            node.postings = null;
+        } else {
+            TrieNode child = node.child(token.charAt(depth));
+            if (child != null && prune(child, token, depth + 1))
+                node.removeChild(token.charAt(depth));
+        }
+        return node.postings == null && node.labels.length == 0;
+    }
+
+    /**
+     * Runs a name query: passes the items matching every word of it to the
+     * action, in RFID tag order, up to the given limit.
+     * Analysis of Complexity:
+     * O(V + m log P + k W log P) where V is the number of trie nodes within
+     * reach of the query words, m the number of tokens they match, P the
+     * longest list of tags, W the number of words and k the number of tags
+     * stepped over before the limit is reached, which for common words is
+     * close to the limit; for a typed prefix V is the size of its subtree, and
+     * an exact word adds O(1).
+     *
+     * @param query     the words to look for
+     * @param maxEdits  the number of edits a word may be away from a token
+     * @param limit     the most items to pass to the action
+     * @param inventory the inventory the items are read from
+     * @param action    the action to run for each matching item
+     * @return the number of items passed to the action
+     */
+    public int search(String query, int maxEdits, int limit, Inventory inventory, Consumer<ItemInfo> action) {
+        List<String> words = tokens(query);
+        if (words.isEmpty() || limit <= 0)
+            return 0;
+
+        int[] visited = new int[1];
+        long from = 0;
+        while (visited[0] < limit && from != NONE) {
+            long[] candidates;
+            synchronized (this) {
+                candidates = candidates(words, maxEdits, from, 2 * (limit - visited[0]) + 16);
+            }
+            from = candidates.length == 0 ? NONE : candidates[candidates.length - 1] + 1;
+            for (long tag : candidates) {
+                if (visited[0] >= limit)
+                    break;
+                inventory.forEachWithRFID(RfidTag.format(tag), item -> {
+                    if (visited[0] < limit && matches(words, item.getItemName(), maxEdits)) {
+                        action.accept(item);
+                        visited[0]++;
+                    }
+                });
+            }
+            if (candidates.length == 0)
+                break;
+        }
+        return visited[0];
+    }
+
+    /**
+     * Returns the postings of every token matching a query word.
+     */
+    private List<Postings> matching(String word, boolean prefix, int maxEdits) {
+        ArrayList<Postings> found = new ArrayList<>();
+        if (maxEdits == 0 && !prefix) {
+            Postings postings = byToken.get(word);
+            if (postings != null)
+                found.add(postings);
+            return found;
+        }
+        if (maxEdits == 0) {
+            TrieNode node = root;
+            for (int i = 0; i < word.length() && node != null; i++)
+                node = node.child(word.charAt(i));
+            if (node != null)
+                collect(node, found);
+            return found;
+        }
+
+        if (prefix && word.length() <= maxEdits) { // Deleting the whole word leaves a prefix of every token
+            collect(root, found);
+            return found;
+        }
+        int[] firstRow = new int[word.length() + 1];
+        for (int i = 0; i <= word.length(); i++)
+            firstRow[i] = i;
+        for (int c = 0; c < root.labels.length; c++)
+            fuzzy(root.children[c], root.labels[c], word, firstRow, prefix, maxEdits, found);
+        return found;
+    }
+
+    /**
+     * Walks the trie below a node with one row of the edit distance table per
+     * character, leaving a branch as soon as no token below it can be within
+     * maxEdits of the word.
+     */
+    private static void fuzzy(TrieNode node, char label, String word, int[] previousRow, boolean prefix,
+            int maxEdits, List<Postings> found) {
+        int[] row = new int[previousRow.length];
+        row[0] = previousRow[0] + 1;
+        int best = row[0];
+        for (int i = 1; i < row.length; i++) {
+            int substitute = previousRow[i - 1] + (word.charAt(i - 1) == label ? 0 : 1);
+            row[i] = Math.min(substitute, Math.min(row[i - 1] + 1, previousRow[i] + 1));
+            best = Math.min(best, row[i]);
+        }
+
+        if (row[row.length - 1] <= maxEdits) {
+            if (prefix) { // The word is within reach of this token's start, so every token below matches
+                collect(node, found);
+                return;
+            }
+            if (node.postings != null)
+                found.add(node.postings);
+        }
+        if (best > maxEdits)
+            return;
+        for (int c = 0; c < node.labels.length; c++)
+            fuzzy(node.children[c], node.labels[c], word, row, prefix, maxEdits, found);
+    }
+
+    private static void collect(TrieNode node, List<Postings> found) {
+        if (node.postings != null)
+            found.add(node.postings);
+        for (TrieNode child : node.children)
+            collect(child, found);
+    }
+
+    /**
+     * Returns, in ascending order, up to count tags at or above from that are
+     * found under a token matching every query word. The word whose tokens
+     * have the fewest entries leads, and the others are moved up to its tag in
+     * turn, so only the tags up to the last one returned are looked at.
+     */
+    private long[] candidates(List<String> words, int maxEdits, long from, int count) {
+        Union[] unions = new Union[words.size()];
+        for (int w = 0; w < words.size(); w++) {
+            List<Postings> group = matching(words.get(w), w == words.size() - 1, maxEdits);
+            if (group.isEmpty())
+                return new long[0];
+            unions[w] = new Union(group, from);
+        }
+        Arrays.sort(unions, (a, b) -> Long.compare(a.entries, b.entries));
+
+        long[] found = new long[count];
+        int size = 0;
+        long target = from;
+        search: while (size < count) {
+            for (Union union : unions) {
+                long next = union.seek(target);
+                if (next == NONE)
+                    break search;
+                if (next != target) {
+                    target = next;
+                    continue search;
+                }
+            }
+            found[size++] = target;
+            target++;
+        }
+        return Arrays.copyOf(found, size);
+    }
+
+    /**
+     * Checks if an item name matches every word of a query, the last one as a
+     * prefix, each within maxEdits edits of a token of the name.
+     *
+     * @param words    the query words, from tokens
+     * @param name     the item name
+     * @param maxEdits the number of edits a word may be away from a token
+     * @return true if the name matches the query
+     */
+    public static boolean matches(List<String> words, String name, int maxEdits) {
+        List<String> nameTokens = tokens(name);
+        for (int w = 0; w < words.size(); w++) {
+            boolean prefix = w == words.size() - 1;
+            boolean found = false;
+            for (int t = 0; t < nameTokens.size() && !found; t++)
+                found = distance(words.get(w), nameTokens.get(t), prefix) <= maxEdits;
+            if (!found)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the edit distance between a word and a token, or between the word
+     * and the closest start of the token when prefix is true.
+     */
+    private static int distance(String word, String token, boolean prefix) {
+        int[] row = new int[word.length() + 1];
+        for (int i = 0; i <= word.length(); i++)
+            row[i] = i;
+        int best = row[word.length()];
+        for (int j = 1; j <= token.length(); j++) {
+            int diagonal = row[0];
+            row[0] = j;
+            for (int i = 1; i <= word.length(); i++) {
+                int above = row[i];
+                row[i] = Math.min(diagonal + (word.charAt(i - 1) == token.charAt(j - 1) ? 0 : 1),
+                        Math.min(row[i - 1] + 1, above + 1));
+                diagonal = above;
+            }
+            best = Math.min(best, row[word.length()]);
+        }
+        return prefix ? best : row[word.length()];
+    }
+
+    private static List<String> distinct(List<String> tokens) {
+        ArrayList<String> distinct = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            if (!distinct.contains(token))
+                distinct.add(token);
+        }
+        return distinct;
+    }
+}
@@ -0,0 +1,799 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * The OffHeapItemList class is an Inventory that keeps its items outside the
+ * Java heap. Every item is a fixed-width 32 byte record in direct ByteBuffer
+ * chunks, and item names are held in an OffHeapStringPool. No per-item objects
+ * are created, so a store with millions of items leaves the garbage collector
+ * almost nothing to trace.
+ *
+ * Record layout, at byte offsets within the record:
+ * 0 packed RFID tag (long), 8 price (double), 16 name reference (int),
+ * 20 original location code (int), 24 current location code (int),
+ * 28 next record with the same RFID tag (int, or NONE).
+ *
+ * Records are numbered in the order they were inserted. Tag lookups go through
+ * an OffHeapRfidIndex, and the RFID order used for printing is a SortedKeySet
+ * of packed (tag, record number) sort keys, kept up to date as records are
+ * added and purged, so a walk in tag order from any tag costs O(log n) to
+ * start and O(1) per item. The sort keys of the records that are "out" are
+ * kept in another SortedKeySet, so purging k items finds them in O(k log n). A
+ * purged record is only unlinked from the RFID index and the sort order and
+ * marked dead; once dead records make up half of the records, the live ones
+ * are compacted into fresh native memory and a fresh name pool, so the
+ * copying costs O(log n) per purged item, amortized.
+ * The records in each cart are listed on the heap, with the cart's running
+ * CartSessions tally, since carts hold few items and are checked out whole,
+ * and a ShelfValueIndex keeps the count and value of any range of shelves. The
+ * items on each shelf are found through one more SortedKeySet, of the shelf
+ * and the tag of every item on a shelf, so listing a shelf reads only its own
+ * items. The NameIndex that finds items by the words of their names is on the
+ * heap too, and so are the sort keys of the misplaced records, in a
+ * SortedKeySet, with how many sit at each location, so cleanStore and the
+ * misplaced counts only touch the misplaced items.
+ *
+ * Every method visits items in the same order as ItemList.
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public class OffHeapItemList implements Inventory {
+
+    /**
+     * The number of bytes in one item record.
+     */
+    public static final int RECORD_BYTES = 32;
+
+    private static final int TAG = 0;
+    private static final int PRICE = 8;
+    private static final int NAME = 16;
+    private static final int ORIGINAL = 20;
+    private static final int CURRENT = 24;
+    private static final int NEXT_SAME_TAG = 28;
+
+    private static final int NONE = OffHeapRfidIndex.NONE;
+    private static final int CHUNK_SHIFT = 16;
+    private static final int RECORDS_PER_CHUNK = 1 << CHUNK_SHIFT;
+    private static final int RECORD_BITS = 27; // Record numbers packed beside the tag in a sort key
+    private static final int MAX_RECORDS = 1 << RECORD_BITS;
+    private static final int TAG_BITS = 4 * RfidTag.DIGITS; // Tags packed below the shelf in a shelf key
+
+    private ArrayList<ByteBuffer> chunks; // The native memory chunks holding the records
+    private OffHeapStringPool names; // The item names
+    private OffHeapRfidIndex rfidIndex; // RFID tag -> first record with that tag
+    private int count; // The number of records, dead ones included
+    private BitSet dead; // Records purged but not yet compacted away
+    private int deadCount; // The number of dead records
+    private SortedKeySet outRecords; // Sort keys of the live records that are "out"
+    private SortedKeySet order; // Sort keys (tag << RECORD_BITS | record) of the live records
+    private CartSessions carts; // Cart -> number of items and their total in cents
+    private int[][] cartRecords; // Cart number -> records in the cart, as many as its count, or null
+    private ShelfValueIndex shelves; // Shelf ranges -> number of items and their total in cents
+    private NameIndex nameIndex; // Name words -> RFID tags of the items named with them
+    private SortedKeySet shelfTags; // Shelf keys (shelf << TAG_BITS | tag) of the tags on each shelf
+    private SortedKeySet misplaced; // Sort keys of the misplaced records
+    private TreeMap<Integer, Integer> misplacedAt; // Current location code -> misplaced records there
+
+    /**
+     * Constructs an empty OffHeapItemList.
+     */
+    public OffHeapItemList() {
+        chunks = new ArrayList<>();
+        names = new OffHeapStringPool();
+        rfidIndex = new OffHeapRfidIndex();
+        count = 0;
+        dead = new BitSet();
+        deadCount = 0;
+        outRecords = new SortedKeySet();
+        order = new SortedKeySet();
+        carts = new CartSessions();
+        cartRecords = new int[LocationCodec.CART_COUNT][];
+        shelves = new ShelfValueIndex();
+        nameIndex = new NameIndex();
+        shelfTags = new SortedKeySet();
+        misplaced = new SortedKeySet();
+        misplacedAt = new TreeMap<>();
+    }
+
+    // Record access
+
+    private ByteBuffer chunkOf(int record) {
+        return chunks.get(record >>> CHUNK_SHIFT);
+    }
+
+    private static int offsetOf(int record) {
+        return (record & (RECORDS_PER_CHUNK - 1)) * RECORD_BYTES;
+    }
+
+    private long tagOf(int record) {
+        return chunkOf(record).getLong(offsetOf(record) + TAG);
+    }
+
+    private double priceOf(int record) {
+        return chunkOf(record).getDouble(offsetOf(record) + PRICE);
+    }
+
+    private int originalOf(int record) {
+        return chunkOf(record).getInt(offsetOf(record) + ORIGINAL);
+    }
+
+    private int currentOf(int record) {
+        return chunkOf(record).getInt(offsetOf(record) + CURRENT);
+    }
+
+    private void setCurrent(int record, int location) {
+        int previous = currentOf(record);
+        leaveCart(record, previous);
+        leaveShelf(record, previous);
+        shelves.leave(previous, ItemInfo.toCents(priceOf(record)));
+        leaveMisplaced(record, previous);
+        if (previous == LocationCodec.OUT)
+            outRecords.remove(sortKeyOf(record));
+        chunkOf(record).putInt(offsetOf(record) + CURRENT, location);
+        joinCart(record, location);
+        joinShelf(record, location);
+        shelves.enter(location, ItemInfo.toCents(priceOf(record)));
+        joinMisplaced(record, location);
+        if (location == LocationCodec.OUT)
+            outRecords.add(sortKeyOf(record));
+    }
+
+    private int nextSameTagOf(int record) {
+        return chunkOf(record).getInt(offsetOf(record) + NEXT_SAME_TAG);
+    }
+
+    private void setNextSameTag(int record, int next) {
+        chunkOf(record).putInt(offsetOf(record) + NEXT_SAME_TAG, next);
+    }
+
+    /**
+     * Writes a new record after the existing ones and links it into the RFID
+     * index, after any records that already carry the tag.
+     *
+     * @return the number of the new record
+     */
+    private int appendRecord(long tag, double price, int nameRef, int original, int current) {
+        if (count == MAX_RECORDS)
+            throw new IllegalStateException("OffHeapItemList is full");
+        if ((count & (RECORDS_PER_CHUNK - 1)) == 0 && (count >>> CHUNK_SHIFT) == chunks.size())
+            chunks.add(ByteBuffer.allocateDirect(RECORDS_PER_CHUNK * RECORD_BYTES).order(ByteOrder.nativeOrder()));
+
+        int record = count++;
+        ByteBuffer chunk = chunkOf(record);
+        int offset = offsetOf(record);
+        chunk.putLong(offset + TAG, tag);
+        chunk.putDouble(offset + PRICE, price);
+        chunk.putInt(offset + NAME, nameRef);
+        chunk.putInt(offset + ORIGINAL, original);
+        chunk.putInt(offset + CURRENT, current);
+        chunk.putInt(offset + NEXT_SAME_TAG, NONE);
+        joinCart(record, current);
+        joinShelf(record, current);
+        shelves.enter(current, ItemInfo.toCents(price));
+        joinMisplaced(record, current);
+        if (current == LocationCodec.OUT)
+            outRecords.add(sortKeyOf(record));
+
+        int first = rfidIndex.get(tag);
+        if (first == NONE) {
+            rfidIndex.put(tag, record);
+        } else {
+            int last = first;
+            while (nextSameTagOf(last) != NONE)
+                last = nextSameTagOf(last);
+            setNextSameTag(last, record);
+        }
+        order.add(sortKeyOf(record));
+        return record;
+    }
+
+    /**
+     * Lists a record under the cart at the given location, if it is a cart.
+     */
+    private void joinCart(int record, int location) {
+        if (!LocationCodec.isCart(location))
+            return;
+        int cart = location - LocationCodec.CART_BASE;
+        int inCart = carts.countIn(location);
+        int[] records = cartRecords[cart];
+        if (records == null)
+            records = cartRecords[cart] = new int[4];
+        else if (records.length == inCart)
+            records = cartRecords[cart] = Arrays.copyOf(records, inCart * 2);
+        records[inCart] = record;
+        carts.enter(location, ItemInfo.toCents(priceOf(record)));
+    }
+
+    /**
+     * Takes a record off the list of the cart at the given location, if it is a
+     * cart.
+     */
+    private void leaveCart(int record, int location) {
+        if (!LocationCodec.isCart(location))
+            return;
+        int cart = location - LocationCodec.CART_BASE;
+        int last = carts.countIn(location) - 1;
+        int[] records = cartRecords[cart];
+        for (int i = 0; i <= last; i++) {
+            if (records[i] == record) {
+                records[i] = records[last];
+                break;
+            }
+        }
+        carts.leave(location, ItemInfo.toCents(priceOf(record)));
+        if (last == 0)
+            cartRecords[cart] = null;
+    }
+
+    /**
+     * Notes that a record's tag is on the shelf at the given location, if it
+     * is a shelf.
+     */
+    private void joinShelf(int record, int location) {
+        if (LocationCodec.isShelf(location))
+            shelfTags.add((long) location << TAG_BITS | tagOf(record));
+    }
+
+    /**
+     * Takes a record's tag off the shelf at the given location, if it is a
+     * shelf and no other record with the tag is there.
+     * Analysis of Complexity:
+     * O(log n), plus the number of items sharing the RFID tag.
+     */
+    private void leaveShelf(int record, int location) {
+        if (!LocationCodec.isShelf(location))
+            return;
+        long tag = tagOf(record);
+        for (int other = rfidIndex.get(tag); other != NONE; other = nextSameTagOf(other)) {
+            if (other != record && currentOf(other) == location)
+                return;
+        }
+        shelfTags.remove((long) location << TAG_BITS | tag);
+    }
+
+    /**
+     * Lists a record as misplaced if the given location is neither "out" nor
+     * its original location.
+     */
+    private void joinMisplaced(int record, int location) {
+        if (location != LocationCodec.OUT && location != originalOf(record) && misplaced.add(sortKeyOf(record)))
+            misplacedAt.merge(location, 1, Integer::sum);
+    }
+
+    /**
+     * Takes a record off the misplaced records, if it is there.
+     */
+    private void leaveMisplaced(int record, int location) {
+        if (misplaced.remove(sortKeyOf(record)))
+            misplacedAt.computeIfPresent(location, (code, there) -> there == 1 ? null : there - 1);
+    }
+
+    /**
+     * Returns the records in a cart as sort keys, in RFID tag order.
+     * Analysis of Complexity:
+     * O(k log k) where k is the number of items in the cart.
+     */
+    private long[] sortedCartRecords(int cartCode) {
+        int inCart = carts.countIn(cartCode);
+        long[] keys = new long[inCart];
+        int[] records = cartRecords[cartCode - LocationCodec.CART_BASE];
+        for (int i = 0; i < inCart; i++)
+            keys[i] = sortKeyOf(records[i]);
+        Arrays.sort(keys);
+        return keys;
+    }
+
+    private long sortKeyOf(int record) {
+        return (tagOf(record) << RECORD_BITS) | record;
+    }
+
+    private static int recordOf(long sortKey) {
+        return (int) (sortKey & (MAX_RECORDS - 1));
+    }
+
+    /**
+     * Reads a record into a new ItemInfo, so changing it has no effect on the
+     * record.
+     */
+    private ItemInfo readItem(int record) {
+        ItemInfo info = new ItemInfo();
+        info.setItemName(names.get(chunkOf(record).getInt(offsetOf(record) + NAME)));
+        info.setItemPrice(priceOf(record));
+        info.setRfidTag(tagOf(record));
+        info.setOriginalLocationCode(originalOf(record));
+        info.setCurrentLocationCode(currentOf(record));
+        return info;
+    }
+
+    // Inventory operations
+
+    /**
+     * Inserts an item as a new record.
+     * Analysis of Complexity:
+     * O(log n) expected, plus the number of items already sharing the RFID
+     * tag.
+     *
+     * @param name         the name of the item
+     * @param rfidTag      the RFID tag number of the item
+     * @param price        the price of the item
+     * @param initPosition the initial position of the item
+     * @throws Exception if the RFID tag number or location format is incorrect
+     */
+    @Override
+    public void insertInfo(String name, String rfidTag, double price, String initPosition) throws Exception {
+        long tag = RfidTag.parse(rfidTag);
+        if (tag == RfidTag.INVALID)
+            throw new IllegalRFidTagNumberException("Incorrect rfidTagNumber! Please try again");
+        int location = LocationCodec.encode(initPosition);
+        if (location == LocationCodec.INVALID)
+            throw new IllegalLocationException("Incorrect Location! Please try again!");
+        ItemInfo.toCents(price); // Carts add up their totals in cents
+
+        appendRecord(tag, price, names.add(name), location, location);
+        nameIndex.add(name, tag);
+    }
+
+    /**
+     * Inserts a batch of items as new records.
+     * Analysis of Complexity:
+     * O(m log n) expected, where m is the number of items in the batch.
+     *
+     * @param items the items to insert, which have passed the ItemInfo format
+     *              checks
+     */
+    @Override
+    public void bulkLoad(List<ItemInfo> items) {
+        for (ItemInfo info : items) {
+            appendRecord(info.getRfidTag(), info.getItemPrice(), names.add(info.getItemName()),
+                    info.getOriginalLocationCode(), info.getCurrentLocationCode());
+            nameIndex.add(info.getItemName(), info.getRfidTag());
+        }
+    }
+
+    /**
+     * Moves an item from a source location to a destination location.
+     * Analysis of Complexity:
+     * O(1) expected, plus the number of items sharing the RFID tag.
+     *
+     * @param rfidTag the RFID tag number of the item to move
+     * @param source  the source location of the item
+     * @param dest    the destination location of the item
+     * @return true if the item is successfully moved, false otherwise
+     * @throws Exception if the destination location format is incorrect or it is "out" of the inventory.
+     */
+    @Override
+    public boolean moveItem(String rfidTag, String source, String dest) throws Exception {
+        int destCode = LocationCodec.encode(dest);
+        if (destCode == LocationCodec.INVALID)
+            throw new IllegalLocationException("The destination location has an invalid format!");
+
+        int sourceCode = LocationCodec.encode(source);
+        if (sourceCode == LocationCodec.OUT)
+            throw new IllegalLocationException("The source location is 'out'. We no longer have the item!");
+
+        long tag = RfidTag.parse(rfidTag);
+        if (tag == RfidTag.INVALID)
+            return false;
+
+        for (int record = rfidIndex.get(tag); record != NONE; record = nextSameTagOf(record)) {
+            if (currentOf(record) == sourceCode) {
+                setCurrent(record, destCode);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks out all the items in a cart with the given cart number.
+     * Analysis of Complexity:
+     * O(k log k) where k is the number of items in the cart, as they are taken
+     * from the cart's list and sorted by RFID tag.
+     *
+     * @param cartNumber the cart number to check out items from
+     * @param visitor    the action to run for each item, before it goes out
+     * @return the total price of the items checked out from the cart, in cents
+     */
+    @Override
+    public long checkOut(String cartNumber, Consumer<ItemInfo> visitor) {
+        int cart = LocationCodec.encode(cartNumber);
+        if (!LocationCodec.isCart(cart))
+            return 0;
+        long cartCents = carts.totalCentsIn(cart);
+
+        for (long sortKey : sortedCartRecords(cart)) {
+            int record = recordOf(sortKey);
+            visitor.accept(readItem(record));
+            setCurrent(record, LocationCodec.OUT);
+        }
+        return cartCents;
+    }
+
+    /**
+     * Returns the number of items in a cart, from the running cart tallies.
+     * Analysis of Complexity:
+     * O(1).
+     *
+     * @param cartNumber the cart number
+     * @return the number of items in the cart, or 0 if it is not a cart
+     */
+    @Override
+    public int cartItemCount(String cartNumber) {
+        return carts.countIn(LocationCodec.encode(cartNumber));
+    }
+
+    /**
+     * Returns the total price of the items in a cart, from the running cart
+     * tallies.
+     * Analysis of Complexity:
+     * O(1).
+     *
+     * @param cartNumber the cart number
+     * @return the total in cents, or 0 if it is not a cart
+     */
+    @Override
+    public long cartTotalCents(String cartNumber) {
+        return carts.totalCentsIn(LocationCodec.encode(cartNumber));
+    }
+
+    /**
+     * Returns the number of items on a range of shelves, from the shelf value
+     * index.
+     * Analysis of Complexity:
+     * O(log S) where S is the number of shelf numbers.
+     *
+     * @param fromShelf the first shelf of the range
+     * @param toShelf   the last shelf of the range
+     * @return the number of items, or 0 if the range is empty or its ends are
+     *         not shelves
+     */
+    @Override
+    public long shelfItemCount(String fromShelf, String toShelf) {
+        return shelves.countIn(LocationCodec.encode(fromShelf), LocationCodec.encode(toShelf));
+    }
+
+    /**
+     * Returns the total price of the items on a range of shelves, from the
+     * shelf value index.
+     * Analysis of Complexity:
+     * O(log S) where S is the number of shelf numbers.
+     *
+     * @param fromShelf the first shelf of the range
+     * @param toShelf   the last shelf of the range
+     * @return the total in cents, or 0 if the range is empty or its ends are
+     *         not shelves
+     */
+    @Override
+    public long shelfValueCents(String fromShelf, String toShelf) {
+        return shelves.centsIn(LocationCodec.encode(fromShelf), LocationCodec.encode(toShelf));
+    }
+
+    /**
+     * Moves misplaced items back to their original locations, in RFID tag
+     * order.
+     * Analysis of Complexity:
+     * O(m log n) where m is the number of misplaced items, as they are taken
+     * from the misplaced records instead of checking every record.
+     *
+     * @param visitor the action to run for each item, before it is moved back
+     */
+    @Override
+    public void cleanStore(Consumer<ItemInfo> visitor) {
+        for (long sortKey = misplaced.first(); sortKey != SortedKeySet.NONE; sortKey = misplaced.first()) {
+            int record = recordOf(sortKey); // Moving it back takes it off the misplaced records
+            visitor.accept(readItem(record));
+            setCurrent(record, originalOf(record));
+        }
+    }
+
+    /**
+     * Returns the number of misplaced items.
+     * Analysis of Complexity:
+     * O(1), as the misplaced records are kept.
+     *
+     * @return the number of misplaced items
+     */
+    @Override
+    public int misplacedCount() {
+        return misplaced.size();
+    }
+
+    /**
+     * Returns how many misplaced items sit at each location.
+     * Analysis of Complexity:
+     * O(k) where k is the number of locations with misplaced items.
+     *
+     * @return a new map from location to the number of misplaced items there
+     */
+    @Override
+    public Map<String, Integer> misplacedByLocation() {
+        LinkedHashMap<String, Integer> counts = new LinkedHashMap<>();
+        for (Map.Entry<Integer, Integer> entry : misplacedAt.entrySet())
+            counts.put(LocationCodec.decode(entry.getKey()), entry.getValue());
+        return counts;
+    }
+
+    /**
+     * Removes up to the given number of purchased items, the first ones in RFID
+     * tag order, taken from the ordered keys of the records that are out. Each
+     * removed record is unlinked from the RFID index and marked dead; the
+     * records are compacted once half of them are dead.
+     * Analysis of Complexity:
+     * O(k log n) for the k items removed, plus the compaction, which copies
+     * the live records but only runs after as many records have died, so it
+     * adds O(1) per removed item, amortized.
+     *
+     * @param maxItems the most items to remove
+     * @param visitor  the action to run for each item, before it is removed
+     * @return the number of items removed
+     */
+    @Override
+    public int removePurchased(int maxItems, Consumer<ItemInfo> visitor) {
+        int removed = 0;
+        while (removed < maxItems && !outRecords.isEmpty()) {
+            long sortKey = outRecords.first();
+            outRecords.remove(sortKey);
+            int record = recordOf(sortKey);
+            ItemInfo item = readItem(record);
+            nameIndex.remove(item.getItemName(), item.getRfidTag());
+            visitor.accept(item);
+            kill(record);
+            removed++;
+        }
+        if (deadCount > 0 && deadCount >= count - deadCount)
+            compact();
+        return removed;
+    }
+
+    /**
+     * Passes up to the given number of purchased items to the action, the
+     * first ones in RFID tag order, read from the ordered keys of the records
+     * that are out.
+     * Analysis of Complexity:
+     * O(log n + k) for the k items passed.
+     *
+     * @param maxItems the most items to pass
+     * @param action   the action to run for each item
+     * @return the number of items passed to the action
+     */
+    @Override
+    public int forEachPurchased(int maxItems, Consumer<ItemInfo> action) {
+        int[] passed = new int[1];
+        if (maxItems > 0) {
+            outRecords.forEachFrom(SortedKeySet.NONE, sortKey -> {
+                action.accept(readItem(recordOf(sortKey)));
+                return ++passed[0] < maxItems;
+            });
+        }
+        return passed[0];
+    }
+
+    /**
+     * Unlinks a record that is out, and already taken off the out records,
+     * from the records sharing its tag and the sort order, and marks it dead.
+     * An out record is in no cart, on no shelf and not misplaced, so no other
+     * index holds it.
+     * Analysis of Complexity:
+     * O(log n) expected, plus the number of items sharing the RFID tag.
+     */
+    private void kill(int record) {
+        long tag = tagOf(record);
+        int first = rfidIndex.get(tag);
+        int next = nextSameTagOf(record);
+        if (first == record) {
+            if (next == NONE)
+                rfidIndex.remove(tag);
+            else
+                rfidIndex.put(tag, next);
+        } else {
+            int previous = first;
+            while (nextSameTagOf(previous) != record)
+                previous = nextSameTagOf(previous);
+            setNextSameTag(previous, next);
+        }
+        order.remove(sortKeyOf(record));
+        dead.set(record);
+        deadCount++;
+    }
+
+    /**
+     * Copies every live record, in record order, into new chunks and a new name
+     * pool, and rebuilds the indexes.
+     */
+    private void compact() {
+        ArrayList<ByteBuffer> oldChunks = chunks;
+        OffHeapStringPool oldNames = names;
+        int oldCount = count;
+
+        chunks = new ArrayList<>();
+        names = new OffHeapStringPool();
+        rfidIndex.clear();
+        count = 0;
+        carts = new CartSessions();
+        cartRecords = new int[LocationCodec.CART_COUNT][];
+        shelves = new ShelfValueIndex();
+        misplaced.clear();
+        misplacedAt.clear();
+        outRecords.clear();
+        order.clear();
+        shelfTags.clear();
+
+        for (int record = 0; record < oldCount; record++) {
+            if (dead.get(record))
+                continue;
+            ByteBuffer chunk = oldChunks.get(record >>> CHUNK_SHIFT);
+            int offset = offsetOf(record);
+            appendRecord(chunk.getLong(offset + TAG),
+                    chunk.getDouble(offset + PRICE),
+                    names.add(oldNames.get(chunk.getInt(offset + NAME))),
+                    chunk.getInt(offset + ORIGINAL),
+                    chunk.getInt(offset + CURRENT));
+        }
+        dead.clear();
+        deadCount = 0;
+    }
+
+    /**
+     * Passes every item at the given location to the action, in RFID tag order.
+     * Analysis of Complexity:
+     * O(k log k) for a cart holding k items, as only its list is read;
+     * O(log n + k) for the k items "out", from their ordered keys, and for the
+     * k items on a shelf, from the shelf's tags, plus the items sharing those
+     * tags elsewhere.
+     *
+     * @param location the location to search for items
+     * @param action   the action to run for each item
+     */
+    @Override
+    public void forEachAt(String location, Consumer<ItemInfo> action) {
+        int code = LocationCodec.encode(location);
+        if (LocationCodec.isCart(code)) {
+            for (long sortKey : sortedCartRecords(code))
+                action.accept(readItem(recordOf(sortKey)));
+            return;
+        }
+        if (code == LocationCodec.OUT) {
+            outRecords.forEachFrom(SortedKeySet.NONE, sortKey -> {
+                action.accept(readItem(recordOf(sortKey)));
+                return true;
+            });
+            return;
+        }
+        if (!LocationCodec.isShelf(code))
+            return;
+        shelfTags.forEachFrom((long) code << TAG_BITS, shelfKey -> {
+            if (shelfKey >>> TAG_BITS != code)
+                return false;
+            for (int record = rfidIndex.get(shelfKey & RfidTag.MAX_VALUE); record != NONE;
+                    record = nextSameTagOf(record)) {
+                if (currentOf(record) == code)
+                    action.accept(readItem(record));
+            }
+            return true;
+        });
+    }
+
+    /**
+     * Passes the items with the given RFID tag number to the action.
+     * Analysis of Complexity:
+     * O(1) expected, plus the number of items sharing the RFID tag.
+     *
+     * @param rfidTag the RFID tag number of the items to visit
+     * @param action  the action to run for each item
+     * @return true if at least one item has the tag, false otherwise
+     */
+    @Override
+    public boolean forEachWithRFID(String rfidTag, Consumer<ItemInfo> action) {
+        long tag = RfidTag.parse(rfidTag);
+        int first = tag == RfidTag.INVALID ? NONE : rfidIndex.get(tag);
+        for (int record = first; record != NONE; record = nextSameTagOf(record))
+            action.accept(readItem(record));
+        return first != NONE;
+    }
+
+    @Override
+    public boolean containsRFID(String rfidTag) {
+        long tag = RfidTag.parse(rfidTag);
+        return tag != RfidTag.INVALID && rfidIndex.get(tag) != NONE;
+    }
+
+    /**
+     * Passes the items whose names match a query to the action, in RFID tag
+     * order, up to a limit, using the name index.
+     * Analysis of Complexity:
+     * See NameIndex.search: the items read are only those under the candidate
+     * tags, not every item.
+     *
+     * @param query    the words to look for
+     * @param maxEdits the number of edits a word may be away from a name word
+     * @param limit    the most items to pass to the action
+     * @param action   the action to run for each matching item
+     * @return the number of items passed to the action
+     */
+    @Override
+    public int searchByName(String query, int maxEdits, int limit, Consumer<ItemInfo> action) {
+        return nameIndex.search(query, maxEdits, limit, this, action);
+    }
+
+    /**
+     * Passes every item whose RFID tag number lies in a range to the action, in
+     * RFID tag order.
+     * Analysis of Complexity:
+     * O(log n + k) where k is the number of items in the range, as the first of
+     * them is found in the sort order and the rest follow it.
+     *
+     * @param fromTag the lowest tag, or a prefix of it
+     * @param toTag   the highest tag, or a prefix of it
+     * @param action  the action to run for each item
+     * @return the number of items visited
+     */
+    @Override
+    public int forEachInTagRange(String fromTag, String toTag, Consumer<ItemInfo> action) {
+        long from = RfidTag.lowestWithPrefix(fromTag);
+        long to = RfidTag.highestWithPrefix(toTag);
+        if (from == RfidTag.INVALID || to == RfidTag.INVALID)
+            return 0;
+
+        int[] visited = new int[1];
+        order.forEachFrom(from << RECORD_BITS, sortKey -> {
+            if (sortKey >>> RECORD_BITS > to)
+                return false;
+            action.accept(readItem(recordOf(sortKey)));
+            visited[0]++;
+            return true;
+        });
+        return visited[0];
+    }
+
+    @Override
+    public int listLength() {
+        return count - deadCount;
+    }
+
+    /**
+     * Passes every item to the given action, in RFID tag order. Each item is
+     * read out of its record into a new ItemInfo, so changing it has no effect.
+     * Analysis of Complexity:
+     * O(n).
+     *
+     * @param action the action to run for each item
+     */
+    @Override
+    public void forEachItem(Consumer<ItemInfo> action) {
+        order.forEachFrom(SortedKeySet.NONE, sortKey -> {
+            action.accept(readItem(recordOf(sortKey)));
+            return true;
+        });
+    }
+
+    /**
+     * Returns the number of native bytes held by the records and the name pool.
+     *
+     * @return the native memory used, in bytes
+     */
+    public long nativeBytes() {
+        return (long) chunks.size() * RECORDS_PER_CHUNK * RECORD_BYTES + names.nativeBytes();
+    }
+
+    /**
+     * Returns the number of heap bytes held by the RFID index and the sorted
+     * keys: the sort order, the shelf tags, and the records out and misplaced.
+     * The name index is not counted.
+     *
+     * @return the heap memory used by the indexes, in bytes
+     */
+    public long indexHeapBytes() {
+        return rfidIndex.heapBytes() + order.heapBytes() + shelfTags.heapBytes() + outRecords.heapBytes()
+                + misplaced.heapBytes();
+    }
+}
@@ -0,0 +1,161 @@
+import java.util.Arrays;
+
+/**
+ * The OffHeapRfidIndex class is a hash table from packed RFID tags to the first
+ * OffHeapItemList record carrying that tag. The other records with the same tag
+ * are chained from that record.
+ *
+ * It works the same way as RfidIndex, with open addressing and linear probing,
+ * but both the keys and the values are primitive arrays, so the whole table is
+ * two objects however many tags it holds.
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public class OffHeapRfidIndex {
+
+    private static final long EMPTY = RfidTag.INVALID; // Marks a free slot in keys
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * The value returned by get for a tag that is not in the table.
+     */
+    public static final int NONE = -1;
+
+    private long[] keys; // The packed tags, or EMPTY
+    private int[] records; // The first record with the tag in the same slot, or NONE
+    private int size; // The number of tags in the table
+
+    /**
+     * Constructs an empty OffHeapRfidIndex.
+     */
+    public OffHeapRfidIndex() {
+        keys = new long[INITIAL_CAPACITY];
+        Arrays.fill(keys, EMPTY);
+        records = new int[INITIAL_CAPACITY];
+        size = 0;
+    }
+
+    /**
+     * Returns the slot where the given tag is stored, or the free slot where it
+     * would be stored.
+     *
+     * @param tag the packed tag
+     * @return the slot for the tag
+     */
+    private int slotOf(long tag) {
+        int mask = keys.length - 1;
+        int slot = RfidTag.hash(tag) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != tag)
+            slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    /**
+     * Gets the first record carrying the given tag.
+     * Analysis of Complexity:
+     * O(1) expected.
+     *
+     * @param tag the packed tag
+     * @return the first record with the tag, or NONE if there is none
+     */
+    public int get(long tag) {
+        int slot = slotOf(tag);
+        return keys[slot] == EMPTY ? NONE : records[slot];
+    }
+
+    /**
+     * Sets the first record carrying the given tag, adding the tag if it is not in
+     * the table yet.
+     * Analysis of Complexity:
+     * O(1) expected, and O(n) when the table has to grow.
+     *
+     * @param tag  the packed tag
+     * @param record the first record with the tag
+     */
+    public void put(long tag, int record) {
+        int slot = slotOf(tag);
+        if (keys[slot] == EMPTY) {
+            if ((size + 1) * 3 > keys.length * 2) { // Keep the load below 2/3
+                grow();
+                slot = slotOf(tag);
+            }
+            keys[slot] = tag;
+            size++;
+        }
+        records[slot] = record;
+    }
+
+    /**
+     * Removes the given tag from the table.
+     * Analysis of Complexity:
+     * O(1) expected.
+     *
+     * @param tag the packed tag
+     */
+    public void remove(long tag) {
+        int mask = keys.length - 1;
+        int slot = slotOf(tag);
+        if (keys[slot] == EMPTY)
+            return;
+
+        // Shift later entries of the same probe run back into the hole
+        int next = (slot + 1) & mask;
+        while (keys[next] != EMPTY) {
+            int home = RfidTag.hash(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - slot) & mask)) {
+                keys[slot] = keys[next];
+                records[slot] = records[next];
+                slot = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[slot] = EMPTY;
+        size--;
+    }
+
+    /**
+     * Removes every tag from the table.
+     */
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+    }
+
+    /**
+     * Returns the number of heap bytes held by the table's arrays.
+     *
+     * @return the heap memory used by the table, in bytes
+     */
+    public long heapBytes() {
+        return (long) keys.length * (Long.BYTES + Integer.BYTES);
+    }
+
+    /**
+     * Returns the number of distinct tags in the table.
+     *
+     * @return the number of distinct tags
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Doubles the capacity of the table and re-inserts every entry.
+     */
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldRecords = records;
+        keys = new long[oldKeys.length * 2];
+        Arrays.fill(keys, EMPTY);
+        records = new int[oldKeys.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slotOf(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                records[slot] = oldRecords[i];
+            }
+        }
+    }
+}
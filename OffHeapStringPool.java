@@ -0,0 +1,86 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+/**
+ * The OffHeapStringPool class stores strings as UTF-8 bytes in direct
+ * ByteBuffer chunks outside the Java heap. Each string is written once with a
+ * two byte length in front of it and is referred to by an int offset into the
+ * pool. Strings are only turned back into String objects when they are read.
+ *
+ * The pool only grows; OffHeapItemList builds a fresh pool when it compacts
+ * its records and drops the old one.
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public class OffHeapStringPool {
+
+    private static final int CHUNK_SHIFT = 20;
+    private static final int CHUNK_BYTES = 1 << CHUNK_SHIFT; // 1 MB per chunk
+    private static final int MAX_STRING_BYTES = 0xFFFF;
+
+    private ArrayList<ByteBuffer> chunks; // The native memory chunks
+    private int used; // Bytes used in the last chunk
+
+    /**
+     * Constructs an empty OffHeapStringPool.
+     */
+    public OffHeapStringPool() {
+        chunks = new ArrayList<>();
+        used = CHUNK_BYTES; // Forces a chunk to be allocated by the first add
+    }
+
+    /**
+     * Adds a string to the pool.
+     *
+     * @param value the string to add
+     * @return the reference to pass to get
+     * @throws IllegalArgumentException if the string is longer than 65535 UTF-8
+     *                                  bytes, or the pool is full
+     */
+    public int add(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_BYTES)
+            throw new IllegalArgumentException("String is too long for the pool: " + bytes.length + " bytes");
+
+        if (used + 2 + bytes.length > CHUNK_BYTES) {
+            if (chunks.size() == (1 << (31 - CHUNK_SHIFT)))
+                throw new IllegalArgumentException("The string pool is full");
+            chunks.add(ByteBuffer.allocateDirect(CHUNK_BYTES).order(ByteOrder.nativeOrder()));
+            used = 0;
+        }
+
+        ByteBuffer chunk = chunks.get(chunks.size() - 1);
+        int ref = ((chunks.size() - 1) << CHUNK_SHIFT) | used;
+        chunk.putShort(used, (short) bytes.length);
+        chunk.put(used + 2, bytes);
+        used += 2 + bytes.length;
+        return ref;
+    }
+
+    /**
+     * Reads a string back from the pool.
+     *
+     * @param ref the reference returned by add
+     * @return the string
+     */
+    public String get(int ref) {
+        ByteBuffer chunk = chunks.get(ref >>> CHUNK_SHIFT);
+        int position = ref & (CHUNK_BYTES - 1);
+        byte[] bytes = new byte[chunk.getShort(position) & 0xFFFF];
+        chunk.get(position + 2, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the number of native bytes held by the pool.
+     *
+     * @return the native memory used, in bytes
+     */
+    public long nativeBytes() {
+        return (long) chunks.size() * CHUNK_BYTES;
+    }
+}
@@ -0,0 +1,671 @@
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * The OperationJournal class is an append-only write-ahead journal of the
+ * operations that change an Inventory: inserts, moves, checkouts, cleans and
+ * purges. Together with the latest InventorySnapshot it lets a restarted
+ * DepartmentStore recover every operation that was acknowledged.
+ *
+ * Record layout, big-endian:
+ * body length (int), then the body: sequence number (long), operation (byte)
+ * and its operands, then a CRC-32 of the body (int). Sequence numbers start at
+ * 1 and keep increasing across truncations.
+ *
+ * Appends are copied into a pending buffer and written by a background flusher
+ * thread, and return at once with the record's sequence number. In durable
+ * mode the caller then waits with awaitWritten until its record has been
+ * forced to disk, but the flusher forces everything pending at once, so a
+ * burst of operations from many threads shares one fsync (group commit), as
+ * long as they do not hold a lock of their own while they wait. In
+ * non-durable mode awaitWritten returns at once and the flusher only writes.
+ *
+ * ReplicationPrimary sends records in the same layout to its replicas, which
+ * apply them with applyRecords.
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public class OperationJournal implements OperationLog {
+
+    /**
+     * An insert: tag (long), price (double), original and current location
+     * codes (int), name length (short) and UTF-8 name bytes.
+     */
+    public static final byte INSERT = 1;
+
+    /**
+     * A move: tag (long), source and destination location codes (int).
+     */
+    public static final byte MOVE = 2;
+
+    /**
+     * A checkout: cart location code (int).
+     */
+    public static final byte CHECKOUT = 3;
+
+    /**
+     * A clean, with no operands.
+     */
+    public static final byte CLEAN = 4;
+
+    /**
+     * A purge of purchased items, with no operands.
+     */
+    public static final byte PURGE = 5;
+
+    /**
+     * A partial purge of purchased items: the most items removed (int).
+     */
+    public static final byte PURGE_SOME = 6;
+
+    private static final int INITIAL_BUFFER_BYTES = 1 << 16;
+    private static final int MAX_PENDING_BYTES = 16 << 20; // Appenders wait for the flusher beyond this
+    private static final int MAX_RECORD_BYTES = 1 << 20;
+    private static final int SMALL_INSERT_GROUP = 16; // Inserted one at a time when replayed
+
+    private final FileChannel channel;
+    private final boolean durable;
+    private final Object lock = new Object(); // Guards everything below
+    private ByteBuffer pending; // Records not yet handed to the flusher
+    private ByteBuffer writing; // The buffer the flusher is writing
+    private int recordStart; // Where the record being appended starts in pending
+    private long appendedSequence; // The last sequence number appended
+    private long writtenSequence; // The last sequence number written (and forced, if durable)
+    private boolean closed;
+    private IOException failure; // The first write failure; the journal is unusable after it
+    private final Thread flusher;
+
+    private OperationJournal(FileChannel channel, boolean durable, long lastSequence) {
+        this.channel = channel;
+        this.durable = durable;
+        this.pending = ByteBuffer.allocate(INITIAL_BUFFER_BYTES);
+        this.writing = ByteBuffer.allocate(INITIAL_BUFFER_BYTES);
+        this.appendedSequence = lastSequence;
+        this.writtenSequence = lastSequence;
+        this.flusher = new Thread(this::flushLoop, "journal-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Opens a journal file for appending, creating it if needed. Run replay on
+     * the file first, so that a torn record at the end is cut off and the last
+     * sequence number is known.
+     *
+     * @param file         the journal file
+     * @param durable      true to force every record to disk before
+     *                     awaitWritten returns for it
+     * @param lastSequence the last sequence number already used, by the journal
+     *                     or by the snapshot it follows
+     * @return the opened journal
+     * @throws IOException if the file cannot be opened
+     */
+    public static OperationJournal open(Path file, boolean durable, long lastSequence) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        return new OperationJournal(channel, durable, lastSequence);
+    }
+
+    // Appending
+
+    /**
+     * Appends an insert of the given item.
+     *
+     * @param info the inserted item
+     * @return the sequence number of the record
+     */
+    @Override
+    public long logInsert(ItemInfo info) {
+        byte[] name = nameBytes(info);
+        synchronized (lock) {
+            ByteBuffer body = begin(INSERT, 8 + 8 + 4 + 4 + 2 + name.length);
+            putInsert(body, info, name);
+            return end(body);
+        }
+    }
+
+    /**
+     * Appends inserts of all the given items as one group, so that a bulk load
+     * costs a single wait for the disk.
+     *
+     * @param items the inserted items
+     * @return the sequence number of the last record
+     */
+    @Override
+    public long logInserts(List<ItemInfo> items) {
+        synchronized (lock) {
+            long sequence = appendedSequence;
+            for (ItemInfo info : items) {
+                byte[] name = nameBytes(info);
+                ByteBuffer body = begin(INSERT, 8 + 8 + 4 + 4 + 2 + name.length);
+                putInsert(body, info, name);
+                sequence = end(body);
+            }
+            return sequence;
+        }
+    }
+
+    /**
+     * Appends a move.
+     *
+     * @param tag    the packed RFID tag of the item moved
+     * @param source the source location code
+     * @param dest   the destination location code
+     * @return the sequence number of the record
+     */
+    @Override
+    public long logMove(long tag, int source, int dest) {
+        synchronized (lock) {
+            ByteBuffer body = begin(MOVE, 8 + 4 + 4);
+            body.putLong(tag).putInt(source).putInt(dest);
+            return end(body);
+        }
+    }
+
+    /**
+     * Appends a checkout.
+     *
+     * @param cart the cart location code
+     * @return the sequence number of the record
+     */
+    @Override
+    public long logCheckOut(int cart) {
+        synchronized (lock) {
+            ByteBuffer body = begin(CHECKOUT, 4);
+            body.putInt(cart);
+            return end(body);
+        }
+    }
+
+    /**
+     * Appends a clean.
+     *
+     * @return the sequence number of the record
+     */
+    @Override
+    public long logClean() {
+        synchronized (lock) {
+            return end(begin(CLEAN, 0));
+        }
+    }
+
+    /**
+     * Appends a purge.
+     *
+     * @return the sequence number of the record
+     */
+    @Override
+    public long logPurge() {
+        synchronized (lock) {
+            return end(begin(PURGE, 0));
+        }
+    }
+
+    /**
+     * Appends a partial purge.
+     *
+     * @param maxItems the most items the purge removed
+     * @return the sequence number of the record
+     */
+    @Override
+    public long logPurgeSome(int maxItems) {
+        synchronized (lock) {
+            ByteBuffer body = begin(PURGE_SOME, 4);
+            body.putInt(maxItems);
+            return end(body);
+        }
+    }
+
+    static byte[] nameBytes(ItemInfo info) {
+        byte[] name = info.getItemName().getBytes(StandardCharsets.UTF_8);
+        if (name.length > 0xFFFF)
+            throw new IllegalArgumentException("The item name is too long for the journal");
+        return name;
+    }
+
+    static void putInsert(ByteBuffer body, ItemInfo info, byte[] name) {
+        body.putLong(info.getRfidTag())
+                .putDouble(info.getItemPrice())
+                .putInt(info.getOriginalLocationCode())
+                .putInt(info.getCurrentLocationCode())
+                .putShort((short) name.length)
+                .put(name);
+    }
+
+    /**
+     * Starts a record in the pending buffer, leaving room for the length in
+     * front, and writes the sequence number and operation. Called with the lock
+     * held.
+     *
+     * @return the pending buffer, positioned after the operation byte
+     */
+    private ByteBuffer begin(byte operation, int operandBytes) {
+        if (closed)
+            throw new IllegalStateException("The journal is closed");
+        if (failure != null)
+            throw new UncheckedIOException("The journal could not be written", failure);
+
+        while (pending.position() > MAX_PENDING_BYTES && failure == null)
+            waitForFlusher();
+        if (failure != null)
+            throw new UncheckedIOException("The journal could not be written", failure);
+
+        int recordBytes = recordBytes(operandBytes);
+        if (pending.remaining() < recordBytes) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + recordBytes));
+            pending.flip();
+            larger.put(pending);
+            pending = larger;
+        }
+
+        recordStart = pending.position();
+        startRecord(pending, appendedSequence + 1, operation, operandBytes);
+        return pending;
+    }
+
+    /**
+     * Finishes the record started by begin. Called with the lock held.
+     *
+     * @return the sequence number of the record
+     */
+    private long end(ByteBuffer body) {
+        finishRecord(body, recordStart);
+        appendedSequence++;
+        lock.notifyAll(); // Wake the flusher
+        return appendedSequence;
+    }
+
+    /**
+     * Waits until the record with the given sequence number, and every one
+     * before it, has been forced to disk, if the journal is durable. Appenders
+     * waiting together are released by the same fsync.
+     *
+     * @param sequence the sequence number an append returned
+     */
+    @Override
+    public void awaitWritten(long sequence) {
+        if (!durable)
+            return;
+        synchronized (lock) {
+            while (writtenSequence < sequence && failure == null)
+                waitForFlusher();
+            if (failure != null)
+                throw new UncheckedIOException("The journal could not be written", failure);
+        }
+    }
+
+    private void waitForFlusher() {
+        try {
+            lock.wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the journal", e);
+        }
+    }
+
+    /**
+     * Returns the number of bytes a record with the given operands takes,
+     * including its length and CRC.
+     *
+     * @param operandBytes the size of the operands
+     * @return the size of the record
+     */
+    static int recordBytes(int operandBytes) {
+        return 4 + 8 + 1 + operandBytes + 4;
+    }
+
+    /**
+     * Writes the start of a record at the position of a heap buffer: the body
+     * length, the sequence number and the operation. The operands are written
+     * next, then finishRecord.
+     *
+     * @param buffer       the buffer, with room for the whole record
+     * @param sequence     the sequence number of the record
+     * @param operation    the operation
+     * @param operandBytes the size of the operands that will follow
+     */
+    static void startRecord(ByteBuffer buffer, long sequence, byte operation, int operandBytes) {
+        buffer.putInt(8 + 1 + operandBytes);
+        buffer.putLong(sequence);
+        buffer.put(operation);
+    }
+
+    /**
+     * Ends the record started at the given position of a heap buffer with the
+     * CRC of its body.
+     *
+     * @param buffer      the buffer, positioned after the operands
+     * @param recordStart where the record starts in the buffer
+     */
+    static void finishRecord(ByteBuffer buffer, int recordStart) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), recordStart + 4, buffer.position() - recordStart - 4);
+        buffer.putInt((int) crc.getValue());
+    }
+
+    // Flushing
+
+    /**
+     * The flusher thread: swaps out whatever is pending, writes it, forces it
+     * if the journal is durable, and wakes the appenders waiting for it.
+     */
+    private void flushLoop() {
+        while (true) {
+            long target;
+            synchronized (lock) {
+                while (pending.position() == 0 && !closed) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        // Nothing will write the pending records now, so fail the
+                        // appenders waiting for them instead of leaving them waiting
+                        if (failure == null)
+                            failure = new InterruptedIOException("The journal flusher was interrupted");
+                        lock.notifyAll();
+                        return;
+                    }
+                }
+                if (pending.position() == 0 && closed)
+                    return;
+
+                ByteBuffer swap = writing;
+                writing = pending;
+                pending = swap;
+                pending.clear();
+                target = appendedSequence;
+            }
+
+            IOException error = null;
+            try {
+                writing.flip();
+                while (writing.hasRemaining())
+                    channel.write(writing);
+                if (durable)
+                    channel.force(false);
+            } catch (IOException e) {
+                error = e;
+            }
+            writing.clear();
+
+            synchronized (lock) {
+                if (error != null && failure == null)
+                    failure = error;
+                else
+                    writtenSequence = target;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Waits until every record appended so far has been written, and forced to
+     * disk.
+     *
+     * @throws IOException if the journal could not be written
+     */
+    public void sync() throws IOException {
+        synchronized (lock) {
+            while (writtenSequence < appendedSequence && failure == null)
+                waitForFlusher();
+            if (failure != null)
+                throw failure;
+        }
+        channel.force(false);
+    }
+
+    /**
+     * Returns the last sequence number appended.
+     *
+     * @return the last sequence number
+     */
+    @Override
+    public long lastSequence() {
+        synchronized (lock) {
+            return appendedSequence;
+        }
+    }
+
+    /**
+     * Empties the journal after a checkpoint. Every record appended so far must
+     * be included in the snapshot just written, so no other thread may change
+     * the inventory while the checkpoint runs. Sequence numbers continue from
+     * where they were.
+     *
+     * @throws IOException if the journal cannot be truncated
+     */
+    public void truncate() throws IOException {
+        synchronized (lock) {
+            while (writtenSequence < appendedSequence && failure == null)
+                waitForFlusher();
+            if (failure != null)
+                throw failure;
+            // The flusher is idle: nothing is pending and the lock is held
+            channel.truncate(0);
+            channel.position(0);
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Writes out everything pending and closes the journal file.
+     *
+     * @throws IOException if the last records could not be written
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            if (closed)
+                return;
+            closed = true;
+            lock.notifyAll();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            if (failure != null)
+                throw failure;
+            channel.force(true);
+        } finally {
+            channel.close();
+        }
+    }
+
+    // Replay
+
+    /**
+     * Applies every record in the journal file whose sequence number is after
+     * the given one to the inventory, in order. Consecutive inserts are applied
+     * as one bulk load. Reading stops at the first incomplete or damaged
+     * record, which can only be the last one written before a crash; the file
+     * is cut back to the end of the last good record so new records follow it.
+     *
+     * @param file          the journal file; nothing is done if it does not
+     *                      exist
+     * @param inventory     the inventory to apply the records to
+     * @param afterSequence the last sequence number already included in the
+     *                      inventory, usually InventorySnapshot.lastSequence
+     * @return the last sequence number found in the journal, or afterSequence
+     *         if it is higher
+     * @throws IOException if the journal cannot be read
+     */
+    public static long replay(Path file, Inventory inventory, long afterSequence) throws IOException {
+        if (!file.toFile().exists())
+            return afterSequence;
+
+        long lastSequence = afterSequence;
+        ArrayList<ItemInfo> inserts = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            long position = 0;
+            ByteBuffer lengthBuffer = ByteBuffer.allocate(4);
+            CRC32 crc = new CRC32();
+
+            while (position + 4 <= size) {
+                lengthBuffer.clear();
+                readFully(channel, lengthBuffer, position);
+                int length = lengthBuffer.getInt(0);
+                if (length < 9 || length > MAX_RECORD_BYTES || position + 4 + length + 4 > size)
+                    break; // Torn or damaged tail
+
+                ByteBuffer record = ByteBuffer.allocate(length + 4);
+                readFully(channel, record, position + 4);
+                crc.reset();
+                crc.update(record.array(), 0, length);
+                if ((int) crc.getValue() != record.getInt(length))
+                    break;
+
+                record.flip().limit(length);
+                long sequence = record.getLong();
+                byte operation = record.get();
+                if (sequence > afterSequence)
+                    apply(operation, record, inventory, inserts);
+                lastSequence = Math.max(lastSequence, sequence);
+                position += 4 + length + 4;
+            }
+
+            applyInserts(inventory, inserts);
+            if (position < size) {
+                channel.truncate(position);
+                channel.force(true);
+            }
+        } catch (Exception e) {
+            if (e instanceof IOException)
+                throw (IOException) e;
+            throw new IOException("The journal could not be replayed: " + e.getMessage(), e);
+        }
+        return lastSequence;
+    }
+
+    /**
+     * Applies the records between the position and the limit of a buffer to
+     * the inventory, in order, skipping those whose sequence number is not
+     * after the given one. Unlike replay, a damaged record is an error: the
+     * buffer is expected to hold whole records.
+     *
+     * @param records       the records, in the journal layout
+     * @param inventory     the inventory to apply them to
+     * @param afterSequence the last sequence number already included in the
+     *                      inventory
+     * @return the last sequence number applied, or afterSequence if none was
+     * @throws IOException if a record is damaged or cannot be applied
+     */
+    static long applyRecords(ByteBuffer records, Inventory inventory, long afterSequence) throws IOException {
+        long lastSequence = afterSequence;
+        ArrayList<ItemInfo> inserts = new ArrayList<>();
+        CRC32 crc = new CRC32();
+        try {
+            while (records.hasRemaining()) {
+                int start = records.position();
+                int length = records.remaining() >= 4 ? records.getInt() : -1;
+                if (length < 9 || length > MAX_RECORD_BYTES || records.remaining() < length + 4)
+                    throw new IOException("A record is incomplete");
+                crc.reset();
+                crc.update(records.array(), records.arrayOffset() + start + 4, length);
+                if ((int) crc.getValue() != records.getInt(start + 4 + length))
+                    throw new IOException("A record is damaged");
+
+                ByteBuffer record = records.slice().limit(length);
+                records.position(start + 4 + length + 4);
+                long sequence = record.getLong();
+                byte operation = record.get();
+                if (sequence > lastSequence) {
+                    apply(operation, record, inventory, inserts);
+                    lastSequence = sequence;
+                }
+            }
+            applyInserts(inventory, inserts);
+        } catch (Exception e) {
+            if (e instanceof IOException)
+                throw (IOException) e;
+            throw new IOException("A record could not be applied: " + e.getMessage(), e);
+        }
+        return lastSequence;
+    }
+
+    private static void apply(byte operation, ByteBuffer operands, Inventory inventory, ArrayList<ItemInfo> inserts)
+            throws Exception {
+        if (operation == INSERT) {
+            ItemInfo info = new ItemInfo();
+            info.setRfidTag(operands.getLong());
+            info.setItemPrice(operands.getDouble());
+            info.setOriginalLocationCode(operands.getInt());
+            info.setCurrentLocationCode(operands.getInt());
+            byte[] name = new byte[operands.getShort() & 0xFFFF];
+            operands.get(name);
+            info.setItemName(new String(name, StandardCharsets.UTF_8));
+            inserts.add(info);
+            return;
+        }
+
+        applyInserts(inventory, inserts);
+        switch (operation) {
+            case MOVE:
+                inventory.moveItem(RfidTag.format(operands.getLong()),
+                        LocationCodec.decode(operands.getInt()),
+                        LocationCodec.decode(operands.getInt()));
+                break;
+            case CHECKOUT:
+                inventory.checkOut(LocationCodec.decode(operands.getInt()), item -> {
+                });
+                break;
+            case CLEAN:
+                inventory.cleanStore(item -> {
+                });
+                break;
+            case PURGE:
+                inventory.removeAllPurchased(item -> {
+                });
+                break;
+            case PURGE_SOME:
+                inventory.removePurchased(operands.getInt(), item -> {
+                });
+                break;
+            default:
+                throw new IOException("Unknown journal operation " + operation);
+        }
+    }
+
+    /**
+     * Inserts the items gathered from consecutive insert records. A few items
+     * at their original locations, like a restock between moves, are inserted
+     * one at a time, since a bulk load passes every item already held.
+     */
+    private static void applyInserts(Inventory inventory, ArrayList<ItemInfo> inserts) throws Exception {
+        if (inserts.isEmpty())
+            return;
+        boolean few = inserts.size() <= SMALL_INSERT_GROUP;
+        for (int i = 0; few && i < inserts.size(); i++)
+            few = inserts.get(i).getCurrentLocationCode() == inserts.get(i).getOriginalLocationCode();
+        if (few) {
+            for (ItemInfo info : inserts)
+                inventory.insertInfo(info.getItemName(), RfidTag.format(info.getRfidTag()), info.getItemPrice(),
+                        LocationCodec.decode(info.getOriginalLocationCode()));
+        } else {
+            inventory.bulkLoad(inserts);
+        }
+        inserts.clear();
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0)
+                throw new IOException("Unexpected end of the journal");
+            position += read;
+        }
+    }
+}
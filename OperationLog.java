@@ -0,0 +1,96 @@
+import java.io.Closeable;
+import java.util.List;
+
+/**
+ * The OperationLog interface lists what a JournaledInventory records for each
+ * change it makes: inserts, moves, checkouts, cleans and purges, each with the
+ * next sequence number. OperationJournal writes them to a file, so a restart
+ * can replay them; ReplicationPrimary streams them to InventoryReplica
+ * processes, which apply them to copies of the inventory.
+ *
+ * The records are appended in the order the changes were applied, and applying
+ * them again in that order to a copy of the inventory as it was before the
+ * first one brings it to the same state. An append returns as soon as the
+ * record is taken, and awaitWritten then waits until it is durable, so that
+ * the caller can release its locks before waiting.
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public interface OperationLog extends Closeable {
+
+    /**
+     * Appends an insert of the given item.
+     *
+     * @param info the inserted item
+     * @return the sequence number of the record
+     */
+    long logInsert(ItemInfo info);
+
+    /**
+     * Appends inserts of all the given items as one group.
+     *
+     * @param items the inserted items
+     * @return the sequence number of the last record
+     */
+    long logInserts(List<ItemInfo> items);
+
+    /**
+     * Appends a move.
+     *
+     * @param tag    the packed RFID tag of the item moved
+     * @param source the source location code
+     * @param dest   the destination location code
+     * @return the sequence number of the record
+     */
+    long logMove(long tag, int source, int dest);
+
+    /**
+     * Appends a checkout.
+     *
+     * @param cart the cart location code
+     * @return the sequence number of the record
+     */
+    long logCheckOut(int cart);
+
+    /**
+     * Appends a clean.
+     *
+     * @return the sequence number of the record
+     */
+    long logClean();
+
+    /**
+     * Appends a purge.
+     *
+     * @return the sequence number of the record
+     */
+    long logPurge();
+
+    /**
+     * Appends a partial purge.
+     *
+     * @param maxItems the most items the purge removed
+     * @return the sequence number of the record
+     */
+    long logPurgeSome(int maxItems);
+
+    /**
+     * Waits until the record with the given sequence number, and every one
+     * before it, is durable. Does nothing by default, for a log whose records
+     * are only kept in memory.
+     *
+     * @param sequence the sequence number an append returned, or 0 to wait
+     *                 for nothing
+     */
+    default void awaitWritten(long sequence) {
+    }
+
+    /**
+     * Returns the last sequence number appended.
+     *
+     * @return the last sequence number
+     */
+    long lastSequence();
+}
@@ -0,0 +1,119 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The OperationStats class keeps the statistics of one Inventory operation
+ * for InventoryMetrics: a LatencyHistogram of the time each call took, and
+ * counters of the failed calls, the items affected and the list nodes
+ * visited. Every counter is lock-free, so any number of threads may record at
+ * once.
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public class OperationStats implements OperationStatsMXBean {
+
+    private final String name; // The Inventory method
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder items = new LongAdder();
+    private final LongAdder nodes = new LongAdder();
+    private final AtomicLong maxNodes = new AtomicLong();
+    private volatile boolean nodesCounted; // Whether any call reported its nodes
+
+    /**
+     * Constructs empty statistics for the given operation.
+     *
+     * @param name the name of the Inventory method
+     */
+    public OperationStats(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Records a call that returned.
+     * Analysis of Complexity:
+     * O(1).
+     *
+     * @param nanos         the time the call took, in nanoseconds
+     * @param itemsAffected the number of items it affected
+     * @param nodesVisited  the number of list nodes it visited, or a negative
+     *                      number if they were not counted
+     */
+    public void record(long nanos, long itemsAffected, long nodesVisited) {
+        latency.record(nanos);
+        if (itemsAffected != 0)
+            items.add(itemsAffected);
+        if (nodesVisited >= 0) {
+            if (!nodesCounted)
+                nodesCounted = true;
+            nodes.add(nodesVisited);
+            long current = maxNodes.get();
+            while (nodesVisited > current && !maxNodes.compareAndSet(current, nodesVisited))
+                current = maxNodes.get();
+        }
+    }
+
+    /**
+     * Records a call that threw an exception.
+     */
+    public void recordError() {
+        errors.increment();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getCalls() {
+        return latency.getCount();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public long getItemsAffected() {
+        return items.sum();
+    }
+
+    @Override
+    public long getNodesVisited() {
+        return nodesCounted ? nodes.sum() : -1;
+    }
+
+    @Override
+    public long getMaxNodesVisited() {
+        return maxNodes.get();
+    }
+
+    @Override
+    public double getMeanMicros() {
+        return latency.getMean() / 1e3;
+    }
+
+    @Override
+    public double getP50Micros() {
+        return latency.percentile(0.50) / 1e3;
+    }
+
+    @Override
+    public double getP99Micros() {
+        return latency.percentile(0.99) / 1e3;
+    }
+
+    @Override
+    public double getP999Micros() {
+        return latency.percentile(0.999) / 1e3;
+    }
+
+    @Override
+    public double getMaxMicros() {
+        return latency.getMax() / 1e3;
+    }
+}
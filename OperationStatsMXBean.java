@@ -0,0 +1,89 @@
+/**
+ * The OperationStatsMXBean interface is the JMX view of the statistics kept
+ * for one Inventory operation by InventoryMetrics. Times are in microseconds.
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public interface OperationStatsMXBean {
+
+    /**
+     * Gets the name of the Inventory method.
+     *
+     * @return the method name
+     */
+    String getName();
+
+    /**
+     * Gets the number of calls that returned.
+     *
+     * @return the number of calls
+     */
+    long getCalls();
+
+    /**
+     * Gets the number of calls that threw an exception.
+     *
+     * @return the number of failed calls
+     */
+    long getErrors();
+
+    /**
+     * Gets the number of items the calls found, moved, sold, cleaned or
+     * removed.
+     *
+     * @return the number of items affected
+     */
+    long getItemsAffected();
+
+    /**
+     * Gets the number of list nodes the calls stepped through, or -1 if the
+     * inventory does not count them.
+     *
+     * @return the number of nodes visited
+     */
+    long getNodesVisited();
+
+    /**
+     * Gets the most list nodes a single call stepped through.
+     *
+     * @return the most nodes visited by one call
+     */
+    long getMaxNodesVisited();
+
+    /**
+     * Gets the mean time of a call.
+     *
+     * @return the mean in microseconds
+     */
+    double getMeanMicros();
+
+    /**
+     * Gets the median time of a call.
+     *
+     * @return the 50th percentile in microseconds
+     */
+    double getP50Micros();
+
+    /**
+     * Gets the 99th percentile of the time of a call.
+     *
+     * @return the 99th percentile in microseconds
+     */
+    double getP99Micros();
+
+    /**
+     * Gets the 99.9th percentile of the time of a call.
+     *
+     * @return the 99.9th percentile in microseconds
+     */
+    double getP999Micros();
+
+    /**
+     * Gets the longest time of a call.
+     *
+     * @return the longest call in microseconds
+     */
+    double getMaxMicros();
+}
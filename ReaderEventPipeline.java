@@ -0,0 +1,354 @@
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The ReaderEventPipeline class feeds the "tag seen at location" reads of RFID
+ * readers into an Inventory.
+ *
+ * Reads are checked and put on a bounded queue by the reader threads. One
+ * applier thread takes them off in batches, drops repeated reads of a tag at
+ * the same location within the deduplication window, keeps only the last read
+ * of each tag within a batch, and applies the rest with
+ * Inventory.updateLocation. Since only the applier thread touches the
+ * inventory, the pipeline can feed any Inventory, as long as nothing else
+ * changes it while the pipeline runs.
+ *
+ * When the queue is full, submit waits for room, so a reader that outruns the
+ * applier is slowed down rather than losing reads; offer drops the read
+ * instead, for readers that must never wait. The counts of reads accepted,
+ * rejected, dropped, deduplicated and applied are kept, and report gives them
+ * with per-second rates.
+ *
+ * A read accepted before close is always applied: submit and offer hold a
+ * read lock while they put a read on the queue, and close takes the write lock
+ * to stop accepting reads before it queues the end marker, so no read can land
+ * behind it.
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public class ReaderEventPipeline implements Closeable {
+
+    /**
+     * The ReadEvent class is one checked read waiting in the queue.
+     */
+    private static class ReadEvent {
+
+        private final long tag; // The packed RFID tag read
+        private final int location; // The location code where it was read
+        private final long seenAt; // System.nanoTime when it was read
+
+        ReadEvent(long tag, int location, long seenAt) {
+            this.tag = tag;
+            this.location = location;
+            this.seenAt = seenAt;
+        }
+    }
+
+    private static final ReadEvent STOP = new ReadEvent(RfidTag.INVALID, LocationCodec.INVALID, 0);
+
+    private final Inventory inventory;
+    private final ArrayBlockingQueue<ReadEvent> queue;
+    private final int maxBatch;
+    private final long windowNanos;
+    private final HashMap<Long, ReadEvent> lastApplied; // Tag -> last read applied, within the window
+    private final Thread applier;
+    private final ReentrantReadWriteLock closing = new ReentrantReadWriteLock(); // Read: enqueueing, write: closing
+    private boolean closed; // Guarded by closing
+
+    private final AtomicLong accepted = new AtomicLong(); // Put on the queue
+    private final AtomicLong rejected = new AtomicLong(); // Bad tag or location, or not applicable
+    private final AtomicLong dropped = new AtomicLong(); // Queue full when offered
+    private final AtomicLong duplicates = new AtomicLong(); // Repeats within the window or batch
+    private final AtomicLong applied = new AtomicLong(); // Reads that moved an item
+    private final AtomicLong unchanged = new AtomicLong(); // Reads where the item was already there
+
+    private long reportedAt; // When report last ran, and the counts then
+    private long reportedAccepted;
+    private long reportedDropped;
+    private long reportedDuplicates;
+    private long reportedApplied;
+
+    /**
+     * Constructs a pipeline feeding the given inventory and starts its applier
+     * thread.
+     *
+     * @param inventory     the inventory to update
+     * @param capacity      the number of reads the queue can hold
+     * @param maxBatch      the largest number of reads applied as one batch
+     * @param windowMillis  how long a repeated read of a tag at the same
+     *                      location is ignored for, in milliseconds
+     */
+    public ReaderEventPipeline(Inventory inventory, int capacity, int maxBatch, long windowMillis) {
+        this.inventory = inventory;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.maxBatch = maxBatch;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.lastApplied = new HashMap<>();
+        this.reportedAt = System.nanoTime();
+        this.applier = new Thread(this::applyLoop, "reader-pipeline");
+        this.applier.setDaemon(true);
+        this.applier.start();
+    }
+
+    /**
+     * Constructs a pipeline with a queue of 65536 reads, batches of up to 1024
+     * and a one second deduplication window.
+     *
+     * @param inventory the inventory to update
+     */
+    public ReaderEventPipeline(Inventory inventory) {
+        this(inventory, 1 << 16, 1024, 1000);
+    }
+
+    /**
+     * Checks a read and puts it on the queue, waiting for room if the queue is
+     * full.
+     *
+     * @param rfidTag  the RFID tag number read
+     * @param location the location where it was read
+     * @return true if the read was accepted, false if it was malformed
+     * @throws InterruptedException if interrupted while waiting for room
+     */
+    public boolean submit(String rfidTag, String location) throws InterruptedException {
+        closing.readLock().lock();
+        try {
+            ReadEvent event = check(rfidTag, location);
+            if (event == null)
+                return false;
+            queue.put(event);
+            accepted.incrementAndGet();
+            return true;
+        } finally {
+            closing.readLock().unlock();
+        }
+    }
+
+    /**
+     * Checks a read and puts it on the queue if there is room, dropping it
+     * otherwise.
+     *
+     * @param rfidTag  the RFID tag number read
+     * @param location the location where it was read
+     * @return true if the read was accepted, false if it was malformed or
+     *         dropped
+     */
+    public boolean offer(String rfidTag, String location) {
+        closing.readLock().lock();
+        try {
+            ReadEvent event = check(rfidTag, location);
+            if (event == null)
+                return false;
+            if (!queue.offer(event)) {
+                dropped.incrementAndGet();
+                return false;
+            }
+            accepted.incrementAndGet();
+            return true;
+        } finally {
+            closing.readLock().unlock();
+        }
+    }
+
+    /**
+     * Checks a read, throwing if the pipeline is closed. Called holding the
+     * read lock.
+     */
+    private ReadEvent check(String rfidTag, String location) {
+        if (closed)
+            throw new IllegalStateException("The pipeline is closed");
+        long tag = RfidTag.parse(rfidTag);
+        int code = LocationCodec.encode(location);
+        if (tag == RfidTag.INVALID || code == LocationCodec.INVALID || code == LocationCodec.OUT) {
+            rejected.incrementAndGet();
+            return null;
+        }
+        return new ReadEvent(tag, code, System.nanoTime());
+    }
+
+    /**
+     * The applier thread: takes the reads off the queue in batches and applies
+     * them until the pipeline is closed and the queue is empty.
+     */
+    private void applyLoop() {
+        ArrayList<ReadEvent> batch = new ArrayList<>(maxBatch);
+        LinkedHashMap<Long, ReadEvent> latest = new LinkedHashMap<>();
+        long nextEviction = System.nanoTime() + windowNanos;
+
+        while (true) {
+            ReadEvent first;
+            try {
+                first = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            batch.add(first);
+            queue.drainTo(batch, maxBatch - 1);
+
+            boolean stop = false;
+            for (ReadEvent event : batch) {
+                if (event == STOP) {
+                    stop = true;
+                } else if (latest.put(event.tag, event) != null) {
+                    duplicates.incrementAndGet(); // A later read of the tag in the same batch wins
+                }
+            }
+            for (ReadEvent event : latest.values())
+                apply(event);
+            latest.clear();
+            batch.clear();
+
+            long now = System.nanoTime();
+            if (now - nextEviction > 0) {
+                evictOlderThan(now - windowNanos);
+                nextEviction = now + windowNanos;
+            }
+            if (stop && queue.isEmpty())
+                return;
+        }
+    }
+
+    private void apply(ReadEvent event) {
+        ReadEvent previous = lastApplied.get(event.tag);
+        if (previous != null && previous.location == event.location && event.seenAt - previous.seenAt < windowNanos) {
+            duplicates.incrementAndGet();
+            return;
+        }
+
+        try {
+            if (inventory.updateLocation(RfidTag.format(event.tag), LocationCodec.decode(event.location)))
+                applied.incrementAndGet();
+            else
+                unchanged.incrementAndGet();
+            lastApplied.put(event.tag, event);
+        } catch (Exception e) {
+            rejected.incrementAndGet();
+        }
+    }
+
+    private void evictOlderThan(long cutoff) {
+        Iterator<ReadEvent> it = lastApplied.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().seenAt - cutoff < 0)
+                it.remove();
+        }
+    }
+
+    /**
+     * Stops accepting reads, applies the ones already queued, and waits for the
+     * applier thread to finish. A submit waiting for room finishes putting its
+     * read first.
+     */
+    @Override
+    public void close() {
+        closing.writeLock().lock();
+        try {
+            if (closed)
+                return;
+            closed = true;
+        } finally {
+            closing.writeLock().unlock();
+        }
+        try {
+            queue.put(STOP);
+            applier.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Gets the number of reads put on the queue.
+     *
+     * @return the number of reads accepted
+     */
+    public long getAccepted() {
+        return accepted.get();
+    }
+
+    /**
+     * Gets the number of reads with a malformed tag or location, or that could
+     * not be applied.
+     *
+     * @return the number of reads rejected
+     */
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    /**
+     * Gets the number of reads dropped by offer because the queue was full.
+     *
+     * @return the number of reads dropped
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Gets the number of reads ignored as repeats within the window or batch.
+     *
+     * @return the number of duplicate reads
+     */
+    public long getDuplicates() {
+        return duplicates.get();
+    }
+
+    /**
+     * Gets the number of reads that moved an item.
+     *
+     * @return the number of reads applied
+     */
+    public long getApplied() {
+        return applied.get();
+    }
+
+    /**
+     * Gets the number of reads that found the item already in place, or no item
+     * in the store.
+     *
+     * @return the number of reads that changed nothing
+     */
+    public long getUnchanged() {
+        return unchanged.get();
+    }
+
+    /**
+     * Returns a one line summary of the counts, with the rates per second since
+     * the previous call.
+     *
+     * @return the summary
+     */
+    public synchronized String report() {
+        long now = System.nanoTime();
+        double seconds = Math.max(1e-9, (now - reportedAt) / 1e9);
+        long acceptedNow = accepted.get();
+        long droppedNow = dropped.get();
+        long duplicatesNow = duplicates.get();
+        long appliedNow = applied.get();
+
+        String line = String.format(
+                "Accepted %d (%.0f/s), dropped %d (%.0f/s), duplicates %d (%.0f/s), applied %d (%.0f/s), "
+                        + "unchanged %d, rejected %d",
+                acceptedNow, (acceptedNow - reportedAccepted) / seconds,
+                droppedNow, (droppedNow - reportedDropped) / seconds,
+                duplicatesNow, (duplicatesNow - reportedDuplicates) / seconds,
+                appliedNow, (appliedNow - reportedApplied) / seconds,
+                unchanged.get(), rejected.get());
+
+        reportedAt = now;
+        reportedAccepted = acceptedNow;
+        reportedDropped = droppedNow;
+        reportedDuplicates = duplicatesNow;
+        reportedApplied = appliedNow;
+        return line;
+    }
+}
@@ -0,0 +1,198 @@
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * The ReplicaRouter class sends the reads of an Inventory to InventoryReplica
+ * copies of it where they are fresh enough, and everything else to the
+ * primary. Changes always go to the primary.
+ *
+ * A read goes to the next replica, taking them in turn, whose staleness is at
+ * most the bound given; if none is, it goes to the primary, so a read never
+ * sees the store as it was longer ago than the bound. The printing reads of
+ * Inventory, like printAll and printByLocation, are routed the same way,
+ * through the visiting reads they are built on. The number of reads each side
+ * served is kept.
+ *
+ * The router may be used by as many threads at once as the primary may.
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public class ReplicaRouter implements Inventory {
+
+    private final Inventory primary; // Takes the changes, and the reads no replica can
+    private final List<InventoryReplica> replicas;
+    private final long maxStalenessMillis;
+    private final AtomicInteger next = new AtomicInteger(); // The replica to try first
+    private final AtomicLong replicaReads = new AtomicLong();
+    private final AtomicLong primaryReads = new AtomicLong();
+
+    /**
+     * Constructs a router over the given primary and replicas.
+     *
+     * @param primary            the inventory the changes are made on
+     * @param replicas           replicas of it
+     * @param maxStalenessMillis the most staleness a read may see, in
+     *                           milliseconds
+     */
+    public ReplicaRouter(Inventory primary, List<InventoryReplica> replicas, long maxStalenessMillis) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.maxStalenessMillis = maxStalenessMillis;
+    }
+
+    /**
+     * Gets the number of reads the replicas served.
+     *
+     * @return the number of reads
+     */
+    public long getReplicaReads() {
+        return replicaReads.get();
+    }
+
+    /**
+     * Gets the number of reads the primary served.
+     *
+     * @return the number of reads
+     */
+    public long getPrimaryReads() {
+        return primaryReads.get();
+    }
+
+    /**
+     * Picks where the next read goes.
+     *
+     * @return a fresh enough replica, or the primary
+     */
+    private Inventory reader() {
+        int count = replicas.size();
+        int first = count == 0 ? 0 : Math.floorMod(next.getAndIncrement(), count);
+        for (int i = 0; i < count; i++) {
+            InventoryReplica replica = replicas.get((first + i) % count);
+            if (replica.getStalenessMillis() <= maxStalenessMillis) {
+                replicaReads.incrementAndGet();
+                return replica;
+            }
+        }
+        primaryReads.incrementAndGet();
+        return primary;
+    }
+
+    // Changes
+
+    @Override
+    public void insertInfo(String name, String rfidTag, double price, String initPosition) throws Exception {
+        primary.insertInfo(name, rfidTag, price, initPosition);
+    }
+
+    @Override
+    public void bulkLoad(List<ItemInfo> items) {
+        primary.bulkLoad(items);
+    }
+
+    @Override
+    public boolean moveItem(String rfidTag, String source, String dest) throws Exception {
+        return primary.moveItem(rfidTag, source, dest);
+    }
+
+    @Override
+    public boolean updateLocation(String rfidTag, String location) throws Exception {
+        return primary.updateLocation(rfidTag, location);
+    }
+
+    @Override
+    public long checkOut(String cartNumber, Consumer<ItemInfo> visitor) {
+        return primary.checkOut(cartNumber, visitor);
+    }
+
+    @Override
+    public void cleanStore(Consumer<ItemInfo> visitor) {
+        primary.cleanStore(visitor);
+    }
+
+    @Override
+    public void removeAllPurchased(Consumer<ItemInfo> visitor) {
+        primary.removeAllPurchased(visitor);
+    }
+
+    @Override
+    public int removePurchased(int maxItems, Consumer<ItemInfo> visitor) {
+        return primary.removePurchased(maxItems, visitor);
+    }
+
+    // Reads
+
+    @Override
+    public void forEachItem(Consumer<ItemInfo> action) {
+        reader().forEachItem(action);
+    }
+
+    @Override
+    public void forEachAt(String location, Consumer<ItemInfo> action) {
+        reader().forEachAt(location, action);
+    }
+
+    @Override
+    public boolean forEachWithRFID(String rfidTag, Consumer<ItemInfo> action) {
+        return reader().forEachWithRFID(rfidTag, action);
+    }
+
+    @Override
+    public int forEachInTagRange(String fromTag, String toTag, Consumer<ItemInfo> action) {
+        return reader().forEachInTagRange(fromTag, toTag, action);
+    }
+
+    @Override
+    public int forEachWithTagPrefix(String prefix, Consumer<ItemInfo> action) {
+        return reader().forEachWithTagPrefix(prefix, action);
+    }
+
+    @Override
+    public int searchByName(String query, int maxEdits, int limit, Consumer<ItemInfo> action) {
+        return reader().searchByName(query, maxEdits, limit, action);
+    }
+
+    @Override
+    public boolean containsRFID(String rfidTag) {
+        return reader().containsRFID(rfidTag);
+    }
+
+    @Override
+    public int listLength() {
+        return reader().listLength();
+    }
+
+    @Override
+    public int misplacedCount() {
+        return reader().misplacedCount();
+    }
+
+    @Override
+    public Map<String, Integer> misplacedByLocation() {
+        return reader().misplacedByLocation();
+    }
+
+    @Override
+    public int cartItemCount(String cartNumber) {
+        return reader().cartItemCount(cartNumber);
+    }
+
+    @Override
+    public long cartTotalCents(String cartNumber) {
+        return reader().cartTotalCents(cartNumber);
+    }
+
+    @Override
+    public long shelfItemCount(String fromShelf, String toShelf) {
+        return reader().shelfItemCount(fromShelf, toShelf);
+    }
+
+    @Override
+    public long shelfValueCents(String fromShelf, String toShelf) {
+        return reader().shelfValueCents(fromShelf, toShelf);
+    }
+}
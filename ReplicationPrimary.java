@@ -0,0 +1,627 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The ReplicationPrimary class is an OperationLog that streams the changes
+ * made to the store's inventory to InventoryReplica copies of it, over TCP on
+ * the loopback interface. It is used as the log of a JournaledInventory, which
+ * applies each change to the inventory and then records it here.
+ *
+ * The records are kept in memory in the OperationJournal layout, in segments
+ * of up to 4096 records, and the oldest segments are dropped once the backlog
+ * passes its size limit. Each replica has a sender, which sends it every
+ * record it does not have yet in batches of up to 1 MB, and a reader, which
+ * takes its acknowledgements. A replica may be at most 64k records ahead of
+ * its last acknowledgement; beyond that the sender waits. When nothing is
+ * sent for 20 milliseconds, an empty batch tells the replica that it is still
+ * up to date, so it can tell how stale it is.
+ *
+ * A replica that connects for the first time, or that has fallen behind the
+ * oldest record still kept, first gets a copy of the whole inventory as an
+ * InventorySnapshot and then the records after it. The copy is cut holding
+ * getLock, the lock the JournaledInventory holds while it applies and records
+ * a change, so it never includes a change that is not yet recorded, and the
+ * last sequence number appended is noted with it. Only the cut is made under
+ * the lock: of a VersionedInventory, a View of its latest version is opened,
+ * and of any other inventory, its items are copied into memory; the snapshot
+ * file is then written from the cut while changes go on.
+ *
+ * Stream layout, big-endian: the replica sends MAGIC, the log id it last
+ * followed and the last sequence number it applied, then only the last
+ * sequence number applied, as acknowledgements. The primary sends frames:
+ * SNAPSHOT, the log id, the sequence number the copy includes, its length
+ * (long) and the snapshot file; or BATCH, the last sequence number appended
+ * when the batch was taken, the time it was taken (milliseconds since the
+ * epoch), the length of the records (int) and the records.
+ *
+ * The time from when each record is appended until a replica acknowledges it
+ * is kept per replica as its replication lag.
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public class ReplicationPrimary implements OperationLog {
+
+    static final int MAGIC = 0x494E5652; // "INVR"
+    static final byte SNAPSHOT = 'S';
+    static final byte BATCH = 'B';
+
+    private static final int SEGMENT_RECORDS = 4096;
+    private static final int SEGMENT_BYTES = 1 << 18;
+    private static final int MAX_BATCH_BYTES = 1 << 20;
+    private static final long MAX_UNACKED_RECORDS = 1 << 16;
+    private static final long HEARTBEAT_MILLIS = 20;
+    private static final int STREAM_BUFFER_BYTES = 1 << 16;
+
+    private final Inventory inventory; // The inventory below the log, copied for new replicas
+    private final ReentrantLock lock = new ReentrantLock(); // Held while a change is applied and recorded
+    private final long logId; // Tells a replica whether its sequence numbers are from this log
+    private final long maxBacklogBytes;
+    private final ServerSocket serverSocket;
+    private final ExecutorService connections;
+    private final Set<ReplicaLink> replicas = ConcurrentHashMap.newKeySet();
+    private final Thread acceptor;
+
+    private final Object log = new Object(); // Guards everything below; notified on appends and acks
+    private final ArrayDeque<Segment> backlog = new ArrayDeque<>();
+    private long backlogBytes;
+    private long appendedSequence; // The last sequence number appended
+    private volatile boolean closed;
+
+    /**
+     * A run of consecutive records, with where each starts and when it was
+     * appended.
+     */
+    private static class Segment {
+
+        final long firstSequence;
+        final ByteBuffer bytes = ByteBuffer.allocate(SEGMENT_BYTES);
+        final int[] offsets = new int[SEGMENT_RECORDS];
+        final long[] appendedAt = new long[SEGMENT_RECORDS]; // System.nanoTime
+        int count;
+
+        Segment(long firstSequence) {
+            this.firstSequence = firstSequence;
+        }
+
+        long lastSequence() {
+            return firstSequence + count - 1;
+        }
+
+        boolean hasRoom(int recordBytes) {
+            return count < SEGMENT_RECORDS && bytes.remaining() >= recordBytes;
+        }
+    }
+
+    /**
+     * What the primary knows about one connected replica.
+     */
+    private static class ReplicaLink {
+
+        final Socket socket;
+        final LatencyHistogram lag = new LatencyHistogram();
+        long ackedSequence; // Guarded by log
+        int snapshots; // Guarded by log
+
+        ReplicaLink(Socket socket) {
+            this.socket = socket;
+        }
+    }
+
+    /**
+     * Starts streaming on the given port of the loopback interface, keeping a
+     * backlog of up to 64 MB.
+     *
+     * @param inventory    the inventory the JournaledInventory applies the
+     *                     changes to, or a VersionedInventory under it,
+     *                     copied for new replicas
+     * @param port         the port to listen on, or 0 for any free port
+     * @param lastSequence the last sequence number already used; the next
+     *                     record gets the one after it
+     * @throws IOException if the port cannot be opened
+     */
+    public ReplicationPrimary(Inventory inventory, int port, long lastSequence) throws IOException {
+        this(inventory, port, lastSequence, 64L << 20);
+    }
+
+    /**
+     * Starts streaming on the given port of the loopback interface.
+     *
+     * @param inventory       the inventory the JournaledInventory applies the
+     *                        changes to, or a VersionedInventory under it,
+     *                        copied for new replicas
+     * @param port            the port to listen on, or 0 for any free port
+     * @param lastSequence    the last sequence number already used
+     * @param maxBacklogBytes how many bytes of records to keep for replicas
+     *                        that fall behind; one further behind gets a new
+     *                        copy of the inventory
+     * @throws IOException if the port cannot be opened
+     */
+    public ReplicationPrimary(Inventory inventory, int port, long lastSequence, long maxBacklogBytes)
+            throws IOException {
+        this.inventory = inventory;
+        this.logId = ThreadLocalRandom.current().nextLong() | 1; // Never 0, which a new replica sends
+        this.maxBacklogBytes = maxBacklogBytes;
+        this.appendedSequence = lastSequence;
+        this.serverSocket = new ServerSocket();
+        this.serverSocket.setReuseAddress(true);
+        this.serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        this.connections = InventoryServer.newConnectionExecutor();
+        this.acceptor = new Thread(this::acceptLoop, "replication-acceptor");
+        this.acceptor.setDaemon(true);
+        this.acceptor.start();
+    }
+
+    /**
+     * Gets the lock to hold while a change is applied to the inventory and
+     * recorded here; pass it to the JournaledInventory.
+     *
+     * @return the lock
+     */
+    public Lock getLock() {
+        return lock;
+    }
+
+    /**
+     * Gets the port replicas connect to.
+     *
+     * @return the port
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Gets the number of replicas connected now.
+     *
+     * @return the number of replicas
+     */
+    public int getReplicaCount() {
+        return replicas.size();
+    }
+
+    // Appending
+
+    @Override
+    public long logInsert(ItemInfo info) {
+        byte[] name = OperationJournal.nameBytes(info);
+        synchronized (log) {
+            ByteBuffer body = begin(OperationJournal.INSERT, 8 + 8 + 4 + 4 + 2 + name.length);
+            OperationJournal.putInsert(body, info, name);
+            return end(body);
+        }
+    }
+
+    @Override
+    public long logInserts(List<ItemInfo> items) {
+        synchronized (log) {
+            long sequence = appendedSequence;
+            for (ItemInfo info : items) {
+                byte[] name = OperationJournal.nameBytes(info);
+                ByteBuffer body = begin(OperationJournal.INSERT, 8 + 8 + 4 + 4 + 2 + name.length);
+                OperationJournal.putInsert(body, info, name);
+                sequence = end(body);
+            }
+            return sequence;
+        }
+    }
+
+    @Override
+    public long logMove(long tag, int source, int dest) {
+        synchronized (log) {
+            ByteBuffer body = begin(OperationJournal.MOVE, 8 + 4 + 4);
+            body.putLong(tag).putInt(source).putInt(dest);
+            return end(body);
+        }
+    }
+
+    @Override
+    public long logCheckOut(int cart) {
+        synchronized (log) {
+            ByteBuffer body = begin(OperationJournal.CHECKOUT, 4);
+            body.putInt(cart);
+            return end(body);
+        }
+    }
+
+    @Override
+    public long logClean() {
+        synchronized (log) {
+            return end(begin(OperationJournal.CLEAN, 0));
+        }
+    }
+
+    @Override
+    public long logPurge() {
+        synchronized (log) {
+            return end(begin(OperationJournal.PURGE, 0));
+        }
+    }
+
+    @Override
+    public long logPurgeSome(int maxItems) {
+        synchronized (log) {
+            ByteBuffer body = begin(OperationJournal.PURGE_SOME, 4);
+            body.putInt(maxItems);
+            return end(body);
+        }
+    }
+
+    @Override
+    public long lastSequence() {
+        synchronized (log) {
+            return appendedSequence;
+        }
+    }
+
+    /**
+     * Starts a record at the end of the last segment, or of a new one if it
+     * is full. Called holding log.
+     *
+     * @return the segment's buffer, positioned after the operation byte
+     */
+    private ByteBuffer begin(byte operation, int operandBytes) {
+        if (closed)
+            throw new IllegalStateException("Replication has stopped");
+        Segment tail = backlog.peekLast();
+        if (tail == null || !tail.hasRoom(OperationJournal.recordBytes(operandBytes))) {
+            tail = new Segment(appendedSequence + 1);
+            backlog.addLast(tail);
+        }
+        tail.offsets[tail.count] = tail.bytes.position();
+        OperationJournal.startRecord(tail.bytes, appendedSequence + 1, operation, operandBytes);
+        return tail.bytes;
+    }
+
+    /**
+     * Finishes the record started by begin, drops the oldest segments if the
+     * backlog is too large, and wakes the senders. Called holding log.
+     *
+     * @return the sequence number of the record
+     */
+    private long end(ByteBuffer body) {
+        Segment tail = backlog.peekLast();
+        int start = tail.offsets[tail.count];
+        OperationJournal.finishRecord(body, start);
+        tail.appendedAt[tail.count] = System.nanoTime();
+        tail.count++;
+        backlogBytes += body.position() - start;
+        while (backlogBytes > maxBacklogBytes && backlog.size() > 1)
+            backlogBytes -= backlog.removeFirst().bytes.position();
+        appendedSequence++;
+        log.notifyAll();
+        return appendedSequence;
+    }
+
+    /**
+     * Returns the oldest sequence number still in the backlog. Called holding
+     * log.
+     */
+    private long firstKept() {
+        Segment head = backlog.peekFirst();
+        return head == null ? appendedSequence + 1 : head.firstSequence;
+    }
+
+    /**
+     * Copies whole records from the given sequence number on into the batch
+     * buffer, up to its size. Called holding log, with the record in the
+     * backlog.
+     *
+     * @return the last sequence number copied
+     */
+    private long copyRecords(long next, ByteBuffer batch) {
+        long last = next - 1;
+        for (Segment segment : backlog) {
+            if (segment.count == 0 || segment.lastSequence() < next)
+                continue;
+            int from = segment.offsets[(int) (Math.max(next, segment.firstSequence) - segment.firstSequence)];
+            int length = segment.bytes.position() - from;
+            if (length > batch.remaining())
+                break;
+            batch.put(segment.bytes.array(), from, length);
+            last = segment.lastSequence();
+        }
+        return last;
+    }
+
+    // Replicas
+
+    private void acceptLoop() {
+        while (!closed) {
+            try {
+                Socket socket = serverSocket.accept();
+                try {
+                    connections.execute(() -> serve(socket));
+                } catch (RejectedExecutionException e) {
+                    closeQuietly(socket);
+                }
+            } catch (IOException e) {
+                if (!closed)
+                    System.err.println("Could not accept a replica: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Sends one replica everything it does not have, until it hangs up or the
+     * primary closes.
+     */
+    private void serve(Socket socket) {
+        ReplicaLink link = new ReplicaLink(socket);
+        replicas.add(link);
+        try (socket) {
+            socket.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(socket.getOutputStream(), STREAM_BUFFER_BYTES));
+            if (in.readInt() != MAGIC)
+                return;
+            long theirLog = in.readLong();
+            long theirSequence = in.readLong();
+            long next = -1; // Needs a copy
+            if (theirLog == logId) {
+                next = theirSequence + 1;
+                synchronized (log) {
+                    link.ackedSequence = theirSequence;
+                }
+            }
+            connections.execute(() -> readAcks(link, in));
+
+            ByteBuffer batch = ByteBuffer.allocate(MAX_BATCH_BYTES);
+            long lastSent = 0;
+            while (!closed) {
+                boolean copy;
+                long primarySequence;
+                long takenAt;
+                batch.clear();
+                synchronized (log) {
+                    long deadline = lastSent + HEARTBEAT_MILLIS;
+                    while (!closed && next >= firstKept() && !(appendedSequence >= next
+                            && next - 1 - link.ackedSequence < MAX_UNACKED_RECORDS)) {
+                        long wait = deadline - System.currentTimeMillis();
+                        if (wait <= 0)
+                            break;
+                        log.wait(wait);
+                    }
+                    copy = next < firstKept();
+                    if (!copy && appendedSequence >= next && next - 1 - link.ackedSequence < MAX_UNACKED_RECORDS) {
+                        next = copyRecords(next, batch) + 1;
+                    }
+                    primarySequence = appendedSequence;
+                    takenAt = System.currentTimeMillis(); // No record can be appended before this is read
+                }
+                if (closed)
+                    break;
+
+                if (copy) {
+                    next = sendSnapshot(link, out) + 1;
+                } else {
+                    out.writeByte(BATCH);
+                    out.writeLong(primarySequence);
+                    out.writeLong(takenAt);
+                    out.writeInt(batch.position());
+                    out.write(batch.array(), 0, batch.position());
+                    out.flush();
+                }
+                lastSent = System.currentTimeMillis();
+            }
+        } catch (SocketException e) {
+            // The replica hung up, or the primary is closing
+        } catch (IOException e) {
+            if (!closed)
+                System.err.println("Replication to " + socket.getRemoteSocketAddress() + " failed: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            replicas.remove(link);
+        }
+    }
+
+    /**
+     * Writes a copy of the inventory and sends it. The lock is held only while
+     * the copy is cut, so no change is half recorded in it.
+     *
+     * @return the last sequence number the copy includes
+     */
+    private long sendSnapshot(ReplicaLink link, DataOutputStream out) throws IOException {
+        Path file = Files.createTempFile("replica", ".snapshot");
+        try {
+            long sequence;
+            VersionedInventory.View view = null;
+            List<ItemInfo> items = null;
+            lock.lock();
+            try {
+                sequence = lastSequence();
+                if (inventory instanceof VersionedInventory) {
+                    view = ((VersionedInventory) inventory).openView();
+                } else {
+                    List<ItemInfo> copied = new ArrayList<>(inventory.listLength());
+                    inventory.forEachItem(item -> copied.add(new ItemInfo(item)));
+                    items = copied;
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (view != null) {
+                try (VersionedInventory.View cut = view) {
+                    InventorySnapshot.write(cut, file, sequence);
+                }
+            } else {
+                InventorySnapshot.write(items, file, sequence);
+            }
+            synchronized (log) {
+                // The records the copy includes are not counted as lag
+                link.ackedSequence = Math.max(link.ackedSequence, sequence);
+                link.snapshots++;
+            }
+            out.writeByte(SNAPSHOT);
+            out.writeLong(logId);
+            out.writeLong(sequence);
+            out.writeLong(Files.size(file));
+            Files.copy(file, out);
+            out.flush();
+            return sequence;
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Takes one replica's acknowledgements and records the lag of each record
+     * they cover.
+     */
+    private void readAcks(ReplicaLink link, DataInputStream in) {
+        try {
+            while (true) {
+                long acked = in.readLong();
+                long now = System.nanoTime();
+                synchronized (log) {
+                    for (Segment segment : backlog) {
+                        if (segment.count == 0 || segment.lastSequence() <= link.ackedSequence)
+                            continue;
+                        if (segment.firstSequence > acked)
+                            break;
+                        long from = Math.max(link.ackedSequence + 1, segment.firstSequence);
+                        long to = Math.min(acked, segment.lastSequence());
+                        for (long s = from; s <= to; s++)
+                            link.lag.record(now - segment.appendedAt[(int) (s - segment.firstSequence)]);
+                    }
+                    link.ackedSequence = Math.max(link.ackedSequence, acked);
+                    log.notifyAll();
+                }
+            }
+        } catch (IOException e) {
+            closeQuietly(link.socket); // Stops the sender too
+        }
+    }
+
+    // Status
+
+    /**
+     * Returns the lowest sequence number every connected replica has
+     * acknowledged, or the last one appended if none is connected.
+     *
+     * @return the sequence number
+     */
+    public long minAckedSequence() {
+        synchronized (log) {
+            long min = appendedSequence;
+            for (ReplicaLink link : replicas)
+                min = Math.min(min, link.ackedSequence);
+            return min;
+        }
+    }
+
+    /**
+     * Waits until at least the given number of replicas are connected and
+     * have all acknowledged the given sequence number, as a hot standby must
+     * before it can take over.
+     *
+     * @param replicaCount  the number of replicas to wait for
+     * @param sequence      the sequence number they must have applied
+     * @param timeoutMillis the longest time to wait, in milliseconds
+     * @return true if they have, false if the time ran out
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean awaitReplicated(int replicaCount, long sequence, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        synchronized (log) {
+            while (replicas.size() < replicaCount || minAckedSequence() < sequence) {
+                long wait = deadline - System.currentTimeMillis();
+                if (wait <= 0)
+                    return false;
+                log.wait(Math.min(wait, HEARTBEAT_MILLIS)); // Connections are not notified
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Returns the lag of every record acknowledged so far, over all replicas,
+     * in nanoseconds.
+     *
+     * @return a new histogram of the lags
+     */
+    public LatencyHistogram lag() {
+        LatencyHistogram all = new LatencyHistogram();
+        for (ReplicaLink link : replicas)
+            all.add(link.lag);
+        return all;
+    }
+
+    /**
+     * Describes each connected replica: how far it has got, how many copies
+     * it was sent and its lag.
+     *
+     * @return one line per replica
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder();
+        synchronized (log) {
+            report.append(String.format("%-22s %12s %10s %9s %10s %10s %10s%n", "Replica", "Acked", "Behind",
+                    "Copies", "p50 us", "p99 us", "max us"));
+            for (ReplicaLink link : replicas) {
+                LatencyHistogram lag = link.lag;
+                report.append(String.format("%-22s %,12d %,10d %9d %10.1f %10.1f %10.1f%n",
+                        link.socket.getRemoteSocketAddress(), link.ackedSequence,
+                        appendedSequence - link.ackedSequence, link.snapshots, lag.percentile(0.50) / 1e3,
+                        lag.percentile(0.99) / 1e3, lag.getMax() / 1e3));
+            }
+        }
+        return report.toString();
+    }
+
+    /**
+     * Stops streaming and disconnects the replicas. Records not yet sent are
+     * not sent.
+     *
+     * @throws IOException if the listening socket cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (log) {
+            closed = true;
+            log.notifyAll();
+        }
+        serverSocket.close();
+        for (ReplicaLink link : replicas)
+            closeQuietly(link.socket);
+        connections.shutdown();
+        try {
+            connections.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Already closed
+        }
+    }
+}
@@ -0,0 +1,32 @@
+/**
+ * The ReportFormat enum names the formats a ReportWriter can write items in.
+ *
+ * TABLE is the fixed-width table shown by the DepartmentStore menu. CSV has a
+ * header row and one comma-separated row per item, quoted where needed. JSON
+ * is an array with one object per item.
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public enum ReportFormat {
+
+    TABLE,
+    CSV,
+    JSON;
+
+    /**
+     * Finds the format with the given name, ignoring case.
+     *
+     * @param name the name of the format
+     * @return the format
+     * @throws IllegalArgumentException if there is no format with that name
+     */
+    public static ReportFormat fromName(String name) {
+        for (ReportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name))
+                return format;
+        }
+        throw new IllegalArgumentException("Unknown report format " + name + "; use table, csv or json");
+    }
+}
@@ -0,0 +1,301 @@
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.function.Consumer;
+
+/**
+ * The ReportWriter class streams items to a Writer as a report in one of the
+ * ReportFormats. It is a Consumer of ItemInfo, so it can be handed straight to
+ * the Inventory operations that visit items; each item is written as soon as
+ * it is visited, so a report of any size needs only a fixed amount of memory.
+ *
+ * Each row is built in one reused StringBuilder, with the padding and the
+ * two-decimal price written by hand rather than through String.format, and
+ * handed to the Writer in one call. The table rows are exactly those the
+ * original String.format code printed.
+ *
+ * A report can be limited to a page: the first offset rows are skipped, and no
+ * more than limit rows are written after them.
+ *
+ * The header is written by the constructor and the closing lines by finish or
+ * close; close also flushes the Writer, but only closes it if the report was
+ * created with ownership of it.
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public class ReportWriter implements Consumer<ItemInfo>, Closeable {
+
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+    private static final String SPACES = " ".repeat(64);
+    private static final String TABLE_HEADER = String.format("%49s%18s", "Original", "Current") + LINE_SEPARATOR
+            + String.format("%-22s%-19s%-19s%-21s%-10s", "Item Name", "RFID", "Location", "Location", "Price")
+            + LINE_SEPARATOR
+            + String.format("%-20s%-20s%-20s%-20s%-10s", "---------", "---------", "---------", "---------",
+                    "------")
+            + LINE_SEPARATOR;
+    private static final String CSV_HEADER = "name,rfid,original_location,current_location,price\n";
+
+    private final Writer out; // Where the report goes
+    private final boolean ownsWriter; // Whether close also closes out
+    private final ReportFormat format;
+    private final long offset; // Rows to skip before writing
+    private final long limit; // Most rows to write
+    private final StringBuilder row = new StringBuilder(128); // Reused for every row
+    private char[] chars = new char[128]; // Reused to hand each row to the Writer
+    private long seen; // Rows visited, written or not
+    private long written; // Rows written
+    private boolean finished;
+
+    /**
+     * Starts a report, writing its header.
+     *
+     * @param out        where the report is written; give it a buffer
+     * @param format     the format of the report
+     * @param offset     the number of rows to skip
+     * @param limit      the most rows to write, or Long.MAX_VALUE for all
+     * @param ownsWriter true to close out when the report is closed
+     */
+    public ReportWriter(Writer out, ReportFormat format, long offset, long limit, boolean ownsWriter) {
+        if (offset < 0 || limit < 0)
+            throw new IllegalArgumentException("The offset and limit cannot be negative");
+        this.out = out;
+        this.format = format;
+        this.offset = offset;
+        this.limit = limit;
+        this.ownsWriter = ownsWriter;
+        switch (format) {
+            case TABLE:
+                write(TABLE_HEADER);
+                break;
+            case CSV:
+                write(CSV_HEADER);
+                break;
+            case JSON:
+                write("[");
+                break;
+        }
+    }
+
+    /**
+     * Starts a report of every row, writing its header.
+     *
+     * @param out    where the report is written; give it a buffer
+     * @param format the format of the report
+     */
+    public ReportWriter(Writer out, ReportFormat format) {
+        this(out, format, 0, Long.MAX_VALUE, false);
+    }
+
+    /**
+     * Starts a table on standard output, as the DepartmentStore menu shows
+     * it. Standard output is flushed, not closed, when the table is closed.
+     *
+     * @return the report
+     */
+    public static ReportWriter toStandardOutput() {
+        return new ReportWriter(new BufferedWriter(new OutputStreamWriter(System.out), 1 << 16),
+                ReportFormat.TABLE);
+    }
+
+    /**
+     * Writes one item as a row of the report, unless it falls outside the
+     * page.
+     *
+     * @param info the item
+     */
+    @Override
+    public void accept(ItemInfo info) {
+        long index = seen++;
+        if (index < offset || written >= limit)
+            return;
+
+        row.setLength(0);
+        switch (format) {
+            case TABLE:
+                pad(row, info.getItemName(), 20);
+                pad(row, info.getRfidTagNumber(), 22);
+                pad(row, info.getOriginalLocation(), 19);
+                pad(row, info.getCurrentLocation(), 20);
+                int start = row.length();
+                appendPrice(row, info);
+                pad(row, "", 5 - (row.length() - start));
+                row.append(LINE_SEPARATOR);
+                break;
+            case CSV:
+                csvField(row, info.getItemName()).append(',');
+                row.append(info.getRfidTagNumber()).append(',');
+                row.append(info.getOriginalLocation()).append(',');
+                row.append(info.getCurrentLocation()).append(',');
+                appendPrice(row, info);
+                row.append('\n');
+                break;
+            case JSON:
+                row.append(written == 0 ? "\n" : ",\n");
+                row.append("{\"name\":");
+                jsonString(row, info.getItemName());
+                row.append(",\"rfid\":\"").append(info.getRfidTagNumber());
+                row.append("\",\"originalLocation\":\"").append(info.getOriginalLocation());
+                row.append("\",\"currentLocation\":\"").append(info.getCurrentLocation());
+                row.append("\",\"price\":");
+                if (Double.isFinite(info.getItemPrice()))
+                    appendPrice(row, info);
+                else
+                    row.append("null");
+                row.append('}');
+                break;
+        }
+        write(row);
+        written++;
+    }
+
+    /**
+     * Gets the number of rows written so far.
+     *
+     * @return the number of rows written
+     */
+    public long getWritten() {
+        return written;
+    }
+
+    /**
+     * Gets the number of rows visited so far, including those outside the
+     * page.
+     *
+     * @return the number of rows visited
+     */
+    public long getSeen() {
+        return seen;
+    }
+
+    /**
+     * Writes the end of the report, without flushing the Writer, for callers
+     * that go on writing to it.
+     *
+     * @throws IOException if the report cannot be written
+     */
+    public void finish() throws IOException {
+        if (finished)
+            return;
+        finished = true;
+        if (format == ReportFormat.JSON)
+            out.write(written == 0 ? "]\n" : "\n]\n");
+    }
+
+    /**
+     * Writes the end of the report and flushes the Writer, closing it if the
+     * report owns it.
+     *
+     * @throws IOException if the report cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        finish();
+        if (ownsWriter)
+            out.close();
+        else
+            out.flush();
+    }
+
+    /**
+     * Appends the price of an item with two decimals, as "%.2f" prints it,
+     * using the item's price in cents.
+     *
+     * @param target where the price is appended
+     * @param info   the item
+     * @return the target
+     */
+    public static StringBuilder appendPrice(StringBuilder target, ItemInfo info) {
+        double price = info.getItemPrice();
+        if (!Double.isFinite(price) || Math.abs(price) >= 1e15)
+            return target.append(String.format("%.2f", price)); // Out of the range of cents
+
+        long cents = info.getPriceCents();
+        if (cents == 0 && Double.doubleToRawLongBits(price) < 0)
+            target.append('-'); // "%.2f" keeps the sign of a negative price that rounds to zero
+        return appendCents(target, cents);
+    }
+
+    /**
+     * Appends an amount in cents as dollars with two decimals.
+     *
+     * @param target where the amount is appended
+     * @param cents  the amount in cents
+     * @return the target
+     */
+    public static StringBuilder appendCents(StringBuilder target, long cents) {
+        if (cents < 0)
+            target.append('-');
+        long whole = Math.abs(cents / 100);
+        long fraction = Math.abs(cents % 100);
+        target.append(whole).append('.');
+        if (fraction < 10)
+            target.append('0');
+        return target.append(fraction);
+    }
+
+    private static void pad(StringBuilder target, String text, int width) {
+        target.append(text);
+        for (int missing = width - text.length(); missing > 0; missing -= SPACES.length())
+            target.append(SPACES, 0, Math.min(missing, SPACES.length()));
+    }
+
+    private static StringBuilder csvField(StringBuilder target, String text) {
+        boolean quote = false;
+        for (int i = 0; i < text.length() && !quote; i++) {
+            char c = text.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote)
+            return target.append(text);
+
+        target.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"')
+                target.append('"');
+            target.append(c);
+        }
+        return target.append('"');
+    }
+
+    private static void jsonString(StringBuilder target, String text) {
+        target.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                target.append('\\').append(c);
+            } else if (c < 0x20) {
+                target.append("\\u00");
+                target.append(Character.forDigit(c >> 4, 16)).append(Character.forDigit(c & 0xF, 16));
+            } else {
+                target.append(c);
+            }
+        }
+        target.append('"');
+    }
+
+    private void write(String text) {
+        try {
+            out.write(text);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void write(StringBuilder text) {
+        int length = text.length();
+        if (chars.length < length)
+            chars = new char[Math.max(length, chars.length * 2)];
+        text.getChars(0, length, chars, 0);
+        try {
+            out.write(chars, 0, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+import java.util.Arrays;
+
+/**
+ * The RfidIndex class is a hash table from packed RFID tags to the first
+ * ItemInfoNode in the item list carrying that tag. Items that share a tag sit
+ * next to each other in the list, so the rest of them are reached by following
+ * the next references from the node stored here.
+ *
+ * The table uses open addressing with linear probing over a primitive long
+ * array of keys, so an exact lookup costs no objects of its own. Removal shifts
+ * the following entries back instead of leaving markers behind.
+ *
+ * The tags are also kept in a SortedKeySet, a B+ tree of primitive longs, so
+ * the tag just below or at or above any value is found in O(log n): that is
+ * where a new tag goes in the list, and where a scan of a range of tags
+ * starts. Its node is then found in the table.
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public class RfidIndex {
+
+    private static final long EMPTY = RfidTag.INVALID; // Marks a free slot in keys
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long[] keys; // The packed tags, or EMPTY
+    private ItemInfoNode[] nodes; // The first node with the tag in the same slot
+    private int size; // The number of tags in the table
+    private SortedKeySet ordered; // The same tags, in order
+
+    /**
+     * Constructs an empty RfidIndex.
+     */
+    public RfidIndex() {
+        keys = new long[INITIAL_CAPACITY];
+        Arrays.fill(keys, EMPTY);
+        nodes = new ItemInfoNode[INITIAL_CAPACITY];
+        size = 0;
+        ordered = new SortedKeySet();
+    }
+
+    /**
+     * Returns the slot where the given tag is stored, or the free slot where it
+     * would be stored.
+     *
+     * @param tag the packed tag
+     * @return the slot for the tag
+     */
+    private int slotOf(long tag) {
+        int mask = keys.length - 1;
+        int slot = RfidTag.hash(tag) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != tag)
+            slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    /**
+     * Gets the first node carrying the given tag.
+     * Analysis of Complexity:
+     * O(1) expected.
+     *
+     * @param tag the packed tag
+     * @return the first node with the tag, or null if there is none
+     */
+    public ItemInfoNode get(long tag) {
+        return nodes[slotOf(tag)];
+    }
+
+    /**
+     * Sets the first node carrying the given tag, adding the tag if it is not in
+     * the table yet.
+     * Analysis of Complexity:
+     * O(1) expected for a tag already in the table, O(log n) for a new one,
+     * and O(n) when the table has to grow.
+     *
+     * @param tag  the packed tag
+     * @param node the first node with the tag
+     */
+    public void put(long tag, ItemInfoNode node) {
+        int slot = slotOf(tag);
+        if (keys[slot] == EMPTY) {
+            ordered.add(tag);
+            if ((size + 1) * 3 > keys.length * 2) { // Keep the load below 2/3
+                grow();
+                slot = slotOf(tag);
+            }
+            keys[slot] = tag;
+            size++;
+        }
+        nodes[slot] = node;
+    }
+
+    /**
+     * Removes the given tag from the table.
+     * Analysis of Complexity:
+     * O(log n).
+     *
+     * @param tag the packed tag
+     */
+    public void remove(long tag) {
+        int mask = keys.length - 1;
+        int slot = slotOf(tag);
+        if (keys[slot] == EMPTY)
+            return;
+        ordered.remove(tag);
+
+        // Shift later entries of the same probe run back into the hole
+        int next = (slot + 1) & mask;
+        while (keys[next] != EMPTY) {
+            int home = RfidTag.hash(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - slot) & mask)) {
+                keys[slot] = keys[next];
+                nodes[slot] = nodes[next];
+                slot = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[slot] = EMPTY;
+        nodes[slot] = null;
+        size--;
+    }
+
+    /**
+     * Gets the first node of the highest tag below the given value.
+     * Analysis of Complexity:
+     * O(log n).
+     *
+     * @param tag the packed tag
+     * @return the first node of the tag before it, or null if there is none
+     */
+    public ItemInfoNode lower(long tag) {
+        long below = ordered.lower(tag);
+        return below == SortedKeySet.NONE ? null : get(below);
+    }
+
+    /**
+     * Gets the first node of the lowest tag at or above the given value.
+     * Analysis of Complexity:
+     * O(log n).
+     *
+     * @param tag the packed tag
+     * @return the first node of the tag at or after it, or null if there is none
+     */
+    public ItemInfoNode ceiling(long tag) {
+        long above = ordered.ceiling(tag);
+        return above == SortedKeySet.NONE ? null : get(above);
+    }
+
+    /**
+     * Returns the number of distinct tags in the table.
+     *
+     * @return the number of distinct tags
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Doubles the capacity of the table and re-inserts every entry.
+     */
+    private void grow() {
+        long[] oldKeys = keys;
+        ItemInfoNode[] oldNodes = nodes;
+        keys = new long[oldKeys.length * 2];
+        Arrays.fill(keys, EMPTY);
+        nodes = new ItemInfoNode[oldKeys.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slotOf(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                nodes[slot] = oldNodes[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/**
+ * The RfidTag class converts RFID tag numbers between their text form and a
+ * packed numeric form. A valid tag number is exactly 9 hexadecimal digits, so
+ * it fits in the low 36 bits of a long. Tags are parsed once when they enter
+ * the program, and from then on ordering, equality and hashing are plain long
+ * operations. The text form is only produced again for display.
+ *
+ * The packed value of a tag orders the same way as the tag compared without
+ * regard to case, since every tag has the same number of digits.
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public final class RfidTag {
+
+    /**
+     * The value returned by parse for text that is not a valid RFID tag number.
+     */
+    public static final long INVALID = -1L;
+
+    /**
+     * The number of hexadecimal digits in an RFID tag number.
+     */
+    public static final int DIGITS = 9;
+
+    /**
+     * The largest packed RFID tag value.
+     */
+    public static final long MAX_VALUE = (1L << (4 * DIGITS)) - 1;
+
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    private RfidTag() {
+    }
+
+    /**
+     * Packs the given RFID tag number into a long. The text must be exactly 9
+     * hexadecimal digits in either case, and must contain at least one of the
+     * digits A to F; tags made only of decimal digits are not accepted.
+     * Nothing is allocated while parsing.
+     *
+     * @param rfidTag the RFID tag number as text
+     * @return the packed tag, or INVALID if the text is not a valid tag
+     */
+    public static long parse(String rfidTag) {
+        if (rfidTag == null || rfidTag.length() != DIGITS)
+            return INVALID;
+
+        long value = 0;
+        boolean hasLetter = false;
+        for (int i = 0; i < DIGITS; i++) {
+            int digit = hexDigit(rfidTag.charAt(i));
+            if (digit < 0)
+                return INVALID;
+            hasLetter |= digit >= 10;
+            value = (value << 4) | digit;
+        }
+        return hasLetter ? value : INVALID;
+    }
+
+    /**
+     * Returns the smallest packed tag that starts with the given hexadecimal
+     * digits: the prefix followed by zeros. A full 9 digit prefix gives that
+     * tag itself, and an empty one gives 0. Unlike parse, the digits need not
+     * include a letter, so any block of tags can be named.
+     *
+     * @param prefix up to 9 hexadecimal digits, in either case
+     * @return the lowest tag with the prefix, or INVALID if the prefix is not
+     *         up to 9 hexadecimal digits
+     */
+    public static long lowestWithPrefix(String prefix) {
+        long value = prefixValue(prefix);
+        return value == INVALID ? INVALID : value << (4 * (DIGITS - prefix.length()));
+    }
+
+    /**
+     * Returns the largest packed tag that starts with the given hexadecimal
+     * digits: the prefix followed by F digits. A full 9 digit prefix gives that
+     * tag itself, and an empty one gives MAX_VALUE.
+     *
+     * @param prefix up to 9 hexadecimal digits, in either case
+     * @return the highest tag with the prefix, or INVALID if the prefix is not
+     *         up to 9 hexadecimal digits
+     */
+    public static long highestWithPrefix(String prefix) {
+        long low = lowestWithPrefix(prefix);
+        return low == INVALID ? INVALID : low | ((1L << (4 * (DIGITS - prefix.length()))) - 1);
+    }
+
+    private static long prefixValue(String prefix) {
+        if (prefix == null || prefix.length() > DIGITS)
+            return INVALID;
+        long value = 0;
+        for (int i = 0; i < prefix.length(); i++) {
+            int digit = hexDigit(prefix.charAt(i));
+            if (digit < 0)
+                return INVALID;
+            value = (value << 4) | digit;
+        }
+        return value;
+    }
+
+    private static int hexDigit(char ch) {
+        if (ch >= '0' && ch <= '9')
+            return ch - '0';
+        if (ch >= 'A' && ch <= 'F')
+            return ch - 'A' + 10;
+        if (ch >= 'a' && ch <= 'f')
+            return ch - 'a' + 10;
+        return -1;
+    }
+
+    /**
+     * Returns the text form of a packed RFID tag: 9 upper case hexadecimal
+     * digits, with leading zeros.
+     *
+     * @param tag the packed tag
+     * @return the RFID tag number as text
+     */
+    public static String format(long tag) {
+        char[] digits = new char[DIGITS];
+        for (int i = DIGITS - 1; i >= 0; i--) {
+            digits[i] = HEX[(int) (tag & 0xF)];
+            tag >>>= 4;
+        }
+        return new String(digits);
+    }
+
+    /**
+     * Returns a well spread hash code for a packed RFID tag, for use in hash
+     * tables keyed by tag.
+     *
+     * @param tag the packed tag
+     * @return the hash code of the tag
+     */
+    public static int hash(long tag) {
+        long h = tag * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
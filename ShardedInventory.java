@@ -0,0 +1,677 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * The ShardedInventory class splits the store's items over several independent
+ * inventories, its shards, so that the operations over the whole store can use
+ * more than one processor.
+ *
+ * Every item goes to the shard its RFID tag hashes to, so all the items with a
+ * tag are in one shard and the shards stay about the same size however the
+ * tags are spread. Operations on one tag, such as inserting, moving or finding
+ * an item, are passed to that shard alone. Operations over the whole store,
+ * such as cleaning it, purging it, checking out a cart or listing a location,
+ * run on every shard at once as tasks of a ForkJoinPool; each shard hands the
+ * items it visits back in RFID tag order, a few batches at a time through a
+ * bounded queue, and the heads of those queues are merged so the visitor sees
+ * the items one at a time, on the calling thread, in RFID tag order across the
+ * whole store, just as one inventory would show them. A shard that gets ahead
+ * of the visitor waits for it, so the items are streamed rather than held.
+ * The visitor may run while shards are still changing, so it must not use the
+ * sharded inventory itself. Counts
+ * that the shards keep up to date, such as the size of a cart or the value of
+ * a range of shelves, are added up over the shards without any tasks.
+ *
+ * Each shard is used by one task at a time, so the shards can be of any
+ * StorageEngine; the sharded inventory can be shared by many threads exactly
+ * when its shards can, as for ConcurrentItemList.
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public class ShardedInventory implements Inventory {
+
+    private static final long EXHAUSTED = Long.MAX_VALUE; // Above every packed tag
+
+    private final Inventory[] shards; // The inventories the items are split over
+    private final ForkJoinPool pool; // Runs the shards' parts of whole-store operations
+    private final boolean parallel; // Whether there is more than one processor to run them on
+
+    /**
+     * Constructs an empty ShardedInventory whose whole-store operations run on
+     * the common ForkJoinPool.
+     *
+     * @param engine     the StorageEngine every shard keeps its items in
+     * @param shardCount the number of shards
+     */
+    public ShardedInventory(StorageEngine engine, int shardCount) {
+        this(engine, shardCount, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs an empty ShardedInventory whose whole-store operations run on
+     * the given pool.
+     *
+     * @param engine     the StorageEngine every shard keeps its items in
+     * @param shardCount the number of shards
+     * @param pool       the pool the shards' parts of whole-store operations
+     *                   run on
+     */
+    public ShardedInventory(StorageEngine engine, int shardCount, ForkJoinPool pool) {
+        if (shardCount < 1)
+            throw new IllegalArgumentException("The number of shards should be at least 1");
+        this.shards = new Inventory[shardCount];
+        for (int i = 0; i < shardCount; i++)
+            shards[i] = engine.create();
+        this.pool = pool;
+        this.parallel = Runtime.getRuntime().availableProcessors() > 1;
+    }
+
+    /**
+     * Gets the number of shards.
+     *
+     * @return the number of shards
+     */
+    public int shardCount() {
+        return shards.length;
+    }
+
+    /**
+     * Gets the number of the shard holding the items with a packed tag.
+     */
+    private int shardOf(long tag) {
+        return (int) (((RfidTag.hash(tag) & 0xFFFFFFFFL) * shards.length) >>> 32);
+    }
+
+    /**
+     * Gets the shard holding the items with the given tag. A tag that is not
+     * valid goes to the first shard, which rejects it as any inventory would.
+     */
+    private Inventory shardFor(String rfidTag) {
+        long tag = RfidTag.parse(rfidTag);
+        return shards[tag == RfidTag.INVALID ? 0 : shardOf(tag)];
+    }
+
+    /**
+     * Runs a piece of work for every shard at once, the first on this thread
+     * and the others on the pool, and returns their results in shard order.
+     * The others are waited for newest first, so this thread runs any the pool
+     * has not started yet itself rather than waiting for a worker to wake up.
+     * With one processor, the pieces simply run one after another on this
+     * thread. Every piece has finished when this returns, even if one of them
+     * threw.
+     */
+    private <T> List<T> scatter(IntFunction<T> work) {
+        if (!parallel) {
+            List<T> results = new ArrayList<>(shards.length);
+            for (int i = 0; i < shards.length; i++)
+                results.add(work.apply(i));
+            return results;
+        }
+
+        List<ForkJoinTask<T>> tasks = new ArrayList<>(shards.length - 1);
+        for (int i = 1; i < shards.length; i++) {
+            int shard = i;
+            tasks.add(pool.submit(() -> work.apply(shard)));
+        }
+
+        List<T> results = new ArrayList<>(shards.length);
+        try {
+            results.add(work.apply(0));
+        } finally {
+            for (int i = tasks.size() - 1; i >= 0; i--)
+                tasks.get(i).quietlyJoin(); // No shard may still be changing when this returns
+        }
+        for (ForkJoinTask<T> task : tasks)
+            results.add(task.join());
+        return results;
+    }
+
+    /**
+     * Starts one shard's part of a whole-store operation on the pool for every
+     * shard, each handing its items back through its own Stream, and passes
+     * the items to the action on this thread, in RFID tag number order, up to
+     * a limit. The Stream with the smallest tag at its head is kept at the top
+     * of a heap, so only a few batches of each shard's items are held at once,
+     * however many the shards hand back. Every part has finished when this
+     * returns, even if the action threw: once the limit is reached, or the
+     * action throws, parts that only read stop early, and the items of parts
+     * that change their shard are dropped until they are done.
+     * Analysis of Complexity:
+     * O(k log N) for the k items passed, where N is the number of shards, on
+     * top of the time of the parts themselves.
+     *
+     * @param part     the part every shard runs
+     * @param changing whether the part changes its shard, so its items are
+     *                 copied and it is never stopped early
+     * @param limit    the most items to pass to the action
+     * @param action   the action to run for each item
+     * @return the Streams of the shards, holding what their parts returned
+     */
+    private Stream[] merge(Part part, boolean changing, int limit, Consumer<ItemInfo> action) {
+        Stream[] streams = new Stream[shards.length];
+        int started = 0;
+        try {
+            for (; started < shards.length; started++) {
+                Stream stream = streams[started] = new Stream(changing);
+                int shard = started;
+                pool.execute(() -> stream.run(part, shard));
+            }
+
+            PriorityQueue<Stream> heads = new PriorityQueue<>(shards.length,
+                    Comparator.comparingLong(stream -> stream.headTag));
+            for (Stream stream : streams) {
+                if (stream.advance())
+                    heads.add(stream);
+            }
+            for (int passed = 0; passed < limit && !heads.isEmpty(); passed++) {
+                Stream smallest = heads.poll();
+                action.accept(smallest.head());
+                if (smallest.advance())
+                    heads.add(smallest);
+            }
+        } finally {
+            for (int i = 0; i < started; i++)
+                streams[i].drain(); // No shard may still be changing when this returns
+        }
+        for (Stream stream : streams)
+            stream.rethrow();
+        return streams;
+    }
+
+    /**
+     * Visits the items a whole-store operation hands back from every shard,
+     * which are copied as each shard shows them, in RFID tag number order.
+     *
+     * @return the total of the values the shards' parts returned
+     */
+    private long gather(Part part, Consumer<ItemInfo> visitor) {
+        long total = 0;
+        for (Stream stream : merge(part, true, Integer.MAX_VALUE, visitor))
+            total += stream.value;
+        return total;
+    }
+
+    /**
+     * Visits the items a read-only operation hands back from every shard, in
+     * RFID tag number order, up to a limit. The items are not copied, since
+     * nothing changes them.
+     *
+     * @return the number of items visited
+     */
+    private int gatherUnchanged(Part part, int limit, Consumer<ItemInfo> action) {
+        int[] visited = new int[1];
+        merge(part, false, limit, item -> {
+            action.accept(item);
+            visited[0]++;
+        });
+        return visited[0];
+    }
+
+    /**
+     * One shard's part of a whole-store operation.
+     */
+    @FunctionalInterface
+    private interface Part {
+
+        /**
+         * Runs the operation on one shard.
+         *
+         * @param shard   the number of the shard
+         * @param visitor where the shard hands back the items it visits
+         * @return a number the parts of all the shards add up to, or 0
+         */
+        long run(int shard, Consumer<ItemInfo> visitor);
+    }
+
+    /**
+     * Thrown from a Stream into a read-only part that is no longer needed, to
+     * end its walk over the shard.
+     */
+    private static class Stopped extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        Stopped() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * The items one shard's part hands back, passed from the task running the
+     * part to the merging thread in batches through a bounded queue, so a part
+     * that gets ahead of the merge waits for it. Waiting, on either side, is
+     * done through ForkJoinPool.managedBlock, so the pool starts another worker
+     * for a part that has not run yet rather than leaving the merge stuck.
+     */
+    private static class Stream implements Consumer<ItemInfo> {
+
+        private static final int BATCH = 256; // Items handed over at a time
+        private static final ItemInfo[] END = new ItemInfo[0]; // Follows the last batch
+
+        private final ArrayBlockingQueue<ItemInfo[]> batches = new ArrayBlockingQueue<>(4);
+        private final boolean changing; // Whether the part changes its shard
+        private volatile boolean stopped; // Set once the merge takes no more items
+        private ItemInfo[] filling = new ItemInfo[BATCH]; // The batch the part is filling
+        private int filled;
+        private long value; // What the part returned, read after END
+        private Throwable failure; // What the part threw, read after END
+
+        private ItemInfo[] batch = END; // The batch the merge is passing
+        private int next = -1; // The position of its head
+        private long headTag; // The tag of its head
+        private boolean ended; // Whether END has been taken
+
+        Stream(boolean changing) {
+            this.changing = changing;
+        }
+
+        /**
+         * Runs the part on its shard, then hands back the last batch and END.
+         */
+        void run(Part part, int shard) {
+            try {
+                value = part.run(shard, this);
+                if (filled > 0)
+                    hand(Arrays.copyOf(filling, filled));
+            } catch (Stopped e) {
+                // The merge has all it needs
+            } catch (Throwable e) {
+                failure = e;
+            } finally {
+                filling = null;
+                hand(END);
+            }
+        }
+
+        /**
+         * Takes an item from the part, into the batch being filled.
+         */
+        @Override
+        public void accept(ItemInfo item) {
+            if (stopped) {
+                if (changing)
+                    return;
+                throw new Stopped();
+            }
+            filling[filled++] = changing ? new ItemInfo(item) : item;
+            if (filled == BATCH) {
+                hand(filling);
+                filling = new ItemInfo[BATCH];
+                filled = 0;
+            }
+        }
+
+        /**
+         * Puts a batch on the queue, waiting while it is full. The merge drains
+         * the queue until END in every case, so the wait always ends.
+         */
+        private void hand(ItemInfo[] full) {
+            if (stopped && full != END)
+                return;
+            boolean[] handed = new boolean[1];
+            await(new ForkJoinPool.ManagedBlocker() {
+                @Override
+                public boolean block() throws InterruptedException {
+                    batches.put(full);
+                    return handed[0] = true;
+                }
+
+                @Override
+                public boolean isReleasable() {
+                    return handed[0] || (handed[0] = batches.offer(full));
+                }
+            });
+        }
+
+        /**
+         * Takes the next batch off the queue, waiting while it is empty.
+         */
+        private ItemInfo[] take() {
+            ItemInfo[][] taken = new ItemInfo[1][];
+            await(new ForkJoinPool.ManagedBlocker() {
+                @Override
+                public boolean block() throws InterruptedException {
+                    taken[0] = batches.take();
+                    return true;
+                }
+
+                @Override
+                public boolean isReleasable() {
+                    return taken[0] != null || (taken[0] = batches.poll()) != null;
+                }
+            });
+            ended = taken[0] == END;
+            return taken[0];
+        }
+
+        /**
+         * Waits through the pool until the blocker is released. An interrupt
+         * does not end the wait, since a part must always run to its end and
+         * the merge must always take it; the thread is interrupted again
+         * afterwards.
+         */
+        private static void await(ForkJoinPool.ManagedBlocker blocker) {
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    ForkJoinPool.managedBlock(blocker);
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted)
+                Thread.currentThread().interrupt();
+        }
+
+        /**
+         * Moves on to the next item, taking the next batch when this one is
+         * used up.
+         *
+         * @return false once the part has handed back all its items
+         */
+        boolean advance() {
+            if (++next == batch.length) {
+                if (ended)
+                    return false;
+                batch = take();
+                next = 0;
+                if (ended)
+                    return false;
+            }
+            headTag = batch[next].getRfidTag();
+            return true;
+        }
+
+        /**
+         * Gets the item at the head.
+         */
+        ItemInfo head() {
+            return batch[next];
+        }
+
+        /**
+         * Tells the part no more items are wanted and drops the batches it
+         * hands back until END, so the part has finished when this returns.
+         */
+        void drain() {
+            stopped = true;
+            while (!ended)
+                take();
+        }
+
+        /**
+         * Throws again what the part threw, if anything.
+         */
+        void rethrow() {
+            if (failure instanceof RuntimeException)
+                throw (RuntimeException) failure;
+            if (failure instanceof Error)
+                throw (Error) failure;
+        }
+    }
+
+    // Inventory operations
+
+    /**
+     * Inserts an item into the shard its RFID tag belongs to.
+     * Analysis of Complexity:
+     * That of the shard's insertInfo.
+     *
+     * @param name         the name of the item
+     * @param rfidTag      the RFID tag number of the item
+     * @param price        the price of the item
+     * @param initPosition the initial position of the item
+     * @throws Exception if the RFID tag number or location format is incorrect
+     */
+    @Override
+    public void insertInfo(String name, String rfidTag, double price, String initPosition) throws Exception {
+        shardFor(rfidTag).insertInfo(name, rfidTag, price, initPosition);
+    }
+
+    /**
+     * Splits a batch of items by shard and loads every shard's part at once.
+     * Analysis of Complexity:
+     * O(n) to split the batch, then that of the shards' bulkLoad on about n / N
+     * items each, in parallel.
+     *
+     * @param items the items to insert
+     */
+    @Override
+    public void bulkLoad(List<ItemInfo> items) {
+        List<List<ItemInfo>> parts = new ArrayList<>(shards.length);
+        for (int i = 0; i < shards.length; i++)
+            parts.add(new ArrayList<>(items.size() / shards.length + 16));
+        for (ItemInfo item : items)
+            parts.get(shardOf(item.getRfidTag())).add(item);
+        scatter(shard -> {
+            shards[shard].bulkLoad(parts.get(shard));
+            return null;
+        });
+    }
+
+    @Override
+    public boolean moveItem(String rfidTag, String source, String dest) throws Exception {
+        return shardFor(rfidTag).moveItem(rfidTag, source, dest);
+    }
+
+    @Override
+    public boolean updateLocation(String rfidTag, String location) throws Exception {
+        return shardFor(rfidTag).updateLocation(rfidTag, location);
+    }
+
+    /**
+     * Checks out a cart in every shard at once.
+     * Analysis of Complexity:
+     * That of the shards' checkOut, in parallel, plus O(k log N) to visit the
+     * k items in order.
+     *
+     * @param cartNumber the cart number to check out items from
+     * @param visitor    the action to run for each item, before it goes out
+     * @return the total price of the items checked out from the cart, in cents
+     */
+    @Override
+    public long checkOut(String cartNumber, Consumer<ItemInfo> visitor) {
+        return gather((shard, items) -> shards[shard].checkOut(cartNumber, items), visitor);
+    }
+
+    @Override
+    public int cartItemCount(String cartNumber) {
+        int count = 0;
+        for (Inventory shard : shards)
+            count += shard.cartItemCount(cartNumber);
+        return count;
+    }
+
+    @Override
+    public long cartTotalCents(String cartNumber) {
+        long total = 0;
+        for (Inventory shard : shards)
+            total += shard.cartTotalCents(cartNumber);
+        return total;
+    }
+
+    @Override
+    public long shelfItemCount(String fromShelf, String toShelf) {
+        long count = 0;
+        for (Inventory shard : shards)
+            count += shard.shelfItemCount(fromShelf, toShelf);
+        return count;
+    }
+
+    @Override
+    public long shelfValueCents(String fromShelf, String toShelf) {
+        long total = 0;
+        for (Inventory shard : shards)
+            total += shard.shelfValueCents(fromShelf, toShelf);
+        return total;
+    }
+
+    /**
+     * Cleans every shard at once.
+     * Analysis of Complexity:
+     * That of the shards' cleanStore, in parallel, plus O(k log N) to visit the
+     * k items moved back in order.
+     *
+     * @param visitor the action to run for each item, before it is moved back
+     */
+    @Override
+    public void cleanStore(Consumer<ItemInfo> visitor) {
+        gather((shard, items) -> {
+            shards[shard].cleanStore(items);
+            return 0;
+        }, visitor);
+    }
+
+    /**
+     * Removes up to the given number of purchased items, the first ones in RFID
+     * tag number order across all the shards. Without a real limit, every
+     * shard purges all of its purchased items at once. Otherwise every shard
+     * passes its own first purchased items, up to maxItems, without removing
+     * them; those are merged to find how many of the first maxItems belong to
+     * each shard, which stops the shards once they are found, and each shard
+     * then removes that many at once.
+     * Analysis of Complexity:
+     * That of the shards' removePurchased, in parallel, plus O(k log N) to
+     * visit the k items removed in order; with a limit, plus that of the
+     * shards' forEachPurchased for at most k items each.
+     *
+     * @param maxItems the most items to remove
+     * @param visitor  the action to run for each item, before it is removed
+     * @return the number of items removed
+     */
+    @Override
+    public int removePurchased(int maxItems, Consumer<ItemInfo> visitor) {
+        if (maxItems <= 0)
+            return 0;
+
+        int[] quotas = new int[shards.length];
+        if (maxItems == Integer.MAX_VALUE || shards.length == 1) {
+            Arrays.fill(quotas, maxItems);
+        } else {
+            gatherUnchanged((shard, items) -> shards[shard].forEachPurchased(maxItems, items), maxItems,
+                    item -> quotas[shardOf(item.getRfidTag())]++);
+        }
+
+        return (int) gather((shard, items) -> {
+            return quotas[shard] == 0 ? 0 : shards[shard].removePurchased(quotas[shard], items);
+        }, visitor);
+    }
+
+    @Override
+    public int misplacedCount() {
+        int count = 0;
+        for (Inventory shard : shards)
+            count += shard.misplacedCount();
+        return count;
+    }
+
+    /**
+     * Adds up how many misplaced items sit at each location over the shards,
+     * which count theirs at once.
+     *
+     * @return a new map from location to the number of misplaced items there,
+     *         in location code order
+     */
+    @Override
+    public Map<String, Integer> misplacedByLocation() {
+        TreeMap<Integer, Integer> byCode = new TreeMap<>();
+        for (Map<String, Integer> counts : scatter(shard -> shards[shard].misplacedByLocation())) {
+            for (Map.Entry<String, Integer> entry : counts.entrySet())
+                byCode.merge(LocationCodec.encode(entry.getKey()), entry.getValue(), Integer::sum);
+        }
+        LinkedHashMap<String, Integer> counts = new LinkedHashMap<>();
+        for (Map.Entry<Integer, Integer> entry : byCode.entrySet())
+            counts.put(LocationCodec.decode(entry.getKey()), entry.getValue());
+        return counts;
+    }
+
+    /**
+     * Passes every item to the action in RFID tag number order, as the shards
+     * hand theirs back at once.
+     * Analysis of Complexity:
+     * O(n / N) for each shard, in parallel, plus O(n log N) to merge them.
+     *
+     * @param action the action to run for each item
+     */
+    @Override
+    public void forEachItem(Consumer<ItemInfo> action) {
+        gatherUnchanged((shard, items) -> {
+            shards[shard].forEachItem(items);
+            return 0;
+        }, Integer.MAX_VALUE, action);
+    }
+
+    @Override
+    public void forEachAt(String location, Consumer<ItemInfo> action) {
+        gatherUnchanged((shard, items) -> {
+            shards[shard].forEachAt(location, items);
+            return 0;
+        }, Integer.MAX_VALUE, action);
+    }
+
+    @Override
+    public boolean forEachWithRFID(String rfidTag, Consumer<ItemInfo> action) {
+        return shardFor(rfidTag).forEachWithRFID(rfidTag, action);
+    }
+
+    @Override
+    public int forEachInTagRange(String fromTag, String toTag, Consumer<ItemInfo> action) {
+        return gatherUnchanged((shard, items) -> shards[shard].forEachInTagRange(fromTag, toTag, items),
+                Integer.MAX_VALUE, action);
+    }
+
+    /**
+     * Searches every shard at once for its first matching items, and passes
+     * the first of them all to the action in RFID tag number order.
+     *
+     * @param query    the words to look for
+     * @param maxEdits the number of edits a word may be away from a name word
+     * @param limit    the most items to pass to the action
+     * @param action   the action to run for each matching item
+     * @return the number of items passed to the action
+     */
+    @Override
+    public int searchByName(String query, int maxEdits, int limit, Consumer<ItemInfo> action) {
+        return gatherUnchanged((shard, items) -> shards[shard].searchByName(query, maxEdits, limit, items), limit,
+                action);
+    }
+
+    @Override
+    public boolean containsRFID(String rfidTag) {
+        return shardFor(rfidTag).containsRFID(rfidTag);
+    }
+
+    @Override
+    public int listLength() {
+        int length = 0;
+        for (Inventory shard : shards)
+            length += shard.listLength();
+        return length;
+    }
+
+    @Override
+    public long nodesVisited() {
+        long visited = 0;
+        for (Inventory shard : shards) {
+            long shardVisited = shard.nodesVisited();
+            if (shardVisited < 0)
+                return -1;
+            visited += shardVisited;
+        }
+        return visited;
+    }
+}
@@ -0,0 +1,112 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The ShelfValueIndex class keeps the number of items on every shelf and their
+ * total price in cents in two Fenwick trees over the shelf numbers, so the
+ * count and value of any range of shelves, such as "s10000 to s19999" or one
+ * aisle, are found in O(log S) steps, where S is the number of shelf numbers,
+ * without looking at the items.
+ *
+ * An Inventory tells it whenever an item arrives at or leaves a location;
+ * locations that are not shelves are ignored. The trees are atomic, so threads
+ * may update different items at once; a query running at the same time as a
+ * change may count it in part.
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public class ShelfValueIndex {
+
+    private final AtomicLongArray counts; // Fenwick tree of item counts, indexed from 1
+    private final AtomicLongArray cents; // Fenwick tree of total prices in cents, indexed from 1
+
+    /**
+     * Constructs a ShelfValueIndex with every shelf empty.
+     */
+    public ShelfValueIndex() {
+        counts = new AtomicLongArray(LocationCodec.SHELF_COUNT + 1);
+        cents = new AtomicLongArray(LocationCodec.SHELF_COUNT + 1);
+    }
+
+    /**
+     * Counts an item arriving at the given location, if it is a shelf.
+     * Analysis of Complexity:
+     * O(log S).
+     *
+     * @param code       the location code the item is now at
+     * @param priceCents the price of the item in cents
+     */
+    public void enter(int code, long priceCents) {
+        if (LocationCodec.isShelf(code)) {
+            add(counts, code, 1);
+            add(cents, code, priceCents);
+        }
+    }
+
+    /**
+     * Counts an item leaving the given location, if it is a shelf.
+     * Analysis of Complexity:
+     * O(log S).
+     *
+     * @param code       the location code the item was at
+     * @param priceCents the price of the item in cents
+     */
+    public void leave(int code, long priceCents) {
+        if (LocationCodec.isShelf(code)) {
+            add(counts, code, -1);
+            add(cents, code, -priceCents);
+        }
+    }
+
+    /**
+     * Gets the number of items on the shelves from one shelf to another,
+     * inclusive.
+     * Analysis of Complexity:
+     * O(log S).
+     *
+     * @param fromCode the location code of the first shelf
+     * @param toCode   the location code of the last shelf
+     * @return the number of items, or 0 if the range is empty or its ends are
+     *         not shelves
+     */
+    public long countIn(int fromCode, int toCode) {
+        return rangeSum(counts, fromCode, toCode);
+    }
+
+    /**
+     * Gets the total price of the items on the shelves from one shelf to
+     * another, inclusive.
+     * Analysis of Complexity:
+     * O(log S).
+     *
+     * @param fromCode the location code of the first shelf
+     * @param toCode   the location code of the last shelf
+     * @return the total in cents, or 0 if the range is empty or its ends are not
+     *         shelves
+     */
+    public long centsIn(int fromCode, int toCode) {
+        return rangeSum(cents, fromCode, toCode);
+    }
+
+    private static void add(AtomicLongArray tree, int shelf, long delta) {
+        for (int i = shelf + 1; i < tree.length(); i += i & -i)
+            tree.addAndGet(i, delta);
+    }
+
+    /**
+     * Returns the sum over the shelves numbered below the given one.
+     */
+    private static long prefix(AtomicLongArray tree, int shelf) {
+        long sum = 0;
+        for (int i = shelf; i > 0; i -= i & -i)
+            sum += tree.get(i);
+        return sum;
+    }
+
+    private static long rangeSum(AtomicLongArray tree, int fromCode, int toCode) {
+        if (!LocationCodec.isShelf(fromCode) || !LocationCodec.isShelf(toCode) || fromCode > toCode)
+            return 0;
+        return prefix(tree, toCode + 1) - prefix(tree, fromCode);
+    }
+}
@@ -0,0 +1,403 @@
+import java.util.Arrays;
+import java.util.function.LongPredicate;
+
+/**
+ * The SortedKeySet class is a set of long keys kept in order, such as packed
+ * RFID tags or OffHeapItemList sort keys. It is a B+ tree whose nodes hold up
+ * to 64 keys in a primitive long array, so a key costs about a dozen bytes
+ * instead of the Long and the entry a TreeSet or TreeMap would create for it.
+ * Adding, removing and finding the key below or at or above any value cost
+ * O(log n), and the leaves are linked in key order, so a walk from any value
+ * costs O(log n) to start and O(1) per key.
+ *
+ * Every node holds, for each of its children, a key no higher than the
+ * lowest key below that child and higher than every key below the children
+ * before it, so a search goes down to the last child whose key is not above
+ * the value it looks for. A node left with fewer than a quarter of its keys
+ * by a removal is merged with a neighbor, or takes keys from it.
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public class SortedKeySet {
+
+    /**
+     * The value returned when there is no such key. It cannot be added.
+     */
+    public static final long NONE = Long.MIN_VALUE;
+
+    private static final int MAX_KEYS = 64; // Keys, or children, in one node
+    private static final int MIN_KEYS = MAX_KEYS / 4; // Fewer and a node is merged or refilled
+    private static final int NODE_BYTES = 32 + 16 + MAX_KEYS * Long.BYTES; // A leaf and its key array
+
+    /**
+     * A node of the tree: a leaf holding keys, or an inner node holding
+     * children, each with a lower bound of its keys.
+     */
+    private static class Node {
+
+        final long[] keys = new long[MAX_KEYS]; // The keys, or a lower bound of each child's keys
+        final Node[] children; // The children, or null in a leaf
+        int count; // The number of keys, and of children
+        Node previous; // The leaf before this one, in key order
+        Node next; // The leaf after this one, in key order
+
+        Node(boolean leaf) {
+            children = leaf ? null : new Node[MAX_KEYS];
+        }
+
+        boolean isLeaf() {
+            return children == null;
+        }
+    }
+
+    private Node root; // A leaf while the set holds up to MAX_KEYS keys
+    private int size; // The number of keys
+    private int nodes; // The number of nodes, for heapBytes
+
+    /**
+     * Constructs an empty SortedKeySet.
+     */
+    public SortedKeySet() {
+        root = new Node(true);
+        size = 0;
+        nodes = 1;
+    }
+
+    /**
+     * Adds a key, if it is not in the set yet.
+     * Analysis of Complexity:
+     * O(log n).
+     *
+     * @param key the key, anything but NONE
+     * @return true if the key was added, false if it was already there
+     */
+    public boolean add(long key) {
+        if (key == NONE)
+            throw new IllegalArgumentException("SortedKeySet.NONE cannot be added");
+        int before = size;
+        Node split = insert(root, key);
+        if (split != null) {
+            Node top = new Node(false);
+            top.keys[0] = root.keys[0];
+            top.children[0] = root;
+            top.keys[1] = split.keys[0];
+            top.children[1] = split;
+            top.count = 2;
+            root = top;
+            nodes++;
+        }
+        return size > before;
+    }
+
+    /**
+     * Adds a key below the given node.
+     *
+     * @return the node split off the given one to make room, or null
+     */
+    private Node insert(Node node, long key) {
+        if (node.isLeaf()) {
+            int at = Arrays.binarySearch(node.keys, 0, node.count, key);
+            if (at >= 0)
+                return null;
+            size++;
+            return insertAt(node, -at - 1, key, null);
+        }
+        int child = childFor(node, key);
+        if (key < node.keys[child])
+            node.keys[child] = key; // Only the first child can be below its bound
+        Node split = insert(node.children[child], key);
+        return split == null ? null : insertAt(node, child + 1, split.keys[0], split);
+    }
+
+    /**
+     * Puts a key, and the child it bounds in an inner node, at the given
+     * index of a node, splitting the node in two if it is full.
+     *
+     * @return the new right half if the node was split, or null
+     */
+    private Node insertAt(Node node, int index, long key, Node child) {
+        if (node.count < MAX_KEYS) {
+            place(node, index, key, child);
+            return null;
+        }
+
+        // Keys added in rising or falling order fill one of the halves whole,
+        // instead of leaving every node half empty
+        int half = index == MAX_KEYS ? MAX_KEYS : index == 0 ? 0 : MAX_KEYS / 2;
+        Node right = new Node(node.isLeaf());
+        nodes++;
+        move(node, half, right, 0, MAX_KEYS - half);
+        right.count = MAX_KEYS - half;
+        node.count = half;
+        if (node.isLeaf()) {
+            right.next = node.next;
+            if (right.next != null)
+                right.next.previous = right;
+            right.previous = node;
+            node.next = right;
+        } else {
+            Arrays.fill(node.children, half, MAX_KEYS, null);
+        }
+        if (index > half || index == MAX_KEYS)
+            place(right, index - half, key, child);
+        else
+            place(node, index, key, child);
+        return right;
+    }
+
+    private static void place(Node node, int index, long key, Node child) {
+        System.arraycopy(node.keys, index, node.keys, index + 1, node.count - index);
+        node.keys[index] = key;
+        if (child != null) {
+            System.arraycopy(node.children, index, node.children, index + 1, node.count - index);
+            node.children[index] = child;
+        }
+        node.count++;
+    }
+
+    /**
+     * Copies keys, and children in inner nodes, from one node to another. The
+     * counts are left to the caller.
+     */
+    private static void move(Node from, int fromIndex, Node to, int toIndex, int length) {
+        System.arraycopy(from.keys, fromIndex, to.keys, toIndex, length);
+        if (from.children != null)
+            System.arraycopy(from.children, fromIndex, to.children, toIndex, length);
+    }
+
+    /**
+     * Removes a key, if it is in the set.
+     * Analysis of Complexity:
+     * O(log n).
+     *
+     * @param key the key
+     * @return true if the key was removed, false if it was not there
+     */
+    public boolean remove(long key) {
+        int before = size;
+        delete(root, key);
+        while (!root.isLeaf() && root.count == 1) {
+            root = root.children[0];
+            nodes--;
+        }
+        return size < before;
+    }
+
+    private void delete(Node node, long key) {
+        if (node.isLeaf()) {
+            int at = Arrays.binarySearch(node.keys, 0, node.count, key);
+            if (at >= 0) {
+                removeAt(node, at);
+                size--;
+            }
+            return;
+        }
+        int child = childFor(node, key);
+        delete(node.children[child], key);
+        if (node.children[child].count < MIN_KEYS)
+            refill(node, child);
+    }
+
+    private static void removeAt(Node node, int index) {
+        System.arraycopy(node.keys, index + 1, node.keys, index, node.count - index - 1);
+        if (node.children != null) {
+            System.arraycopy(node.children, index + 1, node.children, index, node.count - index - 1);
+            node.children[node.count - 1] = null;
+        }
+        node.count--;
+    }
+
+    /**
+     * Merges a child left with too few keys with a neighbor, if they fit in
+     * one node, or else shares their keys out evenly between them.
+     */
+    private void refill(Node parent, int child) {
+        int left = child > 0 ? child - 1 : child;
+        if (left + 1 >= parent.count)
+            return;
+        Node a = parent.children[left];
+        Node b = parent.children[left + 1];
+        if (a.count + b.count <= MAX_KEYS) {
+            move(b, 0, a, a.count, b.count);
+            a.count += b.count;
+            if (a.isLeaf()) {
+                a.next = b.next;
+                if (a.next != null)
+                    a.next.previous = a;
+            }
+            removeAt(parent, left + 1);
+            nodes--;
+            return;
+        }
+
+        int share = (a.count + b.count) / 2;
+        if (a.count > share) { // Move a's last keys to the front of b
+            int moved = a.count - share;
+            move(b, 0, b, moved, b.count);
+            move(a, share, b, 0, moved);
+            if (!a.isLeaf())
+                Arrays.fill(a.children, share, a.count, null);
+            a.count = share;
+            b.count += moved;
+        } else { // Move b's first keys to the end of a
+            int moved = share - a.count;
+            move(b, 0, a, a.count, moved);
+            move(b, moved, b, 0, b.count - moved);
+            if (!b.isLeaf())
+                Arrays.fill(b.children, b.count - moved, b.count, null);
+            a.count = share;
+            b.count -= moved;
+        }
+        parent.keys[left + 1] = b.keys[0];
+    }
+
+    /**
+     * Returns the index of the child of an inner node that holds the given key,
+     * if it is in the set: the last one whose bound is not above it.
+     */
+    private static int childFor(Node node, long key) {
+        int at = Arrays.binarySearch(node.keys, 0, node.count, key);
+        return at >= 0 ? at : Math.max(-at - 2, 0);
+    }
+
+    private Node leafFor(long key) {
+        Node node = root;
+        while (!node.isLeaf())
+            node = node.children[childFor(node, key)];
+        return node;
+    }
+
+    /**
+     * Tells whether a key is in the set.
+     * Analysis of Complexity:
+     * O(log n).
+     *
+     * @param key the key
+     * @return true if it is in the set
+     */
+    public boolean contains(long key) {
+        Node leaf = leafFor(key);
+        return Arrays.binarySearch(leaf.keys, 0, leaf.count, key) >= 0;
+    }
+
+    /**
+     * Finds the highest key below the given value.
+     * Analysis of Complexity:
+     * O(log n).
+     *
+     * @param key the value
+     * @return the key before it, or NONE if there is none
+     */
+    public long lower(long key) {
+        Node leaf = leafFor(key);
+        int at = Arrays.binarySearch(leaf.keys, 0, leaf.count, key);
+        int index = (at >= 0 ? at : -at - 1) - 1;
+        if (index >= 0)
+            return leaf.keys[index];
+        return leaf.previous == null ? NONE : leaf.previous.keys[leaf.previous.count - 1];
+    }
+
+    /**
+     * Finds the lowest key at or above the given value.
+     * Analysis of Complexity:
+     * O(log n).
+     *
+     * @param key the value
+     * @return the key at or after it, or NONE if there is none
+     */
+    public long ceiling(long key) {
+        Node leaf = leafFor(key);
+        int at = Arrays.binarySearch(leaf.keys, 0, leaf.count, key);
+        int index = at >= 0 ? at : -at - 1;
+        if (index < leaf.count)
+            return leaf.keys[index];
+        return leaf.next == null ? NONE : leaf.next.keys[0];
+    }
+
+    /**
+     * Finds the lowest key.
+     * Analysis of Complexity:
+     * O(log n).
+     *
+     * @return the lowest key, or NONE if the set is empty
+     */
+    public long first() {
+        return size == 0 ? NONE : ceiling(NONE);
+    }
+
+    /**
+     * Passes the keys at or above the given value to the action, in order,
+     * until the action returns false. The set must not be changed until this
+     * returns.
+     * Analysis of Complexity:
+     * O(log n + k) for the k keys passed.
+     *
+     * @param from   the lowest value to start at
+     * @param action the action to run for each key, returning false to stop
+     */
+    public void forEachFrom(long from, LongPredicate action) {
+        Node leaf = leafFor(from);
+        int at = Arrays.binarySearch(leaf.keys, 0, leaf.count, from);
+        for (int index = at >= 0 ? at : -at - 1; leaf != null; leaf = leaf.next, index = 0) {
+            for (; index < leaf.count; index++) {
+                if (!action.test(leaf.keys[index]))
+                    return;
+            }
+        }
+    }
+
+    /**
+     * Copies the keys, in order, into a new array.
+     * Analysis of Complexity:
+     * O(n).
+     *
+     * @return the keys
+     */
+    public long[] toArray() {
+        long[] keys = new long[size];
+        int[] next = new int[1];
+        forEachFrom(NONE, key -> {
+            keys[next[0]++] = key;
+            return true;
+        });
+        return keys;
+    }
+
+    /**
+     * Returns the number of keys in the set.
+     *
+     * @return the number of keys
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Tells whether the set is empty.
+     *
+     * @return true if it holds no keys
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes every key.
+     */
+    public void clear() {
+        root = new Node(true);
+        size = 0;
+        nodes = 1;
+    }
+
+    /**
+     * Returns about how many heap bytes the set takes.
+     *
+     * @return the estimated size of the nodes, in bytes
+     */
+    public long heapBytes() {
+        return (long) nodes * NODE_BYTES;
+    }
+}
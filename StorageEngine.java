@@ -0,0 +1,84 @@
+/**
+ * The StorageEngine enum names the ways the store's items can be kept in
+ * memory, and constructs an empty Inventory of the chosen kind.
+ *
+ * LINKED_NODES is the ItemList doubly linked list, with one ItemInfoNode and
+ * one ItemInfo object per item. OFF_HEAP is OffHeapItemList, which keeps
+ * fixed-width item records and item names in native memory, so the garbage
+ * collector has almost nothing to trace however large the store gets.
+ * CONCURRENT is ConcurrentItemList, which many threads can share, with reads
+ * that never block. Any of them can also be split into shards by RFID tag
+ * with ShardedInventory, so operations over the whole store use every
+ * processor.
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public enum StorageEngine {
+
+    LINKED_NODES,
+    OFF_HEAP,
+    CONCURRENT;
+
+    /**
+     * Constructs an empty Inventory that keeps its items in this engine.
+     *
+     * @return a new, empty Inventory
+     */
+    public Inventory create() {
+        switch (this) {
+            case OFF_HEAP:
+                return new OffHeapItemList();
+            case CONCURRENT:
+                return new ConcurrentItemList();
+            case LINKED_NODES:
+            default:
+                return new ItemList();
+        }
+    }
+
+    /**
+     * Constructs an empty Inventory that keeps its items in this engine, split
+     * over the given number of shards.
+     *
+     * @param shardCount the number of shards; 1 gives a plain inventory
+     * @return a new, empty Inventory
+     */
+    public Inventory create(int shardCount) {
+        return shardCount == 1 ? create() : new ShardedInventory(this, shardCount);
+    }
+
+    /**
+     * Gets the number of shards asked for with "--shards=N" among the
+     * command-line arguments.
+     *
+     * @param args the command-line arguments
+     * @return the number of shards, or 1 if the option was not given
+     */
+    public static int shardsFromArgs(String[] args) {
+        for (String arg : args) {
+            if (arg.startsWith("--shards="))
+                return Integer.parseInt(arg.substring("--shards=".length()));
+        }
+        return 1;
+    }
+
+    /**
+     * Picks the storage engine from the command-line arguments: "--offheap"
+     * selects OFF_HEAP, "--concurrent" selects CONCURRENT, and anything else
+     * leaves the default LINKED_NODES.
+     *
+     * @param args the command-line arguments
+     * @return the selected storage engine
+     */
+    public static StorageEngine fromArgs(String[] args) {
+        for (String arg : args) {
+            if (arg.equalsIgnoreCase("--offheap"))
+                return OFF_HEAP;
+            if (arg.equalsIgnoreCase("--concurrent"))
+                return CONCURRENT;
+        }
+        return LINKED_NODES;
+    }
+}
@@ -0,0 +1,480 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+/**
+ * The StoreDayWorkload class makes up the operations of store days, to load an
+ * Inventory the way a store would. The store sells a number of products, each
+ * kept on its own shelf, and how often a product is picked follows a Zipf
+ * distribution: the product of rank k is picked in proportion to 1 / k^s, so a
+ * few products sell most of the items.
+ *
+ * Shoppers each take a cart and move items of the products they pick from the
+ * shelves into it (MOVE), now and then putting one back on a wrong shelf, and
+ * check out (CHECKOUT) once their baskets are full. A product whose shelf runs
+ * low is restocked with new items (INSERT). Every so many operations the store
+ * is cleaned (CLEAN); as in Inventory.cleanStore, this returns the items in
+ * the carts to their shelves too, so the shoppers start their baskets over.
+ * Each day ends with the shoppers still in the store
+ * checking out, a last CLEAN and the nightly PURGE. Tags are random, distinct
+ * and valid for ItemInfo.checkRfidFormat; shelves and carts are valid
+ * locations.
+ *
+ * The generator keeps its own picture of where every item is, so each
+ * operation it makes succeeds when the operations are run in order on an
+ * inventory holding the opening stock. The same seed gives the same days.
+ *
+ * Usage: java StoreDayWorkload [options] > day.txt
+ * The options are those of fromArgs, and "--days=N" for the number of days,
+ * 1 by default. The opening stock is written as INSERT commands, followed by
+ * the days, for BatchRunner or WorkloadReplay.
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public class StoreDayWorkload {
+
+    /**
+     * The kinds of operation, named after the commands that run them.
+     */
+    public enum Kind {
+        INSERT, MOVE, CHECKOUT, CLEAN, PURGE
+    }
+
+    /**
+     * The Operation class is one operation of a store day.
+     */
+    public static class Operation {
+
+        private final Kind kind;
+        private final String tag; // The item of an INSERT or MOVE
+        private final String from; // The source of a MOVE, or the cart of a CHECKOUT
+        private final String to; // The destination of a MOVE, or the shelf of an INSERT
+        private final String name; // The name of an INSERT
+        private final double price; // The price of an INSERT
+
+        private Operation(Kind kind, String tag, String from, String to, String name, double price) {
+            this.kind = kind;
+            this.tag = tag;
+            this.from = from;
+            this.to = to;
+            this.name = name;
+            this.price = price;
+        }
+
+        /**
+         * Parses a command as written by toCommand.
+         *
+         * @param command the command line
+         * @return the operation
+         * @throws IllegalArgumentException if the command is not one of the
+         *                                  kinds, or its arguments are missing
+         */
+        public static Operation parse(String command) {
+            String[] fields = command.trim().split("\\s+", 5);
+            Kind kind = Kind.valueOf(fields[0].toUpperCase());
+            switch (kind) {
+                case INSERT:
+                    if (fields.length < 5)
+                        throw new IllegalArgumentException("Usage: INSERT rfid location price name");
+                    return new Operation(kind, fields[1], null, fields[2], fields[4], Double.parseDouble(fields[3]));
+                case MOVE:
+                    if (fields.length != 4)
+                        throw new IllegalArgumentException("Usage: MOVE rfid source dest");
+                    return new Operation(kind, fields[1], fields[2], fields[3], null, 0);
+                case CHECKOUT:
+                    if (fields.length != 2)
+                        throw new IllegalArgumentException("Usage: CHECKOUT cart");
+                    return new Operation(kind, null, fields[1], null, null, 0);
+                default:
+                    return new Operation(kind, null, null, null, null, 0);
+            }
+        }
+
+        /**
+         * Runs the operation on an inventory.
+         *
+         * @param inventory the inventory
+         * @return false if a MOVE found no such item at the source, true
+         *         otherwise
+         * @throws Exception if the inventory rejects the operation
+         */
+        public boolean runOn(Inventory inventory) throws Exception {
+            switch (kind) {
+                case INSERT:
+                    inventory.insertInfo(name, tag, price, to);
+                    return true;
+                case MOVE:
+                    return inventory.moveItem(tag, from, to);
+                case CHECKOUT:
+                    inventory.checkOut(from, item -> {
+                    });
+                    return true;
+                case CLEAN:
+                    inventory.cleanStore(item -> {
+                    });
+                    return true;
+                default:
+                    inventory.removeAllPurchased(item -> {
+                    });
+                    return true;
+            }
+        }
+
+        /**
+         * Gets the kind of the operation.
+         *
+         * @return the kind
+         */
+        public Kind getKind() {
+            return kind;
+        }
+
+        /**
+         * Writes the operation as a CommandDispatcher command.
+         *
+         * @return the command line, without a line break
+         */
+        public String toCommand() {
+            switch (kind) {
+                case INSERT:
+                    return "INSERT " + tag + " " + to + " " + price + " " + name;
+                case MOVE:
+                    return "MOVE " + tag + " " + from + " " + to;
+                case CHECKOUT:
+                    return "CHECKOUT " + from;
+                default:
+                    return kind.name();
+            }
+        }
+    }
+
+    /**
+     * The Shopper class is one shopper in the store with a cart.
+     */
+    private static class Shopper {
+
+        private final int cart;
+        private final int wanted; // Items wanted before checking out
+        private long[] tags = new long[8]; // Items in the cart
+        private int[] products = new int[8];
+        private int size;
+
+        Shopper(int cart, int wanted) {
+            this.cart = cart;
+            this.wanted = wanted;
+        }
+
+        void add(long tag, int product) {
+            if (size == tags.length) {
+                tags = Arrays.copyOf(tags, size * 2);
+                products = Arrays.copyOf(products, size * 2);
+            }
+            tags[size] = tag;
+            products[size++] = product;
+        }
+    }
+
+    private static final String[] NAMES = { "Milk", "Eggs", "Bread", "Coffee Beans", "Paper Towels",
+            "Dish Soap", "Orange Juice", "Cereal", "Olive Oil", "Batteries", "Green Tea", "Apples",
+            "Shampoo", "Light Bulbs", "Socks" };
+    private static final int MEAN_BASKET = 12; // Items a shopper wants, on average
+    private static final int PUT_BACK_ONE_IN = 25; // Chance of putting an item back on a wrong shelf
+    private static final long TAG_STEP = 0x9E3779B97L; // Odd, so stepping by it visits every tag once
+
+    private final Random random;
+    private final int products;
+    private final int stockPerProduct; // Items of a product on a full shelf
+    private final int shelves;
+    private final int maxShoppers;
+    private final int cleanEvery; // Operations between cleanings
+    private final double[] popularity; // Cumulative pick probability by product rank
+
+    private final String[] shelfOf; // Product -> its shelf
+    private final String[] nameOf; // Product -> its item name
+    private final double[] priceOf; // Product -> its price
+    private final long[][] onShelf; // Product -> tags of its items on its shelf
+    private final int[] onShelfCount;
+    private final ArrayList<long[]> misplaced; // {tag, product} of items on a wrong shelf
+    private final ArrayList<Shopper> shoppers; // Shoppers in the store
+    private final ArrayDeque<Integer> freeCarts;
+    private long nextTag; // Counter the next new tag is made from
+    private long sinceCleaning; // Operations since the last CLEAN
+
+    /**
+     * Constructs a workload.
+     *
+     * @param seed            the seed of the random choices
+     * @param products        the number of products
+     * @param stockPerProduct the number of items of a product on a full shelf
+     * @param shelves         the number of shelves the products are spread
+     *                        over, up to LocationCodec.SHELF_COUNT
+     * @param maxShoppers     the most shoppers in the store at once, up to
+     *                        LocationCodec.CART_COUNT
+     * @param zipfExponent    the exponent s of the popularity, 0 for every
+     *                        product alike
+     * @param cleanEvery      the number of operations between cleanings
+     */
+    public StoreDayWorkload(long seed, int products, int stockPerProduct, int shelves, int maxShoppers,
+            double zipfExponent, int cleanEvery) {
+        if (products < 1 || stockPerProduct < 1 || cleanEvery < 1)
+            throw new IllegalArgumentException("The products, stock and cleaning interval should be at least 1");
+        if (shelves < 2 || shelves > LocationCodec.SHELF_COUNT)
+            throw new IllegalArgumentException("The shelves should be from 2 to " + LocationCodec.SHELF_COUNT);
+        if (maxShoppers < 1 || maxShoppers > LocationCodec.CART_COUNT)
+            throw new IllegalArgumentException("The shoppers should be from 1 to " + LocationCodec.CART_COUNT);
+        this.random = new Random(seed);
+        this.products = products;
+        this.stockPerProduct = stockPerProduct;
+        this.shelves = shelves;
+        this.maxShoppers = maxShoppers;
+        this.cleanEvery = cleanEvery;
+
+        popularity = new double[products];
+        double sum = 0;
+        for (int rank = 0; rank < products; rank++) {
+            sum += 1 / Math.pow(rank + 1, zipfExponent);
+            popularity[rank] = sum;
+        }
+        for (int rank = 0; rank < products; rank++)
+            popularity[rank] /= sum;
+
+        shelfOf = new String[products];
+        nameOf = new String[products];
+        priceOf = new double[products];
+        onShelf = new long[products][];
+        onShelfCount = new int[products];
+        for (int p = 0; p < products; p++) {
+            shelfOf[p] = LocationCodec.decode(LocationCodec.shelf(random.nextInt(shelves)));
+            nameOf[p] = NAMES[p % NAMES.length] + " " + (p / NAMES.length + 1);
+            priceOf[p] = (99 + random.nextInt(9900)) / 100.0;
+            onShelf[p] = new long[stockPerProduct];
+        }
+        misplaced = new ArrayList<>();
+        shoppers = new ArrayList<>();
+        freeCarts = new ArrayDeque<>();
+        for (int cart = 0; cart < maxShoppers; cart++)
+            freeCarts.add(cart);
+    }
+
+    /**
+     * Constructs a workload from command line options: "--seed=N",
+     * "--products=N" (10000), "--stock=N" items per product (20),
+     * "--shelves=N" (5000), "--shoppers=N" (200), "--zipf=S" (1.0) and
+     * "--clean-every=N" operations (50000).
+     *
+     * @param args the command line arguments; others are ignored
+     * @return the workload
+     */
+    public static StoreDayWorkload fromArgs(String[] args) {
+        return new StoreDayWorkload(Long.parseLong(option(args, "--seed=", "214")),
+                Integer.parseInt(option(args, "--products=", "10000")),
+                Integer.parseInt(option(args, "--stock=", "20")),
+                Integer.parseInt(option(args, "--shelves=", "5000")),
+                Integer.parseInt(option(args, "--shoppers=", "200")),
+                Double.parseDouble(option(args, "--zipf=", "1.0")),
+                Integer.parseInt(option(args, "--clean-every=", "50000")));
+    }
+
+    /**
+     * Gets the value of a "--name=value" command line option.
+     *
+     * @param args         the command line arguments
+     * @param prefix       the option up to and including "="
+     * @param defaultValue the value if the option is not given
+     * @return the value
+     */
+    public static String option(String[] args, String prefix, String defaultValue) {
+        for (String arg : args) {
+            if (arg.startsWith(prefix))
+                return arg.substring(prefix.length()).replace("_", "");
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Makes the items on the shelves when the store opens: a full shelf of
+     * every product. Call it once, before the first day.
+     *
+     * @return the items
+     * @throws Exception if an item cannot be made
+     */
+    public List<ItemInfo> openingStock() throws Exception {
+        ArrayList<ItemInfo> stock = new ArrayList<>(products * stockPerProduct);
+        for (int p = 0; p < products; p++) {
+            while (onShelfCount[p] < stockPerProduct) {
+                long tag = newTag();
+                onShelf[p][onShelfCount[p]++] = tag;
+                stock.add(new ItemInfo(nameOf[p], priceOf[p], RfidTag.format(tag), shelfOf[p]));
+            }
+        }
+        return stock;
+    }
+
+    /**
+     * Makes the operations of one store day. The day has about the given
+     * number of operations, and then the closing ones: a CHECKOUT for each
+     * shopper left, a CLEAN and a PURGE.
+     * Analysis of Complexity:
+     * O(n log P) for n operations and P products.
+     *
+     * @param operations the number of operations before closing
+     * @param sink       the action to pass each operation to, in order
+     */
+    public void day(int operations, Consumer<Operation> sink) {
+        for (int made = 0; made < operations;) {
+            if (sinceCleaning >= cleanEvery) {
+                made += clean(sink);
+                continue;
+            }
+            if (shoppers.isEmpty() || (!freeCarts.isEmpty() && random.nextInt(MEAN_BASKET) == 0))
+                shoppers.add(new Shopper(freeCarts.poll(), 1 + random.nextInt(2 * MEAN_BASKET)));
+            Shopper shopper = shoppers.get(random.nextInt(shoppers.size()));
+
+            if (shopper.size >= shopper.wanted) {
+                made += checkOut(shopper, sink);
+            } else if (shopper.size > 0 && random.nextInt(PUT_BACK_ONE_IN) == 0) {
+                int i = random.nextInt(shopper.size);
+                int product = shopper.products[i];
+                int wrong = random.nextInt(shelves);
+                if (LocationCodec.decode(LocationCodec.shelf(wrong)).equals(shelfOf[product]))
+                    wrong = (wrong + 1) % shelves;
+                String shelf = LocationCodec.decode(LocationCodec.shelf(wrong));
+                emit(sink, new Operation(Kind.MOVE, RfidTag.format(shopper.tags[i]), cart(shopper), shelf, null, 0));
+                misplaced.add(new long[] { shopper.tags[i], product });
+                shopper.size--;
+                shopper.tags[i] = shopper.tags[shopper.size];
+                shopper.products[i] = shopper.products[shopper.size];
+                made++;
+            } else {
+                int product = pickProduct();
+                if (onShelfCount[product] == 0)
+                    made += restock(product, sink);
+                long tag = onShelf[product][--onShelfCount[product]];
+                emit(sink, new Operation(Kind.MOVE, RfidTag.format(tag), shelfOf[product], cart(shopper), null, 0));
+                shopper.add(tag, product);
+                made++;
+                if (onShelfCount[product] < Math.max(1, stockPerProduct / 4))
+                    made += restock(product, sink);
+            }
+        }
+
+        while (!shoppers.isEmpty())
+            checkOut(shoppers.get(shoppers.size() - 1), sink);
+        clean(sink);
+        emit(sink, new Operation(Kind.PURGE, null, null, null, null, 0));
+    }
+
+    private int checkOut(Shopper shopper, Consumer<Operation> sink) {
+        emit(sink, new Operation(Kind.CHECKOUT, null, cart(shopper), null, null, 0));
+        shoppers.remove(shopper);
+        freeCarts.add(shopper.cart);
+        return 1;
+    }
+
+    /**
+     * Cleans the store: misplaced items and the items in carts go back to
+     * their products' shelves.
+     */
+    private int clean(Consumer<Operation> sink) {
+        emit(sink, new Operation(Kind.CLEAN, null, null, null, null, 0));
+        for (long[] item : misplaced)
+            putOnShelf((int) item[1], item[0]);
+        misplaced.clear();
+        for (Shopper shopper : shoppers) {
+            for (int i = 0; i < shopper.size; i++)
+                putOnShelf(shopper.products[i], shopper.tags[i]);
+            shopper.size = 0;
+        }
+        sinceCleaning = 0;
+        return 1;
+    }
+
+    /**
+     * Fills a product's shelf with new items.
+     */
+    private int restock(int product, Consumer<Operation> sink) {
+        int added = 0;
+        while (onShelfCount[product] < stockPerProduct) {
+            long tag = newTag();
+            emit(sink, new Operation(Kind.INSERT, RfidTag.format(tag), null, shelfOf[product], nameOf[product],
+                    priceOf[product]));
+            putOnShelf(product, tag);
+            added++;
+        }
+        return added;
+    }
+
+    private void putOnShelf(int product, long tag) {
+        if (onShelfCount[product] == onShelf[product].length)
+            onShelf[product] = Arrays.copyOf(onShelf[product], onShelfCount[product] * 2);
+        onShelf[product][onShelfCount[product]++] = tag;
+    }
+
+    private void emit(Consumer<Operation> sink, Operation operation) {
+        sinceCleaning++;
+        sink.accept(operation);
+    }
+
+    /**
+     * Picks a product by popularity: the first rank whose cumulative
+     * probability reaches a uniform random number.
+     */
+    private int pickProduct() {
+        int rank = Arrays.binarySearch(popularity, random.nextDouble());
+        return Math.min(products - 1, rank < 0 ? -rank - 1 : rank);
+    }
+
+    /**
+     * Makes a new tag: distinct from every tag made before, and with a letter
+     * in it as checkRfidFormat requires.
+     */
+    private long newTag() {
+        long tag;
+        do {
+            tag = (++nextTag * TAG_STEP) & RfidTag.MAX_VALUE;
+        } while (!RfidTag.format(tag).chars().anyMatch(Character::isLetter));
+        return tag;
+    }
+
+    private static String cart(Shopper shopper) {
+        return LocationCodec.decode(LocationCodec.cart(shopper.cart));
+    }
+
+    /**
+     * Writes the opening stock and the days to standard output as commands.
+     *
+     * @param args the options of fromArgs, "--operations=N" per day (1000000)
+     *             and "--days=N" (1)
+     * @throws Exception if an item cannot be made or the output fails
+     */
+    public static void main(String[] args) throws Exception {
+        StoreDayWorkload workload = fromArgs(args);
+        int operations = Integer.parseInt(option(args, "--operations=", "1000000"));
+        int days = Integer.parseInt(option(args, "--days=", "1"));
+
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out), 1 << 16);
+        for (ItemInfo item : workload.openingStock())
+            out.write("INSERT " + item.getRfidTagNumber() + " " + item.getOriginalLocation() + " "
+                    + item.getItemPrice() + " " + item.getItemName() + "\n");
+        for (int d = 0; d < days; d++) {
+            workload.day(operations, operation -> {
+                try {
+                    out.write(operation.toCommand());
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        }
+        out.flush();
+    }
+}
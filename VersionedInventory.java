@@ -0,0 +1,791 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * The VersionedInventory class wraps an Inventory, usually an ItemList, so
+ * that long reports can read a consistent picture of the store while the
+ * registers keep changing it. A report opens a View: the store exactly as it
+ * was after some change, which stays the same however long the report takes
+ * and whatever changes are made meanwhile.
+ *
+ * Changes go to the wrapped inventory one at a time, under a lock. After each
+ * one, copies of the items of every RFID tag it touched are added, as a new
+ * version of that tag, to a concurrent skip list map from tag to its versions,
+ * newest first, and only then is the change's version number published. A
+ * View keeps the version number that was published when it was opened and
+ * sees, for each tag, the newest version not after it; a checkout, a clean or
+ * a purge is one change, so a View shows all of it or none of it. Views take
+ * no locks and copy nothing, so a change never waits for a report, and a
+ * report never waits for a change. A second map, from location and tag to the
+ * same versions, lets a View list one location without passing every item.
+ * The counts and values of shelf ranges are kept for the latest version in a
+ * ShelfValueIndex, the count and total of every cart in a CartSessions, and
+ * the number of misplaced items in a plain count. All three are updated as
+ * each tag's version is published, read without a lock, and read again if a
+ * change was published meanwhile.
+ *
+ * A search by name and the misplaced counts of each location are not kept
+ * per version: a copy of a NameIndex, or of the misplaced tallies of every
+ * location, would cost as much memory again for every change. They are asked
+ * of the wrapped inventory's own indexes while holding the lock instead, so
+ * they cost what they cost there rather than a pass over every item, but a
+ * change waits for them, and they show the latest version rather than a View.
+ * A search's items are copied under the lock and passed to the action once it
+ * is released.
+ *
+ * Checkouts, cleans and purges copy the items they visit as the wrapped
+ * inventory shows them, and pass the copies to the visitor only after the
+ * change is published and the lock released, so a slow visitor, like a
+ * client reading a long report, never holds up other changes.
+ *
+ * An older version of a tag is kept only while an open View may need it:
+ * after each change, and when a View is closed if no change is running, the
+ * versions older than the oldest open View are dropped. A View that is never
+ * closed keeps every version since it was opened.
+ *
+ * The other reads of the VersionedInventory itself run on a View of the
+ * latest version, so any number of threads may read and change it at once. The
+ * copies of the items take about as much memory again as the wrapped
+ * inventory.
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public class VersionedInventory implements Inventory {
+
+    private static final ItemInfo[] EMPTY_RUN = new ItemInfo[0];
+
+    private final Inventory inventory; // The items as they are now, changed under lock
+    private final ReentrantLock lock = new ReentrantLock(); // Serializes the changes
+    private final ConcurrentSkipListMap<Long, TagVersions> byTag = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<Long, TagVersions> byLocation = new ConcurrentSkipListMap<>(); // See key
+    private final ArrayDeque<Retired> retired = new ArrayDeque<>(); // Tags with older versions, by version
+    private final ShelfValueIndex shelves = new ShelfValueIndex(); // Shelf ranges at the latest version
+    private final CartSessions carts = new CartSessions(); // Cart tallies at the latest version
+    private volatile int misplaced; // Misplaced items at the latest version
+    private volatile long tallyStamp; // Odd while a change is updating the tallies
+    private final TreeMap<Long, Integer> openViews = new TreeMap<>(); // Version -> Views open on it
+    private volatile Committed committed; // The latest published version
+    private volatile long retainedVersions; // Older versions still kept
+
+    /**
+     * One published version of the whole store: its number and how many items
+     * it holds.
+     */
+    private static class Committed {
+
+        final long number;
+        final int size;
+
+        Committed(long number, int size) {
+            this.number = number;
+            this.size = size;
+        }
+    }
+
+    /**
+     * The items of one tag as they were from one version on. The items are
+     * copies that are never changed.
+     */
+    private static class Version {
+
+        final long number;
+        final ItemInfo[] run;
+        volatile Version older; // Cut off once no View needs it
+
+        Version(long number, ItemInfo[] run, Version older) {
+            this.number = number;
+            this.run = run;
+            this.older = older;
+        }
+    }
+
+    /**
+     * The versions of one tag, newest first.
+     */
+    private static class TagVersions {
+
+        final long tag;
+        volatile Version newest;
+
+        TagVersions(long tag) {
+            this.tag = tag;
+        }
+
+        /**
+         * Returns the items of the tag at the given version, or an empty run
+         * if it had none.
+         */
+        ItemInfo[] at(long number) {
+            for (Version version = newest; version != null; version = version.older) {
+                if (version.number <= number)
+                    return version.run;
+            }
+            return EMPTY_RUN;
+        }
+    }
+
+    /**
+     * A tag that got a new version while it had an older one, which can be
+     * dropped once no View is open on a version before this one.
+     */
+    private static class Retired {
+
+        final TagVersions versions;
+        final long number;
+
+        Retired(TagVersions versions, long number) {
+            this.versions = versions;
+            this.number = number;
+        }
+    }
+
+    /**
+     * Constructs a VersionedInventory over the given inventory, copying the
+     * items it holds already as the first version.
+     * Analysis of Complexity:
+     * O(n).
+     *
+     * @param inventory the inventory to wrap; it must not be changed other
+     *                  than through this VersionedInventory
+     */
+    public VersionedInventory(Inventory inventory) {
+        this.inventory = inventory;
+        ArrayList<ItemInfo> run = new ArrayList<>();
+        long[] tag = { -1 };
+        inventory.forEachItem(item -> {
+            if (item.getRfidTag() != tag[0] && !run.isEmpty()) {
+                publish(tag[0], run.toArray(EMPTY_RUN), 0);
+                run.clear();
+            }
+            tag[0] = item.getRfidTag();
+            run.add(new ItemInfo(item));
+        });
+        if (!run.isEmpty())
+            publish(tag[0], run.toArray(EMPTY_RUN), 0);
+        committed = new Committed(0, inventory.listLength());
+    }
+
+    /**
+     * The key of a tag in the location map: the location code above the 36
+     * bits of the tag, so the tags at one location are one range of keys, in
+     * tag order.
+     */
+    private static long locationKey(int code, long tag) {
+        return ((long) code << 36) | tag;
+    }
+
+    // Versions
+
+    /**
+     * Adds a version of a tag, and moves its items in the shelf, cart and
+     * misplaced tallies from the previous version to this one. Called holding
+     * the lock, or from the constructor.
+     */
+    private void publish(long tag, ItemInfo[] run, long number) {
+        TagVersions versions = byTag.get(tag);
+        if (versions == null) {
+            if (run.length == 0)
+                return;
+            versions = new TagVersions(tag);
+            byTag.put(tag, versions);
+        }
+        Version previous = versions.newest;
+        int misplacedNow = misplaced;
+        if (previous != null) {
+            for (ItemInfo item : previous.run) {
+                shelves.leave(item.getCurrentLocationCode(), item.getPriceCents());
+                carts.leave(item.getCurrentLocationCode(), item.getPriceCents());
+                if (MisplacedIndex.isMisplaced(item))
+                    misplacedNow--;
+            }
+        }
+        for (ItemInfo item : run) {
+            shelves.enter(item.getCurrentLocationCode(), item.getPriceCents());
+            carts.enter(item.getCurrentLocationCode(), item.getPriceCents());
+            if (MisplacedIndex.isMisplaced(item))
+                misplacedNow++;
+        }
+        misplaced = misplacedNow;
+        versions.newest = new Version(number, run, previous);
+        for (ItemInfo item : run)
+            byLocation.putIfAbsent(locationKey(item.getCurrentLocationCode(), tag), versions);
+        if (previous != null) {
+            retired.addLast(new Retired(versions, number));
+            retainedVersions++;
+        }
+    }
+
+    /**
+     * Publishes the change just made to the given tags as the next version,
+     * then drops the versions no View needs. Called holding the lock.
+     */
+    private void commit(Iterable<Long> tags) {
+        long number = committed.number + 1;
+        tallyStamp++; // Tally readers wait for the change
+        try {
+            for (long tag : tags) {
+                ArrayList<ItemInfo> run = new ArrayList<>();
+                inventory.forEachWithRFID(RfidTag.format(tag), item -> run.add(new ItemInfo(item)));
+                publish(tag, run.toArray(EMPTY_RUN), number);
+            }
+            committed = new Committed(number, inventory.listLength());
+        } finally {
+            tallyStamp++;
+        }
+        reclaim();
+    }
+
+    /**
+     * Makes a change that passes the items it changes to a visitor. The lock
+     * is held while the change is made and published; the items are copied as
+     * the change shows them, before it changes them, and passed to the visitor
+     * once the lock is released.
+     *
+     * @param change  runs the change, passing its items to the given visitor
+     * @param visitor the action to run for each item, after the change
+     * @return what the change returned
+     */
+    private <T> T visitAfter(Function<Consumer<ItemInfo>, T> change, Consumer<ItemInfo> visitor) {
+        ArrayList<ItemInfo> visited = new ArrayList<>();
+        HashSet<Long> tags = new HashSet<>();
+        T result;
+        lock.lock();
+        try {
+            result = change.apply(item -> {
+                tags.add(item.getRfidTag());
+                visited.add(new ItemInfo(item));
+            });
+        } finally {
+            if (!tags.isEmpty())
+                commit(tags);
+            lock.unlock();
+        }
+        for (ItemInfo item : visited)
+            visitor.accept(item);
+        return result;
+    }
+
+    /**
+     * Drops every version older than the one each tag had at the oldest open
+     * View. Called holding the lock.
+     */
+    private void reclaim() {
+        long oldest;
+        synchronized (openViews) {
+            oldest = openViews.isEmpty() ? committed.number : openViews.firstKey();
+        }
+        // A View opened from now on sees a version at least as new as oldest
+        while (!retired.isEmpty() && retired.peekFirst().number <= oldest) {
+            TagVersions versions = retired.removeFirst().versions;
+            Version kept = versions.newest;
+            while (kept.number > oldest)
+                kept = kept.older;
+            for (Version v = kept.older; v != null; v = v.older) {
+                retainedVersions--;
+                for (ItemInfo item : v.run) {
+                    int code = item.getCurrentLocationCode();
+                    if (!holds(versions.newest, kept, code))
+                        byLocation.remove(locationKey(code, versions.tag), versions);
+                }
+            }
+            kept.older = null;
+            if (kept == versions.newest && kept.run.length == 0)
+                byTag.remove(versions.tag, versions);
+        }
+    }
+
+    /**
+     * Checks whether any version from newest down to oldest has an item at the
+     * given location. A tag seldom has more than a few items, so the versions
+     * kept are scanned instead of collecting their locations.
+     */
+    private static boolean holds(Version newest, Version oldest, int code) {
+        for (Version v = newest; v != oldest.older; v = v.older) {
+            for (ItemInfo item : v.run) {
+                if (item.getCurrentLocationCode() == code)
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Opens a View of the store as it is after the latest change. Close it
+     * when the report is done, so the versions it keeps can be dropped.
+     *
+     * @return the View
+     */
+    public View openView() {
+        synchronized (openViews) {
+            Committed version = committed;
+            openViews.merge(version.number, 1, Integer::sum);
+            return new View(version);
+        }
+    }
+
+    /**
+     * Gets the number of the latest version: the number of changes published
+     * since the VersionedInventory was made.
+     *
+     * @return the version number
+     */
+    public long getVersion() {
+        return committed.number;
+    }
+
+    /**
+     * Gets the number of older versions of tags still kept for open Views.
+     *
+     * @return the number of versions
+     */
+    public long getRetainedVersions() {
+        return retainedVersions;
+    }
+
+    /**
+     * Gets the number of Views open now.
+     *
+     * @return the number of Views
+     */
+    public int getOpenViews() {
+        synchronized (openViews) {
+            int count = 0;
+            for (int views : openViews.values())
+                count += views;
+            return count;
+        }
+    }
+
+    private void closeView(long number) {
+        synchronized (openViews) {
+            if (openViews.merge(number, -1, Integer::sum) == 0)
+                openViews.remove(number);
+        }
+        if (lock.tryLock()) { // Never wait for a change
+            try {
+                reclaim();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // Changes
+
+    @Override
+    public void insertInfo(String name, String rfidTag, double price, String initPosition) throws Exception {
+        lock.lock();
+        try {
+            inventory.insertInfo(name, rfidTag, price, initPosition);
+            commit(List.of(RfidTag.parse(rfidTag)));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void bulkLoad(List<ItemInfo> items) {
+        HashSet<Long> tags = new HashSet<>();
+        for (ItemInfo item : items)
+            tags.add(item.getRfidTag());
+        lock.lock();
+        try {
+            inventory.bulkLoad(items);
+            commit(tags);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean moveItem(String rfidTag, String source, String dest) throws Exception {
+        lock.lock();
+        try {
+            boolean moved = inventory.moveItem(rfidTag, source, dest);
+            if (moved)
+                commit(List.of(RfidTag.parse(rfidTag)));
+            return moved;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean updateLocation(String rfidTag, String location) throws Exception {
+        lock.lock();
+        try {
+            boolean moved = inventory.updateLocation(rfidTag, location);
+            if (moved)
+                commit(List.of(RfidTag.parse(rfidTag)));
+            return moved;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long checkOut(String cartNumber, Consumer<ItemInfo> visitor) {
+        return visitAfter(items -> inventory.checkOut(cartNumber, items), visitor);
+    }
+
+    @Override
+    public void cleanStore(Consumer<ItemInfo> visitor) {
+        visitAfter(items -> {
+            inventory.cleanStore(items);
+            return null;
+        }, visitor);
+    }
+
+    @Override
+    public void removeAllPurchased(Consumer<ItemInfo> visitor) {
+        visitAfter(items -> {
+            inventory.removeAllPurchased(items);
+            return null;
+        }, visitor);
+    }
+
+    @Override
+    public int removePurchased(int maxItems, Consumer<ItemInfo> visitor) {
+        return visitAfter(items -> inventory.removePurchased(maxItems, items), visitor);
+    }
+
+    // Reads, on a View of the latest version, the tallies or the wrapped inventory
+
+    @Override
+    public void forEachItem(Consumer<ItemInfo> action) {
+        try (View view = openView()) {
+            view.forEachItem(action);
+        }
+    }
+
+    @Override
+    public void forEachAt(String location, Consumer<ItemInfo> action) {
+        try (View view = openView()) {
+            view.forEachAt(location, action);
+        }
+    }
+
+    @Override
+    public boolean forEachWithRFID(String rfidTag, Consumer<ItemInfo> action) {
+        try (View view = openView()) {
+            return view.forEachWithRFID(rfidTag, action);
+        }
+    }
+
+    @Override
+    public int forEachInTagRange(String fromTag, String toTag, Consumer<ItemInfo> action) {
+        try (View view = openView()) {
+            return view.forEachInTagRange(fromTag, toTag, action);
+        }
+    }
+
+    /**
+     * Passes the items whose names match a query to the action, up to a
+     * limit. The search runs on the wrapped inventory's name index while
+     * holding the lock, so changes wait for it; the items found are copied and
+     * passed to the action once the lock is released.
+     * Analysis of Complexity:
+     * what the wrapped inventory's search costs, plus O(k) for the k items
+     * passed.
+     */
+    @Override
+    public int searchByName(String query, int maxEdits, int limit, Consumer<ItemInfo> action) {
+        ArrayList<ItemInfo> found = new ArrayList<>();
+        lock.lock();
+        try {
+            inventory.searchByName(query, maxEdits, limit, item -> found.add(new ItemInfo(item)));
+        } finally {
+            lock.unlock();
+        }
+        for (ItemInfo item : found)
+            action.accept(item);
+        return found.size();
+    }
+
+    /**
+     * Returns the number of misplaced items at the latest version, from the
+     * misplaced count, without locking.
+     * Analysis of Complexity:
+     * O(1), unless changes keep being published during the lookup.
+     */
+    @Override
+    public int misplacedCount() {
+        return (int) latest(() -> misplaced, View::misplacedCount);
+    }
+
+    /**
+     * Returns how many misplaced items sit at each location, from the wrapped
+     * inventory's misplaced index, holding the lock so no change runs
+     * meanwhile.
+     * Analysis of Complexity:
+     * what the wrapped inventory's count costs, O(k log k) for an ItemList
+     * with misplaced items at k locations.
+     */
+    @Override
+    public Map<String, Integer> misplacedByLocation() {
+        lock.lock();
+        try {
+            return inventory.misplacedByLocation();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean containsRFID(String rfidTag) {
+        try (View view = openView()) {
+            return view.containsRFID(rfidTag);
+        }
+    }
+
+    @Override
+    public int listLength() {
+        return committed.size;
+    }
+
+    /**
+     * Returns the number of items in a cart at the latest version, from the
+     * cart tallies, without locking.
+     * Analysis of Complexity:
+     * O(1), unless changes keep being published during the lookup.
+     */
+    @Override
+    public int cartItemCount(String cartNumber) {
+        int code = LocationCodec.encode(cartNumber);
+        return (int) latest(() -> carts.countIn(code), view -> view.cartItemCount(cartNumber));
+    }
+
+    /**
+     * Returns the total price of the items in a cart at the latest version,
+     * from the cart tallies, without locking.
+     * Analysis of Complexity:
+     * O(1), unless changes keep being published during the lookup.
+     */
+    @Override
+    public long cartTotalCents(String cartNumber) {
+        int code = LocationCodec.encode(cartNumber);
+        return latest(() -> carts.totalCentsIn(code), view -> view.cartTotalCents(cartNumber));
+    }
+
+    /**
+     * Returns the number of items on a range of shelves at the latest version,
+     * from the shelf tallies, without locking.
+     * Analysis of Complexity:
+     * O(log S), unless changes keep being published during the lookup.
+     */
+    @Override
+    public long shelfItemCount(String fromShelf, String toShelf) {
+        int from = LocationCodec.encode(fromShelf);
+        int to = LocationCodec.encode(toShelf);
+        return latest(() -> shelves.countIn(from, to), view -> view.shelfItemCount(fromShelf, toShelf));
+    }
+
+    /**
+     * Returns the stock value of a range of shelves at the latest version,
+     * from the shelf tallies, without locking.
+     * Analysis of Complexity:
+     * O(log S), unless changes keep being published during the lookup.
+     */
+    @Override
+    public long shelfValueCents(String fromShelf, String toShelf) {
+        int from = LocationCodec.encode(fromShelf);
+        int to = LocationCodec.encode(toShelf);
+        return latest(() -> shelves.centsIn(from, to), view -> view.shelfValueCents(fromShelf, toShelf));
+    }
+
+    /**
+     * Reads the tallies between changes: if a change was being published
+     * before or during the lookup, it is made again. After a few tries the
+     * answer is worked out on a View instead, which a change never holds up.
+     *
+     * @param tally    reads the tallies
+     * @param fallback works the same answer out on a View
+     * @return the answer at the latest version
+     */
+    private long latest(LongSupplier tally, ToLongFunction<View> fallback) {
+        for (int attempt = 0; attempt < 16; attempt++) {
+            long stamp = tallyStamp;
+            if ((stamp & 1) == 0) {
+                long answer = tally.getAsLong();
+                if (tallyStamp == stamp)
+                    return answer;
+            }
+            Thread.yield();
+        }
+        try (View view = openView()) {
+            return fallback.applyAsLong(view);
+        }
+    }
+
+    /**
+     * The View class is a read-only Inventory showing the store as it was after
+     * one version. Its items are in the same order the wrapped inventory gives
+     * them. Any number of threads may read one View; changing it throws
+     * UnsupportedOperationException. The whole-store reads, like forEachItem,
+     * misplacedCount and the Inventory defaults built on them, are consistent
+     * over every item.
+     */
+    public class View implements Inventory, AutoCloseable {
+
+        private final long number; // The version shown
+        private final int size; // Its number of items
+        private boolean closed;
+
+        private View(Committed version) {
+            this.number = version.number;
+            this.size = version.size;
+        }
+
+        /**
+         * Gets the number of the version the View shows.
+         *
+         * @return the version number
+         */
+        public long getVersion() {
+            return number;
+        }
+
+        private UnsupportedOperationException readOnly() {
+            return new UnsupportedOperationException("A view is read-only; make changes on the inventory");
+        }
+
+        @Override
+        public void insertInfo(String name, String rfidTag, double price, String initPosition) {
+            throw readOnly();
+        }
+
+        @Override
+        public void bulkLoad(List<ItemInfo> items) {
+            throw readOnly();
+        }
+
+        @Override
+        public boolean moveItem(String rfidTag, String source, String dest) {
+            throw readOnly();
+        }
+
+        @Override
+        public boolean updateLocation(String rfidTag, String location) {
+            throw readOnly();
+        }
+
+        @Override
+        public long checkOut(String cartNumber, Consumer<ItemInfo> visitor) {
+            throw readOnly();
+        }
+
+        @Override
+        public void cleanStore(Consumer<ItemInfo> visitor) {
+            throw readOnly();
+        }
+
+        @Override
+        public int removePurchased(int maxItems, Consumer<ItemInfo> visitor) {
+            throw readOnly();
+        }
+
+        /**
+         * Passes every item to the action, in RFID tag number order.
+         * Analysis of Complexity:
+         * O(n + v), where v is the number of versions newer than the View
+         * passed on the way.
+         *
+         * @param action the action to run for each item
+         */
+        @Override
+        public void forEachItem(Consumer<ItemInfo> action) {
+            for (TagVersions versions : byTag.values()) {
+                for (ItemInfo item : versions.at(number))
+                    action.accept(item);
+            }
+        }
+
+        /**
+         * Passes every item at the given location to the action, in RFID tag
+         * number order, passing only the tags that have been there since the
+         * oldest open View.
+         *
+         * @param location the location to search for items
+         * @param action   the action to run for each item
+         */
+        @Override
+        public void forEachAt(String location, Consumer<ItemInfo> action) {
+            int code = LocationCodec.encode(location);
+            if (code == LocationCodec.INVALID)
+                return;
+            for (TagVersions versions : byLocation.subMap(locationKey(code, 0), locationKey(code + 1, 0)).values()) {
+                for (ItemInfo item : versions.at(number)) {
+                    if (item.getCurrentLocationCode() == code)
+                        action.accept(item);
+                }
+            }
+        }
+
+        @Override
+        public boolean forEachWithRFID(String rfidTag, Consumer<ItemInfo> action) {
+            long tag = RfidTag.parse(rfidTag);
+            if (tag == RfidTag.INVALID)
+                return false;
+            TagVersions versions = byTag.get(tag);
+            ItemInfo[] run = versions == null ? EMPTY_RUN : versions.at(number);
+            for (ItemInfo item : run)
+                action.accept(item);
+            return run.length > 0;
+        }
+
+        @Override
+        public int forEachInTagRange(String fromTag, String toTag, Consumer<ItemInfo> action) {
+            long from = RfidTag.lowestWithPrefix(fromTag);
+            long to = RfidTag.highestWithPrefix(toTag);
+            int visited = 0;
+            if (from == RfidTag.INVALID || to == RfidTag.INVALID || from > to)
+                return visited;
+            ConcurrentNavigableMap<Long, TagVersions> tags = byTag.subMap(from, true, to, true);
+            for (TagVersions versions : tags.values()) {
+                for (ItemInfo item : versions.at(number)) {
+                    action.accept(item);
+                    visited++;
+                }
+            }
+            return visited;
+        }
+
+        @Override
+        public boolean containsRFID(String rfidTag) {
+            return forEachWithRFID(rfidTag, item -> {
+            });
+        }
+
+        @Override
+        public int listLength() {
+            return size;
+        }
+
+        /**
+         * Closes the View, so the versions only it needed can be dropped.
+         * Closing it again does nothing.
+         */
+        @Override
+        public void close() {
+            synchronized (this) {
+                if (closed)
+                    return;
+                closed = true;
+            }
+            closeView(number);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+import java.io.BufferedReader;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The WorkloadReplay class replays store days on an Inventory at a target
+ * rate and reports the throughput and the latency of each kind of operation:
+ * the 50th, 99th and 99.9th percentiles and the largest.
+ *
+ * The days are made by StoreDayWorkload, from its options, or read from a
+ * file it wrote; the INSERT commands before the first other command are the
+ * opening stock. The opening stock is bulk loaded and not timed. The
+ * operations are then run one at a time, in order, each at its own start time
+ * spaced evenly at the target rate. Latency is measured from that start time,
+ * not from when the operation actually began, so an operation held up behind
+ * a slow one, such as a CLEAN or the PURGE, counts the time it waited, as a
+ * request would at a real register. Without a rate, the operations run back to
+ * back and latency is the time each takes.
+ *
+ * Usage: java WorkloadReplay [--offheap|--concurrent] [--shards=N] [--rate=OPS]
+ * [--file=FILE | StoreDayWorkload options, --operations=N, --days=N]
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public class WorkloadReplay {
+
+    private static final long SPIN_NANOS = 50_000; // Shorter waits spin rather than park
+
+    /**
+     * Loads the opening stock, replays the days and prints the report.
+     *
+     * @param args the options
+     * @throws Exception if the workload cannot be made or read, or the
+     *                   inventory rejects an operation
+     */
+    public static void main(String[] args) throws Exception {
+        Inventory inventory = StorageEngine.fromArgs(args).create(StorageEngine.shardsFromArgs(args));
+        double rate = Double.parseDouble(StoreDayWorkload.option(args, "--rate=", "0"));
+        String file = StoreDayWorkload.option(args, "--file=", null);
+
+        List<ItemInfo> opening = new ArrayList<>();
+        List<StoreDayWorkload.Operation> operations = new ArrayList<>();
+        if (file != null) {
+            try (BufferedReader reader = Files.newBufferedReader(Paths.get(file))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank() || line.startsWith("#"))
+                        continue;
+                    if (operations.isEmpty() && line.startsWith("INSERT "))
+                        opening.add(CommandDispatcher.parseInsert(CommandDispatcher.argumentsOf(line)));
+                    else
+                        operations.add(StoreDayWorkload.Operation.parse(line));
+                }
+            }
+        } else {
+            StoreDayWorkload workload = StoreDayWorkload.fromArgs(args);
+            int perDay = Integer.parseInt(StoreDayWorkload.option(args, "--operations=", "1000000"));
+            int days = Integer.parseInt(StoreDayWorkload.option(args, "--days=", "1"));
+            opening = workload.openingStock();
+            for (int d = 0; d < days; d++)
+                workload.day(perDay, operations::add);
+        }
+        inventory.bulkLoad(opening);
+        int openingItems = inventory.listLength();
+        opening = null;
+
+        EnumMap<StoreDayWorkload.Kind, LatencyHistogram> latencies = new EnumMap<>(StoreDayWorkload.Kind.class);
+        for (StoreDayWorkload.Kind kind : StoreDayWorkload.Kind.values())
+            latencies.put(kind, new LatencyHistogram());
+        long interval = rate > 0 ? (long) (1e9 / rate) : 0;
+        long missed = 0;
+
+        long start = System.nanoTime();
+        for (int i = 0; i < operations.size(); i++) {
+            StoreDayWorkload.Operation operation = operations.get(i);
+            long due = start + i * interval;
+            long began = waitUntil(due);
+            if (!operation.runOn(inventory))
+                missed++;
+            long done = System.nanoTime();
+            latencies.get(operation.getKind()).record(done - (interval > 0 ? due : began));
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.println(String.format("%,d items at opening, %,d operations in %.2f s: %,.0f ops/s%s",
+                openingItems, operations.size(), seconds, operations.size() / seconds,
+                rate > 0 ? String.format(" (target %,.0f)", rate) : ""));
+        if (missed > 0)
+            System.out.println(missed + " MOVE(s) found no item at the source");
+        System.out.println(String.format("%-9s %11s %11s %10s %10s %10s %10s", "Operation", "Count", "ops/s",
+                "p50 us", "p99 us", "p99.9 us", "max us"));
+        LatencyHistogram all = new LatencyHistogram();
+        for (Map.Entry<StoreDayWorkload.Kind, LatencyHistogram> entry : latencies.entrySet()) {
+            all.add(entry.getValue());
+            print(entry.getKey().name(), entry.getValue(), seconds);
+        }
+        print("ALL", all, seconds);
+    }
+
+    /**
+     * Waits until the given time, parking for long waits and spinning for
+     * the last part.
+     *
+     * @param due the System.nanoTime to wait for
+     * @return the time the wait ended
+     */
+    static long waitUntil(long due) {
+        long now = System.nanoTime();
+        while (now < due) {
+            if (due - now > SPIN_NANOS)
+                LockSupport.parkNanos(due - now - SPIN_NANOS);
+            else
+                Thread.onSpinWait();
+            now = System.nanoTime();
+        }
+        return now;
+    }
+
+    private static void print(String name, LatencyHistogram latency, double seconds) {
+        if (latency.getCount() == 0)
+            return;
+        System.out.println(String.format("%-9s %,11d %,11.0f %10.1f %10.1f %10.1f %10.1f", name, latency.getCount(),
+                latency.getCount() / seconds, latency.percentile(0.50) / 1e3, latency.percentile(0.99) / 1e3,
+                latency.percentile(0.999) / 1e3, latency.getMax() / 1e3));
+    }
+}
@@ -0,0 +1,85 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The ConcurrentThroughput class measures how a shared ConcurrentItemList
+ * scales with the number of threads on a mixed workload: 90% RFID lookups and
+ * 10% moves between a shelf and a cart, on random items.
+ *
+ * Usage: java -cp benchmarks.jar ConcurrentThroughput [items] [seconds per run] [max threads]
+ *
+ * The thread count doubles from 1 up to the maximum, which defaults to the
+ * number of processors.
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public class ConcurrentThroughput {
+
+    /**
+     * Loads the items and runs the workload at each thread count, printing the
+     * rate.
+     *
+     * @param args the item count, run length and maximum thread count
+     * @throws Exception if a worker fails
+     */
+    public static void main(String[] args) throws Exception {
+        int items = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        double seconds = args.length > 1 ? Double.parseDouble(args[1]) : 2;
+        int maxThreads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        ConcurrentItemList inventory = new ConcurrentItemList();
+        String[] tags = new String[items];
+        ArrayList<ItemInfo> batch = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            ItemInfo info = new ItemInfo();
+            info.setItemName("Item" + i);
+            info.setItemPrice(1 + i % 100);
+            info.setRfidTag(RfidTag.MAX_VALUE - 7L * i);
+            info.setOriginalLocationCode(LocationCodec.shelf(i % 1000));
+            info.setCurrentLocationCode(LocationCodec.shelf(i % 1000));
+            batch.add(info);
+            tags[i] = info.getRfidTagNumber();
+        }
+        inventory.bulkLoad(batch);
+
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            LongAdder operations = new LongAdder();
+            long deadline = System.nanoTime() + (long) (seconds * 1e9);
+            List<Thread> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                Thread worker = new Thread(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    long done = 0;
+                    try {
+                        while ((done & 1023) != 0 || System.nanoTime() < deadline) {
+                            int i = random.nextInt(items);
+                            if (random.nextInt(10) == 0) {
+                                String shelf = LocationCodec.decode(LocationCodec.shelf(i % 1000));
+                                String cart = LocationCodec.decode(LocationCodec.cart(i % 1000));
+                                if (!inventory.moveItem(tags[i], shelf, cart))
+                                    inventory.moveItem(tags[i], cart, shelf);
+                            } else {
+                                inventory.forEachWithRFID(tags[i], info -> {
+                                });
+                            }
+                            done++;
+                        }
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                    operations.add(done);
+                });
+                workers.add(worker);
+                worker.start();
+            }
+            for (Thread worker : workers)
+                worker.join();
+
+            System.out.println(String.format("%2d thread(s): %,.0f ops/s", threads, operations.sum() / seconds));
+        }
+    }
+}
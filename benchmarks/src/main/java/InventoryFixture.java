@@ -0,0 +1,142 @@
+import bench.StoreFixture;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The InventoryFixture class fills an Inventory for the benchmarks and runs
+ * their operations on it; see StoreFixture. Item i has the RFID tag 16 * i
+ * and lies on shelf i % SHELVES, so tags that are not multiples of 16 are free
+ * for new items among the old ones.
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public class InventoryFixture implements StoreFixture {
+
+    private static final String[] NAMES = { "Milk", "Eggs", "Bread", "Coffee Beans", "Paper Towels",
+            "Dish Soap", "Orange Juice", "Cereal", "Olive Oil", "Batteries" };
+    private static final String NEW_SHELF = "s99998"; // Where inserted items go
+    private static final String WRONG_SHELF = "s99999"; // Where moved items go
+    private static final String CART = "c001";
+
+    private final Inventory inventory;
+    private final int items; // Items the store was filled with
+    private final Random random = new Random(214);
+    private final List<String> inserted = new ArrayList<>(); // Tags inserted and not yet discarded
+    private final String[] moveTags = new String[BATCH];
+    private final String[] moveShelves = new String[BATCH];
+    private long nextSequential; // The next tag for a sequential insert
+
+    /**
+     * Constructs a fixture holding the given number of items.
+     *
+     * @param engine the StorageEngine name
+     * @param items  the number of items to fill it with
+     * @param shards the number of shards to split them over
+     * @throws Exception if an item cannot be made
+     */
+    public InventoryFixture(String engine, int items, int shards) throws Exception {
+        this.inventory = StorageEngine.valueOf(engine).create(shards);
+        this.items = items;
+        List<ItemInfo> load = new ArrayList<>(items);
+        for (int i = 0; i < items; i++)
+            load.add(new ItemInfo(NAMES[i % NAMES.length], 1 + i % 50, tag(16L * i), shelf(i)));
+        inventory.bulkLoad(load);
+        nextSequential = 16L * items;
+    }
+
+    private static String tag(long value) {
+        return String.format("A%08X", value);
+    }
+
+    private static String shelf(int item) {
+        return String.format("s%05d", item % SHELVES);
+    }
+
+    @Override
+    public int size() {
+        return inventory.listLength();
+    }
+
+    @Override
+    public void insertBatch(boolean sequential) throws Exception {
+        for (int i = 0; i < BATCH; i++) {
+            String tag = tag(sequential ? nextSequential++ : 16L * random.nextInt(Math.max(1, items)) + 1
+                    + random.nextInt(15));
+            inventory.insertInfo("Gift Card", tag, 5, NEW_SHELF);
+            inserted.add(tag);
+        }
+    }
+
+    @Override
+    public void cartInserted() throws Exception {
+        for (String tag : inserted)
+            inventory.moveItem(tag, NEW_SHELF, CART);
+        inserted.clear();
+    }
+
+    @Override
+    public void discardInserted() throws Exception {
+        cartInserted();
+        inventory.checkOut(CART, item -> {
+        });
+        inventory.removeAllPurchased(item -> {
+        });
+    }
+
+    @Override
+    public void pickMoves() {
+        for (int i = 0; i < BATCH; i++) {
+            int item = random.nextInt(items);
+            moveTags[i] = tag(16L * item);
+            moveShelves[i] = shelf(item);
+        }
+    }
+
+    @Override
+    public void moveBatch() throws Exception {
+        for (int i = 0; i < BATCH; i++)
+            inventory.moveItem(moveTags[i], moveShelves[i], WRONG_SHELF);
+    }
+
+    @Override
+    public void returnMoves() throws Exception {
+        for (int i = 0; i < BATCH; i++)
+            inventory.moveItem(moveTags[i], WRONG_SHELF, moveShelves[i]);
+    }
+
+    @Override
+    public long checkOut() {
+        return inventory.checkOut(CART, item -> {
+        });
+    }
+
+    @Override
+    public void cleanStore() {
+        inventory.cleanStore(item -> {
+        });
+    }
+
+    @Override
+    public int removeAllPurchased() {
+        return inventory.removePurchased(Integer.MAX_VALUE, item -> {
+        });
+    }
+
+    @Override
+    public void printShelf() {
+        inventory.printByLocation(shelf(0));
+    }
+
+    @Override
+    public boolean checkRfidFormat(String rfid) {
+        return ItemInfo.checkRfidFormat(rfid);
+    }
+
+    @Override
+    public boolean checkLocationFormat(String location) {
+        return ItemInfo.checkLocationFormat(location);
+    }
+}
@@ -0,0 +1,96 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+/**
+ * The JournalThroughput class measures how many moves per second a
+ * JournaledInventory over an OperationJournal can take, with several threads
+ * making them at once, both with every record forced to disk and without.
+ *
+ * Usage: java -cp benchmarks.jar JournalThroughput [operations] [threads] [durable|nosync]
+ *
+ * The moves go through JournaledInventory, so they are applied to an ItemList
+ * and recorded under its lock, and wait for the disk after it, as a
+ * DepartmentStore's do. Each thread moves its own items between a shelf and a
+ * cart and back, so every move succeeds and is journaled.
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public class JournalThroughput {
+
+    private static final int ITEMS_PER_THREAD = 1000;
+
+    /**
+     * Makes the requested number of moves from the requested number of
+     * threads on an inventory journaled to a temporary file, and prints the
+     * rate.
+     *
+     * @param args the operation count, thread count and sync mode
+     * @throws Exception if the journal cannot be written
+     */
+    public static void main(String[] args) throws Exception {
+        int operations = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        boolean durable = args.length <= 2 || !args[2].equalsIgnoreCase("nosync");
+
+        ItemList items = new ItemList();
+        String[] tags = new String[threads * ITEMS_PER_THREAD];
+        ArrayList<ItemInfo> batch = new ArrayList<>(tags.length);
+        for (int i = 0; i < tags.length; i++) {
+            ItemInfo info = new ItemInfo();
+            info.setItemName("Item" + i);
+            info.setItemPrice(1 + i % 100);
+            info.setRfidTag(RfidTag.MAX_VALUE - 7L * i);
+            info.setOriginalLocationCode(LocationCodec.shelf(i % 1000));
+            info.setCurrentLocationCode(LocationCodec.shelf(i % 1000));
+            batch.add(info);
+            tags[i] = info.getRfidTagNumber();
+        }
+        items.bulkLoad(batch);
+
+        Path file = Files.createTempFile("journal", ".log");
+        try {
+            JournaledInventory inventory = new JournaledInventory(items, OperationJournal.open(file, durable, 0));
+            ArrayList<Thread> workers = new ArrayList<>();
+
+            long start = System.nanoTime();
+            for (int t = 0; t < threads; t++) {
+                int first = t * ITEMS_PER_THREAD;
+                int moves = operations / threads + (t < operations % threads ? 1 : 0);
+                Thread worker = new Thread(() -> {
+                    try {
+                        for (int j = 0; j < moves; j++) {
+                            int i = first + j % ITEMS_PER_THREAD;
+                            String shelf = LocationCodec.decode(LocationCodec.shelf(i % 1000));
+                            String cart = LocationCodec.decode(LocationCodec.cart(i % 1000));
+                            boolean toCart = j / ITEMS_PER_THREAD % 2 == 0;
+                            if (!inventory.moveItem(tags[i], toCart ? shelf : cart, toCart ? cart : shelf))
+                                throw new IllegalStateException("Item " + tags[i] + " was not moved");
+                        }
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+                workers.add(worker);
+                worker.start();
+            }
+            for (Thread worker : workers)
+                worker.join();
+            inventory.close();
+            long elapsed = System.nanoTime() - start;
+
+            System.out.println(String.format("%d operations, %d thread(s), %s: %.0f ops/s, %d bytes",
+                    operations, threads, durable ? "durable" : "nosync",
+                    operations / (elapsed / 1e9), Files.size(file)));
+        } finally {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                // Left for the system to clean up
+            }
+        }
+    }
+}
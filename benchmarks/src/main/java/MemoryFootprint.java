@@ -0,0 +1,102 @@
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+/**
+ * The MemoryFootprint class measures how many heap and native bytes each item
+ * costs in a given StorageEngine. It fills an empty Inventory with generated
+ * items and compares the used heap, after garbage collection, and the direct
+ * buffer pool before and after.
+ *
+ * Usage: java -cp benchmarks.jar MemoryFootprint [linked|offheap] [item count]
+ * For example "java -Xmx8g -cp benchmarks.jar MemoryFootprint linked 10000000".
+ * The heap has to be large enough for the linked node layout at the chosen
+ * size.
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public class MemoryFootprint {
+
+    private static final String[] NAMES = { "Milk", "Eggs", "Bread", "Coffee Beans", "Paper Towels",
+            "Dish Soap", "Orange Juice", "Cereal", "Olive Oil", "Batteries" };
+
+    /**
+     * Runs the measurement and prints the results.
+     *
+     * @param args the storage engine ("linked" or "offheap") and the item count
+     * @throws Exception if an item cannot be inserted
+     */
+    public static void main(String[] args) throws Exception {
+        StorageEngine engine = args.length > 0 && args[0].equalsIgnoreCase("offheap")
+                ? StorageEngine.OFF_HEAP
+                : StorageEngine.LINKED_NODES;
+        int items = args.length > 1 ? Integer.parseInt(args[1].replace("_", "")) : 1_000_000;
+
+        long heapBefore = usedHeap();
+        long nativeBefore = directBytes();
+
+        Inventory inventory = engine.create();
+        Random random = new Random(214);
+        char[] tag = new char[RfidTag.DIGITS];
+        for (int i = 0; i < items; i++) {
+            // Descending tags put every insert at the head of the linked list, and
+            // they all start with F, so they are never all decimal digits
+            long value = RfidTag.MAX_VALUE - 7L * i;
+            String location = "s" + String.format("%05d", random.nextInt(LocationCodec.SHELF_COUNT));
+            inventory.insertInfo(NAMES[i % NAMES.length], toText(value, tag), 1 + random.nextInt(9999) / 100.0,
+                    location);
+        }
+
+        long heapBytes = usedHeap() - heapBefore;
+        long nativeBytes = directBytes() - nativeBefore;
+        System.out.println("Engine:        " + engine);
+        System.out.println("Items:         " + inventory.listLength());
+        System.out.println("Heap bytes:    " + heapBytes + " (" + perItem(heapBytes, items) + " per item)");
+        System.out.println("Native bytes:  " + nativeBytes + " (" + perItem(nativeBytes, items) + " per item)");
+        if (inventory instanceof OffHeapItemList) {
+            OffHeapItemList offHeap = (OffHeapItemList) inventory;
+            System.out.println("Reported:      " + offHeap.nativeBytes() + " native, "
+                    + offHeap.indexHeapBytes() + " index heap");
+        }
+    }
+
+    /**
+     * Writes a packed tag as text. The generated values are always valid tags.
+     */
+    private static String toText(long value, char[] tag) {
+        for (int i = RfidTag.DIGITS - 1; i >= 0; i--) {
+            tag[i] = Character.forDigit((int) (value & 0xF), 16);
+            value >>>= 4;
+        }
+        return new String(tag);
+    }
+
+    private static String perItem(long bytes, int items) {
+        return items == 0 ? "-" : String.format("%.1f", (double) bytes / items);
+    }
+
+    /**
+     * Returns the used heap after asking for a few garbage collections.
+     */
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Returns the bytes held by direct ByteBuffers.
+     */
+    private static long directBytes() {
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if (pool.getName().equals("direct"))
+                return pool.getMemoryUsed();
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,87 @@
+import java.util.ArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The ReaderThroughput class measures how many RFID reads per second a
+ * ReaderEventPipeline can take in and apply. A number of simulated readers
+ * each report random items at random shelves, re-reading the same item at the
+ * same shelf about half of the time, as a ceiling reader does while an item
+ * stays in its field.
+ *
+ * Usage: java -cp benchmarks.jar ReaderThroughput [items] [reads] [readers] [linked|offheap|concurrent]
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public class ReaderThroughput {
+
+    /**
+     * Loads the items, runs the readers, and prints the pipeline's report once
+     * a second and at the end.
+     *
+     * @param args the item count, read count, reader count and storage engine
+     * @throws Exception if a reader is interrupted
+     */
+    public static void main(String[] args) throws Exception {
+        int items = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        int reads = args.length > 1 ? Integer.parseInt(args[1]) : 2000000;
+        int readers = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        String engine = args.length > 3 ? args[3] : "linked";
+
+        Inventory inventory = StorageEngine.fromArgs(new String[] { "--" + engine }).create();
+        String[] tags = new String[items];
+        ArrayList<ItemInfo> batch = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            ItemInfo info = new ItemInfo();
+            info.setItemName("Item" + i);
+            info.setItemPrice(1 + i % 100);
+            info.setRfidTag(RfidTag.MAX_VALUE - 7L * i);
+            info.setOriginalLocationCode(LocationCodec.shelf(i % 1000));
+            info.setCurrentLocationCode(LocationCodec.shelf(i % 1000));
+            batch.add(info);
+            tags[i] = info.getRfidTagNumber();
+        }
+        inventory.bulkLoad(batch);
+        String[] shelves = new String[1000];
+        for (int i = 0; i < shelves.length; i++)
+            shelves[i] = LocationCodec.decode(LocationCodec.shelf(i));
+
+        ReaderEventPipeline pipeline = new ReaderEventPipeline(inventory);
+        ArrayList<Thread> workers = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int r = 0; r < readers; r++) {
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                int item = 0;
+                int shelf = 0;
+                try {
+                    for (int i = 0; i < reads / readers; i++) {
+                        if (random.nextBoolean()) { // Otherwise the same read again
+                            item = random.nextInt(items);
+                            shelf = random.nextInt(shelves.length);
+                        }
+                        pipeline.submit(tags[item], shelves[shelf]);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+
+        for (Thread worker : workers) {
+            while (worker.isAlive()) {
+                worker.join(1000);
+                if (worker.isAlive())
+                    System.out.println(pipeline.report());
+            }
+        }
+        pipeline.close();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.println(pipeline.report());
+        System.out.println(String.format("%d reads in %.2f s: %.0f reads/s", pipeline.getAccepted(), seconds,
+                pipeline.getAccepted() / seconds));
+    }
+}
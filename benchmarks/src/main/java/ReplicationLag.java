@@ -0,0 +1,166 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The ReplicationLag class measures how far replicas fall behind a
+ * ReplicationPrimary while store days are replayed on it at a target rate.
+ *
+ * The opening stock of a StoreDayWorkload is loaded into the primary first,
+ * then the replicas are started and the time until they all hold a copy is
+ * reported. The days are replayed through a JournaledInventory that records
+ * every change in the primary, and afterwards the time for the replicas to
+ * apply the last change is reported, with each replica's lag: the time from a
+ * record being appended until the replica acknowledged it.
+ *
+ * By default each replica is its own DepartmentStore process, started with
+ * "--replica-of", on this machine, with this process's class path; the
+ * benchmarks jar holds the whole inventory, DepartmentStore included. With
+ * "--in-process" the replicas run in this process instead, and every
+ * "--read-every" operations a shelf is listed through a ReplicaRouter with the
+ * "--max-staleness" bound, showing how many reads the replicas take over; at
+ * the end each replica is checked to hold exactly the primary's items.
+ *
+ * Usage: java -cp benchmarks.jar ReplicationLag [--offheap|--concurrent]
+ * [--shards=N] [--replicas=N] [--in-process] [--rate=OPS] [--max-staleness=MS]
+ * [--read-every=N] [StoreDayWorkload options, --operations=N]
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public class ReplicationLag {
+
+    private static final long WAIT_MILLIS = 120_000; // The longest wait for the replicas
+
+    /**
+     * Starts the primary and the replicas, replays the operations and prints
+     * the report.
+     *
+     * @param args the options
+     * @throws Exception if the workload cannot be made, a replica cannot be
+     *                   started, or the inventory rejects an operation
+     */
+    public static void main(String[] args) throws Exception {
+        StorageEngine engine = StorageEngine.fromArgs(args);
+        int shards = StorageEngine.shardsFromArgs(args);
+        int replicaCount = Integer.parseInt(StoreDayWorkload.option(args, "--replicas=", "2"));
+        boolean inProcess = List.of(args).contains("--in-process");
+        double rate = Double.parseDouble(StoreDayWorkload.option(args, "--rate=", "0"));
+        long maxStaleness = Long.parseLong(StoreDayWorkload.option(args, "--max-staleness=", "100"));
+        int readEvery = Integer.parseInt(StoreDayWorkload.option(args, "--read-every=", "1000"));
+
+        StoreDayWorkload workload = StoreDayWorkload.fromArgs(args);
+        List<StoreDayWorkload.Operation> operations = new ArrayList<>();
+        Inventory inventory = engine.create(shards);
+        inventory.bulkLoad(workload.openingStock());
+        workload.day(Integer.parseInt(StoreDayWorkload.option(args, "--operations=", "1000000")), operations::add);
+
+        ArrayList<InventoryReplica> replicas = new ArrayList<>();
+        ArrayList<Process> processes = new ArrayList<>();
+        try (ReplicationPrimary primary = new ReplicationPrimary(inventory, 0, 0)) {
+            Inventory store = new JournaledInventory(inventory, primary, primary.getLock());
+
+            long start = System.nanoTime();
+            for (int i = 0; i < replicaCount; i++) {
+                if (inProcess)
+                    replicas.add(new InventoryReplica(engine, shards, primary.getPort()));
+                else
+                    processes.add(startReplicaProcess(args, primary.getPort()));
+            }
+            if (!primary.awaitReplicated(replicaCount, primary.lastSequence(), WAIT_MILLIS))
+                throw new IOException("The replicas did not all connect and copy the inventory");
+            System.out.println(String.format("%d replica(s)%s copied %,d items in %.2f s", replicaCount,
+                    inProcess ? " in this process" : " in their own processes", inventory.listLength(),
+                    (System.nanoTime() - start) / 1e9));
+
+            ReplicaRouter router = new ReplicaRouter(store, replicas, maxStaleness);
+            long interval = rate > 0 ? (long) (1e9 / rate) : 0;
+            start = System.nanoTime();
+            for (int i = 0; i < operations.size(); i++) {
+                WorkloadReplay.waitUntil(start + i * interval);
+                operations.get(i).runOn(store);
+                if (inProcess && readEvery > 0 && i % readEvery == 0)
+                    router.forEachAt(LocationCodec.decode(LocationCodec.shelf(i % 1000)), item -> {
+                    });
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            long last = primary.lastSequence();
+            long drained = System.nanoTime();
+            boolean caughtUp = primary.awaitReplicated(replicaCount, last, WAIT_MILLIS);
+            double drainSeconds = (System.nanoTime() - drained) / 1e9;
+
+            System.out.println(String.format("%,d operations, %,d records in %.2f s: %,.0f ops/s%s",
+                    operations.size(), last, seconds, operations.size() / seconds,
+                    rate > 0 ? String.format(" (target %,.0f)", rate) : ""));
+            System.out.println(caughtUp
+                    ? String.format("The replicas applied the last record %.1f ms after it", drainSeconds * 1e3)
+                    : "The replicas had not applied every record after " + WAIT_MILLIS + " ms");
+            System.out.print(primary.report());
+            LatencyHistogram lag = primary.lag();
+            System.out.println(String.format(
+                    "Lag over all replicas: p50 %.1f us, p99 %.1f us, p99.9 %.1f us, max %.1f us",
+                    lag.percentile(0.50) / 1e3, lag.percentile(0.99) / 1e3, lag.percentile(0.999) / 1e3,
+                    lag.getMax() / 1e3));
+            if (inProcess) {
+                System.out.println(String.format("Routed reads: %,d to replicas, %,d to the primary",
+                        router.getReplicaReads(), router.getPrimaryReads()));
+                for (int i = 0; i < replicas.size(); i++)
+                    System.out.println("Replica " + (i + 1) + (sameItems(inventory, replicas.get(i))
+                            ? " holds the primary's items" : " differs from the primary"));
+            }
+        } finally {
+            for (InventoryReplica replica : replicas)
+                replica.close();
+            for (Process process : processes) {
+                process.getOutputStream().close(); // Ends its serve loop
+                if (!process.waitFor(5, TimeUnit.SECONDS))
+                    process.destroy();
+            }
+        }
+    }
+
+    /**
+     * Starts a DepartmentStore process following the primary, with the same
+     * storage engine options.
+     */
+    private static Process startReplicaProcess(String[] args, int primaryPort) throws IOException {
+        ArrayList<String> command = new ArrayList<>();
+        command.add(ProcessHandle.current().info().command()
+                .orElse(System.getProperty("java.home") + "/bin/java"));
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add("DepartmentStore");
+        command.add("--replica-of=" + primaryPort);
+        command.add("--serve=0");
+        for (String arg : args) {
+            if (arg.equalsIgnoreCase("--offheap") || arg.equalsIgnoreCase("--concurrent") || arg.startsWith("--shards="))
+                command.add(arg);
+        }
+        return new ProcessBuilder(command)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+    }
+
+    /**
+     * Checks that two inventories hold the same items, in the same order.
+     */
+    private static boolean sameItems(Inventory expected, Inventory actual) {
+        ArrayList<String> items = new ArrayList<>();
+        expected.forEachItem(item -> items.add(describe(item)));
+        int[] index = new int[1];
+        boolean[] same = { true };
+        actual.forEachItem(item -> {
+            if (index[0] >= items.size() || !items.get(index[0]++).equals(describe(item)))
+                same[0] = false;
+        });
+        return same[0] && index[0] == items.size();
+    }
+
+    private static String describe(ItemInfo item) {
+        return item.getRfidTag() + " " + item.getItemName() + " " + item.getPriceCents() + " "
+                + item.getOriginalLocationCode() + " " + item.getCurrentLocationCode();
+    }
+}
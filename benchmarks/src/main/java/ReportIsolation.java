@@ -0,0 +1,115 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The ReportIsolation class measures what long reports cost the registers
+ * when they read a VersionedInventory while store days are replayed on it.
+ *
+ * The opening stock of a StoreDayWorkload is loaded first. Then "--reports"
+ * threads report on the store over and over while this thread replays the
+ * operations at the target rate, timing each one. A report opens a View and
+ * passes every item in it twice, summing the items and their prices; both
+ * passes must agree with each other and with the size of the View, or the
+ * report is counted as inconsistent. Afterwards the time of the operations,
+ * the number of reports and their times, and the most versions kept at once
+ * for the open Views are printed.
+ *
+ * Usage: java -cp benchmarks.jar ReportIsolation [--offheap|--concurrent] [--shards=N]
+ * [--reports=N] [--rate=OPS] [StoreDayWorkload options, --operations=N]
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public class ReportIsolation {
+
+    /**
+     * Loads the store, starts the reports, replays the operations and prints
+     * the report.
+     *
+     * @param args the options
+     * @throws Exception if the workload cannot be made or the inventory
+     *                   rejects an operation
+     */
+    public static void main(String[] args) throws Exception {
+        StorageEngine engine = StorageEngine.fromArgs(args);
+        int reportThreads = Integer.parseInt(StoreDayWorkload.option(args, "--reports=", "2"));
+        double rate = Double.parseDouble(StoreDayWorkload.option(args, "--rate=", "0"));
+
+        StoreDayWorkload workload = StoreDayWorkload.fromArgs(args);
+        List<StoreDayWorkload.Operation> operations = new ArrayList<>();
+        VersionedInventory inventory = new VersionedInventory(engine.create(StorageEngine.shardsFromArgs(args)));
+        inventory.bulkLoad(workload.openingStock());
+        workload.day(Integer.parseInt(StoreDayWorkload.option(args, "--operations=", "1000000")), operations::add);
+
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicLong inconsistent = new AtomicLong();
+        AtomicLong mostRetained = new AtomicLong();
+        LatencyHistogram[] reportTimes = new LatencyHistogram[reportThreads];
+        Thread[] reporters = new Thread[reportThreads];
+        for (int i = 0; i < reportThreads; i++) {
+            LatencyHistogram times = reportTimes[i] = new LatencyHistogram();
+            reporters[i] = new Thread(() -> {
+                while (!done.get()) {
+                    long start = System.nanoTime();
+                    try (VersionedInventory.View view = inventory.openView()) {
+                        long[] first = total(view);
+                        long[] second = total(view);
+                        if (first[0] != view.listLength() || first[0] != second[0] || first[1] != second[1])
+                            inconsistent.incrementAndGet();
+                        mostRetained.accumulateAndGet(inventory.getRetainedVersions(), Math::max);
+                    }
+                    times.record(System.nanoTime() - start);
+                }
+            }, "report-" + (i + 1));
+            reporters[i].start();
+        }
+
+        LatencyHistogram registerTimes = new LatencyHistogram();
+        long interval = rate > 0 ? (long) (1e9 / rate) : 0;
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < operations.size(); i++) {
+                WorkloadReplay.waitUntil(start + i * interval);
+                long began = System.nanoTime();
+                operations.get(i).runOn(inventory);
+                registerTimes.record(System.nanoTime() - began);
+            }
+        } finally {
+            done.set(true);
+            for (Thread reporter : reporters)
+                reporter.join();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        LatencyHistogram allReports = new LatencyHistogram();
+        for (LatencyHistogram times : reportTimes)
+            allReports.add(times);
+        System.out.println(String.format("%,d operations in %.2f s: %,.0f ops/s%s", operations.size(), seconds,
+                operations.size() / seconds, rate > 0 ? String.format(" (target %,.0f)", rate) : ""));
+        System.out.println(String.format("Operations: p50 %.1f us, p99 %.1f us, p99.9 %.1f us, max %.1f us",
+                registerTimes.percentile(0.50) / 1e3, registerTimes.percentile(0.99) / 1e3,
+                registerTimes.percentile(0.999) / 1e3, registerTimes.getMax() / 1e3));
+        System.out.println(String.format("%,d report(s) by %d thread(s): p50 %.1f ms, max %.1f ms, %,d inconsistent",
+                allReports.getCount(), reportThreads, allReports.percentile(0.50) / 1e6, allReports.getMax() / 1e6,
+                inconsistent.get()));
+        System.out.println(String.format("Versions kept for open views: at most %,d, %,d now with %d view(s) open",
+                mostRetained.get(), inventory.getRetainedVersions(), inventory.getOpenViews()));
+    }
+
+    /**
+     * Counts the items in a view and sums their prices.
+     *
+     * @return the number of items and their total price in cents
+     */
+    private static long[] total(Inventory view) {
+        long[] total = new long[2];
+        view.forEachItem(item -> {
+            total[0]++;
+            total[1] += item.getPriceCents();
+        });
+        return total;
+    }
+}
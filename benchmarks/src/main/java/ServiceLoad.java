@@ -0,0 +1,127 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The ServiceLoad class checks that an InventoryServer can serve many
+ * connections at once. It starts a server on a ConcurrentItemList in the same
+ * process, opens the requested number of connections, keeps them all open,
+ * and has each send its commands pipelined in rounds: RFID lookups, location
+ * listings and moves, plus one bad command per round, whose ERR response must
+ * not end the connection.
+ *
+ * Usage: java -cp benchmarks.jar ServiceLoad [connections] [rounds] [commands per round]
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public class ServiceLoad {
+
+    /**
+     * Runs the load and prints the request rate.
+     *
+     * @param args the connection count, round count and commands per round
+     * @throws Exception if a connection fails
+     */
+    public static void main(String[] args) throws Exception {
+        int connections = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int perRound = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        int items = 10000;
+
+        ConcurrentItemList inventory = new ConcurrentItemList();
+        ArrayList<ItemInfo> batch = new ArrayList<>(items);
+        String[] tags = new String[items];
+        for (int i = 0; i < items; i++) {
+            ItemInfo info = new ItemInfo();
+            info.setItemName("Item " + i);
+            info.setItemPrice(1 + i % 100);
+            info.setRfidTag(RfidTag.MAX_VALUE - 7L * i);
+            info.setOriginalLocationCode(LocationCodec.shelf(i % 100));
+            info.setCurrentLocationCode(LocationCodec.shelf(i % 100));
+            batch.add(info);
+            tags[i] = info.getRfidTagNumber();
+        }
+        inventory.bulkLoad(batch);
+
+        try (InventoryServer server = new InventoryServer(new CommandDispatcher(inventory, true), 0)) {
+            ArrayList<Socket> sockets = new ArrayList<>();
+            for (int c = 0; c < connections; c++)
+                sockets.add(new Socket(InetAddress.getLoopbackAddress(), server.getPort()));
+            for (int wait = 0; wait < 100 && server.getOpen() < connections; wait++)
+                Thread.sleep(100);
+            System.out.println(connections + " connection(s) open, " + server.getOpen() + " seen by the server.");
+
+            ExecutorService clients = InventoryServer.newConnectionExecutor();
+            ArrayList<Future<long[]>> results = new ArrayList<>();
+            long start = System.nanoTime();
+            for (Socket socket : sockets)
+                results.add(clients.submit(() -> runClient(socket, tags, rounds, perRound)));
+
+            long ok = 0;
+            long errors = 0;
+            for (Future<long[]> result : results) {
+                long[] counts = result.get();
+                ok += counts[0];
+                errors += counts[1];
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            clients.shutdown();
+
+            System.out.println(String.format("%d OK and %d ERR responses in %.2f s: %.0f requests/s", ok, errors,
+                    seconds, (ok + errors) / seconds));
+            for (Socket socket : sockets)
+                socket.close();
+        }
+    }
+
+    /**
+     * Sends the rounds of commands on one connection and counts the OK and ERR
+     * responses.
+     */
+    private static long[] runClient(Socket socket, String[] tags, int rounds, int perRound) throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        BufferedWriter out = new BufferedWriter(
+                new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+        long[] counts = new long[2];
+
+        for (int r = 0; r < rounds; r++) {
+            for (int i = 0; i < perRound; i++) {
+                int item = random.nextInt(tags.length);
+                int kind = random.nextInt(10);
+                if (kind == 0)
+                    out.write("SEEN " + tags[item] + " s" + String.format("%05d", random.nextInt(100)) + "\n");
+                else if (kind == 1)
+                    out.write("LIST s" + String.format("%05d", random.nextInt(100)) + "\n");
+                else
+                    out.write("RFID " + tags[item] + "\n");
+            }
+            out.write("MOVE 123456789 s00001 s00002\n"); // Not a valid tag
+            out.flush();
+
+            for (int answered = 0; answered < perRound + 1;) {
+                String line = in.readLine();
+                if (line == null)
+                    throw new IllegalStateException("The server hung up");
+                if (line.startsWith("OK")) {
+                    counts[0]++;
+                    answered++;
+                } else if (line.startsWith("ERR")) {
+                    counts[1]++;
+                    answered++;
+                }
+            }
+        }
+        return counts;
+    }
+}
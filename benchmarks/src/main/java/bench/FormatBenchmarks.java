@@ -0,0 +1,75 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The FormatBenchmarks class times ItemInfo.checkRfidFormat and
+ * checkLocationFormat on valid and invalid input, through an empty store.
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FormatBenchmarks {
+
+    /**
+     * The RFID tag numbers checked: valid, lower case, a bad digit and too
+     * short.
+     */
+    @State(Scope.Thread)
+    public static class Rfid {
+
+        @Param({ "A1B2C3D4E", "a1b2c3d4e", "A1B2C3D4G", "A1B2" })
+        public String rfid;
+    }
+
+    /**
+     * The locations checked: a shelf, a cart, out and a bad shelf.
+     */
+    @State(Scope.Thread)
+    public static class Location {
+
+        @Param({ "s12345", "c101", "out", "s1234x" })
+        public String location;
+    }
+
+    /**
+     * An empty store, to reach ItemInfo through.
+     */
+    @State(Scope.Benchmark)
+    public static class Empty {
+
+        public StoreFixture fixture;
+
+        @Setup
+        public void create() throws ReflectiveOperationException {
+            fixture = StoreFixture.create("LINKED_NODES", 0);
+        }
+    }
+
+    @Benchmark
+    public boolean checkRfidFormat(Empty store, Rfid input) {
+        return store.fixture.checkRfidFormat(input.rfid);
+    }
+
+    @Benchmark
+    public boolean checkLocationFormat(Empty store, Location input) {
+        return store.fixture.checkLocationFormat(input.location);
+    }
+}
@@ -0,0 +1,204 @@
+package bench;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The InventoryBenchmarks class times the store operations of every
+ * StorageEngine on stores of 1K to 10M items.
+ *
+ * The operations change the store, so each invocation runs one batch of
+ * StoreFixture.BATCH operations and the setup and teardown around it, which
+ * are not timed, prepare the batch and undo it. Times are per operation; the
+ * bytes allocated per operation also count the setup and teardown, so compare
+ * them between runs of the same benchmark rather than across benchmarks. The
+ * heap is sized for the linked node layout at 10M items; pick smaller stores
+ * with, for example, "-p items=1000,100000", and compare a ShardedInventory
+ * with, for example, "-p shards=1,4".
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 200)
+@Measurement(iterations = 200)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx12g" })
+@OperationsPerInvocation(StoreFixture.BATCH)
+public class InventoryBenchmarks {
+
+    /**
+     * The store, filled once per fork. Each benchmark takes one subclass of it
+     * that prepares and undoes its batch; JMH would give a separate state that
+     * depended on the store a separate store.
+     */
+    @State(Scope.Thread)
+    public static class Store {
+
+        @Param({ "LINKED_NODES", "OFF_HEAP", "CONCURRENT" })
+        public String engine;
+
+        @Param({ "1000", "10000", "100000", "1000000", "10000000" })
+        public int items;
+
+        @Param({ "1" })
+        public int shards;
+
+        public StoreFixture fixture;
+
+        @Setup(Level.Trial)
+        public void fill() throws ReflectiveOperationException {
+            fixture = StoreFixture.create(engine, items, shards);
+        }
+    }
+
+    /**
+     * Removes the items an insert benchmark added.
+     */
+    @State(Scope.Thread)
+    public static class Inserted extends Store {
+
+        @TearDown(Level.Invocation)
+        public void discard() throws Exception {
+            fixture.discardInserted();
+        }
+    }
+
+    /**
+     * Picks the items to move, and moves them back afterwards.
+     */
+    @State(Scope.Thread)
+    public static class Moves extends Store {
+
+        @Setup(Level.Invocation)
+        public void pick() {
+            fixture.pickMoves();
+        }
+
+        @TearDown(Level.Invocation)
+        public void putBack() throws Exception {
+            fixture.returnMoves();
+        }
+    }
+
+    /**
+     * Fills the cart with new items, and removes them once checked out.
+     */
+    @State(Scope.Thread)
+    public static class FullCart extends Store {
+
+        @Setup(Level.Invocation)
+        public void fillCart() throws Exception {
+            fixture.insertBatch(false);
+            fixture.cartInserted();
+        }
+
+        @TearDown(Level.Invocation)
+        public void purge() {
+            fixture.removeAllPurchased();
+        }
+    }
+
+    /**
+     * Misplaces a batch of items.
+     */
+    @State(Scope.Thread)
+    public static class Misplaced extends Store {
+
+        @Setup(Level.Invocation)
+        public void misplace() throws Exception {
+            fixture.pickMoves();
+            fixture.moveBatch();
+        }
+    }
+
+    /**
+     * Sells a batch of new items.
+     */
+    @State(Scope.Thread)
+    public static class Sold extends Store {
+
+        @Setup(Level.Invocation)
+        public void sell() throws Exception {
+            fixture.insertBatch(false);
+            fixture.cartInserted();
+            fixture.checkOut();
+        }
+    }
+
+    /**
+     * Sends standard output, where printByLocation writes, nowhere.
+     */
+    @State(Scope.Thread)
+    public static class Quiet extends Store {
+
+        private PrintStream out;
+
+        @Setup(Level.Trial)
+        public void silence() {
+            out = System.out;
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        }
+
+        @TearDown(Level.Trial)
+        public void restore() {
+            System.setOut(out);
+        }
+    }
+
+    @Benchmark
+    public void insertInfoRandom(Inserted store) throws Exception {
+        store.fixture.insertBatch(false);
+    }
+
+    @Benchmark
+    public void insertInfoSequential(Inserted store) throws Exception {
+        store.fixture.insertBatch(true);
+    }
+
+    @Benchmark
+    public void moveItem(Moves store) throws Exception {
+        store.fixture.moveBatch();
+    }
+
+    @Benchmark
+    public long checkOut(FullCart store) {
+        return store.fixture.checkOut();
+    }
+
+    @Benchmark
+    public void cleanStore(Misplaced store) {
+        store.fixture.cleanStore();
+    }
+
+    @Benchmark
+    public int removeAllPurchased(Sold store) {
+        return store.fixture.removeAllPurchased();
+    }
+
+    /**
+     * Prints one shelf, which holds items / StoreFixture.SHELVES items; the
+     * time is for the whole shelf.
+     */
+    @Benchmark
+    @OperationsPerInvocation(1)
+    public void printByLocation(Quiet store) {
+        store.fixture.printShelf();
+    }
+}
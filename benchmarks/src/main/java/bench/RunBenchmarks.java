@@ -0,0 +1,42 @@
+package bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * The RunBenchmarks class is the main class of benchmarks.jar. It takes the
+ * usual JMH options, and adds the GC profiler unless other profilers are
+ * asked for, so every result comes with the bytes allocated per operation
+ * (gc.alloc.rate.norm) and a growth in allocation shows up as a number.
+ *
+ * Usage: java -jar benchmarks.jar [JMH options] [benchmark regexps]
+ * For example "java -jar benchmarks.jar -p items=1000,1000000 moveItem".
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public class RunBenchmarks {
+
+    /**
+     * Runs the benchmarks chosen by the arguments.
+     *
+     * @param args the JMH command line options
+     * @throws Exception if the options are wrong or a benchmark fails
+     */
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions options = new CommandLineOptions(args);
+        if (options.shouldHelp() || options.shouldList() || options.shouldListWithParams()
+                || options.shouldListProfilers() || options.shouldListResultFormats()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+        ChainedOptionsBuilder builder = new OptionsBuilder().parent(options);
+        if (options.getProfilers().isEmpty())
+            builder.addProfiler(GCProfiler.class);
+        new Runner(builder.build()).run();
+    }
+}
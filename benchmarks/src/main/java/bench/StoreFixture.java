@@ -0,0 +1,140 @@
+package bench;
+
+/**
+ * The StoreFixture interface is what the benchmarks see of a filled inventory.
+ * The inventory classes are in the default package, which classes in a
+ * package cannot name and which JMH does not allow benchmarks in. So the
+ * InventoryFixture class, in the default package of this module, implements
+ * this interface, and the benchmarks load it by name.
+ *
+ * A fixture is filled with items whose RFID tags are spread over a range, on
+ * SHELVES shelves. The batch methods work on BATCH items at a time, and each
+ * has a partner that puts the store back, so a store keeps its size from one
+ * benchmark iteration to the next.
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public interface StoreFixture {
+
+    int BATCH = 100; // Items handled by one call of a batch method
+    int SHELVES = 1000; // Shelves the items are spread over
+
+    /**
+     * Constructs a fixture holding the given number of items.
+     *
+     * @param engine the StorageEngine name, such as "LINKED_NODES"
+     * @param items  the number of items to fill it with
+     * @return the filled fixture
+     * @throws ReflectiveOperationException if InventoryFixture cannot be loaded
+     */
+    static StoreFixture create(String engine, int items) throws ReflectiveOperationException {
+        return create(engine, items, 1);
+    }
+
+    /**
+     * Constructs a fixture holding the given number of items, split over the
+     * given number of shards.
+     *
+     * @param engine the StorageEngine name, such as "LINKED_NODES"
+     * @param items  the number of items to fill it with
+     * @param shards the number of shards; 1 gives a plain inventory
+     * @return the filled fixture
+     * @throws ReflectiveOperationException if InventoryFixture cannot be loaded
+     */
+    static StoreFixture create(String engine, int items, int shards) throws ReflectiveOperationException {
+        return (StoreFixture) Class.forName("InventoryFixture")
+                .getConstructor(String.class, int.class, int.class).newInstance(engine, items, shards);
+    }
+
+    /**
+     * Gets the number of items in the store.
+     *
+     * @return the number of items
+     */
+    int size();
+
+    /**
+     * Inserts BATCH new items with insertInfo.
+     *
+     * @param sequential true for tags above every tag in the store, in
+     *                   ascending order, or false for random tags among them
+     * @throws Exception if an item cannot be inserted
+     */
+    void insertBatch(boolean sequential) throws Exception;
+
+    /**
+     * Moves the items inserted since the last call into a cart. checkOut then
+     * takes them out of the store.
+     *
+     * @throws Exception if an item cannot be moved
+     */
+    void cartInserted() throws Exception;
+
+    /**
+     * Removes every item inserted since the last call from the store.
+     *
+     * @throws Exception if an item cannot be moved
+     */
+    void discardInserted() throws Exception;
+
+    /**
+     * Picks BATCH random items of the store for moveBatch, outside the timing.
+     */
+    void pickMoves();
+
+    /**
+     * Moves the picked items from their shelves to a shelf that is not theirs.
+     *
+     * @throws Exception if an item cannot be moved
+     */
+    void moveBatch() throws Exception;
+
+    /**
+     * Moves the picked items back to their own shelves.
+     *
+     * @throws Exception if an item cannot be moved
+     */
+    void returnMoves() throws Exception;
+
+    /**
+     * Checks out the cart that cartInserted fills.
+     *
+     * @return the total of the cart in cents
+     */
+    long checkOut();
+
+    /**
+     * Returns the misplaced items to their shelves.
+     */
+    void cleanStore();
+
+    /**
+     * Removes the items that have been checked out.
+     *
+     * @return the number of items removed
+     */
+    int removeAllPurchased();
+
+    /**
+     * Prints the items on one shelf, as the menu does.
+     */
+    void printShelf();
+
+    /**
+     * Runs ItemInfo.checkRfidFormat.
+     *
+     * @param rfid the text to check
+     * @return true if it is a valid RFID tag number
+     */
+    boolean checkRfidFormat(String rfid);
+
+    /**
+     * Runs ItemInfo.checkLocationFormat.
+     *
+     * @param location the text to check
+     * @return true if it is a valid location
+     */
+    boolean checkLocationFormat(String location);
+}
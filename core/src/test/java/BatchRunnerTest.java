@@ -0,0 +1,87 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests that a BatchRunner answers every command of a batch in order, loading
+ * runs of inserts in bulk, and that SNAPSHOT empties the journal only when it
+ * writes the snapshot a restart reads.
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public class BatchRunnerTest {
+
+    @TempDir
+    Path directory;
+
+    private static String run(BatchRunner runner, String batch) throws Exception {
+        StringWriter out = new StringWriter();
+        runner.run(new BufferedReader(new StringReader(batch)), out);
+        return out.toString();
+    }
+
+    @Test
+    public void answersEveryCommandInOrder() throws Exception {
+        ItemList inventory = new ItemList();
+        BatchRunner runner = new BatchRunner(inventory);
+        String responses = run(runner, "# Opening stock\n"
+                + "INSERT A00000001 s00001 2.5 Milk\n"
+                + "INSERT A00000002 s00001 oops Eggs\n"
+                + "\n"
+                + "I A00000003 s00002 1 Bread\n"
+                + "COUNT\n"
+                + "M A00000001 s00001 c001\n"
+                + "INSERT A00000004 s00003 4 Cheese\n"
+                + "TOTAL c001\n"
+                + "Q\n"
+                + "COUNT\n");
+        assertEquals("OK\nERR The price must be a number\nOK\nOK 2\nOK\nOK\nOK 1 2.50\nOK bye\n", responses);
+        assertEquals(3, inventory.listLength()); // The insert before QUIT was loaded
+        assertEquals(8, runner.getCommands());
+    }
+
+    @Test
+    public void snapshotCheckpointsOnlyTheConfiguredFile() throws Exception {
+        Path journalFile = directory.resolve("store.journal");
+        Path snapshot = directory.resolve("store.snapshot");
+        Path copy = directory.resolve("copy.snapshot");
+        JournaledInventory inventory = new JournaledInventory(new ItemList(),
+                OperationJournal.open(journalFile, false, 0));
+        try {
+            BatchRunner runner = new BatchRunner(inventory);
+            runner.checkpointTo(snapshot);
+            run(runner, "INSERT A00000001 s00001 2.5 Milk\nINSERT A00000002 s00001 1 Eggs\n"
+                    + "MOVE A00000001 s00001 c001\n");
+            ((OperationJournal) inventory.getJournal()).sync();
+            long journaled = Files.size(journalFile);
+            assertTrue(journaled > 0);
+
+            assertEquals("OK saved 2\n", run(runner, "SNAPSHOT " + copy));
+            assertEquals(journaled, Files.size(journalFile), "a copy leaves the journal as it is");
+            ItemList replayed = new ItemList();
+            assertEquals(3, OperationJournal.replay(journalFile, replayed, 0));
+            assertEquals(TestItems.describe(inventory), TestItems.describe(replayed));
+
+            assertEquals("OK saved 2\n", run(runner, "SNAPSHOT " + snapshot.getParent().resolve(".")
+                    .resolve("store.snapshot")));
+            assertTrue(Files.size(journalFile) < journaled, "the checkpoint empties the journal");
+            InventorySnapshot written = InventorySnapshot.open(snapshot);
+            assertEquals(3, written.lastSequence());
+            ItemList restored = new ItemList();
+            written.restoreInto(restored);
+            assertEquals(3, OperationJournal.replay(journalFile, restored, written.lastSequence()));
+            assertEquals(TestItems.describe(inventory), TestItems.describe(restored));
+        } finally {
+            inventory.close();
+        }
+    }
+}
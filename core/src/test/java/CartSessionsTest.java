@@ -0,0 +1,62 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that CartSessions tallies only carts, and that a checkout comes to the
+ * exact sum of the cents of its items, however many prices would not add up
+ * exactly as doubles.
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public class CartSessionsTest {
+
+    @Test
+    public void talliesOnlyCarts() {
+        CartSessions carts = new CartSessions();
+        int cart = LocationCodec.encode("c007");
+        carts.enter(cart, 199);
+        carts.enter(cart, 1);
+        carts.enter(LocationCodec.encode("s00007"), 500);
+        carts.enter(LocationCodec.OUT, 500);
+        assertEquals(2, carts.countIn(cart));
+        assertEquals(200, carts.totalCentsIn(cart));
+        assertEquals(0, carts.countIn(LocationCodec.encode("s00007")));
+        assertEquals(0, carts.totalCentsIn(LocationCodec.OUT));
+        assertEquals(0, carts.countIn(LocationCodec.INVALID));
+
+        carts.leave(cart, 199);
+        carts.leave(LocationCodec.encode("s00007"), 500);
+        assertEquals(1, carts.countIn(cart));
+        assertEquals(1, carts.totalCentsIn(cart));
+        assertEquals(0, carts.countIn(LocationCodec.encode("c008")));
+    }
+
+    @Test
+    public void checkoutAddsUpWholeCents() throws Exception {
+        for (StorageEngine engine : StorageEngine.values()) {
+            Inventory store = engine.create();
+            for (int i = 0; i < 1000; i++) {
+                double price = 0.1 + (i % 7) * 0.01; // None exact as a double, nor their sum
+                store.insertInfo("Item " + i, String.format("A%08X", i), price, "s00001");
+                store.moveItem(String.format("A%08X", i), "s00001", "c001");
+            }
+            store.moveItem("A00000000", "c001", "s00002"); // 10 cents back on a shelf
+            long expected = 0;
+            for (int i = 1; i < 1000; i++)
+                expected += 10 + i % 7;
+
+            assertEquals(999, store.cartItemCount("c001"), engine.name());
+            assertEquals(expected, store.cartTotalCents("c001"), engine.name());
+            List<ItemInfo> visited = new ArrayList<>();
+            assertEquals(expected, store.checkOut("c001", visited::add), engine.name());
+            assertEquals(999, visited.size());
+            assertEquals(0, store.cartItemCount("c001"));
+            assertEquals(0, store.cartTotalCents("c001"));
+        }
+    }
+}
@@ -0,0 +1,125 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests the responses CommandDispatcher gives to the protocol verbs: item
+ * lines and OK results, ERR lines that leave the connection open, menu
+ * letters, escaped names, listings too long to hold back, and the files LOAD
+ * and SNAPSHOT may use.
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public class CommandDispatcherTest {
+
+    @TempDir
+    Path directory;
+
+    private static String run(CommandDispatcher dispatcher, String line) throws IOException {
+        StringWriter out = new StringWriter();
+        dispatcher.execute(line, out);
+        return out.toString();
+    }
+
+    private static CommandDispatcher storeWithMilk() throws IOException {
+        CommandDispatcher dispatcher = new CommandDispatcher(new ItemList(), false);
+        assertEquals("OK\n", run(dispatcher, "INSERT A00000001 s00001 2.5 Chocolate Milk"));
+        assertEquals("OK\n", run(dispatcher, "i A00000002 s00001 1.25 Eggs"));
+        assertEquals("OK\n", run(dispatcher, "INSERT B00000001 s00002 3 Bread"));
+        return dispatcher;
+    }
+
+    @Test
+    public void answersItemLinesThenStatus() throws IOException {
+        CommandDispatcher dispatcher = storeWithMilk();
+        assertEquals("ITEM\tChocolate Milk\tA00000001\ts00001\ts00001\t2.50\n"
+                + "ITEM\tEggs\tA00000002\ts00001\ts00001\t1.25\nOK\n", run(dispatcher, "LIST s00001"));
+        assertEquals("ITEM\tBread\tB00000001\ts00002\ts00002\t3.00\nOK\n", run(dispatcher, "r b00000001"));
+        assertEquals("OK 3\n", run(dispatcher, "COUNT"));
+        assertTrue(run(dispatcher, "PREFIX A").endsWith("OK 2\n"));
+        assertTrue(run(dispatcher, "RANGE A00000002 B").endsWith("OK 2\n"));
+        assertTrue(run(dispatcher, "FIND choc").endsWith("OK 1\n"));
+        assertTrue(run(dispatcher, "FUZZY 1 bred").endsWith("OK 1\n"));
+        assertEquals("OK pong\n", run(dispatcher, "PING"));
+    }
+
+    @Test
+    public void cartsMisplacedAndCheckout() throws IOException {
+        CommandDispatcher dispatcher = storeWithMilk();
+        assertEquals("OK\n", run(dispatcher, "MOVE A00000001 s00001 c007"));
+        assertEquals("OK\n", run(dispatcher, "m A00000002 s00001 c007"));
+        assertEquals("OK moved\n", run(dispatcher, "SEEN B00000001 s00009"));
+        assertEquals("OK unchanged\n", run(dispatcher, "SEEN B00000001 s00009"));
+        assertEquals("AT\ts00009\t1\nAT\tc007\t2\nOK 3\n", run(dispatcher, "MISPLACED"));
+        assertEquals("OK 2 3.75\n", run(dispatcher, "TOTAL c007"));
+        assertEquals("ITEM\tChocolate Milk\tA00000001\ts00001\tc007\t2.50\n"
+                + "ITEM\tEggs\tA00000002\ts00001\tc007\t1.25\nOK 3.75\n", run(dispatcher, "CHECKOUT c007"));
+        assertEquals("OK 0 0.00\n", run(dispatcher, "T c007"));
+        assertEquals("OK 1 3.00\n", run(dispatcher, "VALUE s00000 s00010"));
+        assertTrue(run(dispatcher, "PURGE 5").endsWith("\tout\t1.25\nOK 2\n"));
+        assertEquals("OK 1\n", run(dispatcher, "COUNT"));
+    }
+
+    @Test
+    public void badCommandsOnlyGetAnErrLine() throws IOException {
+        CommandDispatcher dispatcher = storeWithMilk();
+        assertEquals("ERR Unknown command FROB\n", run(dispatcher, "frob"));
+        assertEquals("ERR Usage: MOVE rfid source dest\n", run(dispatcher, "MOVE A00000001"));
+        assertEquals("ERR There is no item with RFID A00000001 at s00002\n",
+                run(dispatcher, "MOVE A00000001 s00002 s00003"));
+        assertTrue(run(dispatcher, "CHECKOUT s00001").startsWith("ERR "));
+        assertTrue(run(dispatcher, "INSERT 123456789 s00001 1 No Letter").startsWith("ERR "));
+        assertTrue(run(dispatcher, "INSERT A00000009 s00001 cheap Eggs").startsWith("ERR "));
+        assertEquals("", run(dispatcher, "   "));
+        assertEquals("OK 3\n", run(dispatcher, "COUNT"));
+
+        StringWriter out = new StringWriter();
+        assertFalse(dispatcher.execute("q", out));
+        assertEquals("OK bye\n", out.toString());
+    }
+
+    @Test
+    public void escapesNamesSoItemLinesKeepSixFields() throws Exception {
+        ItemList inventory = new ItemList();
+        inventory.insertInfo("Tab\there\\now\nthen", "A00000001", 1, "s00001");
+        CommandDispatcher dispatcher = new CommandDispatcher(inventory, false);
+        String item = run(dispatcher, "ALL").split("\n")[0];
+        assertEquals("ITEM\tTab\\there\\\\now\\nthen\tA00000001\ts00001\ts00001\t1.00", item);
+        assertEquals(6, item.split("\t").length);
+    }
+
+    @Test
+    public void longListingsArriveWhole() throws Exception {
+        ItemList inventory = new ItemList();
+        for (int i = 0; i < 5000; i++) // About 250K characters, past what is held back
+            inventory.insertInfo("Item " + i, String.format("A%08X", i), 1, "s00001");
+        for (boolean threadSafe : new boolean[] { false, true }) {
+            String[] lines = run(new CommandDispatcher(inventory, threadSafe), "LIST s00001").split("\n");
+            assertEquals(5001, lines.length);
+            assertEquals("ITEM\tItem 4999\tA00001387\ts00001\ts00001\t1.00", lines[4999]);
+            assertEquals("OK", lines[5000]);
+        }
+    }
+
+    @Test
+    public void filesOnlyWhereAllowed() throws Exception {
+        CommandDispatcher dispatcher = storeWithMilk();
+        assertEquals("ERR Files cannot be read or written through this connection\n",
+                run(dispatcher, "SNAPSHOT store.snapshot"));
+
+        dispatcher.allowFilesIn(directory);
+        assertEquals("OK saved 3\n", run(dispatcher, "SNAPSHOT store.snapshot"));
+        assertTrue(Files.exists(directory.resolve("store.snapshot")));
+        assertEquals("ERR The file name may not contain \"..\"\n", run(dispatcher, "SNAPSHOT ../store.snapshot"));
+        assertTrue(run(dispatcher, "LOAD " + directory.resolve("manifest.csv").toAbsolutePath()).startsWith("ERR "));
+    }
+}
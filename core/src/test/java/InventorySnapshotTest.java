@@ -0,0 +1,87 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests that an InventorySnapshot gives back the items it was written from,
+ * both restored into an inventory and read in place.
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public class InventorySnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Fills an inventory with a store's opening stock and runs part of a day
+     * on it, so items are misplaced, in carts and out.
+     */
+    private static ItemList storeAfterSomeOperations() throws Exception {
+        StoreDayWorkload workload = new StoreDayWorkload(214, 200, 10, 50, 20, 1.0, 100000);
+        ItemList store = new ItemList();
+        store.bulkLoad(workload.openingStock());
+        List<StoreDayWorkload.Operation> operations = new ArrayList<>();
+        workload.day(3000, operations::add);
+        for (StoreDayWorkload.Operation operation : operations.subList(0, 3000))
+            operation.runOn(store);
+        return store;
+    }
+
+    @Test
+    public void restoreGivesBackEveryItem() throws Exception {
+        ItemList store = storeAfterSomeOperations();
+        Path file = directory.resolve("store.snapshot");
+        InventorySnapshot.write(store, file, 42);
+
+        InventorySnapshot snapshot = InventorySnapshot.open(file);
+        ItemList restored = new ItemList();
+        snapshot.restoreInto(restored);
+
+        assertEquals(store.listLength(), snapshot.size());
+        assertEquals(42, snapshot.lastSequence());
+        assertEquals(TestItems.describe(store), TestItems.describe(restored));
+        assertEquals(store.misplacedCount(), restored.misplacedCount());
+        assertEquals(store.shelfValueCents("s00000", "s99999"), restored.shelfValueCents("s00000", "s99999"));
+    }
+
+    @Test
+    public void itemsCanBeReadInPlace() throws Exception {
+        ItemList store = storeAfterSomeOperations();
+        Path file = directory.resolve("store.snapshot");
+        InventorySnapshot.write(store, file);
+
+        InventorySnapshot snapshot = InventorySnapshot.open(file);
+        List<String> read = new ArrayList<>();
+        for (int i = 0; i < snapshot.size(); i++)
+            read.add(TestItems.describe(snapshot.itemAt(i)));
+        assertEquals(TestItems.describe(store), read);
+
+        store.forEachItem(item -> {
+            int first = snapshot.find(item.getRfidTag());
+            assertEquals(item.getRfidTag(), snapshot.tagAt(first));
+            assertTrue(first == 0 || snapshot.tagAt(first - 1) < item.getRfidTag());
+        });
+        assertEquals(-1, snapshot.find(RfidTag.parse("FFFFFFFFF")));
+    }
+
+    @Test
+    public void aListOfItemsWritesTheSameSnapshot() throws Exception {
+        ItemList store = storeAfterSomeOperations();
+        List<ItemInfo> items = new ArrayList<>();
+        store.forEachItem(items::add);
+        Path file = directory.resolve("items.snapshot");
+        InventorySnapshot.write(items, file, 7);
+
+        ItemList restored = new ItemList();
+        InventorySnapshot.open(file).restoreInto(restored);
+        assertEquals(TestItems.describe(store), TestItems.describe(restored));
+    }
+}
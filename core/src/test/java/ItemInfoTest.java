@@ -0,0 +1,62 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that ItemInfo.toCents rounds a price exactly as "%.2f" prints it, and
+ * refuses prices that cannot be kept in cents.
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public class ItemInfoTest {
+
+    /**
+     * The cents "%.2f" shows for a price.
+     */
+    private static long printedCents(double price) {
+        return Long.parseLong(String.format("%.2f", price).replace(".", ""));
+    }
+
+    @Test
+    public void roundsHalfUpAsPrinted() {
+        assertEquals(101, ItemInfo.toCents(1.005)); // Stored just below 1.005
+        assertEquals(268, ItemInfo.toCents(2.675));
+        assertEquals(13, ItemInfo.toCents(0.125));
+        assertEquals(-101, ItemInfo.toCents(-1.005));
+        assertEquals(30, ItemInfo.toCents(0.1 + 0.2));
+        assertEquals(0, ItemInfo.toCents(0.0049));
+        assertEquals(1999, ItemInfo.toCents(19.99));
+
+        Random random = new Random(214);
+        for (int i = 0; i < 20000; i++) {
+            double price = random.nextInt(1000000) / 1000.0; // Three decimals, a tenth of them ties
+            assertEquals(printedCents(price), ItemInfo.toCents(price), Double.toString(price));
+        }
+        for (int i = 0; i < 20000; i++) {
+            double price = random.nextDouble() * Math.pow(10, random.nextInt(16));
+            assertEquals(printedCents(price), ItemInfo.toCents(price), Double.toString(price));
+        }
+    }
+
+    @Test
+    public void refusesPricesThatDoNotFit() {
+        assertEquals(99999999999999900L, ItemInfo.toCents(999999999999999.0));
+        assertThrows(IllegalArgumentException.class, () -> ItemInfo.toCents(1e15));
+        assertThrows(IllegalArgumentException.class, () -> ItemInfo.toCents(-1e15));
+        assertThrows(IllegalArgumentException.class, () -> ItemInfo.toCents(Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> ItemInfo.toCents(Double.POSITIVE_INFINITY));
+    }
+
+    @Test
+    public void priceCentsFollowsTheSetPrice() throws Exception {
+        ItemInfo item = new ItemInfo("Milk", 3.499, "A00000001", "s00001");
+        assertEquals(350, item.getPriceCents());
+        item.setItemPrice(1.005);
+        assertEquals(101, item.getPriceCents());
+        assertEquals(101, new ItemInfo(item).getPriceCents());
+    }
+}
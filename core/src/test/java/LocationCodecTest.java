@@ -0,0 +1,53 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that LocationCodec gives every shelf, cart and "out" its own dense
+ * code, rejects anything else, and writes each code back the same way.
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public class LocationCodecTest {
+
+    @Test
+    public void encodesEachKindOfLocation() {
+        assertEquals(0, LocationCodec.encode("s00000"));
+        assertEquals(12345, LocationCodec.encode("S12345"));
+        assertEquals(LocationCodec.SHELF_COUNT - 1, LocationCodec.encode("s99999"));
+        assertEquals(LocationCodec.CART_BASE, LocationCodec.encode("c000"));
+        assertEquals(LocationCodec.cart(42), LocationCodec.encode("C042"));
+        assertEquals(LocationCodec.OUT - 1, LocationCodec.encode("c999"));
+        assertEquals(LocationCodec.OUT, LocationCodec.encode("out"));
+        assertEquals(LocationCodec.OUT, LocationCodec.encode("OuT"));
+    }
+
+    @Test
+    public void rejectsAnythingElse() {
+        String[] invalid = { null, "", "s1234", "s123456", "c01", "c0001", "s12a45", "x12345", "outs", "ou",
+                "c-01", "s 1234" };
+        for (String location : invalid) {
+            assertEquals(LocationCodec.INVALID, LocationCodec.encode(location), "\"" + location + "\"");
+            assertFalse(LocationCodec.isValid(location));
+        }
+    }
+
+    @Test
+    public void decodesEveryCodeBack() {
+        for (int code = 0; code < LocationCodec.CODE_COUNT; code++) {
+            String location = LocationCodec.decode(code);
+            assertEquals(code, LocationCodec.encode(location), location);
+            assertEquals(location, location.toLowerCase());
+            assertEquals(LocationCodec.isShelf(code), code < LocationCodec.CART_BASE);
+            assertEquals(LocationCodec.isCart(code), code >= LocationCodec.CART_BASE && code < LocationCodec.OUT);
+        }
+        assertEquals("s00042", LocationCodec.decode(LocationCodec.shelf(42)));
+        assertEquals("c007", LocationCodec.decode(LocationCodec.cart(7)));
+        assertThrows(IllegalArgumentException.class, () -> LocationCodec.decode(LocationCodec.CODE_COUNT));
+        assertThrows(IllegalArgumentException.class, () -> LocationCodec.decode(LocationCodec.INVALID));
+    }
+}
@@ -0,0 +1,93 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that a search through a NameIndex finds the same items, in the same
+ * order, as checking every item's name against the query, for exact, prefix
+ * and misspelt words.
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public class NameIndexTest {
+
+    private static final String[] WORDS = { "milk", "chocolate", "chips", "cheddar", "cheese", "paper", "towels",
+            "orange", "juice", "oil", "olive", "2l", "coffee", "beans", "bread" };
+
+    private static List<String> indexed(NameIndex index, Inventory inventory, String query, int maxEdits,
+            int limit) {
+        List<String> found = new ArrayList<>();
+        assertEquals(index.search(query, maxEdits, limit, inventory, item -> found.add(TestItems.describe(item))),
+                found.size());
+        return found;
+    }
+
+    private static List<String> scanned(Inventory inventory, String query, int maxEdits, int limit) {
+        List<String> words = NameIndex.tokens(query);
+        List<String> found = new ArrayList<>();
+        inventory.forEachItem(item -> {
+            if (!words.isEmpty() && found.size() < limit && NameIndex.matches(words, item.getItemName(), maxEdits))
+                found.add(TestItems.describe(item));
+        });
+        return found;
+    }
+
+    @Test
+    public void matchesPrefixesAndMisspellings() {
+        assertEquals(List.of("chocolate", "milk", "2l"), NameIndex.tokens("Chocolate Milk, 2L"));
+        assertTrue(NameIndex.matches(NameIndex.tokens("mil"), "Chocolate Milk", 0)); // The last word is a prefix
+        assertFalse(NameIndex.matches(NameIndex.tokens("mil choc"), "Chocolate Milk", 0));
+        assertTrue(NameIndex.matches(NameIndex.tokens("milk choc"), "Chocolate Milk", 0));
+        assertTrue(NameIndex.matches(NameIndex.tokens("mlk"), "Chocolate Milk", 1));
+        assertFalse(NameIndex.matches(NameIndex.tokens("mlk"), "Chocolate Milk", 0));
+        assertTrue(NameIndex.matches(NameIndex.tokens("chcolte milk"), "Chocolate Milk", 2));
+        assertFalse(NameIndex.matches(NameIndex.tokens("chcolte milk"), "Chocolate Milk", 1));
+        assertFalse(NameIndex.matches(NameIndex.tokens("milk bread"), "Chocolate Milk", 2));
+    }
+
+    @Test
+    public void searchFindsWhatAScanFinds() throws Exception {
+        Random random = new Random(214);
+        ItemList inventory = new ItemList();
+        NameIndex index = new NameIndex();
+        for (int i = 0; i < 3000; i++) {
+            String name = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)];
+            String tag = String.format("A%08X", random.nextInt(2000)); // Some tags are shared
+            inventory.insertInfo(name, tag, 1.0, "s00001");
+            index.add(name, RfidTag.parse(tag));
+        }
+
+        String[] queries = { "milk", "mil", "mlk", "chese", "ch", "olive oil", "oil olive", "orange jiuce",
+                "paper towls", "coffe", "2l", "beans bre", "xyz", "", "c", "bread milk" };
+        for (String query : queries) {
+            for (int maxEdits = 0; maxEdits <= NameIndex.MAX_EDITS; maxEdits++) {
+                for (int limit : new int[] { 1, 7, 100, 10000 }) {
+                    String what = "\"" + query + "\" within " + maxEdits + " up to " + limit;
+                    assertEquals(scanned(inventory, query, maxEdits, limit),
+                            indexed(index, inventory, query, maxEdits, limit), what);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void removedNamesAreNotFound() throws Exception {
+        ItemList inventory = new ItemList();
+        NameIndex index = new NameIndex();
+        inventory.insertInfo("Cheddar Cheese", "A00000001", 4.0, "s00001");
+        index.add("Cheddar Cheese", 0xA00000001L);
+        index.add("Swiss Cheese", 0xA00000002L); // In the index only
+        index.remove("Swiss Cheese", 0xA00000002L);
+        assertEquals(1, index.search("cheese", 0, 10, inventory, item -> {
+        }));
+        assertEquals(0, index.search("swiss", 1, 10, inventory, item -> {
+        }));
+    }
+}
@@ -0,0 +1,79 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests that replaying an OperationJournal rebuilds the inventory it was
+ * written from, whatever StorageEngine it is replayed into.
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public class OperationJournalTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Journals a store day, with a bounded purge at the end, and returns the
+     * items it left, in RFID tag order.
+     */
+    private static List<String> journalDay(Path file) throws Exception {
+        StoreDayWorkload workload = new StoreDayWorkload(214, 200, 10, 50, 20, 1.0, 500);
+        JournaledInventory journaled = new JournaledInventory(new ItemList(),
+                OperationJournal.open(file, false, 0));
+        try {
+            journaled.bulkLoad(workload.openingStock());
+            List<StoreDayWorkload.Operation> operations = new ArrayList<>();
+            workload.day(5000, operations::add);
+            for (StoreDayWorkload.Operation operation : operations.subList(0, operations.size() - 1))
+                operation.runOn(journaled); // All but the closing PURGE
+            journaled.removePurchased(7, item -> {
+            });
+            return TestItems.describe(journaled);
+        } finally {
+            journaled.close();
+        }
+    }
+
+    @Test
+    public void replayRebuildsTheJournaledItems() throws Exception {
+        Path file = directory.resolve("store.journal");
+        List<String> expected = journalDay(file);
+
+        ItemList replayed = new ItemList();
+        long lastSequence = OperationJournal.replay(file, replayed, 0);
+
+        assertTrue(lastSequence > 0);
+        assertEquals(expected, TestItems.describe(replayed));
+    }
+
+    @Test
+    public void replayGivesTheSameItemsInEveryEngine() throws Exception {
+        Path file = directory.resolve("store.journal");
+        List<String> expected = journalDay(file);
+
+        for (StorageEngine engine : StorageEngine.values()) {
+            Inventory replayed = engine.create();
+            OperationJournal.replay(file, replayed, 0);
+            assertEquals(expected, TestItems.describe(replayed), engine.name());
+        }
+    }
+
+    @Test
+    public void replaySkipsTheRecordsAlreadyApplied() throws Exception {
+        Path file = directory.resolve("store.journal");
+        List<String> expected = journalDay(file);
+
+        ItemList replayed = new ItemList();
+        long lastSequence = OperationJournal.replay(file, replayed, 0);
+        assertEquals(lastSequence, OperationJournal.replay(file, replayed, lastSequence));
+        assertEquals(expected, TestItems.describe(replayed));
+    }
+}
@@ -0,0 +1,117 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that a ReaderEventPipeline drops repeated reads, applies the last read
+ * of each tag, rejects malformed reads, and applies every read it accepted
+ * before close, however many readers were submitting at the time.
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public class ReaderEventPipelineTest {
+
+    private static final int ITEMS = 64;
+
+    private static String tag(int item) {
+        return String.format("A%08X", item);
+    }
+
+    private static ItemList shelvedItems() throws Exception {
+        ItemList inventory = new ItemList();
+        for (int i = 0; i < ITEMS; i++)
+            inventory.insertInfo("Item " + i, tag(i), 1, "s00001");
+        return inventory;
+    }
+
+    private static String locationOf(Inventory inventory, String rfidTag) {
+        String[] location = new String[1];
+        inventory.forEachWithRFID(rfidTag, item -> location[0] = item.getCurrentLocation());
+        return location[0];
+    }
+
+    /**
+     * Checks that every accepted read was counted once, as applied, unchanged
+     * or a duplicate. Reads are only rejected before they are accepted, as no
+     * read of an item in the store fails to apply.
+     */
+    private static void assertAllAccounted(ReaderEventPipeline pipeline) {
+        assertEquals(pipeline.getAccepted(),
+                pipeline.getApplied() + pipeline.getUnchanged() + pipeline.getDuplicates());
+    }
+
+    @Test
+    public void repeatsAreDroppedAndTheLastReadWins() throws Exception {
+        ItemList inventory = shelvedItems();
+        ReaderEventPipeline pipeline = new ReaderEventPipeline(inventory, 1024, 16, 60000);
+        for (int i = 0; i < 100; i++)
+            assertTrue(pipeline.submit(tag(0), "s00002")); // A tag sitting in a reader's field
+        assertTrue(pipeline.submit(tag(1), "s00003"));
+        assertTrue(pipeline.submit(tag(1), "c004"));
+        assertTrue(pipeline.submit(tag(2), "S00001")); // Already there
+
+        assertFalse(pipeline.submit("123456789", "s00002"));
+        assertFalse(pipeline.submit(tag(3), "out"));
+        assertFalse(pipeline.offer(tag(3), "shelf"));
+        pipeline.close();
+
+        assertEquals("s00002", locationOf(inventory, tag(0)));
+        assertEquals("c004", locationOf(inventory, tag(1)));
+        assertEquals("s00001", locationOf(inventory, tag(2)));
+        assertEquals(103, pipeline.getAccepted());
+        assertEquals(3, pipeline.getRejected());
+        assertEquals(1, pipeline.getUnchanged());
+        // Tag 1's first read is either replaced in its batch or applied before the second
+        assertTrue(pipeline.getDuplicates() == 99 || pipeline.getDuplicates() == 100);
+        assertEquals(102, pipeline.getApplied() + pipeline.getDuplicates());
+        assertAllAccounted(pipeline);
+    }
+
+    @Test
+    public void closeAppliesEveryAcceptedRead() throws Exception {
+        ItemList inventory = shelvedItems();
+        ReaderEventPipeline pipeline = new ReaderEventPipeline(inventory, 4, 3, 0); // A tiny queue, no window
+        AtomicLong offered = new AtomicLong();
+        List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < 4; r++) {
+            int reader = r;
+            Thread thread = new Thread(() -> {
+                try {
+                    for (int i = 0; i < 2000; i++) {
+                        int item = (reader * 2000 + i) % ITEMS;
+                        String shelf = String.format("s%05d", 2 + i % 3);
+                        if (i % 2 == 0) {
+                            pipeline.submit(tag(item), shelf);
+                        } else {
+                            offered.incrementAndGet();
+                            pipeline.offer(tag(item), shelf);
+                        }
+                    }
+                } catch (InterruptedException | IllegalStateException e) {
+                    // Closed while reading: the rest of the reads are not made
+                }
+            });
+            readers.add(thread);
+            thread.start();
+        }
+        Thread.sleep(5);
+        pipeline.close();
+        for (Thread thread : readers)
+            thread.join();
+
+        assertThrows(IllegalStateException.class, () -> pipeline.submit(tag(0), "s00002"));
+        pipeline.close(); // Closing again does nothing
+        assertTrue(pipeline.getAccepted() + pipeline.getDropped() <= 8000);
+        assertTrue(pipeline.getDropped() <= offered.get());
+        assertEquals(0, pipeline.getRejected());
+        assertAllAccounted(pipeline);
+    }
+}
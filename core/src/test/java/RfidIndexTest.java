@@ -0,0 +1,81 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that an RfidIndex finds every tag it holds after removals have
+ * shifted entries back along their probe runs, and finds the neighbors of any
+ * value as a TreeMap of the same tags would.
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public class RfidIndexTest {
+
+    private static ItemInfoNode orNull(Map.Entry<Long, ItemInfoNode> entry) {
+        return entry == null ? null : entry.getValue();
+    }
+
+    /**
+     * Checks every tag held, and some that are not, against the expected map.
+     */
+    private static void check(TreeMap<Long, ItemInfoNode> expected, RfidIndex index, long range, Random random) {
+        assertEquals(expected.size(), index.size());
+        for (long tag = 0; tag < range; tag++)
+            assertSame(expected.get(tag), index.get(tag), "get " + tag);
+        for (int i = 0; i < 50; i++) {
+            long tag = random.nextInt((int) range + 2);
+            assertSame(orNull(expected.lowerEntry(tag)), index.lower(tag), "lower " + tag);
+            assertSame(orNull(expected.ceilingEntry(tag)), index.ceiling(tag), "ceiling " + tag);
+        }
+    }
+
+    @Test
+    public void removalsKeepEveryProbeRunReachable() {
+        Random random = new Random(214);
+        TreeMap<Long, ItemInfoNode> expected = new TreeMap<>();
+        RfidIndex index = new RfidIndex();
+        long range = 3000; // Dense keys, so probe runs are long and wrap around
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < 1500; i++) {
+                long tag = random.nextInt((int) range);
+                if (round % 5 == 4 || random.nextInt(3) == 0) { // Every fifth round only removes
+                    index.remove(tag);
+                    expected.remove(tag);
+                } else {
+                    ItemInfoNode node = new ItemInfoNode();
+                    index.put(tag, node);
+                    expected.put(tag, node);
+                }
+            }
+            check(expected, index, range, random);
+        }
+    }
+
+    @Test
+    public void putReplacesTheNodeOfAHeldTag() {
+        RfidIndex index = new RfidIndex();
+        Map<Long, ItemInfoNode> nodes = new HashMap<>();
+        for (long tag = 0; tag < 100; tag++) {
+            nodes.put(tag, new ItemInfoNode());
+            index.put(tag, new ItemInfoNode());
+        }
+        for (long tag = 0; tag < 100; tag++)
+            index.put(tag, nodes.get(tag));
+        assertEquals(100, index.size());
+        for (long tag = 0; tag < 100; tag++)
+            assertSame(nodes.get(tag), index.get(tag));
+
+        index.remove(1000); // Not held: nothing changes
+        assertEquals(100, index.size());
+        assertNull(index.lower(0));
+        assertNull(index.ceiling(100));
+    }
+}
@@ -0,0 +1,64 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that RfidTag packs only valid tag numbers, gives their text back, and
+ * orders them as the text compares without regard to case.
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public class RfidTagTest {
+
+    @Test
+    public void parsesOnlyNineHexDigitsWithALetter() {
+        assertEquals(0xA12345678L, RfidTag.parse("A12345678"));
+        assertEquals(0xABCDEF012L, RfidTag.parse("abcDEF012"));
+        assertEquals(0xFFFFFFFFFL, RfidTag.parse("FFFFFFFFF"));
+        assertEquals(RfidTag.MAX_VALUE, RfidTag.parse("fffffffff"));
+
+        assertEquals(RfidTag.INVALID, RfidTag.parse("123456789")); // No letter
+        assertEquals(RfidTag.INVALID, RfidTag.parse("A1234567")); // Too short
+        assertEquals(RfidTag.INVALID, RfidTag.parse("A123456789")); // Too long
+        assertEquals(RfidTag.INVALID, RfidTag.parse("G12345678"));
+        assertEquals(RfidTag.INVALID, RfidTag.parse("A1234 678"));
+        assertEquals(RfidTag.INVALID, RfidTag.parse(""));
+        assertEquals(RfidTag.INVALID, RfidTag.parse(null));
+    }
+
+    @Test
+    public void formatsBackToUpperCaseWithLeadingZeros() {
+        assertEquals("ABCDEF012", RfidTag.format(RfidTag.parse("abcdef012")));
+        assertEquals("00000000A", RfidTag.format(RfidTag.parse("00000000a")));
+        assertEquals("FFFFFFFFF", RfidTag.format(RfidTag.MAX_VALUE));
+    }
+
+    @Test
+    public void ordersLikeTheTextIgnoringCase() {
+        String[] tags = { "00000000A", "0000000B0", "09abcdef0", "A00000000", "a00000001", "Bcdef0123",
+                "fffffffff" };
+        for (int i = 1; i < tags.length; i++) {
+            assertTrue(RfidTag.parse(tags[i - 1]) < RfidTag.parse(tags[i]), tags[i - 1] + " < " + tags[i]);
+            assertTrue(tags[i - 1].compareToIgnoreCase(tags[i]) < 0);
+        }
+    }
+
+    @Test
+    public void prefixesNameBlocksOfTags() {
+        assertEquals(0xA00000000L, RfidTag.lowestWithPrefix("a"));
+        assertEquals(0xAFFFFFFFFL, RfidTag.highestWithPrefix("A"));
+        assertEquals(0x123000000L, RfidTag.lowestWithPrefix("123")); // No letter needed
+        assertEquals(0x123FFFFFFL, RfidTag.highestWithPrefix("123"));
+        assertEquals(0L, RfidTag.lowestWithPrefix(""));
+        assertEquals(RfidTag.MAX_VALUE, RfidTag.highestWithPrefix(""));
+        assertEquals(0xA12345678L, RfidTag.lowestWithPrefix("A12345678"));
+        assertEquals(0xA12345678L, RfidTag.highestWithPrefix("A12345678"));
+
+        assertEquals(RfidTag.INVALID, RfidTag.lowestWithPrefix("A123456789"));
+        assertEquals(RfidTag.INVALID, RfidTag.highestWithPrefix("x"));
+        assertEquals(RfidTag.INVALID, RfidTag.lowestWithPrefix(null));
+    }
+}
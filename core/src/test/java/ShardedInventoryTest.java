@@ -0,0 +1,98 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that a ShardedInventory shows and changes its items in the same RFID
+ * tag order as a single ItemList holding the same items.
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public class ShardedInventoryTest {
+
+    /**
+     * Loads the same opening stock into both inventories and runs the same
+     * part of a store day on them, leaving items in carts and out.
+     */
+    private static void runDay(Inventory single, Inventory sharded) throws Exception {
+        StoreDayWorkload workload = new StoreDayWorkload(214, 300, 10, 50, 30, 1.0, 100000);
+        List<ItemInfo> stock = workload.openingStock();
+        single.bulkLoad(stock);
+        sharded.bulkLoad(TestItems.copies(stock));
+
+        List<StoreDayWorkload.Operation> operations = new ArrayList<>();
+        workload.day(4000, operations::add);
+        for (StoreDayWorkload.Operation operation : operations.subList(0, 4000))
+            assertEquals(operation.runOn(single), operation.runOn(sharded), operation.toCommand());
+    }
+
+    @Test
+    public void mergedItemsComeInTagOrder() throws Exception {
+        for (StorageEngine engine : StorageEngine.values()) {
+            ItemList single = new ItemList();
+            ShardedInventory sharded = new ShardedInventory(engine, 4);
+            runDay(single, sharded);
+
+            List<String> expected = new ArrayList<>();
+            single.forEachItem(item -> expected.add(TestItems.describe(item)));
+            List<String> merged = new ArrayList<>();
+            long[] previous = { -1 };
+            sharded.forEachItem(item -> {
+                assertTrue(item.getRfidTag() >= previous[0], "out of tag order");
+                previous[0] = item.getRfidTag();
+                merged.add(TestItems.describe(item));
+            });
+            assertEquals(expected, merged, engine.name());
+
+            List<String> expectedOut = new ArrayList<>();
+            single.forEachAt("out", item -> expectedOut.add(TestItems.describe(item)));
+            List<String> mergedOut = new ArrayList<>();
+            sharded.forEachAt("out", item -> mergedOut.add(TestItems.describe(item)));
+            assertEquals(expectedOut, mergedOut, engine.name());
+
+            List<String> expectedRange = new ArrayList<>();
+            single.forEachInTagRange("3", "B", item -> expectedRange.add(TestItems.describe(item)));
+            List<String> mergedRange = new ArrayList<>();
+            sharded.forEachInTagRange("3", "B", item -> mergedRange.add(TestItems.describe(item)));
+            assertEquals(expectedRange, mergedRange, engine.name());
+        }
+    }
+
+    @Test
+    public void boundedPurgeRemovesTheFirstPurchasedItems() throws Exception {
+        ItemList single = new ItemList();
+        ShardedInventory sharded = new ShardedInventory(StorageEngine.LINKED_NODES, 4);
+        runDay(single, sharded);
+        assertTrue(single.forEachPurchased(Integer.MAX_VALUE, item -> {
+        }) > 20, "the day should leave items out");
+
+        while (true) {
+            List<String> expected = new ArrayList<>();
+            int removed = single.removePurchased(13, item -> expected.add(TestItems.describe(item)));
+            List<String> merged = new ArrayList<>();
+            assertEquals(removed, sharded.removePurchased(13, item -> merged.add(TestItems.describe(item))));
+            assertEquals(expected, merged);
+            if (removed == 0)
+                break;
+        }
+        assertEquals(single.listLength(), sharded.listLength());
+    }
+
+    @Test
+    public void searchStopsAtTheLimitInTagOrder() throws Exception {
+        ItemList single = new ItemList();
+        ShardedInventory sharded = new ShardedInventory(StorageEngine.OFF_HEAP, 4);
+        runDay(single, sharded);
+
+        List<String> expected = new ArrayList<>();
+        int found = single.searchByName("milk", 1, 25, item -> expected.add(TestItems.describe(item)));
+        List<String> merged = new ArrayList<>();
+        assertEquals(found, sharded.searchByName("milk", 1, 25, item -> merged.add(TestItems.describe(item))));
+        assertEquals(expected, merged);
+    }
+}
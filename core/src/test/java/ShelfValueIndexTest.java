@@ -0,0 +1,64 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that a ShelfValueIndex gives the count and value of any shelf range as
+ * adding up the shelves one by one would, and ignores other locations.
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public class ShelfValueIndexTest {
+
+    @Test
+    public void rangesMatchShelfByShelfSums() {
+        Random random = new Random(214);
+        ShelfValueIndex index = new ShelfValueIndex();
+        long[] counts = new long[LocationCodec.SHELF_COUNT];
+        long[] cents = new long[LocationCodec.SHELF_COUNT];
+        for (int i = 0; i < 50000; i++) {
+            int shelf = random.nextInt(8) == 0 ? LocationCodec.SHELF_COUNT - 1 - random.nextInt(3)
+                    : random.nextInt(LocationCodec.SHELF_COUNT);
+            long price = 1 + random.nextInt(10000);
+            index.enter(shelf, price);
+            counts[shelf]++;
+            cents[shelf] += price;
+            if (random.nextInt(3) == 0) {
+                index.leave(shelf, price);
+                counts[shelf]--;
+                cents[shelf] -= price;
+            }
+        }
+
+        for (int i = 0; i < 2000; i++) {
+            int from = random.nextInt(LocationCodec.SHELF_COUNT);
+            int to = i % 4 == 0 ? LocationCodec.SHELF_COUNT - 1
+                    : from + random.nextInt(LocationCodec.SHELF_COUNT - from);
+            long count = 0;
+            long value = 0;
+            for (int shelf = from; shelf <= to; shelf++) {
+                count += counts[shelf];
+                value += cents[shelf];
+            }
+            assertEquals(count, index.countIn(from, to), from + " to " + to);
+            assertEquals(value, index.centsIn(from, to), from + " to " + to);
+        }
+        assertEquals(counts[0], index.countIn(0, 0));
+        assertEquals(0, index.countIn(5, 4)); // An empty range
+    }
+
+    @Test
+    public void ignoresCartsAndOut() {
+        ShelfValueIndex index = new ShelfValueIndex();
+        index.enter(LocationCodec.encode("c001"), 100);
+        index.enter(LocationCodec.OUT, 100);
+        index.enter(LocationCodec.encode("s00010"), 250);
+        assertEquals(1, index.countIn(0, LocationCodec.SHELF_COUNT - 1));
+        assertEquals(250, index.centsIn(0, LocationCodec.SHELF_COUNT - 1));
+        assertEquals(0, index.countIn(0, LocationCodec.encode("c001"))); // Not a shelf range
+        assertEquals(0, index.centsIn(LocationCodec.INVALID, 10));
+    }
+}
@@ -0,0 +1,81 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that a SortedKeySet answers like a TreeSet of the same keys while
+ * nodes split, merge and share out their keys.
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public class SortedKeySetTest {
+
+    private static long orNone(Long key) {
+        return key == null ? SortedKeySet.NONE : key;
+    }
+
+    /**
+     * Checks the neighbors of some values and a walk from one of them.
+     */
+    private static void check(TreeSet<Long> expected, SortedKeySet keys, Random random, long range) {
+        assertEquals(expected.size(), keys.size());
+        assertEquals(orNone(expected.isEmpty() ? null : expected.first()), keys.first());
+        for (int i = 0; i < 20; i++) {
+            long value = random.nextInt((int) range);
+            assertEquals(orNone(expected.lower(value)), keys.lower(value), "lower " + value);
+            assertEquals(orNone(expected.ceiling(value)), keys.ceiling(value), "ceiling " + value);
+            assertEquals(expected.contains(value), keys.contains(value), "contains " + value);
+        }
+
+        long from = random.nextInt((int) range);
+        List<Long> walked = new ArrayList<>();
+        keys.forEachFrom(from, key -> walked.add(key) && walked.size() < 300);
+        List<Long> tail = new ArrayList<>(expected.tailSet(from));
+        assertEquals(tail.subList(0, Math.min(300, tail.size())), walked);
+    }
+
+    @Test
+    public void answersLikeATreeSet() {
+        Random random = new Random(214);
+        TreeSet<Long> expected = new TreeSet<>();
+        SortedKeySet keys = new SortedKeySet();
+        long range = 50000;
+        for (int round = 0; round < 40; round++) {
+            boolean growing = round % 4 != 3; // Every fourth round mostly removes
+            for (int i = 0; i < 2000; i++) {
+                long key = random.nextInt((int) range);
+                if ((random.nextInt(4) != 0) == growing)
+                    assertEquals(expected.add(key), keys.add(key), "add " + key);
+                else
+                    assertEquals(expected.remove(key), keys.remove(key), "remove " + key);
+            }
+            check(expected, keys, random, range);
+        }
+
+        for (Long key : new ArrayList<>(expected))
+            assertTrue(keys.remove(key));
+        assertEquals(0, keys.size());
+        assertEquals(SortedKeySet.NONE, keys.first());
+        assertEquals(SortedKeySet.NONE, keys.ceiling(0));
+    }
+
+    @Test
+    public void walksKeysAddedInOrder() {
+        SortedKeySet keys = new SortedKeySet();
+        for (long key = 0; key < 100000; key += 3)
+            keys.add(key << 27 | 5); // Like OffHeapItemList sort keys
+        long[] all = keys.toArray();
+        assertEquals(33334, all.length);
+        for (int i = 1; i < all.length; i++)
+            assertTrue(all[i - 1] < all[i]);
+        assertEquals(99999L << 27 | 5, keys.lower(Long.MAX_VALUE));
+        assertEquals(3L << 27 | 5, keys.ceiling(1L << 27));
+    }
+}
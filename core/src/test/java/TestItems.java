@@ -0,0 +1,55 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The TestItems class holds the helpers the tests share for comparing items:
+ * each item is written as one line of its tag, name, price in cents and
+ * original and current locations, so two inventories hold the same items
+ * exactly when their lines are equal.
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+final class TestItems {
+
+    private TestItems() {
+    }
+
+    /**
+     * Writes an item as one line.
+     *
+     * @param item the item
+     * @return its tag, name, price in cents and original and current locations
+     */
+    static String describe(ItemInfo item) {
+        return item.getRfidTagNumber() + " " + item.getItemName() + " " + item.getPriceCents() + " "
+                + item.getOriginalLocation() + " " + item.getCurrentLocation();
+    }
+
+    /**
+     * Writes every item of an inventory, in the order it lists them.
+     *
+     * @param inventory the inventory
+     * @return one line per item
+     */
+    static List<String> describe(Inventory inventory) {
+        List<String> items = new ArrayList<>();
+        inventory.forEachItem(item -> items.add(describe(item)));
+        return items;
+    }
+
+    /**
+     * Copies a list of items, so two inventories can be loaded with the same
+     * items without sharing them.
+     *
+     * @param items the items
+     * @return a new list of copies
+     */
+    static List<ItemInfo> copies(List<ItemInfo> items) {
+        List<ItemInfo> copies = new ArrayList<>(items.size());
+        for (ItemInfo item : items)
+            copies.add(new ItemInfo(item));
+        return copies;
+    }
+}
@@ -0,0 +1,157 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that a View of a VersionedInventory keeps showing the store as it was
+ * when it was opened while checkouts change it, that a checkout is seen whole
+ * or not at all, and that the tallies kept for the latest version agree with
+ * its items.
+ *
+ * @author Shiv Kanani
+ * SBU ID: 115171965
+ * Homework #2 for CSE 214, Summer 2023
+ **/
+public class VersionedInventoryTest {
+
+    private static final int CARTS = 40;
+    private static final int ITEMS_PER_CART = 25;
+
+    private static String cart(int number) {
+        return String.format("c%03d", number + 1);
+    }
+
+    /**
+     * Fills every cart with the same number of items, each from its own shelf.
+     */
+    private static VersionedInventory storeWithFullCarts() throws Exception {
+        List<ItemInfo> items = new ArrayList<>();
+        for (int i = 0; i < CARTS * ITEMS_PER_CART; i++) {
+            ItemInfo item = new ItemInfo("Item " + i, 1 + i % 20, String.format("A%08X", i),
+                    String.format("s%05d", i));
+            item.setCurrentLocation(cart(i % CARTS));
+            items.add(item);
+        }
+        VersionedInventory store = new VersionedInventory(new ItemList());
+        store.bulkLoad(items);
+        return store;
+    }
+
+    @Test
+    public void viewKeepsTheCartAfterCheckout() throws Exception {
+        VersionedInventory store = storeWithFullCarts();
+        try (VersionedInventory.View before = store.openView()) {
+            List<String> visited = new ArrayList<>();
+            store.checkOut(cart(0), item -> {
+                // The checkout is published before the visitor runs
+                assertEquals(0, store.cartItemCount(cart(0)));
+                visited.add(item.getRfidTagNumber() + " " + item.getCurrentLocation());
+            });
+
+            assertEquals(ITEMS_PER_CART, visited.size());
+            for (String item : visited)
+                assertTrue(item.endsWith(cart(0)), "the visitor sees the item as it was in the cart");
+            assertEquals(ITEMS_PER_CART, before.cartItemCount(cart(0)));
+            int[] out = new int[1];
+            before.forEachAt("out", item -> out[0]++);
+            assertEquals(0, out[0]);
+
+            try (VersionedInventory.View after = store.openView()) {
+                assertEquals(0, after.cartItemCount(cart(0)));
+                after.forEachAt("out", item -> out[0]++);
+                assertEquals(ITEMS_PER_CART, out[0]);
+                assertEquals(store.listLength(), after.listLength());
+            }
+        }
+    }
+
+    @Test
+    public void viewsSeeWholeCheckoutsWhileTheyRun() throws Exception {
+        VersionedInventory store = storeWithFullCarts();
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicInteger views = new AtomicInteger();
+        List<String> torn = new ArrayList<>();
+        Thread reader = new Thread(() -> {
+            while (!done.get()) {
+                try (VersionedInventory.View view = store.openView()) {
+                    for (int cart = 0; cart < CARTS; cart++) {
+                        int[] inCart = new int[1];
+                        view.forEachAt(cart(cart), item -> inCart[0]++);
+                        if (inCart[0] != 0 && inCart[0] != ITEMS_PER_CART)
+                            torn.add(cart(cart) + " held " + inCart[0]);
+                    }
+                    int[] items = new int[1];
+                    view.forEachItem(item -> items[0]++);
+                    if (items[0] != view.listLength())
+                        torn.add("the view listed " + items[0] + " of " + view.listLength());
+                }
+                views.incrementAndGet();
+            }
+        });
+        reader.start();
+        try {
+            for (int cart = 0; cart < CARTS; cart++) {
+                store.checkOut(cart(cart), item -> {
+                });
+                if (cart % 4 == 3)
+                    store.removePurchased(ITEMS_PER_CART * 2 + 1, item -> {
+                    });
+                Thread.yield();
+            }
+        } finally {
+            done.set(true);
+            reader.join();
+        }
+
+        assertEquals(List.of(), torn);
+        assertTrue(views.get() > 0);
+        assertEquals(0, store.getOpenViews());
+    }
+
+    /**
+     * Checks the cart and misplaced tallies and the delegated reads against
+     * what a View of the same version works out over its items.
+     */
+    private static void assertTalliesMatch(VersionedInventory store) {
+        try (VersionedInventory.View view = store.openView()) {
+            assertEquals(view.misplacedCount(), store.misplacedCount());
+            assertEquals(view.misplacedByLocation(), store.misplacedByLocation());
+            for (int cart = 0; cart < CARTS; cart++) {
+                assertEquals(view.cartItemCount(cart(cart)), store.cartItemCount(cart(cart)), cart(cart));
+                assertEquals(view.cartTotalCents(cart(cart)), store.cartTotalCents(cart(cart)), cart(cart));
+            }
+            List<String> expected = new ArrayList<>();
+            view.searchByName("item 1", 0, 50, item -> expected.add(item.getRfidTagNumber()));
+            List<String> found = new ArrayList<>();
+            assertEquals(expected.size(), store.searchByName("item 1", 0, 50,
+                    item -> found.add(item.getRfidTagNumber())));
+            assertEquals(expected, found);
+        }
+    }
+
+    @Test
+    public void talliesFollowEveryChange() throws Exception {
+        VersionedInventory store = storeWithFullCarts();
+        assertTalliesMatch(store);
+        assertEquals(CARTS * ITEMS_PER_CART, store.misplacedCount());
+        store.moveItem("A00000001", cart(1), "s00007");
+        store.updateLocation("A00000002", "s00002");
+        assertTalliesMatch(store);
+        store.checkOut(cart(3), item -> {
+        });
+        store.insertInfo("Item 1b", "A00000001", 2.50, "s00009");
+        assertTalliesMatch(store);
+        store.cleanStore(item -> {
+        });
+        assertTalliesMatch(store);
+        assertEquals(0, store.misplacedCount());
+        store.removeAllPurchased(item -> {
+        });
+        assertTalliesMatch(store);
+    }
+}